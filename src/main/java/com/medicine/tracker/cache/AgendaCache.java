@@ -0,0 +1,112 @@
+package com.medicine.tracker.cache;
+
+import com.medicine.tracker.model.dto.response.AgendaItemResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of the materialized agenda of each user, one list of scheduled doses per day
+ * All days of a user are evicted together by every schedule write and every dose of the user,
+ * on this node directly and on other nodes through the cache invalidation bus
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AgendaCache {
+
+    private static final String CACHE_NAME = "agenda";
+
+    private static final String NAMESPACE = "agenda";
+
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${agenda-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${agenda-cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${agenda-cache.max-days-per-user:93}")
+    private int maxDaysPerUser;
+
+    private UserScopedCache<UUID, ConcurrentMap<LocalDate, List<AgendaItemResponse>>> cache;
+
+    /**
+     * Build the cache and register its hit, miss and eviction metrics
+     */
+    @PostConstruct
+    public void init() {
+        cache = new UserScopedCache<>(CACHE_NAME, NAMESPACE, maximumSize, ttlMinutes, meterRegistry, cacheInvalidationBus,
+                userId -> userId, key -> List.of(UUID.fromString(key)));
+        log.info("Agenda cache initialized with maximum size {} and TTL {} minutes", maximumSize, ttlMinutes);
+    }
+
+    /**
+     * Get the current generation of a user, to be read before loading days that are stored with putDays
+     * @param userId The ID of the user
+     * @return The generation of the user
+     */
+    public long generation(UUID userId) {
+        return cache.generation(userId);
+    }
+
+    /**
+     * Get the cached agenda of a user for one day
+     * @param userId The ID of the user
+     * @param day The day
+     * @return The scheduled doses of the day, or null if the day is not cached
+     */
+    public List<AgendaItemResponse> getDay(UUID userId, LocalDate day) {
+        ConcurrentMap<LocalDate, List<AgendaItemResponse>> days = cache.getIfPresent(userId);
+        return days != null ? days.get(day) : null;
+    }
+
+    /**
+     * Store loaded days of a user unless a write of the user happened since the generation was read
+     * Days beyond the per-user limit are not stored
+     * @param userId The ID of the user
+     * @param generation The generation read before the load
+     * @param loaded The scheduled doses per day
+     */
+    public void putDays(UUID userId, long generation, Map<LocalDate, List<AgendaItemResponse>> loaded) {
+        cache.put(userId, generation, existing -> {
+            ConcurrentMap<LocalDate, List<AgendaItemResponse>> days = existing != null ? existing : new ConcurrentHashMap<>();
+            loaded.forEach((day, items) -> {
+                if (days.size() < maxDaysPerUser || days.containsKey(day)) {
+                    days.put(day, List.copyOf(items));
+                }
+            });
+            return days;
+        });
+    }
+
+    /**
+     * Evict every cached day of a user
+     * Inside a transaction the days are evicted again once it commits
+     * @param userId The ID of the user that wrote
+     */
+    public void invalidate(UUID userId) {
+        cache.invalidate(userId.toString());
+        log.debug("Invalidated cached agenda of user {}", userId);
+    }
+
+    /**
+     * Evict every cached agenda on this node
+     */
+    public void evictAll() {
+        cache.evictAll();
+        log.debug("Evicted all cached agendas");
+    }
+}
@@ -0,0 +1,258 @@
+package com.medicine.tracker.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Cross-node cache invalidation bus built on PostgreSQL LISTEN/NOTIFY
+ * Changed keys are published with pg_notify on the caller's connection, so a notification is only
+ * delivered if the write transaction commits; every node listens on a dedicated connection and evicts
+ * the matching entries of its in-process caches. Disabled by default; deployments with more than one node must
+ * enable it with a direct listen URL, and startup fails if that URL is missing or points at a pooler.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus {
+
+    private static final String SEPARATOR = "|";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // Identifies this node so it can skip its own notifications, which it already applied locally
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+
+    @Value("${cache-invalidation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cache-invalidation.channel:cache_invalidation}")
+    private String channel;
+
+    // LISTEN needs a session-level connection, so this must not point at a transaction-mode pooler
+    @Value("${cache-invalidation.listen-url:}")
+    private String listenUrl;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${spring.datasource.hikari.data-source-properties.sslmode:prefer}")
+    private String sslMode;
+
+    @Value("${cache-invalidation.poll-timeout-ms:10000}")
+    private int pollTimeoutMs;
+
+    @Value("${cache-invalidation.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private Timer lagTimer;
+
+    private Counter flushCounter;
+
+    private Thread listenerThread;
+
+    private volatile boolean running;
+
+    /**
+     * Start the listener thread
+     */
+    @PostConstruct
+    public void start() {
+        lagTimer = Timer.builder("cache.invalidation.lag")
+                .description("Time from publishing a cache invalidation to its delivery on this node")
+                .register(meterRegistry);
+        flushCounter = Counter.builder("cache.invalidation.flushes")
+                .description("Full cache flushes after the invalidation listener reconnected")
+                .register(meterRegistry);
+
+        if (!enabled) {
+            log.info("Cross-node cache invalidation is disabled");
+            return;
+        }
+        // Through a pooler LISTEN silently receives nothing, so refuse to start rather than serve stale caches
+        if (listenUrl == null || listenUrl.isBlank()) {
+            throw new IllegalStateException("cache-invalidation.listen-url must be set to a direct (non-pooled) "
+                    + "database URL when cross-node cache invalidation is enabled");
+        }
+        if (listenUrl.contains("-pooler")) {
+            throw new IllegalStateException("cache-invalidation.listen-url points at a connection pooler, "
+                    + "where LISTEN does not work; use the direct endpoint of the database");
+        }
+        running = true;
+        listenerThread = new Thread(this::runListener, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    /**
+     * Stop the listener thread
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    /**
+     * Register the eviction callbacks of a cache
+     * @param namespace The namespace the cache publishes its keys under
+     * @param onKey Evicts the entries of one key
+     * @param onFlush Evicts every entry, used when notifications may have been missed
+     */
+    public void register(String namespace, Consumer<String> onKey, Runnable onFlush) {
+        handlers.put(namespace, new Handler(onKey, onFlush));
+    }
+
+    /**
+     * Publish a changed key to all other nodes
+     * Runs on the caller's connection, so inside a transaction it is only delivered on commit
+     * @param namespace The namespace of the cache the key belongs to
+     * @param key The changed key
+     */
+    public void publish(String namespace, String key) {
+        if (!enabled) {
+            return;
+        }
+        String payload = nodeId + SEPARATOR + System.currentTimeMillis() + SEPARATOR + namespace + SEPARATOR + key;
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, payload);
+        } catch (RuntimeException e) {
+            // Other nodes fall back to their cache TTL; the write itself must not fail because of this
+            log.error("Failed to publish cache invalidation {} {}: {}", namespace, key, e.getMessage());
+        }
+    }
+
+    /**
+     * Listener loop: keep a LISTEN connection open, dispatch notifications and reconnect on failure
+     */
+    private void runListener() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = openListenConnection()) {
+                if (connectedBefore) {
+                    // Notifications sent while disconnected are lost, so nothing cached can be trusted
+                    log.warn("Cache invalidation listener reconnected, flushing all caches");
+                    flushAll();
+                }
+                connectedBefore = true;
+                log.info("Cache invalidation listener connected on channel {}", channel);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                log.error("Cache invalidation listener failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        log.info("Cache invalidation listener stopped");
+    }
+
+    /**
+     * Open the dedicated listener connection outside the pool and subscribe to the channel
+     * @return The listening connection
+     */
+    private Connection openListenConnection() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", username);
+        properties.setProperty("password", password);
+        properties.setProperty("sslmode", sslMode);
+        Connection connection = DriverManager.getConnection(listenUrl, properties);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + channel);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    /**
+     * Apply one notification payload of the form nodeId|publishedAtMillis|namespace|key
+     * @param payload The notification payload
+     */
+    private void dispatch(String payload) {
+        String[] parts = payload.split("\\|", 4);
+        if (parts.length != 4) {
+            log.warn("Ignoring malformed cache invalidation payload: {}", payload);
+            return;
+        }
+        if (parts[0].equals(nodeId)) {
+            return;
+        }
+        try {
+            lagTimer.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - Long.parseLong(parts[1]))));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring cache invalidation with malformed timestamp: {}", payload);
+        }
+
+        Handler handler = handlers.get(parts[2]);
+        if (handler == null) {
+            log.debug("No cache registered for invalidation namespace {}", parts[2]);
+            return;
+        }
+        try {
+            handler.onKey().accept(parts[3]);
+        } catch (RuntimeException e) {
+            log.error("Failed to apply cache invalidation {} {}, flushing namespace: {}", parts[2], parts[3], e.getMessage());
+            handler.onFlush().run();
+        }
+    }
+
+    /**
+     * Flush every registered cache
+     */
+    private void flushAll() {
+        flushCounter.increment();
+        handlers.values().forEach(handler -> handler.onFlush().run());
+    }
+
+    /**
+     * Eviction callbacks of a registered cache
+     */
+    private record Handler(Consumer<String> onKey, Runnable onFlush) {
+    }
+}
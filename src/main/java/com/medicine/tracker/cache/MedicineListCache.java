@@ -0,0 +1,123 @@
+package com.medicine.tracker.cache;
+
+import com.medicine.tracker.config.PrimaryReads;
+import com.medicine.tracker.model.dto.response.MedicineResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of the active medicine lists of users and profiles
+ * Bounded by size and time to live; entries are evicted by every medicine write of the user,
+ * on this node directly and on other nodes through the cache invalidation bus
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MedicineListCache {
+
+    private static final String CACHE_NAME = "medicineLists";
+
+    private static final String NAMESPACE = "medicine-list";
+
+    private final MeterRegistry meterRegistry;
+    private final PrimaryReads primaryReads;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${medicine-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${medicine-cache.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    private UserScopedCache<Key, List<MedicineResponse>> cache;
+
+    /**
+     * Build the cache and register its hit, miss and eviction metrics
+     */
+    @PostConstruct
+    public void init() {
+        cache = new UserScopedCache<>(CACHE_NAME, NAMESPACE, maximumSize, ttlMinutes, meterRegistry, cacheInvalidationBus,
+                Key::userId, MedicineListCache::keysOf);
+        log.info("Medicine list cache initialized with maximum size {} and TTL {} minutes", maximumSize, ttlMinutes);
+    }
+
+    /**
+     * Get the medicine list of a user across all profiles, loading it on a miss
+     * @param userId The ID of the user
+     * @param loader Loads the list from the database
+     * @return The cached or loaded medicine list
+     */
+    public List<MedicineResponse> getForUser(UUID userId, Supplier<List<MedicineResponse>> loader) {
+        return get(new Key(userId, null), loader);
+    }
+
+    /**
+     * Get the medicine list of a profile, loading it on a miss
+     * @param userId The ID of the user the profile belongs to
+     * @param profileId The ID of the profile
+     * @param loader Loads the list from the database
+     * @return The cached or loaded medicine list
+     */
+    public List<MedicineResponse> getForProfile(UUID userId, UUID profileId, Supplier<List<MedicineResponse>> loader) {
+        return get(new Key(userId, profileId), loader);
+    }
+
+    /**
+     * Evict the lists a medicine write of a profile affects
+     * Inside a transaction the lists are evicted again once it commits
+     * @param userId The ID of the user that wrote
+     * @param profileId The ID of the profile the written medicine belongs to
+     */
+    public void invalidate(UUID userId, UUID profileId) {
+        cache.invalidate(userId + ":" + profileId);
+        log.debug("Invalidated cached medicine lists of user {} and profile {}", userId, profileId);
+    }
+
+    /**
+     * Evict every cached list on this node
+     */
+    public void evictAll() {
+        cache.evictAll();
+        log.debug("Evicted all cached medicine lists");
+    }
+
+    /**
+     * Get the lists an invalidation evicts: the list of the user and the list of one of their profiles
+     * @param invalidation The invalidation of the form userId:profileId
+     * @return The keys of the evicted lists
+     */
+    private static List<Key> keysOf(String invalidation) {
+        String[] parts = invalidation.split(":", 2);
+        UUID userId = UUID.fromString(parts[0]);
+        return List.of(new Key(userId, null), new Key(userId, UUID.fromString(parts[1])));
+    }
+
+    /**
+     * Look up a list, loading and storing it on a miss unless a write of the user happened during the load
+     * @param key The cache key
+     * @param loader Loads the list from the database
+     * @return The cached or loaded medicine list
+     */
+    private List<MedicineResponse> get(Key key, Supplier<List<MedicineResponse>> loader) {
+        List<MedicineResponse> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        return cache.load(key, () -> List.copyOf(primaryReads.get(loader)));
+    }
+
+    /**
+     * Cache key; profileId is null for the list of all profiles of a user
+     */
+    private record Key(UUID userId, UUID profileId) {
+    }
+}
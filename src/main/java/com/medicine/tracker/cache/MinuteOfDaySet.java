@@ -0,0 +1,90 @@
+package com.medicine.tracker.cache;
+
+import java.time.LocalTime;
+import java.util.Collection;
+
+/**
+ * Immutable set of minutes of the day, one bit per minute (1440 bits in 23 longs)
+ * Times are kept at minute precision; seconds are ignored
+ */
+public final class MinuteOfDaySet {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final int WORDS = (MINUTES_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+    private final long[] words;
+
+    private MinuteOfDaySet(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Create a set from times of day
+     * @param times The times of day
+     * @return The set of their minutes
+     */
+    public static MinuteOfDaySet of(Collection<LocalTime> times) {
+        long[] words = new long[WORDS];
+        for (LocalTime time : times) {
+            int minute = minuteOf(time);
+            words[minute / Long.SIZE] |= 1L << minute;
+        }
+        return new MinuteOfDaySet(words);
+    }
+
+    /**
+     * Check whether the minute of a time of day is in the set
+     * @param time The time of day
+     * @return true if the minute is in the set
+     */
+    public boolean contains(LocalTime time) {
+        int minute = minuteOf(time);
+        return (words[minute / Long.SIZE] & (1L << minute)) != 0;
+    }
+
+    /**
+     * Count the minutes in the set
+     * @return The number of minutes
+     */
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * Find the first minute in the set at or after a time of day
+     * @param time The time of day to start from
+     * @return The first such minute, or null if there is none before midnight
+     */
+    public LocalTime nextOnOrAfter(LocalTime time) {
+        int minute = minuteOf(time);
+        int index = minute / Long.SIZE;
+        // Drop the minutes of the first word that lie before the time
+        long word = words[index] & (-1L << minute);
+        while (true) {
+            if (word != 0) {
+                return LocalTime.ofSecondOfDay((index * Long.SIZE + Long.numberOfTrailingZeros(word)) * 60L);
+            }
+            if (++index == WORDS) {
+                return null;
+            }
+            word = words[index];
+        }
+    }
+
+    /**
+     * Find the earliest minute in the set
+     * @return The earliest minute, or null if the set is empty
+     */
+    public LocalTime first() {
+        return nextOnOrAfter(LocalTime.MIDNIGHT);
+    }
+
+    private static int minuteOf(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
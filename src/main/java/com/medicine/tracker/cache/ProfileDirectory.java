@@ -0,0 +1,120 @@
+package com.medicine.tracker.cache;
+
+import com.medicine.tracker.config.PrimaryReads;
+import com.medicine.tracker.model.entity.Profile;
+import com.medicine.tracker.repository.ProfileRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory directory of the profiles of each user (profile ID to name)
+ * Serves ownership checks and profile names without a query; a user's directory is loaded once
+ * and evicted by every profile write of the user, on other nodes through the cache invalidation bus
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProfileDirectory {
+
+    private static final String CACHE_NAME = "profileDirectory";
+
+    private static final String NAMESPACE = "profile-directory";
+
+    private static final String UNKNOWN_PROFILE = "Unknown Profile";
+
+    private final ProfileRepository profileRepository;
+    private final PrimaryReads primaryReads;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${profile-directory.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${profile-directory.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private UserScopedCache<UUID, Map<UUID, String>> cache;
+
+    /**
+     * Build the cache and register its hit, miss and eviction metrics
+     */
+    @PostConstruct
+    public void init() {
+        cache = new UserScopedCache<>(CACHE_NAME, NAMESPACE, maximumSize, ttlMinutes, meterRegistry, cacheInvalidationBus,
+                userId -> userId, key -> List.of(UUID.fromString(key)));
+        log.info("Profile directory initialized with maximum size {} and TTL {} minutes", maximumSize, ttlMinutes);
+    }
+
+    /**
+     * Get the profiles of a user
+     * @param userId The ID of the user
+     * @return Unmodifiable map of profile ID to profile name
+     */
+    public Map<UUID, String> getProfiles(UUID userId) {
+        Map<UUID, String> profiles = cache.getIfPresent(userId);
+        return profiles != null ? profiles : load(userId);
+    }
+
+    /**
+     * Check whether a profile belongs to a user
+     * A profile missing from a cached directory is looked up once more, since it may have been
+     * created on another node whose invalidation has not arrived yet
+     * @param userId The ID of the user
+     * @param profileId The ID of the profile
+     * @return true if the profile exists and belongs to the user
+     */
+    public boolean contains(UUID userId, UUID profileId) {
+        Map<UUID, String> profiles = cache.getIfPresent(userId);
+        if (profiles != null && profiles.containsKey(profileId)) {
+            return true;
+        }
+        return load(userId).containsKey(profileId);
+    }
+
+    /**
+     * Get the name of a profile of a user
+     * @param userId The ID of the user
+     * @param profileId The ID of the profile
+     * @return The profile name, or "Unknown Profile" if the user has no such profile
+     */
+    public String getName(UUID userId, UUID profileId) {
+        return getProfiles(userId).getOrDefault(profileId, UNKNOWN_PROFILE);
+    }
+
+    /**
+     * Evict the directory of a user after one of their profiles was created, renamed or deleted
+     * Inside a transaction the directory is evicted again once it commits
+     * @param userId The ID of the user whose profiles changed
+     */
+    public void invalidate(UUID userId) {
+        cache.invalidate(userId.toString());
+        log.debug("Invalidated profile directory of user {}", userId);
+    }
+
+    /**
+     * Load the directory of a user and store it unless a profile write of the user happened during the load
+     * @param userId The ID of the user
+     * @return The loaded directory
+     */
+    private Map<UUID, String> load(UUID userId) {
+        Map<UUID, String> loaded = cache.load(userId, () -> primaryReads.get(() -> {
+            Map<UUID, String> profiles = new LinkedHashMap<>();
+            for (Profile profile : profileRepository.findByUserId(userId)) {
+                profiles.put(profile.getId(), profile.getName());
+            }
+            return Collections.unmodifiableMap(profiles);
+        }));
+        log.debug("Loaded {} profiles into the directory of user {}", loaded.size(), userId);
+        return loaded;
+    }
+}
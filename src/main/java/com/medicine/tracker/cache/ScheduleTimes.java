@@ -0,0 +1,139 @@
+package com.medicine.tracker.cache;
+
+import com.medicine.tracker.model.entity.Schedule;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Compact view of the active schedules of a user
+ * Schedules of a medicine that recur on the same days (same frequency and same weekday, fortnight day or
+ * day of month) form one frequency class, whose times of day are held in a single MinuteOfDaySet.
+ * Answers are meant for today and later: a class recurs from the first day of its oldest schedule.
+ */
+public final class ScheduleTimes {
+
+    private final Map<UUID, List<FrequencyClass>> classesByMedicine;
+
+    private ScheduleTimes(Map<UUID, List<FrequencyClass>> classesByMedicine) {
+        this.classesByMedicine = classesByMedicine;
+    }
+
+    /**
+     * Build the view from the active schedules of a user
+     * @param schedules The schedules; inactive and CUSTOM ones are left out as they are never due
+     * @return The compact view
+     */
+    public static ScheduleTimes of(Collection<Schedule> schedules) {
+        Map<UUID, Map<ClassKey, List<Schedule>>> grouped = new HashMap<>();
+        for (Schedule schedule : schedules) {
+            Schedule.Frequency frequency = Objects.requireNonNullElse(schedule.getFrequency(), Schedule.Frequency.DAILY);
+            if (!Boolean.TRUE.equals(schedule.getIsActive()) || frequency == Schedule.Frequency.CUSTOM) {
+                continue;
+            }
+            grouped.computeIfAbsent(schedule.getMedicineId(), medicineId -> new HashMap<>())
+                    .computeIfAbsent(new ClassKey(frequency, phase(frequency, firstDay(schedule))), key -> new ArrayList<>())
+                    .add(schedule);
+        }
+
+        Map<UUID, List<FrequencyClass>> classesByMedicine = new HashMap<>();
+        grouped.forEach((medicineId, classes) -> classesByMedicine.put(medicineId, classes.entrySet().stream()
+                .map(entry -> new FrequencyClass(
+                        entry.getKey().frequency(),
+                        entry.getValue().stream().map(ScheduleTimes::firstDay).min(LocalDate::compareTo).orElseThrow(),
+                        MinuteOfDaySet.of(entry.getValue().stream().map(Schedule::getTimeOfDay).toList())))
+                .toList()));
+        return new ScheduleTimes(classesByMedicine);
+    }
+
+    /**
+     * Get the IDs of the medicines that have active schedules
+     * @return The medicine IDs
+     */
+    public Collection<UUID> getMedicineIds() {
+        return classesByMedicine.keySet();
+    }
+
+    /**
+     * Count the doses of a medicine due on a day
+     * @param medicineId The ID of the medicine
+     * @param day The day, today or later
+     * @return The number of scheduled doses on the day
+     */
+    public int dosesOn(UUID medicineId, LocalDate day) {
+        int doses = 0;
+        for (FrequencyClass frequencyClass : classesByMedicine.getOrDefault(medicineId, List.of())) {
+            if (frequencyClass.isDueOn(day)) {
+                doses += frequencyClass.minutes().size();
+            }
+        }
+        return doses;
+    }
+
+    /**
+     * Find the next scheduled dose of a medicine
+     * @param medicineId The ID of the medicine
+     * @param from The time to look from (inclusive), now or later
+     * @return The time of the next dose, or null if the medicine has no active schedule with fixed days
+     */
+    public LocalDateTime nextOccurrence(UUID medicineId, LocalDateTime from) {
+        LocalDateTime next = null;
+        for (FrequencyClass frequencyClass : classesByMedicine.getOrDefault(medicineId, List.of())) {
+            LocalDateTime candidate = frequencyClass.nextOccurrence(from);
+            if (next == null || candidate.isBefore(next)) {
+                next = candidate;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Day within its cadence on which a schedule recurs; schedules with equal frequency and phase are due on the same days
+     */
+    private static int phase(Schedule.Frequency frequency, LocalDate firstDay) {
+        return switch (frequency) {
+            case WEEKLY -> firstDay.getDayOfWeek().getValue();
+            case BIWEEKLY -> Math.floorMod(ChronoUnit.DAYS.between(LocalDate.EPOCH, firstDay), 14);
+            case MONTHLY -> firstDay.getDayOfMonth();
+            default -> 0;
+        };
+    }
+
+    private static LocalDate firstDay(Schedule schedule) {
+        return schedule.getCreatedAt() != null ? schedule.getCreatedAt().toLocalDate() : LocalDate.EPOCH;
+    }
+
+    private record ClassKey(Schedule.Frequency frequency, int phase) {
+    }
+
+    /**
+     * Times of day of the schedules of a medicine that recur on the same days
+     */
+    private record FrequencyClass(Schedule.Frequency frequency, LocalDate firstDay, MinuteOfDaySet minutes) {
+
+        private boolean isDueOn(LocalDate day) {
+            return day.equals(frequency.nextDueDay(firstDay, day));
+        }
+
+        private LocalDateTime nextOccurrence(LocalDateTime from) {
+            LocalDate day = frequency.nextDueDay(firstDay, from.toLocalDate());
+            if (day.equals(from.toLocalDate())) {
+                LocalTime later = minutes.nextOnOrAfter(from.toLocalTime());
+                if (later != null) {
+                    return day.atTime(later);
+                }
+                day = frequency.nextDueDay(firstDay, day.plusDays(1));
+            }
+            return day.atTime(minutes.first());
+        }
+    }
+}
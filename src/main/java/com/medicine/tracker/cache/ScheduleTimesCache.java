@@ -0,0 +1,83 @@
+package com.medicine.tracker.cache;
+
+import com.medicine.tracker.config.PrimaryReads;
+import com.medicine.tracker.repository.ScheduleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * In-memory schedule times of each user, one minute-of-day bitset per medicine and frequency class
+ * A few hundred bytes per user, so it can stay loaded for every active user; a user's times are rebuilt
+ * after every schedule write of the user, on other nodes through the cache invalidation bus
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleTimesCache {
+
+    private static final String CACHE_NAME = "scheduleTimes";
+
+    private static final String NAMESPACE = "schedule-times";
+
+    private final ScheduleRepository scheduleRepository;
+    private final PrimaryReads primaryReads;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${schedule-times.maximum-size:100000}")
+    private long maximumSize;
+
+    @Value("${schedule-times.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    private UserScopedCache<UUID, ScheduleTimes> cache;
+
+    /**
+     * Build the cache and register its hit, miss and eviction metrics
+     */
+    @PostConstruct
+    public void init() {
+        cache = new UserScopedCache<>(CACHE_NAME, NAMESPACE, maximumSize, ttlMinutes, meterRegistry, cacheInvalidationBus,
+                userId -> userId, key -> List.of(UUID.fromString(key)));
+        log.info("Schedule times cache initialized with maximum size {} and TTL {} minutes", maximumSize, ttlMinutes);
+    }
+
+    /**
+     * Get the schedule times of a user, building them from the active schedules on a miss
+     * @param userId The ID of the user
+     * @return The schedule times of the user
+     */
+    public ScheduleTimes get(UUID userId) {
+        ScheduleTimes times = cache.getIfPresent(userId);
+        return times != null ? times : load(userId);
+    }
+
+    /**
+     * Evict the schedule times of a user after one of their schedules was created, changed or deleted
+     * Inside a transaction the times are evicted again once it commits
+     * @param userId The ID of the user whose schedules changed
+     */
+    public void invalidate(UUID userId) {
+        cache.invalidate(userId.toString());
+        log.debug("Invalidated schedule times of user {}", userId);
+    }
+
+    /**
+     * Build the schedule times of a user and store them unless a schedule write of the user happened during the load
+     * @param userId The ID of the user
+     * @return The built schedule times
+     */
+    private ScheduleTimes load(UUID userId) {
+        ScheduleTimes loaded = cache.load(userId, () -> primaryReads.get(
+                () -> ScheduleTimes.of(scheduleRepository.findActiveWithActiveMedicineByUserId(userId))));
+        log.debug("Loaded schedule times of {} medicines of user {}", loaded.getMedicineIds().size(), userId);
+        return loaded;
+    }
+}
@@ -0,0 +1,151 @@
+package com.medicine.tracker.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caffeine cache of entries that belong to one user each and are evicted by the user's writes
+ * An invalidation evicts on this node, once more after the writing transaction commits, and on other nodes
+ * through the cache invalidation bus; a load only stores its result if no eviction of the user happened meanwhile,
+ * tracked by per-user generations that are striped so their memory stays bounded
+ * @param <K> The cache key
+ * @param <V> The cached value
+ */
+final class UserScopedCache<K, V> {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final String namespace;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final Function<K, UUID> userOf;
+    private final Function<String, List<K>> keysOf;
+    private final Cache<K, V> cache;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    /**
+     * Build the cache, register its hit, miss and eviction metrics and its callbacks on the invalidation bus
+     * @param cacheName The name of the cache in the metrics
+     * @param namespace The namespace the cache publishes its invalidations under
+     * @param maximumSize The maximum number of entries
+     * @param ttlMinutes Minutes an entry is kept after it was stored
+     * @param meterRegistry The registry of the cache metrics
+     * @param cacheInvalidationBus The bus carrying invalidations to other nodes
+     * @param userOf Gives the user a key belongs to
+     * @param keysOf Gives the keys an invalidation evicts, all belonging to one user
+     */
+    UserScopedCache(String cacheName, String namespace, long maximumSize, long ttlMinutes, MeterRegistry meterRegistry,
+                    CacheInvalidationBus cacheInvalidationBus, Function<K, UUID> userOf, Function<String, List<K>> keysOf) {
+        this.namespace = namespace;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.userOf = userOf;
+        this.keysOf = keysOf;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName);
+        cacheInvalidationBus.register(namespace, this::evict, this::evictAll);
+    }
+
+    /**
+     * Get a cached value
+     * @param key The cache key
+     * @return The value, or null if it is not cached
+     */
+    V getIfPresent(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Get the current generation of a user, to be read before a load that is stored with put
+     * @param userId The ID of the user
+     * @return The generation of the user
+     */
+    long generation(UUID userId) {
+        return generations.get(stripe(userId));
+    }
+
+    /**
+     * Load a value and store it unless the user's entries were evicted during the load
+     * @param key The cache key
+     * @param loader Loads the value from the database
+     * @return The loaded value
+     */
+    V load(K key, Supplier<V> loader) {
+        long generation = generation(userOf.apply(key));
+        V loaded = loader.get();
+        put(key, generation, existing -> loaded);
+        return loaded;
+    }
+
+    /**
+     * Store a value unless the user's entries were evicted since the generation was read
+     * A write may have committed after the load read the database; skipping the put sends the next read
+     * to the database instead of serving the value from before the write
+     * @param key The cache key
+     * @param generation The generation read before the load
+     * @param update Gives the value to store from the cached one, which may be null
+     */
+    void put(K key, long generation, UnaryOperator<V> update) {
+        int stripe = stripe(userOf.apply(key));
+        cache.asMap().compute(key, (k, existing) -> generations.get(stripe) == generation ? update.apply(existing) : existing);
+    }
+
+    /**
+     * Evict the entries named by an invalidation on every node
+     * Inside a transaction they are evicted again once it commits, since until then loads still read the old rows
+     * @param invalidation The invalidation, published as is to other nodes
+     */
+    void invalidate(String invalidation) {
+        evict(invalidation);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(invalidation);
+                }
+            });
+        }
+        cacheInvalidationBus.publish(namespace, invalidation);
+    }
+
+    /**
+     * Evict every entry on this node, also used when invalidations from other nodes may have been missed
+     */
+    void evictAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    /**
+     * Evict the entries named by an invalidation on this node
+     * @param invalidation The invalidation
+     */
+    private void evict(String invalidation) {
+        for (K key : keysOf.apply(invalidation)) {
+            // Loads that started before this point must not store their result
+            generations.incrementAndGet(stripe(userOf.apply(key)));
+            cache.invalidate(key);
+        }
+    }
+
+    private int stripe(UUID userId) {
+        return Math.floorMod(userId.hashCode(), GENERATION_STRIPES);
+    }
+}
@@ -0,0 +1,96 @@
+package com.medicine.tracker.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration class for the primary and read replica connection pools
+ * Replica pools are created from a comma-separated list of JDBC URLs and share the credentials and pool
+ * settings of the primary; without replica URLs every connection comes from the primary
+ */
+@Configuration
+@Slf4j
+public class DataSourceConfig {
+
+    @Value("${replica-datasource.urls:}")
+    private List<String> replicaUrls;
+
+    @Value("${replica-datasource.maximum-pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${replica-datasource.max-lag-seconds:30}")
+    private double maxLagSeconds;
+
+    /**
+     * Create the primary connection pool from the spring.datasource properties
+     * @param properties The spring.datasource properties
+     * @return The primary Hikari pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    /**
+     * Create the replica pools and the DataSource routing between them and the primary
+     * @param primaryDataSource The primary pool
+     * @param meterRegistry Registry for the replica pool and lag metrics
+     * @return The routing DataSource
+     */
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(url.trim());
+            config.setPoolName("replica-" + replicas.size());
+            config.setMaximumPoolSize(replicaPoolSize);
+            config.setReadOnly(true);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        log.info("Routing read-only transactions to {} replica pools", replicas.size());
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagSeconds, meterRegistry);
+    }
+
+    /**
+     * Create the DataSource used by JPA and JdbcTemplate
+     * Connections are only fetched from a pool at the first statement, once the transaction is known to be read-only
+     * @param routingDataSource The routing DataSource
+     * @param primaryDataSource The primary pool, whose defaults the proxy reports before a connection is fetched
+     * @return The lazily connecting DataSource
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource, HikariDataSource primaryDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(routingDataSource);
+        dataSource.setDefaultAutoCommit(primaryDataSource.isAutoCommit());
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+}
@@ -0,0 +1,34 @@
+package com.medicine.tracker.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs reads whose results fill a shared cache against the primary
+ * A replica may not have replayed the write that just invalidated the cache, so a load from it would store stale
+ * data for the whole TTL. The read runs in a transaction of its own, suspending any read-only transaction of the
+ * caller, which may already hold a replica connection; being read-write, ReplicaRoutingDataSource sends it to the primary.
+ */
+@Component
+public class PrimaryReads {
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager) {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Run a read against the primary
+     * @param read The read; entities it loads are detached once it returns, so it should map them itself
+     * @return The result of the read
+     */
+    public <T> T get(Supplier<T> read) {
+        return transactionTemplate.execute(status -> read.get());
+    }
+}
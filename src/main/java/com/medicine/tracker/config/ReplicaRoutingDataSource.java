@@ -0,0 +1,199 @@
+package com.medicine.tracker.config;
+
+import com.medicine.tracker.model.entity.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource that sends read-only transactions of signed-in users to a replica pool and everything else to the primary
+ * Every write of a user bumps users.data_version in the same transaction, and the authenticated user carries the
+ * version read from the primary at the start of the request. A replica is only used once it has replayed that
+ * version, so users read their own writes and list bodies are never older than the ETag built from the version.
+ * The check reads the replica itself, so it holds across nodes without sticky sessions; a replica that is behind
+ * hands the connection back and the primary serves the read. Requests without a user (login, token checks,
+ * scheduled jobs) always use the primary, and replicas lagging more than the allowed lag are skipped altogether.
+ * Shared caches must not be filled from a replica, whose state may predate an invalidation: they load through
+ * PrimaryReads. The key is resolved when a physical connection is acquired, so this must be wrapped in a
+ * LazyConnectionDataSourceProxy for the read-only flag of the transaction to be known at that point.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    // Zero when the replica has replayed everything it received, so an idle primary does not read as lag
+    private static final String REPLICA_LAG_SQL = "SELECT COALESCE(CASE "
+            + "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END, 0)";
+
+    private static final String DATA_VERSION_SQL = "SELECT data_version FROM users WHERE id = ?";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final double maxLagSeconds;
+    private final Map<String, Double> replicaLag = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * @param primary The primary pool, used for writes and as the fallback for reads
+     * @param replicas The replica pools by name, possibly empty
+     * @param maxLagSeconds Replicas lagging more than this are not used
+     * @param meterRegistry Registry for the replica lag gauges
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    double maxLagSeconds, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.replicaKeys = List.copyOf(replicas.keySet());
+        this.maxLagSeconds = maxLagSeconds;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        for (String key : replicaKeys) {
+            replicaLag.put(key, 0.0);
+            Gauge.builder("datasource.replica.lag", replicaLag, lag -> lag.getOrDefault(key, Double.NaN))
+                    .tag("replica", key)
+                    .baseUnit("seconds")
+                    .description("Replication lag of the replica, NaN while it cannot be reached")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Pick the pool for the connection that is being acquired
+     * @return The name of a replica pool, or "primary"
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || currentUser() == null) {
+            return PRIMARY;
+        }
+        return nextHealthyReplica();
+    }
+
+    /**
+     * Acquire a connection from the pool picked for the current transaction
+     * A replica connection is only handed out once the replica has replayed the data version of the current user
+     * @return A connection to a replica that is up to date for the user, or to the primary
+     * @throws SQLException If no connection could be acquired
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource replica = replicas.get(determineCurrentLookupKey());
+        User user = currentUser();
+        if (replica == null || user == null) {
+            return primary.getConnection();
+        }
+        Connection connection = replica.getConnection();
+        try {
+            if (hasReplayed(connection, user)) {
+                return connection;
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read the data version of user {} on a replica: {}", user.getId(), e.getMessage());
+        }
+        connection.close();
+        return primary.getConnection();
+    }
+
+    /**
+     * Measure the replication lag of every replica and publish it as the datasource.replica.lag gauge
+     * A replica that cannot be queried is skipped until a later measurement succeeds
+     */
+    public void refreshReplicaLag() {
+        for (String key : replicaKeys) {
+            try (Connection connection = replicas.get(key).getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(REPLICA_LAG_SQL)) {
+                resultSet.next();
+                double lag = resultSet.getDouble(1);
+                replicaLag.put(key, lag);
+                if (lag > maxLagSeconds) {
+                    log.warn("Replica {} is {} seconds behind the primary and is skipped for reads", key, lag);
+                }
+            } catch (SQLException e) {
+                replicaLag.put(key, Double.NaN);
+                log.warn("Could not measure the lag of replica {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Close the replica pools; the primary pool is a bean of its own
+     */
+    @Override
+    public void destroy() {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close replica pool: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether a replica has replayed every write of a user up to the version the request started from
+     * @param connection A connection to the replica
+     * @param user The authenticated user, loaded from the primary
+     * @return true if the replica's data version of the user is at least the user's
+     */
+    private boolean hasReplayed(Connection connection, User user) throws SQLException {
+        long required = user.getDataVersion() != null ? user.getDataVersion() : 0;
+        try (PreparedStatement statement = connection.prepareStatement(DATA_VERSION_SQL)) {
+            statement.setObject(1, user.getId());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getLong(1) >= required;
+            }
+        }
+    }
+
+    /**
+     * Pick the next replica in round-robin order whose lag is known and within the allowed lag
+     * @return The name of the replica, or "primary" if none is usable
+     */
+    private String nextHealthyReplica() {
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size());
+        for (int i = 0; i < replicaKeys.size(); i++) {
+            String key = replicaKeys.get((start + i) % replicaKeys.size());
+            Double lag = replicaLag.get(key);
+            if (lag != null && lag <= maxLagSeconds) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    private User currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        return null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.medicine.tracker.config;
 
+import com.medicine.tracker.security.IdempotencyFilter;
 import com.medicine.tracker.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -26,6 +27,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
     
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final IdempotencyFilter idempotencyFilter;
     private final UserDetailsService userDetailsService;
     
     /**
@@ -48,7 +50,9 @@ public class SecurityConfig {
                 .requestMatchers("/api/global-medicines/{id}").permitAll()
                 .anyRequest().authenticated()
             )
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            // Needs the authenticated user, so it runs after the JWT filter
+            .addFilterAfter(idempotencyFilter, UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
     }
@@ -0,0 +1,52 @@
+package com.medicine.tracker.controller;
+
+import com.medicine.tracker.model.dto.response.AdherenceReportResponse;
+import com.medicine.tracker.service.AdherenceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * REST controller for adherence report endpoints
+ * Reports taken, missed and late doses of a profile
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AdherenceController {
+
+    private static final int DEFAULT_WINDOW_DAYS = 30;
+
+    private final AdherenceService adherenceService;
+
+    /**
+     * Get the adherence report of a profile, defaulting to the last 30 days
+     * @param profileId The ID of the profile to build the report for
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     * @return Adherence report with counts per medicine and per day
+     */
+    @GetMapping("/profiles/{profileId}/adherence")
+    public ResponseEntity<AdherenceReportResponse> getAdherenceReport(
+            @PathVariable UUID profileId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user =
+            (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_WINDOW_DAYS - 1);
+
+        AdherenceReportResponse report = adherenceService.getAdherenceReport(userId, profileId, start, end);
+        return ResponseEntity.ok(report);
+    }
+}
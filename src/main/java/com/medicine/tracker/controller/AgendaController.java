@@ -0,0 +1,66 @@
+package com.medicine.tracker.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.medicine.tracker.model.dto.response.AgendaItemResponse;
+import com.medicine.tracker.service.AgendaService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * REST controller for the dose agenda
+ * Lists the scheduled doses of every profile of the user for a day or a calendar range
+ */
+@RestController
+@RequestMapping("/api/agenda")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AgendaController {
+
+    private final AgendaService agendaService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Get the scheduled doses of the current user, defaulting to today
+     * The JSON array is written item by item in time order instead of being built in memory first
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     * @param response The response the items are written to
+     * @throws IOException if the response cannot be written
+     */
+    @GetMapping
+    public void getAgenda(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletResponse response) throws IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user =
+            (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start;
+
+        // Invalid ranges fail here, before anything is written, so they still get an error response
+        try (Stream<AgendaItemResponse> items = agendaService.getAgenda(userId, start, end)) {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(response.getOutputStream())) {
+                Iterator<AgendaItemResponse> iterator = items.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.medicine.tracker.controller;
+
+import com.medicine.tracker.model.dto.request.BatchRequest;
+import com.medicine.tracker.model.dto.response.BatchResponse;
+import com.medicine.tracker.service.BatchService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * REST controller for batch endpoints
+ * Lets clients replay the actions they queued while offline in one request
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class BatchController {
+
+    private final BatchService batchService;
+
+    /**
+     * Execute an ordered list of operations for the current user
+     * Individual failures are reported per operation and do not fail the request
+     * @param batchRequest The operations to execute
+     * @return One result per operation, in submission order
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse> executeBatch(@Valid @RequestBody BatchRequest batchRequest) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user =
+            (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+
+        BatchResponse response = batchService.executeBatch(userId, batchRequest);
+        return ResponseEntity.ok(response);
+    }
+}
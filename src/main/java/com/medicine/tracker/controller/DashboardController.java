@@ -0,0 +1,39 @@
+package com.medicine.tracker.controller;
+
+import com.medicine.tracker.model.dto.response.DashboardResponse;
+import com.medicine.tracker.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * REST controller for the dashboard endpoint
+ * Returns what the app shows on launch in one request
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    /**
+     * Get the profiles of the authenticated user with their medicines and active schedules
+     * @return Dashboard with nested profiles, medicines and schedules plus expiring and low-stock counts
+     */
+    @GetMapping
+    public ResponseEntity<DashboardResponse> getDashboard() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user =
+            (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+
+        DashboardResponse dashboard = dashboardService.getDashboard(userId);
+        return ResponseEntity.ok(dashboard);
+    }
+}
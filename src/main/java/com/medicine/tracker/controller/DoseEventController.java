@@ -0,0 +1,53 @@
+package com.medicine.tracker.controller;
+
+import com.medicine.tracker.model.dto.response.DoseEventResponse;
+import com.medicine.tracker.service.DoseEventService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST controller for dose history endpoints
+ * Exposes the dose event log of a profile
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class DoseEventController {
+
+    private static final int DEFAULT_WINDOW_DAYS = 30;
+
+    private final DoseEventService doseEventService;
+
+    /**
+     * Get the dose history of a profile, defaulting to the last 30 days
+     * @param profileId The ID of the profile to retrieve the history for
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     * @return List of dose events in the range, most recent first
+     */
+    @GetMapping("/profiles/{profileId}/doses")
+    public ResponseEntity<List<DoseEventResponse>> getDoseHistory(
+            @PathVariable UUID profileId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user =
+            (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_WINDOW_DAYS - 1);
+
+        List<DoseEventResponse> doseEvents = doseEventService.getDoseHistory(userId, profileId, start, end);
+        return ResponseEntity.ok(doseEvents);
+    }
+}
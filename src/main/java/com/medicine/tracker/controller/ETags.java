@@ -0,0 +1,83 @@
+package com.medicine.tracker.controller;
+
+import com.medicine.tracker.exception.PreconditionFailedException;
+import com.medicine.tracker.model.entity.User;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Helper for ETags
+ * List ETags are weak and derived from the user's data version, so they can be checked before loading anything;
+ * single-resource ETags are strong and carry the entity's optimistic lock version for If-Match
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Build the weak ETag of a user's lists at their current data version
+     * @param user The authenticated user
+     * @return Weak ETag such as W/"{userId}.42"
+     */
+    static String forUserData(User user) {
+        long version = user.getDataVersion() != null ? user.getDataVersion() : 0;
+        return "W/\"" + user.getId() + "." + version + "\"";
+    }
+
+    /**
+     * Answer a conditional GET of a user's list before anything is loaded
+     * @param user The authenticated user
+     * @param webRequest The current request, carrying If-None-Match
+     * @return 304 response if the client's copy is current, otherwise null
+     */
+    static <T> ResponseEntity<T> notModified(User user, WebRequest webRequest) {
+        String eTag = forUserData(user);
+        return webRequest.checkNotModified(eTag) ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build() : null;
+    }
+
+    /**
+     * Wrap a user's list in a response that must be revalidated with its ETag before reuse
+     * @param user The authenticated user
+     * @param body The list or page to return
+     * @return 200 response with the weak ETag of the user's data
+     */
+    static <T> ResponseEntity<T> ok(User user, T body) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(forUserData(user))
+                .body(body);
+    }
+
+    /**
+     * Build the strong ETag of a single resource
+     * @param version The optimistic lock version of the resource
+     * @return Strong ETag such as "7"
+     */
+    static String forVersion(Long version) {
+        return "\"" + (version != null ? version : 0) + "\"";
+    }
+
+    /**
+     * Extract the expected version from an If-Match header
+     * @param ifMatch The If-Match header value
+     * @return The expected version, or null if the header is absent or "*"
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        // If-Match uses strong comparison, so weak or malformed tags can never match
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match must be a single strong ETag returned by this API");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match must be a single strong ETag returned by this API");
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package com.medicine.tracker.controller;
 
 import com.medicine.tracker.model.dto.request.GlobalMedicineRequest;
+import com.medicine.tracker.model.dto.request.GlobalMedicineSearchRequest;
+import com.medicine.tracker.model.dto.response.GlobalMedicinePageResponse;
 import com.medicine.tracker.model.dto.response.GlobalMedicineResponse;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.medicine.tracker.service.GlobalMedicineService;
+import com.medicine.tracker.service.MergePatchService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -60,17 +66,17 @@ public class GlobalMedicineController {
     @GetMapping("/{id}")
     public ResponseEntity<GlobalMedicineResponse> getGlobalMedicineById(@PathVariable UUID id) {
         GlobalMedicineResponse globalMedicine = globalMedicineService.getGlobalMedicineById(id);
-        return ResponseEntity.ok(globalMedicine);
+        return ResponseEntity.ok().eTag(ETags.forVersion(globalMedicine.getVersion())).body(globalMedicine);
     }
     
     /**
-     * Search global medicines by name (partial match)
-     * @param name The name to search for
-     * @return List of global medicines matching the search
+     * Search global medicines by name, brand and generic name, indications and description
+     * @param searchRequest The search terms (name), page and size
+     * @return Page of global medicines matching the search, most relevant first
      */
     @GetMapping("/search")
-    public ResponseEntity<List<GlobalMedicineResponse>> searchGlobalMedicinesByName(@RequestParam String name) {
-        List<GlobalMedicineResponse> globalMedicines = globalMedicineService.searchGlobalMedicinesByName(name);
+    public ResponseEntity<GlobalMedicinePageResponse> searchGlobalMedicines(@Valid GlobalMedicineSearchRequest searchRequest) {
+        GlobalMedicinePageResponse globalMedicines = globalMedicineService.searchGlobalMedicines(searchRequest);
         return ResponseEntity.ok(globalMedicines);
     }
     
@@ -89,19 +95,39 @@ public class GlobalMedicineController {
      * Update an existing global medicine
      * @param id The ID of the global medicine to update
      * @param globalMedicineRequest The request containing updated global medicine details
+     * @param ifMatch Optional ETag of the version being edited; a stale one is rejected with 412
      * @return Updated global medicine response
      */
     @PutMapping("/{id}")
     public ResponseEntity<GlobalMedicineResponse> updateGlobalMedicine(
             @PathVariable UUID id,
-            @Valid @RequestBody GlobalMedicineRequest globalMedicineRequest) {
+            @Valid @RequestBody GlobalMedicineRequest globalMedicineRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         com.medicine.tracker.model.entity.User user = 
             (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
         UUID userId = user.getId();
         
-        GlobalMedicineResponse globalMedicine = globalMedicineService.updateGlobalMedicine(id, globalMedicineRequest);
-        return ResponseEntity.ok(globalMedicine);
+        GlobalMedicineResponse globalMedicine = globalMedicineService.updateGlobalMedicine(
+                id, globalMedicineRequest, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.forVersion(globalMedicine.getVersion())).body(globalMedicine);
+    }
+    
+    /**
+     * Partially update an existing global medicine with a JSON Merge Patch
+     * @param id The ID of the global medicine to update
+     * @param patch The merge patch containing only the fields to change
+     * @param ifMatch Optional ETag of the version being edited; a stale one is rejected with 412
+     * @return Updated global medicine response
+     */
+    @PatchMapping(value = "/{id}", consumes = {MergePatchService.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<GlobalMedicineResponse> patchGlobalMedicine(
+            @PathVariable UUID id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        GlobalMedicineResponse globalMedicine = globalMedicineService.patchGlobalMedicine(
+                id, patch, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.forVersion(globalMedicine.getVersion())).body(globalMedicine);
     }
     
     /**
@@ -1,16 +1,24 @@
 package com.medicine.tracker.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medicine.tracker.model.dto.request.MedicinePageRequest;
 import com.medicine.tracker.model.dto.request.MedicineRequest;
+import com.medicine.tracker.model.dto.request.TakeDoseRequest;
+import com.medicine.tracker.model.dto.response.MedicinePageResponse;
 import com.medicine.tracker.model.dto.response.MedicineResponse;
 import com.medicine.tracker.model.dto.response.MedicineWithProfileResponse;
 import com.medicine.tracker.service.MedicineService;
 import com.medicine.tracker.service.ImageUploadService;
+import com.medicine.tracker.service.MergePatchService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -51,32 +59,71 @@ public class MedicineController {
     /**
      * Get all medicines for a specific profile
      * @param profileId The ID of the profile to retrieve medicines for
+     * @param webRequest The current request, used to answer If-None-Match with 304
      * @return List of medicines belonging to the profile
      */
     @GetMapping("/profiles/{profileId}/medicines")
-    public ResponseEntity<List<MedicineResponse>> getAllMedicinesForProfile(@PathVariable UUID profileId) {
+    public ResponseEntity<List<MedicineResponse>> getAllMedicinesForProfile(@PathVariable UUID profileId, WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         com.medicine.tracker.model.entity.User user =
             (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
         UUID userId = user.getId();
         
+        ResponseEntity<List<MedicineResponse>> notModified = ETags.notModified(user, webRequest);
+        if (notModified != null) {
+            return notModified;
+        }
+        
         List<MedicineResponse> medicines = medicineService.getAllMedicinesForProfile(userId, profileId);
-        return ResponseEntity.ok(medicines);
+        return ETags.ok(user, medicines);
+    }
+    
+    /**
+     * Get one page of the medicines of a specific profile
+     * Selected instead of the unpaged listing when a limit is given
+     * @param profileId The ID of the profile to retrieve medicines for
+     * @param pageRequest The page size, cursor, sort order and filters
+     * @param webRequest The current request, used to answer If-None-Match with 304
+     * @return Page of medicines with the cursor of the next page
+     */
+    @GetMapping(value = "/profiles/{profileId}/medicines", params = "limit")
+    public ResponseEntity<MedicinePageResponse> getMedicinesPageForProfile(
+            @PathVariable UUID profileId,
+            @Valid MedicinePageRequest pageRequest,
+            WebRequest webRequest) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user =
+            (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+        
+        ResponseEntity<MedicinePageResponse> notModified = ETags.notModified(user, webRequest);
+        if (notModified != null) {
+            return notModified;
+        }
+        
+        MedicinePageResponse page = medicineService.getMedicinesPageForProfile(userId, profileId, pageRequest);
+        return ETags.ok(user, page);
     }
     
     /**
      * Get all medicines for the authenticated user across all profiles
+     * @param webRequest The current request, used to answer If-None-Match with 304
      * @return List of all medicines belonging to the user
      */
     @GetMapping
-    public ResponseEntity<List<MedicineResponse>> getAllMedicinesForUser() {
+    public ResponseEntity<List<MedicineResponse>> getAllMedicinesForUser(WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         com.medicine.tracker.model.entity.User user = 
             (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
         UUID userId = user.getId();
         
+        ResponseEntity<List<MedicineResponse>> notModified = ETags.notModified(user, webRequest);
+        if (notModified != null) {
+            return notModified;
+        }
+        
         List<MedicineResponse> medicines = medicineService.getAllMedicinesForUser(userId);
-        return ResponseEntity.ok(medicines);
+        return ETags.ok(user, medicines);
     }
     
     /**
@@ -92,7 +139,7 @@ public class MedicineController {
         UUID userId = user.getId();
         
         MedicineResponse medicine = medicineService.getMedicineById(medicineId, userId);
-        return ResponseEntity.ok(medicine);
+        return ResponseEntity.ok().eTag(ETags.forVersion(medicine.getVersion())).body(medicine);
     }
     
     /**
@@ -100,20 +147,48 @@ public class MedicineController {
      * @param profileId The ID of the profile the medicine belongs to
      * @param medicineId The ID of the medicine to update
      * @param medicineRequest The request containing updated medicine details
+     * @param ifMatch Optional ETag of the version being edited; a stale one is rejected with 412
      * @return Updated medicine response
      */
     @PutMapping("/profiles/{profileId}/medicines/{medicineId}")
     public ResponseEntity<MedicineResponse> updateMedicine(
             @PathVariable UUID profileId,
             @PathVariable UUID medicineId,
-            @Valid @RequestBody MedicineRequest medicineRequest) {
+            @Valid @RequestBody MedicineRequest medicineRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         com.medicine.tracker.model.entity.User user =
             (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
         UUID userId = user.getId();
         
-        MedicineResponse medicine = medicineService.updateMedicine(medicineId, userId, profileId, medicineRequest);
-        return ResponseEntity.ok(medicine);
+        MedicineResponse medicine = medicineService.updateMedicine(
+                medicineId, userId, profileId, medicineRequest, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.forVersion(medicine.getVersion())).body(medicine);
+    }
+    
+    /**
+     * Partially update an existing medicine with a JSON Merge Patch
+     * @param profileId The ID of the profile the medicine belongs to
+     * @param medicineId The ID of the medicine to update
+     * @param patch The merge patch containing only the fields to change
+     * @param ifMatch Optional ETag of the version being edited; a stale one is rejected with 412
+     * @return Updated medicine response
+     */
+    @PatchMapping(value = "/profiles/{profileId}/medicines/{medicineId}",
+            consumes = {MergePatchService.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<MedicineResponse> patchMedicine(
+            @PathVariable UUID profileId,
+            @PathVariable UUID medicineId,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user =
+            (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+        
+        MedicineResponse medicine = medicineService.patchMedicine(
+                medicineId, userId, profileId, patch, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.forVersion(medicine.getVersion())).body(medicine);
     }
     
     /**
@@ -137,16 +212,20 @@ public class MedicineController {
      * Take a dose of a medicine (decrement quantity by 1)
      * @param profileId The ID of the profile the medicine belongs to
      * @param medicineId The ID of the medicine to take a dose from
+     * @param takeDoseRequest Optional details about the schedule occurrence the dose belongs to
      * @return Updated medicine response after taking the dose
      */
     @PostMapping("/profiles/{profileId}/medicines/{medicineId}/takedose")
-    public ResponseEntity<MedicineResponse> takeDose(@PathVariable UUID profileId, @PathVariable UUID medicineId) {
+    public ResponseEntity<MedicineResponse> takeDose(
+            @PathVariable UUID profileId,
+            @PathVariable UUID medicineId,
+            @RequestBody(required = false) TakeDoseRequest takeDoseRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         com.medicine.tracker.model.entity.User user =
             (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
         UUID userId = user.getId();
         
-        MedicineResponse medicine = medicineService.takeDose(medicineId, userId, profileId);
+        MedicineResponse medicine = medicineService.takeDose(medicineId, userId, profileId, takeDoseRequest);
         return ResponseEntity.ok(medicine);
     }
     
@@ -167,16 +246,45 @@ public class MedicineController {
     
     /**
      * Get all medicines for the authenticated user with profile information
+     * @param webRequest The current request, used to answer If-None-Match with 304
      * @return List of all medicines with profile information belonging to the user
      */
     @GetMapping("/medicines")
-    public ResponseEntity<List<MedicineWithProfileResponse>> getAllMedicinesWithProfileInfo() {
+    public ResponseEntity<List<MedicineWithProfileResponse>> getAllMedicinesWithProfileInfo(WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         com.medicine.tracker.model.entity.User user =
             (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
         UUID userId = user.getId();
         
+        ResponseEntity<List<MedicineWithProfileResponse>> notModified = ETags.notModified(user, webRequest);
+        if (notModified != null) {
+            return notModified;
+        }
+        
         List<MedicineWithProfileResponse> medicines = medicineService.getAllMedicinesWithProfileInfo(userId);
-        return ResponseEntity.ok(medicines);
+        return ETags.ok(user, medicines);
+    }
+    
+    /**
+     * Get one page of the medicines of the authenticated user across all profiles
+     * Selected instead of the unpaged listing when a limit is given
+     * @param pageRequest The page size, cursor, sort order and filters
+     * @param webRequest The current request, used to answer If-None-Match with 304
+     * @return Page of medicines with the cursor of the next page
+     */
+    @GetMapping(value = "/medicines", params = "limit")
+    public ResponseEntity<MedicinePageResponse> getMedicinesPageForUser(@Valid MedicinePageRequest pageRequest, WebRequest webRequest) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user =
+            (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+        
+        ResponseEntity<MedicinePageResponse> notModified = ETags.notModified(user, webRequest);
+        if (notModified != null) {
+            return notModified;
+        }
+        
+        MedicinePageResponse page = medicineService.getMedicinesPageForUser(userId, pageRequest);
+        return ETags.ok(user, page);
     }
 }
\ No newline at end of file
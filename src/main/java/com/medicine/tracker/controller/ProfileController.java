@@ -2,13 +2,18 @@ package com.medicine.tracker.controller;
 
 import com.medicine.tracker.model.dto.request.ProfileRequest;
 import com.medicine.tracker.model.dto.response.ProfileResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medicine.tracker.service.MergePatchService;
 import com.medicine.tracker.service.ProfileService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -43,17 +48,23 @@ public class ProfileController {
     
     /**
      * Get all profiles for the authenticated user
+     * @param webRequest The current request, used to answer If-None-Match with 304
      * @return List of profiles belonging to the user
      */
     @GetMapping
-    public ResponseEntity<List<ProfileResponse>> getAllProfiles() {
+    public ResponseEntity<List<ProfileResponse>> getAllProfiles(WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         com.medicine.tracker.model.entity.User user = 
             (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
         UUID userId = user.getId();
         
+        ResponseEntity<List<ProfileResponse>> notModified = ETags.notModified(user, webRequest);
+        if (notModified != null) {
+            return notModified;
+        }
+        
         List<ProfileResponse> profiles = profileService.getAllProfiles(userId);
-        return ResponseEntity.ok(profiles);
+        return ETags.ok(user, profiles);
     }
     
     /**
@@ -69,26 +80,49 @@ public class ProfileController {
         UUID userId = user.getId();
         
         ProfileResponse profile = profileService.getProfileById(profileId, userId);
-        return ResponseEntity.ok(profile);
+        return ResponseEntity.ok().eTag(ETags.forVersion(profile.getVersion())).body(profile);
     }
     
     /**
      * Update an existing profile
      * @param profileId The ID of the profile to update
      * @param profileRequest The request containing updated profile details
+     * @param ifMatch Optional ETag of the version being edited; a stale one is rejected with 412
      * @return Updated profile response
      */
     @PutMapping("/{profileId}")
     public ResponseEntity<ProfileResponse> updateProfile(
             @PathVariable UUID profileId, 
-            @Valid @RequestBody ProfileRequest profileRequest) {
+            @Valid @RequestBody ProfileRequest profileRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user = 
+            (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+        
+        ProfileResponse profile = profileService.updateProfile(profileId, userId, profileRequest, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.forVersion(profile.getVersion())).body(profile);
+    }
+    
+    /**
+     * Partially update an existing profile with a JSON Merge Patch
+     * @param profileId The ID of the profile to update
+     * @param patch The merge patch containing only the fields to change
+     * @param ifMatch Optional ETag of the version being edited; a stale one is rejected with 412
+     * @return Updated profile response
+     */
+    @PatchMapping(value = "/{profileId}", consumes = {MergePatchService.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ProfileResponse> patchProfile(
+            @PathVariable UUID profileId,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         com.medicine.tracker.model.entity.User user = 
             (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
         UUID userId = user.getId();
         
-        ProfileResponse profile = profileService.updateProfile(profileId, userId, profileRequest);
-        return ResponseEntity.ok(profile);
+        ProfileResponse profile = profileService.patchProfile(profileId, userId, patch, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.forVersion(profile.getVersion())).body(profile);
     }
     
     /**
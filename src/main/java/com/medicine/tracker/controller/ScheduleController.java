@@ -1,14 +1,21 @@
 package com.medicine.tracker.controller;
 
+import com.medicine.tracker.model.dto.request.BulkScheduleRequest;
 import com.medicine.tracker.model.dto.request.ScheduleRequest;
+import com.medicine.tracker.model.dto.response.ScheduleOverviewResponse;
 import com.medicine.tracker.model.dto.response.ScheduleResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medicine.tracker.service.MergePatchService;
 import com.medicine.tracker.service.ScheduleService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -44,51 +51,104 @@ public class ScheduleController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Create one schedule per time of day for a medicine, e.g. three times a day
+     * @param medicineId The ID of the medicine to schedule
+     * @param bulkScheduleRequest The request containing the times of day and their shared frequency
+     * @return The created schedules; times that already have an active schedule are skipped
+     */
+    @PostMapping("/medicines/{medicineId}/schedules/bulk")
+    public ResponseEntity<List<ScheduleResponse>> createSchedules(
+            @PathVariable UUID medicineId,
+            @Valid @RequestBody BulkScheduleRequest bulkScheduleRequest) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user =
+                (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+
+        List<ScheduleResponse> response = scheduleService.createSchedules(userId, medicineId, bulkScheduleRequest);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get all schedules for a specific medicine
      * @param medicineId The ID of the medicine to retrieve schedules for
+     * @param webRequest The current request, used to answer If-None-Match with 304
      * @return List of schedules for the medicine
      */
     @GetMapping("/medicines/{medicineId}/schedules")
-    public ResponseEntity<List<ScheduleResponse>> getSchedulesForMedicine(@PathVariable UUID medicineId) {
+    public ResponseEntity<List<ScheduleResponse>> getSchedulesForMedicine(@PathVariable UUID medicineId, WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         com.medicine.tracker.model.entity.User user =
                 (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
         UUID userId = user.getId();
 
+        ResponseEntity<List<ScheduleResponse>> notModified = ETags.notModified(user, webRequest);
+        if (notModified != null) {
+            return notModified;
+        }
+
         List<ScheduleResponse> schedules = scheduleService.getSchedulesForMedicine(userId, medicineId);
-        return ResponseEntity.ok(schedules);
+        return ETags.ok(user, schedules);
     }
 
     /**
      * Get all schedules for a specific profile
      * @param profileId The ID of the profile to retrieve schedules for
+     * @param webRequest The current request, used to answer If-None-Match with 304
      * @return List of schedules for the profile
      */
     @GetMapping("/profiles/{profileId}/schedules")
-    public ResponseEntity<List<ScheduleResponse>> getSchedulesForProfile(@PathVariable UUID profileId) {
+    public ResponseEntity<List<ScheduleResponse>> getSchedulesForProfile(@PathVariable UUID profileId, WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         com.medicine.tracker.model.entity.User user =
                 (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
         UUID userId = user.getId();
 
+        ResponseEntity<List<ScheduleResponse>> notModified = ETags.notModified(user, webRequest);
+        if (notModified != null) {
+            return notModified;
+        }
+
         List<ScheduleResponse> schedules = scheduleService.getSchedulesForProfile(userId, profileId);
-        return ResponseEntity.ok(schedules);
+        return ETags.ok(user, schedules);
     }
 
     /**
      * Get all schedules for the authenticated user
+     * @param webRequest The current request, used to answer If-None-Match with 304
      * @return List of all schedules for the user
      */
     @GetMapping("/schedules")
-    public ResponseEntity<List<ScheduleResponse>> getSchedulesForUser() {
+    public ResponseEntity<List<ScheduleResponse>> getSchedulesForUser(WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         com.medicine.tracker.model.entity.User user =
                 (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
         UUID userId = user.getId();
 
+        ResponseEntity<List<ScheduleResponse>> notModified = ETags.notModified(user, webRequest);
+        if (notModified != null) {
+            return notModified;
+        }
+
         List<ScheduleResponse> schedules = scheduleService.getSchedulesForUser(userId);
-        return ResponseEntity.ok(schedules);
+        return ETags.ok(user, schedules);
+    }
+
+    /**
+     * Get today's dose count and the next dose of every medicine of the authenticated user
+     * Not revalidated with an ETag, as the next dose moves on with the clock
+     * @return One overview per medicine with active schedules
+     */
+    @GetMapping("/schedules/overview")
+    public ResponseEntity<List<ScheduleOverviewResponse>> getScheduleOverview() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user =
+                (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+
+        List<ScheduleOverviewResponse> overview = scheduleService.getScheduleOverview(userId);
+        return ResponseEntity.ok(overview);
     }
 
     /**
@@ -104,26 +164,50 @@ public class ScheduleController {
         UUID userId = user.getId();
 
         ScheduleResponse schedule = scheduleService.getScheduleById(scheduleId, userId);
-        return ResponseEntity.ok(schedule);
+        return ResponseEntity.ok().eTag(ETags.forVersion(schedule.getVersion())).body(schedule);
     }
 
     /**
      * Update an existing schedule
      * @param scheduleId The ID of the schedule to update
      * @param scheduleRequest The request containing updated schedule details
+     * @param ifMatch Optional ETag of the version being edited; a stale one is rejected with 412
      * @return Updated schedule response
      */
     @PutMapping("/schedules/{scheduleId}")
     public ResponseEntity<ScheduleResponse> updateSchedule(
             @PathVariable UUID scheduleId,
-            @Valid @RequestBody ScheduleRequest scheduleRequest) {
+            @Valid @RequestBody ScheduleRequest scheduleRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user =
+                (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+
+        ScheduleResponse schedule = scheduleService.updateSchedule(scheduleId, userId, scheduleRequest, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.forVersion(schedule.getVersion())).body(schedule);
+    }
+
+    /**
+     * Partially update an existing schedule with a JSON Merge Patch
+     * @param scheduleId The ID of the schedule to update
+     * @param patch The merge patch containing only the fields to change
+     * @param ifMatch Optional ETag of the version being edited; a stale one is rejected with 412
+     * @return Updated schedule response
+     */
+    @PatchMapping(value = "/schedules/{scheduleId}",
+            consumes = {MergePatchService.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ScheduleResponse> patchSchedule(
+            @PathVariable UUID scheduleId,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         com.medicine.tracker.model.entity.User user =
                 (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
         UUID userId = user.getId();
 
-        ScheduleResponse schedule = scheduleService.updateSchedule(scheduleId, userId, scheduleRequest);
-        return ResponseEntity.ok(schedule);
+        ScheduleResponse schedule = scheduleService.patchSchedule(scheduleId, userId, patch, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.forVersion(schedule.getVersion())).body(schedule);
     }
 
     /**
@@ -0,0 +1,40 @@
+package com.medicine.tracker.controller;
+
+import com.medicine.tracker.model.dto.response.SyncResponse;
+import com.medicine.tracker.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * REST controller for delta sync endpoints
+ * Returns what changed for the authenticated user since the client's last sync
+ */
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    /**
+     * Get the profiles, medicines and schedules changed since a sync token
+     * @param since The token returned by the previous sync; omit it for a full sync
+     * @return Changed and deleted entities with the token for the next sync
+     */
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(@RequestParam(required = false) String since) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user =
+            (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+
+        SyncResponse response = syncService.getChangesSince(userId, since);
+        return ResponseEntity.ok(response);
+    }
+}
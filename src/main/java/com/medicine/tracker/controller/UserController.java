@@ -1,7 +1,9 @@
 package com.medicine.tracker.controller;
 
 import com.medicine.tracker.model.dto.request.FcmTokenRequest;
+import com.medicine.tracker.model.dto.response.UserSummaryResponse;
 import com.medicine.tracker.service.UserService;
+import com.medicine.tracker.service.UserSummaryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +24,7 @@ import java.util.UUID;
 public class UserController {
     
     private final UserService userService;
+    private final UserSummaryService userSummaryService;
     
     /**
      * Update the FCM token for the authenticated user
@@ -38,4 +41,19 @@ public class UserController {
         userService.updateFcmToken(userId, fcmTokenRequest);
         return ResponseEntity.ok().build();
     }
+    
+    /**
+     * Get the badge counters of the authenticated user
+     * @return Active, expiring, low-stock and due-today counts
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<UserSummaryResponse> getSummary() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        com.medicine.tracker.model.entity.User user = 
+            (com.medicine.tracker.model.entity.User) authentication.getPrincipal();
+        UUID userId = user.getId();
+        
+        UserSummaryResponse summary = userSummaryService.getSummary(userId);
+        return ResponseEntity.ok(summary);
+    }
 }
\ No newline at end of file
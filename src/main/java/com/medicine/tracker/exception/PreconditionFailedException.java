@@ -0,0 +1,16 @@
+package com.medicine.tracker.exception;
+
+/**
+ * Exception thrown when a conditional update does not match the current version of a resource
+ * Used for 412 errors when an If-Match header is stale or a concurrent update won
+ */
+public class PreconditionFailedException extends RuntimeException {
+    
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+    
+    public PreconditionFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,57 @@
+package com.medicine.tracker.model.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO for a single operation of a batch request
+ * Carries the identifiers and the body the equivalent single-resource request would take
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperation {
+
+    // Client-side identifier echoed back in the result so queued actions can be matched up
+    private String clientId;
+
+    @NotNull(message = "Operation type is required")
+    private Type type;
+
+    private UUID profileId;
+
+    private UUID medicineId;
+
+    private UUID scheduleId;
+
+    // Version the client last saw, checked like an If-Match header on updates
+    private Long expectedVersion;
+
+    @Valid
+    private MedicineRequest medicine;
+
+    @Valid
+    private ScheduleRequest schedule;
+
+    private TakeDoseRequest takeDose;
+
+    /**
+     * Operations that can be replayed in a batch
+     */
+    public enum Type {
+        TAKE_DOSE,
+        CREATE_MEDICINE,
+        UPDATE_MEDICINE,
+        DELETE_MEDICINE,
+        CREATE_SCHEDULE,
+        UPDATE_SCHEDULE,
+        DELETE_SCHEDULE
+    }
+}
@@ -0,0 +1,26 @@
+package com.medicine.tracker.model.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for batch requests
+ * Contains an ordered list of operations replayed by a client that was offline
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequest {
+
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 100, message = "A batch can contain at most 100 operations")
+    private List<@Valid BatchOperation> operations;
+}
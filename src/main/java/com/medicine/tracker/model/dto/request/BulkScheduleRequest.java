@@ -0,0 +1,32 @@
+package com.medicine.tracker.model.dto.request;
+
+import com.medicine.tracker.model.entity.Schedule;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * DTO for bulk schedule requests
+ * Creates one schedule per time of day for a medicine, all with the same frequency
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkScheduleRequest {
+
+    @NotEmpty(message = "At least one time of day is required")
+    @Size(max = 48, message = "At most 48 times of day can be scheduled at once")
+    private List<@NotNull(message = "Time of day is required") LocalTime> timesOfDay;
+
+    private Schedule.Frequency frequency;
+
+    private Boolean isActive;
+}
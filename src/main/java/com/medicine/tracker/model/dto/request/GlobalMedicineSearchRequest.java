@@ -0,0 +1,31 @@
+package com.medicine.tracker.model.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for global medicine search requests
+ * Contains the search terms and the page to return
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlobalMedicineSearchRequest {
+
+    // Words to match; each word also matches as a prefix, so partial words find results while typing
+    @NotBlank(message = "Search terms are required")
+    private String name;
+
+    @Min(value = 0, message = "Page must be at least 0")
+    private Integer page;
+
+    @Min(value = 1, message = "Size must be at least 1")
+    @Max(value = 100, message = "Size must be at most 100")
+    private Integer size;
+}
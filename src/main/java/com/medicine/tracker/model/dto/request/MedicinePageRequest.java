@@ -0,0 +1,48 @@
+package com.medicine.tracker.model.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for paginated medicine listing requests
+ * Contains the page size, the cursor of the previous page, the sort order and optional filters
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicinePageRequest {
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 100, message = "Limit must be at most 100")
+    private Integer limit;
+
+    // Opaque cursor returned as nextCursor by the previous page
+    private String cursor;
+
+    private SortField sort;
+
+    private String category;
+
+    private String form;
+
+    // Only medicines expiring strictly before this date are returned
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate expiringBefore;
+
+    private String namePrefix;
+
+    /**
+     * Enum for the keyset a page is sorted by; the medicine ID breaks ties
+     */
+    public enum SortField {
+        EXPIRY, NAME
+    }
+}
@@ -0,0 +1,32 @@
+package com.medicine.tracker.model.dto.request;
+
+import com.medicine.tracker.model.entity.DoseEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO for take dose requests
+ * Contains optional details about the schedule occurrence a dose belongs to
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TakeDoseRequest {
+
+    private UUID scheduleId;
+
+    private LocalDateTime scheduledFor;
+
+    private LocalDateTime takenAt;
+
+    private DoseEvent.Source source;
+
+    // When true the dose event is durably written before the response is returned
+    private boolean synchronous;
+}
@@ -0,0 +1,59 @@
+package com.medicine.tracker.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for adherence report responses
+ * Contains taken/missed/late dose counts of a profile per medicine and per day
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdherenceReportResponse {
+
+    private UUID profileId;
+    private LocalDate from;
+    private LocalDate to;
+    private int taken;
+    private int missed;
+    private int late;
+    private List<MedicineAdherence> medicines;
+    private List<DailyAdherence> days;
+
+    /**
+     * Inner class to represent the adherence counts of one medicine
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class MedicineAdherence {
+        private UUID medicineId;
+        private String medicineName;
+        private int taken;
+        private int missed;
+        private int late;
+    }
+
+    /**
+     * Inner class to represent the adherence counts of one day
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class DailyAdherence {
+        private LocalDate day;
+        private int taken;
+        private int missed;
+        private int late;
+    }
+}
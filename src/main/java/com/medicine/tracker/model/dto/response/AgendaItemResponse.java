@@ -0,0 +1,40 @@
+package com.medicine.tracker.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO for agenda responses
+ * One scheduled dose of a medicine and whether it has been taken
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendaItemResponse {
+
+    private UUID scheduleId;
+    private UUID medicineId;
+    private UUID profileId;
+    private LocalDateTime scheduledFor;
+    private Status status;
+    private LocalDateTime takenAt;
+
+    /**
+     * Enum for the state of a scheduled dose
+     */
+    public enum Status {
+        // A dose was recorded for the occurrence
+        TAKEN,
+        // The day of the occurrence is over without a dose, as in the adherence report
+        MISSED,
+        // Today, more than the late threshold past the scheduled time
+        OVERDUE,
+        UPCOMING
+    }
+}
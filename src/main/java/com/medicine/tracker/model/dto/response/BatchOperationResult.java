@@ -0,0 +1,27 @@
+package com.medicine.tracker.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the result of a single batch operation
+ * Contains the HTTP status the equivalent single request would have returned and its body or error message
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperationResult {
+
+    private int index;
+
+    private String clientId;
+
+    private int status;
+
+    private Object body;
+
+    private String error;
+}
@@ -0,0 +1,25 @@
+package com.medicine.tracker.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for batch responses
+ * Contains one result per operation, in the order the operations were submitted
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse {
+
+    private int succeeded;
+
+    private int failed;
+
+    private List<BatchOperationResult> results;
+}
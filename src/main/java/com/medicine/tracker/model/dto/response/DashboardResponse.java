@@ -0,0 +1,55 @@
+package com.medicine.tracker.model.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for dashboard responses
+ * Contains every profile of the user with its active medicines and their active schedules,
+ * plus the counts shown as badges on the first screen
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResponse {
+
+    private List<ProfileDashboard> profiles;
+
+    // Active medicines expiring within 30 days, including already expired ones
+    private int expiringCount;
+
+    // Active medicines projected to run out within the low-stock window
+    private int lowStockCount;
+
+    /**
+     * Inner class to represent a profile with its medicines
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ProfileDashboard {
+        @JsonUnwrapped
+        private ProfileResponse profile;
+        private List<MedicineDashboard> medicines;
+    }
+
+    /**
+     * Inner class to represent a medicine with its active schedules
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class MedicineDashboard {
+        @JsonUnwrapped
+        private MedicineResponse medicine;
+        private List<ScheduleResponse> schedules;
+    }
+}
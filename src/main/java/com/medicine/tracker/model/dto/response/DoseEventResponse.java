@@ -0,0 +1,30 @@
+package com.medicine.tracker.model.dto.response;
+
+import com.medicine.tracker.model.entity.DoseEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO for dose event responses
+ * Contains a single entry of the dose history returned from API calls
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoseEventResponse {
+
+    private UUID id;
+    private UUID medicineId;
+    private UUID scheduleId;
+    private LocalDateTime scheduledFor;
+    private UUID profileId;
+    private LocalDateTime takenAt;
+    private Integer quantityDelta;
+    private DoseEvent.Source source;
+}
@@ -0,0 +1,28 @@
+package com.medicine.tracker.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for global medicine search responses
+ * Contains one page of medicines ordered by relevance
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlobalMedicinePageResponse {
+
+    private List<GlobalMedicineResponse> items;
+
+    private int page;
+
+    private int size;
+
+    // False when this is the last page; no total is counted, as that would rank every match
+    private boolean hasMore;
+}
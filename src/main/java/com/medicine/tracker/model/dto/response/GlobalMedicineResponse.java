@@ -37,6 +37,7 @@ public class GlobalMedicineResponse {
     private String category;
     private String atcCode;
     private LocalDate fdaApprovalDate;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
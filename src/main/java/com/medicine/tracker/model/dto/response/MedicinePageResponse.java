@@ -0,0 +1,26 @@
+package com.medicine.tracker.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for paginated medicine listing responses
+ * Contains one page of medicines and the cursor of the next page
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicinePageResponse {
+
+    private List<MedicineResponse> items;
+
+    // Null when this is the last page
+    private String nextCursor;
+
+    private boolean hasMore;
+}
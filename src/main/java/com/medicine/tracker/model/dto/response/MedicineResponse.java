@@ -35,6 +35,8 @@ public class MedicineResponse {
     private List<Medicine.Composition> composition;
     private String form;
     private Medicine.MedicineStatus status;
+    private LocalDate runsOutOn;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
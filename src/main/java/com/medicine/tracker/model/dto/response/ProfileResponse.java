@@ -21,5 +21,6 @@ public class ProfileResponse {
     private UUID id;
     private UUID userId;
     private String name;
+    private Long version;
     private LocalDateTime createdAt;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.medicine.tracker.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO for schedule overview responses
+ * Today's dose count and the next dose of a medicine with active schedules
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleOverviewResponse {
+
+    private UUID medicineId;
+    private int dosesToday;
+    private LocalDateTime nextDoseAt;
+}
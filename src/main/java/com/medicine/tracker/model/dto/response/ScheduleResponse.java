@@ -27,5 +27,6 @@ public class ScheduleResponse {
     private LocalTime timeOfDay;
     private Schedule.Frequency frequency;
     private Boolean isActive;
+    private Long version;
     private LocalDateTime createdAt;
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.medicine.tracker.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for delta sync responses
+ * Contains the profiles, medicines and schedules changed since the client's token and the IDs of deleted ones
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponse {
+
+    // Token to send as since on the next sync
+    private String token;
+
+    // When true the lists hold the complete current state and the client must drop anything not in them
+    private boolean fullResync;
+
+    private List<ProfileResponse> profiles;
+
+    private List<MedicineResponse> medicines;
+
+    private List<ScheduleResponse> schedules;
+
+    private List<UUID> deletedProfileIds;
+
+    private List<UUID> deletedMedicineIds;
+
+    private List<UUID> deletedScheduleIds;
+}
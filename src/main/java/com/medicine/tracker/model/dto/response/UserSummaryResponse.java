@@ -0,0 +1,33 @@
+package com.medicine.tracker.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for user summary responses
+ * Contains the counters shown as badges in the app
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryResponse {
+
+    // The day the day-relative counters refer to
+    private LocalDate day;
+
+    private int activeMedicines;
+
+    // Active medicines expiring by the end of the month, including already expired ones
+    private int expiringThisMonth;
+
+    // Active medicines projected to run out within the low-stock window
+    private int lowStock;
+
+    // Active schedules due on the day
+    private int schedulesToday;
+}
@@ -0,0 +1,53 @@
+package com.medicine.tracker.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Entity representing the adherence counters of one schedule on one day
+ * Counters are maintained incrementally as doses are recorded and missed doses are detected
+ */
+@Entity
+@Table(name = "adherence_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_adherence_daily_schedule_id_day", columnNames = {"schedule_id", "day"}),
+        indexes = @Index(name = "idx_adherence_daily_profile_id_day", columnList = "profile_id, day"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AdherenceDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "schedule_id", nullable = false)
+    private UUID scheduleId;
+
+    @Column(name = "medicine_id", nullable = false)
+    private UUID medicineId;
+
+    @Column(name = "profile_id", nullable = false)
+    private UUID profileId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private Integer taken;
+
+    @Column(nullable = false)
+    private Integer missed;
+
+    @Column(nullable = false)
+    private Integer late;
+}
@@ -0,0 +1,54 @@
+package com.medicine.tracker.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Entity representing the compacted dose history of one medicine schedule on one day
+ * Rows are produced when expired dose event partitions are rolled up and dropped
+ */
+@Entity
+@Table(name = "dose_daily_rollups", indexes = {
+        @Index(name = "idx_dose_daily_rollups_profile_id_day", columnList = "profile_id, day"),
+        @Index(name = "idx_dose_daily_rollups_medicine_id_day", columnList = "medicine_id, day")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DoseDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "medicine_id", nullable = false)
+    private UUID medicineId;
+
+    @Column(name = "schedule_id")
+    private UUID scheduleId;
+
+    @Column(name = "profile_id", nullable = false)
+    private UUID profileId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(name = "event_count", nullable = false)
+    private Integer eventCount;
+
+    @Column(name = "doses_taken", nullable = false)
+    private Integer dosesTaken;
+
+    @Column(name = "quantity_delta", nullable = false)
+    private Integer quantityDelta;
+}
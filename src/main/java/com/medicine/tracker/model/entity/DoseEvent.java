@@ -0,0 +1,63 @@
+package com.medicine.tracker.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing an entry in the append-only dose event log
+ * Records every dose taken and every manual quantity adjustment of a medicine
+ */
+@Entity
+@Table(name = "dose_events", indexes = {
+        @Index(name = "idx_dose_events_medicine_id_taken_at", columnList = "medicine_id, taken_at"),
+        @Index(name = "idx_dose_events_profile_id_taken_at", columnList = "profile_id, taken_at"),
+        @Index(name = "idx_dose_events_user_id_taken_at", columnList = "user_id, taken_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DoseEvent {
+
+    // Assigned by the application so events can be batch inserted without a round trip per row
+    @Id
+    private UUID id;
+
+    @Column(name = "medicine_id", nullable = false)
+    private UUID medicineId;
+
+    @Column(name = "schedule_id")
+    private UUID scheduleId;
+
+    @Column(name = "scheduled_for")
+    private LocalDateTime scheduledFor;
+
+    @Column(name = "profile_id", nullable = false)
+    private UUID profileId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+    @Column(name = "quantity_delta", nullable = false)
+    private Integer quantityDelta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Source source;
+
+    /**
+     * Enum for the origin of a dose event
+     */
+    public enum Source {
+        MANUAL, SCHEDULED, OFFLINE_SYNC, ADJUSTMENT
+    }
+}
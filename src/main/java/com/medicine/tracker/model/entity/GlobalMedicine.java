@@ -5,6 +5,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -16,6 +18,7 @@ import java.util.UUID;
  * Contains comprehensive information about medicines that can be shared across users
  */
 @Entity
+@DynamicUpdate
 @Table(name = "global_medicines")
 @Data
 @NoArgsConstructor
@@ -46,27 +49,33 @@ public class GlobalMedicine {
     @Column(columnDefinition = "TEXT")
     private String description;
     
+    // Element collections are loaded for up to one page of medicines at a time instead of one query per medicine
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "global_medicine_indications", joinColumns = @JoinColumn(name = "medicine_id"))
     @Column(name = "indication")
     private List<String> indications;
     
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "global_medicine_contraindications", joinColumns = @JoinColumn(name = "medicine_id"))
     @Column(name = "contraindication")
     private List<String> contraindications;
     
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "global_medicine_side_effects", joinColumns = @JoinColumn(name = "medicine_id"))
     @Column(name = "side_effect")
     private List<String> sideEffects;
     
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "global_medicine_warnings", joinColumns = @JoinColumn(name = "medicine_id"))
     @Column(name = "warning")
     private List<String> warnings;
     
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "global_medicine_interactions", joinColumns = @JoinColumn(name = "medicine_id"))
     @Column(name = "interaction")
     private List<String> interactions;
@@ -82,6 +91,13 @@ public class GlobalMedicine {
     @Column(name = "fda_approval_date")
     private LocalDate fdaApprovalDate;
     
+    // The search_vector column is not mapped: it is written in SQL after each save and only read by search queries
+    
+    // Optimistic lock version, also exposed as the ETag of the global medicine
+    @Version
+    @Column(name = "version", columnDefinition = "bigint not null default 0")
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -0,0 +1,64 @@
+package com.medicine.tracker.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording the outcome of a request sent with an Idempotency-Key header
+ * Retries with the same key get the stored response instead of executing the request again
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKey {
+
+    // SHA-256 of the user ID and the client's key, so keys are scoped per user and fixed-size
+    @Id
+    @Column(name = "id", length = 64)
+    private String id;
+
+    // SHA-256 of the method, URI and body of the first request
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    // Replayed with the body, so a retried create still learns the URL and version of what it created
+    @Column(name = "response_etag", length = 255)
+    private String responseEtag;
+
+    @Column(name = "response_location", length = 2048)
+    private String responseLocation;
+
+    @Column(name = "response_body")
+    private byte[] responseBody;
+
+    // While in progress this is the lock timeout, once completed the end of the retention window
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Enum for the processing state of a key
+     */
+    public enum Status {
+        IN_PROGRESS, COMPLETED
+    }
+}
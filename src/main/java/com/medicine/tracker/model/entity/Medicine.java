@@ -11,6 +11,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -19,7 +20,15 @@ import org.hibernate.type.SqlTypes;
  * Contains medicine details, dosage information, and scheduling data
  */
 @Entity
-@Table(name = "user_medicines")
+@DynamicUpdate
+@Table(name = "user_medicines", indexes = {
+        @Index(name = "idx_user_medicines_runs_out_on", columnList = "runs_out_on"),
+        @Index(name = "idx_user_medicines_user_status_expiry", columnList = "user_id, status, expiry_date, id"),
+        @Index(name = "idx_user_medicines_user_status_name", columnList = "user_id, status, name, id"),
+        @Index(name = "idx_user_medicines_profile_status_expiry", columnList = "profile_id, status, expiry_date, id"),
+        @Index(name = "idx_user_medicines_profile_status_name", columnList = "profile_id, status, name, id"),
+        @Index(name = "idx_user_medicines_user_sync_version", columnList = "user_id, sync_version")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -66,6 +75,23 @@ public class Medicine {
     @Column(length = 20)
     private MedicineStatus status;
     
+    // Average doses per day across active schedules; only changed by RefillForecastService
+    @Column(name = "daily_consumption", updatable = false)
+    private Double dailyConsumption;
+    
+    // Projected day the current quantity runs out at the current consumption rate
+    @Column(name = "runs_out_on")
+    private LocalDate runsOutOn;
+    
+    // User data version of the last write to this medicine, used by delta sync
+    @Column(name = "sync_version")
+    private Long syncVersion;
+    
+    // Optimistic lock version, exposed as the ETag of the single-resource endpoints
+    @Version
+    @Column(name = "version", columnDefinition = "bigint not null default 0")
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -80,6 +106,9 @@ public class Medicine {
         if (status == null) {
             status = MedicineStatus.ACTIVE;
         }
+        if (dailyConsumption == null) {
+            dailyConsumption = 0.0;
+        }
     }
     
     // Update updated_at on update
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -14,7 +15,10 @@ import java.util.UUID;
  * Each user can have multiple profiles (e.g., family members)
  */
 @Entity
-@Table(name = "profiles")
+@DynamicUpdate
+@Table(name = "profiles", indexes = {
+        @Index(name = "idx_profiles_user_sync_version", columnList = "user_id, sync_version")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,6 +35,15 @@ public class Profile {
     @Column(nullable = false)
     private String name;
     
+    // User data version of the last write to this profile, used by delta sync
+    @Column(name = "sync_version")
+    private Long syncVersion;
+    
+    // Incremented by Hibernate on every update of this profile; rejects writes based on a stale copy
+    @Version
+    @Column(name = "version", columnDefinition = "bigint not null default 0")
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
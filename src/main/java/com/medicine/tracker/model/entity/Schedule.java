@@ -5,9 +5,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 /**
@@ -15,7 +19,10 @@ import java.util.UUID;
  * Contains timing and frequency information for dosage reminders
  */
 @Entity
-@Table(name = "schedules")
+@DynamicUpdate
+@Table(name = "schedules", indexes = {
+        @Index(name = "idx_schedules_user_sync_version", columnList = "user_id, sync_version")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -45,6 +52,15 @@ public class Schedule {
     @Column(name = "is_active", columnDefinition = "boolean default true")
     private Boolean isActive;
     
+    // User data version of the last write to this schedule, used by delta sync
+    @Column(name = "sync_version")
+    private Long syncVersion;
+    
+    // Incremented by Hibernate on every update of this schedule; rejects writes based on a stale copy
+    @Version
+    @Column(name = "version", columnDefinition = "bigint not null default 0")
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -62,8 +78,55 @@ public class Schedule {
     
     /**
      * Enum for schedule frequency
+     * Each frequency carries the average number of doses per day it contributes to a medicine's consumption
      */
     public enum Frequency {
-        DAILY, WEEKLY, BIWEEKLY, MONTHLY, CUSTOM
+        DAILY(1.0),
+        WEEKLY(1.0 / 7),
+        BIWEEKLY(1.0 / 14),
+        MONTHLY(1.0 / 30),
+        // Custom schedules have no fixed cadence, so they are left out of refill forecasts
+        CUSTOM(0.0);
+        
+        private final double dosesPerDay;
+        
+        Frequency(double dosesPerDay) {
+            this.dosesPerDay = dosesPerDay;
+        }
+        
+        public double getDosesPerDay() {
+            return dosesPerDay;
+        }
+        
+        /**
+         * Find the first day on or after a day on which a schedule of this frequency is due
+         * WEEKLY and BIWEEKLY schedules recur every 7 or 14 days from their first day, MONTHLY ones on the
+         * day of month of their first day (skipping months without that day); CUSTOM ones have no fixed days
+         * @param firstDay The first day of the schedule, the day it was created
+         * @param day The day to start looking from
+         * @return The first due day, or null for CUSTOM
+         */
+        public LocalDate nextDueDay(LocalDate firstDay, LocalDate day) {
+            LocalDate from = day.isBefore(firstDay) ? firstDay : day;
+            return switch (this) {
+                case DAILY -> from;
+                case WEEKLY -> from.plusDays(Math.floorMod(
+                        firstDay.getDayOfWeek().getValue() - from.getDayOfWeek().getValue(), 7));
+                case BIWEEKLY -> from.plusDays(Math.floorMod(-ChronoUnit.DAYS.between(firstDay, from), 14));
+                case MONTHLY -> nextDayOfMonth(from, firstDay.getDayOfMonth());
+                case CUSTOM -> null;
+            };
+        }
+        
+        private static LocalDate nextDayOfMonth(LocalDate from, int dayOfMonth) {
+            YearMonth month = YearMonth.from(from);
+            if (from.getDayOfMonth() > dayOfMonth) {
+                month = month.plusMonths(1);
+            }
+            while (!month.isValidDay(dayOfMonth)) {
+                month = month.plusMonths(1);
+            }
+            return month.atDay(dayOfMonth);
+        }
     }
 }
\ No newline at end of file
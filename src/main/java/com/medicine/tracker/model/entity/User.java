@@ -49,6 +49,10 @@ public class User implements UserDetails {
     @Setter
     private String fcmToken;
     
+    // Bumped by UserDataVersionService on every write to the user's profiles, medicines or schedules
+    @Column(name = "data_version", insertable = false, updatable = false, columnDefinition = "bigint not null default 0")
+    private Long dataVersion;
+    
     @Override
     public String getPassword() {
         return password;
@@ -0,0 +1,48 @@
+package com.medicine.tracker.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing the badge counters of one user
+ * Counters are maintained incrementally by medicine and schedule writes; the day-relative ones
+ * (expiring this month, low stock, due today) are relative to summary_day and shifted by the daily rollover
+ */
+@Entity
+@Table(name = "user_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSummary {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    // The day the day-relative counters were computed for
+    @Column(name = "summary_day", nullable = false)
+    private LocalDate summaryDay;
+
+    @Column(name = "active_medicines", nullable = false)
+    private Integer activeMedicines;
+
+    @Column(name = "expiring_medicines", nullable = false)
+    private Integer expiringMedicines;
+
+    @Column(name = "low_stock_medicines", nullable = false)
+    private Integer lowStockMedicines;
+
+    @Column(name = "schedules_today", nullable = false)
+    private Integer schedulesToday;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.medicine.tracker.repository;
+
+import com.medicine.tracker.model.entity.AdherenceDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for AdherenceDaily entity operations
+ * Provides reads of the per-schedule daily adherence rollups
+ */
+@Repository
+public interface AdherenceDailyRepository extends JpaRepository<AdherenceDaily, UUID> {
+
+    /**
+     * Find the adherence rollups of a profile within a date range
+     * @param profileId The profile ID to filter rollups by
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     * @return List of rollups in the range ordered by day
+     */
+    List<AdherenceDaily> findByProfileIdAndDayBetweenOrderByDay(UUID profileId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,37 @@
+package com.medicine.tracker.repository;
+
+import com.medicine.tracker.model.entity.DoseEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for DoseEvent entity operations
+ * Queries always bound taken_at so Postgres only scans the matching monthly partitions
+ */
+@Repository
+public interface DoseEventRepository extends JpaRepository<DoseEvent, UUID> {
+
+    /**
+     * Find all dose events for a profile within a time window
+     * @param profileId The profile ID to filter events by
+     * @param from The inclusive start of the window
+     * @param to The exclusive end of the window
+     * @return List of dose events in the window, most recent first
+     */
+    List<DoseEvent> findByProfileIdAndTakenAtGreaterThanEqualAndTakenAtLessThanOrderByTakenAtDesc(
+            UUID profileId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Find the scheduled dose events of a user within a time window
+     * @param userId The user ID to filter events by
+     * @param from The inclusive start of the window
+     * @param to The exclusive end of the window
+     * @return List of dose events in the window that belong to a schedule
+     */
+    List<DoseEvent> findByUserIdAndScheduleIdIsNotNullAndTakenAtGreaterThanEqualAndTakenAtLessThan(
+            UUID userId, LocalDateTime from, LocalDateTime to);
+}
@@ -2,6 +2,8 @@ package com.medicine.tracker.repository;
 
 import com.medicine.tracker.model.entity.GlobalMedicine;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,11 +17,19 @@ import java.util.UUID;
 public interface GlobalMedicineRepository extends JpaRepository<GlobalMedicine, UUID> {
     
     /**
-     * Find global medicines by name (case-insensitive partial match)
-     * @param name The name to search for
-     * @return List of global medicines matching the name
+     * Find global medicines matching a full-text query, most relevant first
+     * The GIN index on search_vector finds the matches; ts_rank then scores every match before the limit applies,
+     * so the cost follows the number of matches rather than the page size. Ties are broken by name and ID so pages are stable
+     * @param query The tsquery to match, in the simple configuration
+     * @param limit The maximum number of medicines to return
+     * @param offset The number of medicines to skip
+     * @return Page of global medicines matching the query
      */
-    List<GlobalMedicine> findByNameContainingIgnoreCase(String name);
+    @Query(value = "SELECT g.* FROM global_medicines g, to_tsquery('simple', :query) q "
+            + "WHERE g.search_vector @@ q "
+            + "ORDER BY ts_rank(g.search_vector, q) DESC, g.name, g.id "
+            + "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<GlobalMedicine> searchByText(@Param("query") String query, @Param("limit") int limit, @Param("offset") int offset);
     
     /**
      * Find global medicines by category
@@ -6,7 +6,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -14,7 +16,7 @@ import java.util.UUID;
  * Provides CRUD operations and custom queries for medicine management
  */
 @Repository
-public interface MedicineRepository extends JpaRepository<Medicine, UUID> {
+public interface MedicineRepository extends JpaRepository<Medicine, UUID>, MedicineRepositoryCustom {
     
     /**
      * Find all active medicines for a specific user
@@ -46,6 +48,43 @@ public interface MedicineRepository extends JpaRepository<Medicine, UUID> {
      */
     List<Medicine> findByUserIdAndProfileIdAndStatus(UUID userId, UUID profileId, Medicine.MedicineStatus status);
     
+    /**
+     * Find a medicine of a user regardless of status
+     * @param id The medicine ID to look up
+     * @param userId The user ID the medicine must belong to
+     * @return The medicine, or empty if it does not exist or belongs to someone else
+     */
+    Optional<Medicine> findByIdAndUserId(UUID id, UUID userId);
+    
+    /**
+     * Find a medicine of a user with a specific status
+     * Ownership is part of the WHERE clause, so a foreign medicine is simply not found
+     * @param id The medicine ID to look up
+     * @param userId The user ID the medicine must belong to
+     * @param status The status the medicine must have
+     * @return The medicine, or empty if it does not exist, belongs to someone else or has another status
+     */
+    Optional<Medicine> findByIdAndUserIdAndStatus(UUID id, UUID userId, Medicine.MedicineStatus status);
+    
+    /**
+     * Find a medicine of a user's profile regardless of status
+     * @param id The medicine ID to look up
+     * @param userId The user ID the medicine must belong to
+     * @param profileId The profile ID the medicine must belong to
+     * @return The medicine, or empty if it does not exist or belongs to another user or profile
+     */
+    Optional<Medicine> findByIdAndUserIdAndProfileId(UUID id, UUID userId, UUID profileId);
+    
+    /**
+     * Find a medicine of a user's profile with a specific status
+     * @param id The medicine ID to look up
+     * @param userId The user ID the medicine must belong to
+     * @param profileId The profile ID the medicine must belong to
+     * @param status The status the medicine must have
+     * @return The medicine, or empty if it does not exist, belongs to another user or profile or has another status
+     */
+    Optional<Medicine> findByIdAndUserIdAndProfileIdAndStatus(UUID id, UUID userId, UUID profileId, Medicine.MedicineStatus status);
+    
     /**
      * Check if a medicine exists for a specific user
      * @param userId The user ID to check
@@ -60,4 +99,22 @@ public interface MedicineRepository extends JpaRepository<Medicine, UUID> {
      */
     @Query(value = "SELECT * FROM user_medicines m WHERE m.expiry_date <= CURRENT_DATE + INTERVAL '30 day' AND m.status = 'ACTIVE'", nativeQuery = true)
     List<Medicine> findExpiringMedicines();
+    
+    /**
+     * Find medicines projected to run out within a date range
+     * Backed by the runs_out_on index, so this is a range scan
+     * @param status The status to filter by (ACTIVE)
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     * @return List of medicines running out within the range, soonest first
+     */
+    List<Medicine> findByStatusAndRunsOutOnBetweenOrderByRunsOutOn(Medicine.MedicineStatus status, LocalDate from, LocalDate to);
+    
+    /**
+     * Find the medicines of a user written after a data version
+     * @param userId The user ID to filter medicines by
+     * @param syncVersion The data version the client has already applied
+     * @return List of medicines changed since the version
+     */
+    List<Medicine> findByUserIdAndSyncVersionGreaterThan(UUID userId, Long syncVersion);
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.medicine.tracker.repository;
+
+import com.medicine.tracker.model.dto.request.MedicinePageRequest;
+import com.medicine.tracker.model.entity.Medicine;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Custom repository fragment for Medicine queries that cannot be derived from method names
+ */
+public interface MedicineRepositoryCustom {
+
+    /**
+     * Find one keyset page of active medicines of a user or of one of their profiles
+     * @param userId The user ID to filter medicines by
+     * @param profileId The profile ID to filter medicines by, or null for all profiles of the user
+     * @param pageRequest The sort order and filters of the page
+     * @param after The last medicine of the previous page, or null for the first page
+     * @param limit Maximum number of medicines to return
+     * @return List of medicines following the given medicine in sort order
+     */
+    List<Medicine> findPage(UUID userId, UUID profileId, MedicinePageRequest pageRequest, Medicine after, int limit);
+}
@@ -0,0 +1,107 @@
+package com.medicine.tracker.repository;
+
+import com.medicine.tracker.model.dto.request.MedicinePageRequest;
+import com.medicine.tracker.model.entity.Medicine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of MedicineRepositoryCustom using the Criteria API
+ * Pages are read with keyset predicates on (expiry_date, id) or (name, id), which the composite
+ * indexes on user_medicines serve directly, so the cost of a page does not grow with its depth
+ * A name prefix is matched through the text_pattern_ops indexes on name, as the sorting indexes follow the
+ * database collation; category, form and expiry filters are checked on the rows of the user's or profile's range
+ */
+public class MedicineRepositoryImpl implements MedicineRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Find one keyset page of active medicines of a user or of one of their profiles
+     * @param userId The user ID to filter medicines by
+     * @param profileId The profile ID to filter medicines by, or null for all profiles of the user
+     * @param pageRequest The sort order and filters of the page
+     * @param after The last medicine of the previous page, or null for the first page
+     * @param limit Maximum number of medicines to return
+     * @return List of medicines following the given medicine in sort order
+     */
+    @Override
+    public List<Medicine> findPage(UUID userId, UUID profileId, MedicinePageRequest pageRequest, Medicine after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Medicine> query = cb.createQuery(Medicine.class);
+        Root<Medicine> medicine = query.from(Medicine.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (profileId != null) {
+            predicates.add(cb.equal(medicine.get("profileId"), profileId));
+        }
+        predicates.add(cb.equal(medicine.get("userId"), userId));
+        predicates.add(cb.equal(medicine.get("status"), Medicine.MedicineStatus.ACTIVE));
+
+        if (pageRequest.getCategory() != null) {
+            predicates.add(cb.equal(medicine.get("category"), pageRequest.getCategory()));
+        }
+        if (pageRequest.getForm() != null) {
+            predicates.add(cb.equal(medicine.get("form"), pageRequest.getForm()));
+        }
+        if (pageRequest.getExpiringBefore() != null) {
+            predicates.add(cb.lessThan(medicine.<LocalDate>get("expiryDate"), pageRequest.getExpiringBefore()));
+        }
+        if (pageRequest.getNamePrefix() != null && !pageRequest.getNamePrefix().isEmpty()) {
+            predicates.add(cb.like(medicine.<String>get("name"), escapeLike(pageRequest.getNamePrefix()) + "%", '\\'));
+        }
+
+        boolean byName = pageRequest.getSort() == MedicinePageRequest.SortField.NAME;
+        if (after != null) {
+            if (byName) {
+                predicates.add(keysetAfter(cb, medicine.<String>get("name"), after.getName(), medicine.<UUID>get("id"), after.getId()));
+            } else {
+                predicates.add(keysetAfter(cb, medicine.<LocalDate>get("expiryDate"), after.getExpiryDate(), medicine.<UUID>get("id"), after.getId()));
+            }
+        }
+
+        query.select(medicine)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(
+                        cb.asc(medicine.get(byName ? "name" : "expiryDate")),
+                        cb.asc(medicine.get("id"))
+                );
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Build the predicate (key, id) > (lastKey, lastId)
+     * The redundant key >= lastKey bound lets the planner start the index range scan at the cursor
+     */
+    private <T extends Comparable<? super T>> Predicate keysetAfter(CriteriaBuilder cb, Path<T> key, T lastKey,
+                                                                  Path<UUID> id, UUID lastId) {
+        return cb.and(
+                cb.greaterThanOrEqualTo(key, lastKey),
+                cb.or(
+                        cb.greaterThan(key, lastKey),
+                        cb.and(cb.equal(key, lastKey), cb.greaterThan(id, lastId))
+                )
+        );
+    }
+
+    /**
+     * Escape LIKE wildcards in a user supplied prefix
+     */
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -45,4 +45,12 @@ public interface ProfileRepository extends JpaRepository<Profile, UUID> {
      * @return true if a profile with the name exists for the user (excluding the specified ID), false otherwise
      */
     boolean existsByUserIdAndNameAndIdNot(UUID userId, String name, UUID id);
+    
+    /**
+     * Find the profiles of a user written after a data version
+     * @param userId The user ID to filter profiles by
+     * @param syncVersion The data version the client has already applied
+     * @return List of profiles changed since the version
+     */
+    List<Profile> findByUserIdAndSyncVersionGreaterThan(UUID userId, Long syncVersion);
 }
\ No newline at end of file
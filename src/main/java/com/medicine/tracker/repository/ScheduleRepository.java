@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -24,6 +25,31 @@ public interface ScheduleRepository extends JpaRepository<Schedule, UUID> {
      */
     List<Schedule> findByMedicineIdAndIsActiveTrue(UUID medicineId);
     
+    /**
+     * Find all active schedules of a user for a specific medicine
+     * @param userId The user ID the schedules must belong to
+     * @param medicineId The medicine ID to filter schedules by
+     * @return List of active schedules for the medicine, empty if the medicine belongs to someone else
+     */
+    List<Schedule> findByUserIdAndMedicineIdAndIsActiveTrue(UUID userId, UUID medicineId);
+    
+    /**
+     * Find a schedule of a user
+     * Ownership is part of the WHERE clause, so a foreign schedule is simply not found
+     * @param id The schedule ID to look up
+     * @param userId The user ID the schedule must belong to
+     * @return The schedule, or empty if it does not exist or belongs to someone else
+     */
+    Optional<Schedule> findByIdAndUserId(UUID id, UUID userId);
+    
+    /**
+     * Find an active schedule of a user
+     * @param id The schedule ID to look up
+     * @param userId The user ID the schedule must belong to
+     * @return The schedule, or empty if it does not exist, belongs to someone else or is inactive
+     */
+    Optional<Schedule> findByIdAndUserIdAndIsActiveTrue(UUID id, UUID userId);
+    
     /**
      * Find all active schedules for a specific profile
      * @param profileId The profile ID to filter schedules by
@@ -38,6 +64,16 @@ public interface ScheduleRepository extends JpaRepository<Schedule, UUID> {
      */
     List<Schedule> findByUserIdAndIsActiveTrue(UUID userId);
     
+    /**
+     * Find the active schedules of a user whose medicine is active
+     * Schedules are left behind when their medicine is deleted, so this skips those
+     * @param userId The user ID to filter schedules by
+     * @return List of active schedules of active medicines of the user
+     */
+    @Query(value = "SELECT s.* FROM schedules s JOIN user_medicines m ON m.id = s.medicine_id "
+            + "WHERE s.user_id = :userId AND s.is_active = true AND m.status = 'ACTIVE'", nativeQuery = true)
+    List<Schedule> findActiveWithActiveMedicineByUserId(@Param("userId") UUID userId);
+    
     /**
      * Find all active schedules for a specific user and profile
      * @param userId The user ID to filter schedules by
@@ -62,22 +98,10 @@ public interface ScheduleRepository extends JpaRepository<Schedule, UUID> {
     List<Schedule> findByTimeOfDayAndIsActiveTrue(LocalTime timeOfDay);
     
     /**
-     * Check if a schedule exists with the same medicine, time of day, and frequency
-     * @param medicineId The medicine ID to check
-     * @param timeOfDay The time of day to check
-     * @param frequency The frequency to check
-     * @param isActive The active status to check
-     * @return true if a matching schedule exists, false otherwise
-     */
-    boolean existsByMedicineIdAndTimeOfDayAndFrequencyAndIsActiveTrue(UUID medicineId, LocalTime timeOfDay, com.medicine.tracker.model.entity.Schedule.Frequency frequency);
-    
-    /**
-     * Find schedules with the same medicine, time of day, and frequency
-     * @param medicineId The medicine ID to check
-     * @param timeOfDay The time of day to check
-     * @param frequency The frequency to check
-     * @param isActive The active status to check
-     * @return List of matching schedules
+     * Find the schedules of a user written after a data version
+     * @param userId The user ID to filter schedules by
+     * @param syncVersion The data version the client has already applied
+     * @return List of schedules changed since the version
      */
-    List<Schedule> findByMedicineIdAndTimeOfDayAndFrequencyAndIsActiveTrue(UUID medicineId, LocalTime timeOfDay, com.medicine.tracker.model.entity.Schedule.Frequency frequency);
+    List<Schedule> findByUserIdAndSyncVersionGreaterThan(UUID userId, Long syncVersion);
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.medicine.tracker.repository;
+
+import com.medicine.tracker.model.entity.SyncTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for SyncTombstone entity operations
+ * Provides the deletions of a user since a data version and the retention purge
+ */
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, UUID> {
+
+    /**
+     * Find the deletions of a user after a data version
+     * @param userId The user ID to filter tombstones by
+     * @param syncVersion The data version the client has already applied
+     * @return List of tombstones newer than the version
+     */
+    List<SyncTombstone> findByUserIdAndSyncVersionGreaterThan(UUID userId, Long syncVersion);
+
+    /**
+     * Delete tombstones older than the retention window
+     * @param cutoff Tombstones deleted before this time are removed
+     * @return Number of tombstones removed
+     */
+    @Modifying
+    @Query("DELETE FROM SyncTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteByDeletedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+}
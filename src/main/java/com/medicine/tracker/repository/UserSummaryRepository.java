@@ -0,0 +1,15 @@
+package com.medicine.tracker.repository;
+
+import com.medicine.tracker.model.entity.UserSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * Repository interface for UserSummary entity operations
+ * Counters are only written through UserSummaryService, so this is used for primary-key reads
+ */
+@Repository
+public interface UserSummaryRepository extends JpaRepository<UserSummary, UUID> {
+}
@@ -0,0 +1,28 @@
+package com.medicine.tracker.scheduler;
+
+import com.medicine.tracker.service.AdherenceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Scheduled component for adherence tracking
+ * Detects scheduled doses that were never taken
+ */
+@Component
+@RequiredArgsConstructor
+public class AdherenceScheduler {
+
+    private final AdherenceService adherenceService;
+
+    /**
+     * Scheduled task to detect missed doses
+     * Runs daily at 00:30 AM to mark yesterday's untaken scheduled doses as missed
+     */
+    @Scheduled(cron = "0 30 0 * * *") // Run daily at 00:30 AM
+    public void detectMissedDoses() {
+        adherenceService.detectMissedDoses(LocalDate.now().minusDays(1));
+    }
+}
@@ -0,0 +1,44 @@
+package com.medicine.tracker.scheduler;
+
+import com.medicine.tracker.service.DoseHistoryMaintenanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled component for dose history maintenance
+ * Creates monthly dose event partitions ahead of time and applies the retention policy
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DoseHistoryMaintenanceScheduler {
+    
+    private final DoseHistoryMaintenanceService doseHistoryMaintenanceService;
+    
+    /**
+     * Make sure the dose event table is partitioned and upcoming partitions exist on startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareDoseHistory() {
+        try {
+            doseHistoryMaintenanceService.ensurePartitioned();
+            doseHistoryMaintenanceService.createUpcomingPartitions();
+        } catch (Exception e) {
+            log.error("Failed to prepare dose history partitions: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Scheduled task to maintain dose history partitions
+     * Runs daily at 3:15 AM to create upcoming partitions and compact expired ones
+     */
+    @Scheduled(cron = "0 15 3 * * *") // Run daily at 3:15 AM
+    public void maintainDoseHistory() {
+        doseHistoryMaintenanceService.createUpcomingPartitions();
+        doseHistoryMaintenanceService.compactExpiredPartitions();
+    }
+}
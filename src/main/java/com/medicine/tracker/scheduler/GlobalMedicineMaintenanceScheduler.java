@@ -0,0 +1,32 @@
+package com.medicine.tracker.scheduler;
+
+import com.medicine.tracker.service.GlobalMedicineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component for global medicine catalog maintenance
+ * Creates the full-text search column and GIN index, which Hibernate cannot declare
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GlobalMedicineMaintenanceScheduler {
+
+    private final GlobalMedicineService globalMedicineService;
+
+    /**
+     * Make sure the catalog is searchable on startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareSearchIndex() {
+        try {
+            globalMedicineService.ensureSearchIndex();
+        } catch (Exception e) {
+            log.error("Failed to prepare the full-text search index on global medicines: {}", e.getMessage(), e);
+        }
+    }
+}
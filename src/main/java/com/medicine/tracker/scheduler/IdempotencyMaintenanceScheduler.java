@@ -0,0 +1,26 @@
+package com.medicine.tracker.scheduler;
+
+import com.medicine.tracker.service.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled component for idempotency key maintenance
+ * Removes stored responses once they are past the retention window
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyMaintenanceScheduler {
+
+    private final IdempotencyService idempotencyService;
+
+    /**
+     * Scheduled task to purge expired idempotency keys
+     * Runs every hour at minute 20
+     */
+    @Scheduled(cron = "0 20 * * * *") // Run hourly at minute 20
+    public void purgeExpiredKeys() {
+        idempotencyService.purgeExpiredKeys();
+    }
+}
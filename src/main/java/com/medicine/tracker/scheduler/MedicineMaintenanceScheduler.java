@@ -0,0 +1,32 @@
+package com.medicine.tracker.scheduler;
+
+import com.medicine.tracker.service.MedicineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component for user medicine table maintenance
+ * Creates the pattern operator indexes on medicine names, which Hibernate cannot declare
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MedicineMaintenanceScheduler {
+
+    private final MedicineService medicineService;
+
+    /**
+     * Make sure name prefix filters of medicine pages are served by an index on startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareMedicineIndexes() {
+        try {
+            medicineService.ensureNamePrefixIndexes();
+        } catch (Exception e) {
+            log.error("Failed to create the name prefix indexes on user medicines: {}", e.getMessage(), e);
+        }
+    }
+}
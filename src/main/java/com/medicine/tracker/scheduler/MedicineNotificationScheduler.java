@@ -32,4 +32,13 @@ public class MedicineNotificationScheduler {
     public void sendExpiryNotifications() {
         notificationService.sendExpiryNotifications();
     }
+    
+    /**
+     * Scheduled task to send low stock notifications
+     * Runs daily at 9:05 AM to check for medicines projected to run out soon
+     */
+    @Scheduled(cron = "0 5 9 * * *") // Run daily at 9:05 AM
+    public void sendLowStockNotifications() {
+        notificationService.sendLowStockNotifications();
+    }
 }
\ No newline at end of file
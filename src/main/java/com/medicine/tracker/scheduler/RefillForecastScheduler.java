@@ -0,0 +1,32 @@
+package com.medicine.tracker.scheduler;
+
+import com.medicine.tracker.service.RefillForecastService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component for refill forecast initialization
+ * Computes the forecast of medicines created before forecasting existed
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RefillForecastScheduler {
+
+    private final RefillForecastService refillForecastService;
+
+    /**
+     * Initialize missing refill forecasts on startup; afterwards they are only updated incrementally
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeForecasts() {
+        try {
+            refillForecastService.initializeMissingForecasts();
+        } catch (Exception e) {
+            log.error("Failed to initialize refill forecasts: {}", e.getMessage(), e);
+        }
+    }
+}
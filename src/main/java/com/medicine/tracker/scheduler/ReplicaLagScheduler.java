@@ -0,0 +1,26 @@
+package com.medicine.tracker.scheduler;
+
+import com.medicine.tracker.config.ReplicaRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled component for read replica monitoring
+ * Refreshes the replication lag that decides whether a replica serves reads
+ */
+@Component
+@RequiredArgsConstructor
+public class ReplicaLagScheduler {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    /**
+     * Scheduled task to measure the lag of every replica
+     * Runs every 10 seconds
+     */
+    @Scheduled(fixedDelay = 10000) // Run every 10 seconds
+    public void refreshReplicaLag() {
+        routingDataSource.refreshReplicaLag();
+    }
+}
@@ -0,0 +1,32 @@
+package com.medicine.tracker.scheduler;
+
+import com.medicine.tracker.service.ScheduleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component for schedule table maintenance
+ * Creates the partial unique index on active schedules, which Hibernate cannot declare
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleMaintenanceScheduler {
+
+    private final ScheduleService scheduleService;
+
+    /**
+     * Make sure duplicate active schedules are rejected by the database on startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareSchedules() {
+        try {
+            scheduleService.ensureUniqueActiveSchedules();
+        } catch (Exception e) {
+            log.error("Failed to create the unique index on active schedules: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.medicine.tracker.scheduler;
+
+import com.medicine.tracker.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled component for delta sync maintenance
+ * Removes deletion tombstones once they are past the retention window
+ */
+@Component
+@RequiredArgsConstructor
+public class SyncMaintenanceScheduler {
+
+    private final SyncService syncService;
+
+    /**
+     * Scheduled task to purge expired sync tombstones
+     * Runs daily at 3:45 AM
+     */
+    @Scheduled(cron = "0 45 3 * * *") // Run daily at 3:45 AM
+    public void purgeExpiredTombstones() {
+        syncService.purgeExpiredTombstones();
+    }
+}
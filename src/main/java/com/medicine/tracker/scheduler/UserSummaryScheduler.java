@@ -0,0 +1,37 @@
+package com.medicine.tracker.scheduler;
+
+import com.medicine.tracker.service.UserSummaryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Scheduled component for the per-user summary counters
+ * Moves the day-relative counters to the new day and repairs counters that drifted
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSummaryScheduler {
+
+    private final UserSummaryService userSummaryService;
+
+    /**
+     * Scheduled task to shift the expiring, low-stock and due-today counters to the new day
+     * Runs daily at 00:01 AM
+     */
+    @Scheduled(cron = "0 1 0 * * *") // Run daily at 00:01 AM
+    public void rollOver() {
+        userSummaryService.rollOver(LocalDate.now());
+    }
+
+    /**
+     * Scheduled task to recompute every summary and repair those that drifted
+     * Runs daily at 4:15 AM
+     */
+    @Scheduled(cron = "0 15 4 * * *") // Run daily at 4:15 AM
+    public void reconcile() {
+        userSummaryService.reconcile();
+    }
+}
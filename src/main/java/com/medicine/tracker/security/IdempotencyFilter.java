@@ -0,0 +1,239 @@
+package com.medicine.tracker.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicine.tracker.exception.ErrorResponse;
+import com.medicine.tracker.model.entity.IdempotencyKey;
+import com.medicine.tracker.model.entity.User;
+import com.medicine.tracker.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Filter that makes POST and PUT requests carrying an Idempotency-Key header safe to retry
+ * Runs after JWT authentication; the first request with a key executes normally and its response is stored,
+ * retries with the same key and body get the stored response without reaching the controller
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Only keyed POST and PUT requests are handled; multipart uploads are skipped because their
+     * parts are parsed from the original request stream and cannot be read ahead for hashing
+     * @param request The HTTP request
+     * @return true if the request passes through untouched
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String method = request.getMethod();
+        String contentType = request.getContentType();
+        return request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !("POST".equals(method) || "PUT".equals(method))
+                || (contentType != null && contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE));
+    }
+
+    /**
+     * Replay, reject or execute a keyed request
+     * @param request The HTTP request
+     * @param response The HTTP response
+     * @param filterChain The filter chain
+     * @throws ServletException If a servlet error occurs
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            // Unauthenticated requests are rejected further down the chain
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String requestHash = hash(request, cachedRequest.body);
+
+        IdempotencyKey existing = idempotencyService.begin(user.getId(), key, requestHash);
+        if (existing != null) {
+            if (!existing.getRequestHash().equals(requestHash)) {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+            } else if (existing.getStatus() == IdempotencyKey.Status.IN_PROGRESS) {
+                writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed");
+            } else {
+                replay(existing, response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(cachedRequest, cachedResponse);
+            if (isFinal(cachedResponse.getStatus())) {
+                idempotencyService.complete(user.getId(), key, requestHash, cachedResponse.getStatus(),
+                        cachedResponse.getContentType(), cachedResponse.getHeader(HttpHeaders.ETAG),
+                        cachedResponse.getHeader(HttpHeaders.LOCATION), cachedResponse.getContentAsByteArray());
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyService.release(user.getId(), key);
+            }
+            cachedResponse.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Check whether a response is the final outcome of a request and can be replayed for its key
+     * Server errors, including database failures, and version conflicts with a concurrent write are not final:
+     * the same request can succeed once the client retries it with the same key
+     * @param status The status of the response
+     * @return true if the response is stored for replay
+     */
+    private static boolean isFinal(int status) {
+        return status < 500 && status != HttpStatus.CONFLICT.value() && status != HttpStatus.PRECONDITION_FAILED.value();
+    }
+
+    private void replay(IdempotencyKey stored, HttpServletResponse response) throws IOException {
+        log.debug("Replaying stored response for idempotency key {}", stored.getId());
+        response.setStatus(stored.getResponseStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        if (stored.getResponseEtag() != null) {
+            response.setHeader(HttpHeaders.ETAG, stored.getResponseEtag());
+        }
+        if (stored.getResponseLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.getResponseLocation());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.getResponseBody() != null) {
+            response.getOutputStream().write(stored.getResponseBody());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .build();
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private String hash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Request wrapper that reads the body up front so it can be hashed and still be read by the controller
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("Asynchronous reads are not supported");
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
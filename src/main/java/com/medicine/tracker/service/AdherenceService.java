@@ -0,0 +1,38 @@
+package com.medicine.tracker.service;
+
+import com.medicine.tracker.model.dto.response.AdherenceReportResponse;
+import com.medicine.tracker.model.entity.DoseEvent;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service interface for adherence tracking operations
+ * Maintains per-schedule daily adherence counters and builds adherence reports from them
+ */
+public interface AdherenceService {
+
+    /**
+     * Add recorded doses to the adherence counters of their schedules
+     * @param doseEvents The dose events that were written to the dose event log
+     */
+    void recordDoses(List<DoseEvent> doseEvents);
+
+    /**
+     * Mark every scheduled occurrence on a day that has no dose as missed
+     * @param day The day to check, which should be fully elapsed
+     * @return Number of schedules marked as missed
+     */
+    int detectMissedDoses(LocalDate day);
+
+    /**
+     * Get the adherence report of a profile within a date range
+     * @param userId The ID of the user requesting the report
+     * @param profileId The ID of the profile to build the report for
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     * @return Adherence report with counts per medicine and per day
+     */
+    AdherenceReportResponse getAdherenceReport(UUID userId, UUID profileId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,23 @@
+package com.medicine.tracker.service;
+
+import com.medicine.tracker.model.dto.response.AgendaItemResponse;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Service interface for the dose agenda
+ * Expands the schedules of a user into the individual doses due on each day
+ */
+public interface AgendaService {
+
+    /**
+     * Get the scheduled doses of a user within a range of days
+     * @param userId The ID of the user
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     * @return Scheduled doses in time order, each marked taken, missed, overdue or upcoming
+     */
+    Stream<AgendaItemResponse> getAgenda(UUID userId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,21 @@
+package com.medicine.tracker.service;
+
+import com.medicine.tracker.model.dto.request.BatchRequest;
+import com.medicine.tracker.model.dto.response.BatchResponse;
+
+import java.util.UUID;
+
+/**
+ * Service interface for batch operations
+ * Replays queued offline actions of a user in a single round trip
+ */
+public interface BatchService {
+
+    /**
+     * Execute the operations of a batch in order
+     * @param userId The ID of the user the operations belong to
+     * @param batchRequest The operations to execute
+     * @return One result per operation, in submission order
+     */
+    BatchResponse executeBatch(UUID userId, BatchRequest batchRequest);
+}
@@ -0,0 +1,19 @@
+package com.medicine.tracker.service;
+
+import com.medicine.tracker.model.dto.response.DashboardResponse;
+
+import java.util.UUID;
+
+/**
+ * Service interface for the dashboard
+ * Assembles everything the app shows on launch in a single call
+ */
+public interface DashboardService {
+
+    /**
+     * Get the dashboard of a user
+     * @param userId The ID of the user
+     * @return Profiles with nested medicines and active schedules, plus expiring and low-stock counts
+     */
+    DashboardResponse getDashboard(UUID userId);
+}
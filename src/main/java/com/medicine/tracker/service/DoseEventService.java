@@ -0,0 +1,42 @@
+package com.medicine.tracker.service;
+
+import com.medicine.tracker.model.dto.response.DoseEventResponse;
+import com.medicine.tracker.model.entity.DoseEvent;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service interface for the append-only dose event log
+ * Handles buffered and synchronous recording of dose events
+ */
+public interface DoseEventService {
+
+    /**
+     * Record a dose event; the event is buffered and written with the next batch
+     * @param doseEvent The dose event to record
+     */
+    void record(DoseEvent doseEvent);
+
+    /**
+     * Record a dose event and wait until the batch containing it has been written
+     * @param doseEvent The dose event to record
+     */
+    void recordSynchronously(DoseEvent doseEvent);
+
+    /**
+     * Write all buffered dose events and wait for them to be persisted
+     */
+    void flush();
+
+    /**
+     * Get the dose history of a profile within a date range
+     * @param userId The ID of the user requesting the history
+     * @param profileId The ID of the profile to retrieve the history for
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     * @return List of dose events in the range, most recent first
+     */
+    List<DoseEventResponse> getDoseHistory(UUID userId, UUID profileId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,23 @@
+package com.medicine.tracker.service;
+
+/**
+ * Service interface for dose history storage maintenance
+ * Manages the monthly range partitions of the dose event log and their retention
+ */
+public interface DoseHistoryMaintenanceService {
+
+    /**
+     * Convert the dose event table into a range-partitioned table if it is still a plain table
+     */
+    void ensurePartitioned();
+
+    /**
+     * Create the monthly partitions for the current month and the configured number of months ahead
+     */
+    void createUpcomingPartitions();
+
+    /**
+     * Roll up partitions older than the retention period into per-schedule daily rollups and drop them
+     */
+    void compactExpiredPartitions();
+}
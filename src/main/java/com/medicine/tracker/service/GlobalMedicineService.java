@@ -1,6 +1,9 @@
 package com.medicine.tracker.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.medicine.tracker.model.dto.request.GlobalMedicineRequest;
+import com.medicine.tracker.model.dto.request.GlobalMedicineSearchRequest;
+import com.medicine.tracker.model.dto.response.GlobalMedicinePageResponse;
 import com.medicine.tracker.model.dto.response.GlobalMedicineResponse;
 import com.medicine.tracker.model.entity.GlobalMedicine;
 
@@ -34,11 +37,11 @@ public interface GlobalMedicineService {
     GlobalMedicineResponse getGlobalMedicineById(UUID id);
     
     /**
-     * Search global medicines by name (partial match)
-     * @param name The name to search for
-     * @return List of global medicines matching the search
+     * Search global medicines by name, brand and generic name, indications and description
+     * @param searchRequest The search terms and the page to return
+     * @return Page of global medicines matching the search, most relevant first
      */
-    List<GlobalMedicineResponse> searchGlobalMedicinesByName(String name);
+    GlobalMedicinePageResponse searchGlobalMedicines(GlobalMedicineSearchRequest searchRequest);
     
     /**
      * Search global medicines by category
@@ -51,13 +54,28 @@ public interface GlobalMedicineService {
      * Update an existing global medicine
      * @param id The ID of the global medicine to update
      * @param globalMedicineRequest The request containing updated global medicine details
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
      * @return Updated global medicine response
      */
-    GlobalMedicineResponse updateGlobalMedicine(UUID id, GlobalMedicineRequest globalMedicineRequest);
+    GlobalMedicineResponse updateGlobalMedicine(UUID id, GlobalMedicineRequest globalMedicineRequest, Long expectedVersion);
+    
+    /**
+     * Partially update an existing global medicine with a JSON Merge Patch
+     * @param id The ID of the global medicine to update
+     * @param patch The merge patch containing only the fields to change
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
+     * @return Updated global medicine response
+     */
+    GlobalMedicineResponse patchGlobalMedicine(UUID id, JsonNode patch, Long expectedVersion);
     
     /**
      * Delete a global medicine by ID
      * @param id The ID of the global medicine to delete
      */
     void deleteGlobalMedicine(UUID id);
+    
+    /**
+     * Create the full-text search column and index, and build missing search documents
+     */
+    void ensureSearchIndex();
 }
\ No newline at end of file
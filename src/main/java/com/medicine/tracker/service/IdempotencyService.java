@@ -0,0 +1,48 @@
+package com.medicine.tracker.service;
+
+import com.medicine.tracker.model.entity.IdempotencyKey;
+
+import java.util.UUID;
+
+/**
+ * Service interface for idempotency key operations
+ * Makes retried POST and PUT requests return the original response instead of executing twice
+ */
+public interface IdempotencyService {
+
+    /**
+     * Claim a key for processing
+     * @param userId The ID of the user sending the request
+     * @param key The value of the Idempotency-Key header
+     * @param requestHash Hash of the method, URI and body of the request
+     * @return null if the caller now owns the key, otherwise the existing in-progress or completed key
+     */
+    IdempotencyKey begin(UUID userId, String key, String requestHash);
+
+    /**
+     * Store the response of a claimed key so retries can replay it
+     * @param userId The ID of the user sending the request
+     * @param key The value of the Idempotency-Key header
+     * @param requestHash Hash of the method, URI and body of the request
+     * @param status The HTTP status of the response
+     * @param contentType The content type of the response
+     * @param etag The ETag header of the response, or null
+     * @param location The Location header of the response, or null
+     * @param body The body of the response
+     */
+    void complete(UUID userId, String key, String requestHash, int status, String contentType,
+                  String etag, String location, byte[] body);
+
+    /**
+     * Release a claimed key without storing a response, so the request can be retried
+     * @param userId The ID of the user sending the request
+     * @param key The value of the Idempotency-Key header
+     */
+    void release(UUID userId, String key);
+
+    /**
+     * Delete keys past their retention window
+     * @return Number of keys removed
+     */
+    int purgeExpiredKeys();
+}
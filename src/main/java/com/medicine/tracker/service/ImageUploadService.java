@@ -3,6 +3,7 @@ package com.medicine.tracker.service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -25,4 +26,11 @@ public interface ImageUploadService {
      * @return true if deletion was successful, false otherwise
      */
     boolean deleteImage(String imageUrl);
+    
+    /**
+     * Delete images from Cloudinary in the background
+     * Used for images left behind by bulk deletions; failures are logged and not retried
+     * @param imageUrls The URLs of the images to delete
+     */
+    void deleteImagesAsync(List<String> imageUrls);
 }
\ No newline at end of file
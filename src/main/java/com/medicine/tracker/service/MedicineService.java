@@ -1,6 +1,11 @@
 package com.medicine.tracker.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medicine.tracker.model.dto.request.BatchOperation;
+import com.medicine.tracker.model.dto.request.MedicinePageRequest;
 import com.medicine.tracker.model.dto.request.MedicineRequest;
+import com.medicine.tracker.model.dto.request.TakeDoseRequest;
+import com.medicine.tracker.model.dto.response.MedicinePageResponse;
 import com.medicine.tracker.model.dto.response.MedicineResponse;
 import com.medicine.tracker.model.dto.response.MedicineWithProfileResponse;
 import com.medicine.tracker.model.entity.Medicine;
@@ -52,9 +57,21 @@ public interface MedicineService {
      * @param userId The ID of the user updating the medicine
      * @param profileId The ID of the profile the medicine belongs to
      * @param medicineRequest The request containing updated medicine details
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
      * @return Updated medicine response
      */
-    MedicineResponse updateMedicine(UUID medicineId, UUID userId, UUID profileId, MedicineRequest medicineRequest);
+    MedicineResponse updateMedicine(UUID medicineId, UUID userId, UUID profileId, MedicineRequest medicineRequest, Long expectedVersion);
+    
+    /**
+     * Partially update an existing medicine with a JSON Merge Patch
+     * @param medicineId The ID of the medicine to update
+     * @param userId The ID of the user updating the medicine
+     * @param profileId The ID of the profile the medicine belongs to
+     * @param patch The merge patch containing only the fields to change
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
+     * @return Updated medicine response
+     */
+    MedicineResponse patchMedicine(UUID medicineId, UUID userId, UUID profileId, JsonNode patch, Long expectedVersion);
     
     /**
      * Soft delete a medicine by ID (set status to INACTIVE)
@@ -69,9 +86,19 @@ public interface MedicineService {
      * @param medicineId The ID of the medicine to take a dose from
      * @param userId The ID of the user taking the dose
      * @param profileId The ID of the profile the medicine belongs to
+     * @param takeDoseRequest Optional details about the schedule occurrence the dose belongs to
      * @return Updated medicine response after taking the dose
      */
-    MedicineResponse takeDose(UUID medicineId, UUID userId, UUID profileId);
+    MedicineResponse takeDose(UUID medicineId, UUID userId, UUID profileId, TakeDoseRequest takeDoseRequest);
+    
+    /**
+     * Take one dose per operation in one transaction, sending the decrements as one JDBC batch
+     * A dose that cannot be taken leaves the others in place
+     * @param userId The ID of the user taking the doses
+     * @param doses TAKE_DOSE operations carrying the medicine ID, the profile ID and the dose details
+     * @return The medicine after the batch for each dose taken, in order, or null where the dose could not be taken
+     */
+    List<MedicineResponse> takeDoses(UUID userId, List<BatchOperation> doses);
     
     /**
      * Check if a medicine exists for a user
@@ -87,4 +114,34 @@ public interface MedicineService {
      * @return List of medicines with profile information
      */
     List<MedicineWithProfileResponse> getAllMedicinesWithProfileInfo(UUID userId);
+    
+    /**
+     * Get one page of the active medicines of a user across all profiles
+     * @param userId The ID of the user to retrieve medicines for
+     * @param pageRequest The page size, cursor, sort order and filters
+     * @return Page of medicines with the cursor of the next page
+     */
+    MedicinePageResponse getMedicinesPageForUser(UUID userId, MedicinePageRequest pageRequest);
+    
+    /**
+     * Get one page of the active medicines of a profile
+     * @param userId The ID of the user requesting medicines
+     * @param profileId The ID of the profile to retrieve medicines for
+     * @param pageRequest The page size, cursor, sort order and filters
+     * @return Page of medicines with the cursor of the next page
+     */
+    MedicinePageResponse getMedicinesPageForProfile(UUID userId, UUID profileId, MedicinePageRequest pageRequest);
+    
+    /**
+     * Create the indexes that serve name prefix filters of medicine pages
+     */
+    void ensureNamePrefixIndexes();
+    
+    /**
+     * Get the medicines of a user written after a data version, regardless of status
+     * @param userId The ID of the user to retrieve medicines for
+     * @param sinceVersion The data version the client has already applied
+     * @return List of medicines changed since the version
+     */
+    List<MedicineResponse> getMedicinesChangedSince(UUID userId, long sinceVersion);
 }
\ No newline at end of file
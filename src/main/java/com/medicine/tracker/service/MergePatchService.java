@@ -0,0 +1,25 @@
+package com.medicine.tracker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Service interface for JSON Merge Patch (RFC 7396) operations
+ * Applies a partial document to the request DTO of a resource so PATCH can reuse the update logic of PUT
+ */
+public interface MergePatchService {
+
+    /**
+     * Media type of a JSON Merge Patch document
+     */
+    String MEDIA_TYPE = "application/merge-patch+json";
+
+    /**
+     * Apply a merge patch to a request DTO and validate the fields the patch touched
+     * @param current The request DTO describing the current state of the resource
+     * @param patch The merge patch document
+     * @param type The type of the request DTO
+     * @param <T> The type of the request DTO
+     * @return A new request DTO with the patch applied
+     */
+    <T> T apply(T current, JsonNode patch, Class<T> type);
+}
@@ -20,6 +20,11 @@ public interface NotificationService {
      */
     void sendExpiryNotifications();
     
+    /**
+     * Send notifications for medicines that are projected to run out soon
+     */
+    void sendLowStockNotifications();
+    
     /**
      * Send a notification to a user via FCM
      * @param userId The ID of the user to send the notification to
@@ -1,5 +1,6 @@
 package com.medicine.tracker.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.medicine.tracker.model.dto.request.ProfileRequest;
 import com.medicine.tracker.model.dto.response.ProfileResponse;
 import com.medicine.tracker.model.entity.Profile;
@@ -41,9 +42,20 @@ public interface ProfileService {
      * @param profileId The ID of the profile to update
      * @param userId The ID of the user updating the profile
      * @param profileRequest The request containing updated profile details
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
      * @return Updated profile response
      */
-    ProfileResponse updateProfile(UUID profileId, UUID userId, ProfileRequest profileRequest);
+    ProfileResponse updateProfile(UUID profileId, UUID userId, ProfileRequest profileRequest, Long expectedVersion);
+    
+    /**
+     * Partially update an existing profile with a JSON Merge Patch
+     * @param profileId The ID of the profile to update
+     * @param userId The ID of the user updating the profile
+     * @param patch The merge patch containing only the fields to change
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
+     * @return Updated profile response
+     */
+    ProfileResponse patchProfile(UUID profileId, UUID userId, JsonNode patch, Long expectedVersion);
     
     /**
      * Delete a profile by ID
@@ -59,4 +71,12 @@ public interface ProfileService {
      * @return true if profile exists and belongs to user, false otherwise
      */
     boolean profileExistsForUser(UUID profileId, UUID userId);
+    
+    /**
+     * Get the profiles of a user written after a data version, regardless of status
+     * @param userId The ID of the user to retrieve profiles for
+     * @param sinceVersion The data version the client has already applied
+     * @return List of profiles changed since the version
+     */
+    List<ProfileResponse> getProfilesChangedSince(UUID userId, long sinceVersion);
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.medicine.tracker.service;
+
+import com.medicine.tracker.model.entity.Medicine;
+import com.medicine.tracker.model.entity.Schedule;
+
+import java.util.List;
+
+/**
+ * Service interface for refill forecasting
+ * Maintains the daily consumption and projected run-out date of medicines incrementally
+ */
+public interface RefillForecastService {
+
+    /**
+     * Recompute the projected run-out date of a medicine after its quantity changed
+     * Sets the projection on the entity so it is saved together with the new quantity
+     * @param medicine The medicine whose quantity changed
+     */
+    void applyQuantityChange(Medicine medicine);
+
+    /**
+     * Adjust the daily consumption and projected run-out date of a medicine after a schedule changed
+     * @param previous The schedule state before the change, or null if the schedule was created
+     * @param current The schedule state after the change, or null if the schedule was deleted
+     */
+    void applyScheduleChange(Schedule previous, Schedule current);
+
+    /**
+     * Compute the daily consumption and projection of medicines that have never been forecast
+     * @return Number of medicines initialized
+     */
+    int initializeMissingForecasts();
+
+    /**
+     * Find active medicines projected to run out within the given number of days
+     * @param days Number of days from today to look ahead
+     * @return List of medicines running out soon, soonest first
+     */
+    List<Medicine> findRunningOutWithin(int days);
+}
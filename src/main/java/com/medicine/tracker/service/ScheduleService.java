@@ -1,6 +1,9 @@
 package com.medicine.tracker.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medicine.tracker.model.dto.request.BulkScheduleRequest;
 import com.medicine.tracker.model.dto.request.ScheduleRequest;
+import com.medicine.tracker.model.dto.response.ScheduleOverviewResponse;
 import com.medicine.tracker.model.dto.response.ScheduleResponse;
 import com.medicine.tracker.model.entity.Schedule;
 
@@ -22,6 +25,20 @@ public interface ScheduleService {
      */
     ScheduleResponse createSchedule(UUID userId, UUID medicineId, ScheduleRequest scheduleRequest);
     
+    /**
+     * Create one schedule per time of day for a medicine in a single batch
+     * @param userId The ID of the user creating the schedules
+     * @param medicineId The ID of the medicine to schedule
+     * @param bulkScheduleRequest The request containing the times of day and their shared frequency
+     * @return The created schedules; times that already have an active schedule are skipped
+     */
+    List<ScheduleResponse> createSchedules(UUID userId, UUID medicineId, BulkScheduleRequest bulkScheduleRequest);
+    
+    /**
+     * Create the unique index on active schedules of a medicine, time of day and frequency if it does not exist yet
+     */
+    void ensureUniqueActiveSchedules();
+    
     /**
      * Get all schedules for a specific medicine
      * @param userId The ID of the user requesting schedules
@@ -58,9 +75,20 @@ public interface ScheduleService {
      * @param scheduleId The ID of the schedule to update
      * @param userId The ID of the user updating the schedule
      * @param scheduleRequest The request containing updated schedule details
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
+     * @return Updated schedule response
+     */
+    ScheduleResponse updateSchedule(UUID scheduleId, UUID userId, ScheduleRequest scheduleRequest, Long expectedVersion);
+    
+    /**
+     * Partially update an existing schedule with a JSON Merge Patch
+     * @param scheduleId The ID of the schedule to update
+     * @param userId The ID of the user updating the schedule
+     * @param patch The merge patch containing only the fields to change
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
      * @return Updated schedule response
      */
-    ScheduleResponse updateSchedule(UUID scheduleId, UUID userId, ScheduleRequest scheduleRequest);
+    ScheduleResponse patchSchedule(UUID scheduleId, UUID userId, JsonNode patch, Long expectedVersion);
     
     /**
      * Delete a schedule by ID
@@ -76,4 +104,19 @@ public interface ScheduleService {
      * @return true if schedule exists and belongs to user, false otherwise
      */
     boolean scheduleExistsForUser(UUID scheduleId, UUID userId);
-}
\ No newline at end of file
+    
+    /**
+     * Get the schedules of a user written after a data version, regardless of status
+     * @param userId The ID of the user to retrieve schedules for
+     * @param sinceVersion The data version the client has already applied
+     * @return List of schedules changed since the version
+     */
+    List<ScheduleResponse> getSchedulesChangedSince(UUID userId, long sinceVersion);
+    
+    /**
+     * Get today's dose count and the next dose of every medicine of a user with active schedules
+     * @param userId The ID of the user
+     * @return One overview per medicine
+     */
+    List<ScheduleOverviewResponse> getScheduleOverview(UUID userId);
+}
@@ -0,0 +1,26 @@
+package com.medicine.tracker.service;
+
+import com.medicine.tracker.model.dto.response.SyncResponse;
+
+import java.util.UUID;
+
+/**
+ * Service interface for delta sync operations
+ * Lets offline-capable clients fetch only what changed since their last sync
+ */
+public interface SyncService {
+
+    /**
+     * Get the changes of a user since a sync token
+     * @param userId The ID of the user to sync
+     * @param sinceToken The token returned by the previous sync, or null for a full sync
+     * @return Changed and deleted entities with the token for the next sync
+     */
+    SyncResponse getChangesSince(UUID userId, String sinceToken);
+
+    /**
+     * Delete tombstones older than the retention window
+     * @return Number of tombstones removed
+     */
+    int purgeExpiredTombstones();
+}
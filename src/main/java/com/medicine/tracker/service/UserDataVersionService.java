@@ -0,0 +1,24 @@
+package com.medicine.tracker.service;
+
+import java.util.UUID;
+
+/**
+ * Service interface for per-user data versions
+ * The version changes whenever any profile, medicine or schedule of the user changes
+ */
+public interface UserDataVersionService {
+
+    /**
+     * Advance the data version of a user after a write
+     * @param userId The ID of the user whose data changed
+     * @return The new data version
+     */
+    long bump(UUID userId);
+
+    /**
+     * Get the current data version of a user
+     * @param userId The ID of the user
+     * @return The committed data version
+     */
+    long current(UUID userId);
+}
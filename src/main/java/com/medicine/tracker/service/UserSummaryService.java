@@ -0,0 +1,63 @@
+package com.medicine.tracker.service;
+
+import com.medicine.tracker.model.dto.response.UserSummaryResponse;
+import com.medicine.tracker.model.entity.Medicine;
+import com.medicine.tracker.model.entity.Schedule;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Service interface for the per-user summary counters
+ * Keeps one row of badge counters per user up to date incrementally, so reading them is a primary-key lookup
+ */
+public interface UserSummaryService {
+
+    /**
+     * Get the badge counters of a user
+     * @param userId The ID of the user
+     * @return The counters for today
+     */
+    UserSummaryResponse getSummary(UUID userId);
+
+    /**
+     * Create the empty summary of a newly registered user
+     * @param userId The ID of the user
+     */
+    void initialize(UUID userId);
+
+    /**
+     * Adjust the counters of a user after a medicine changed
+     * @param userId The ID of the user owning the medicine
+     * @param previous The medicine state before the change, or null if the medicine was created
+     * @param current The medicine state after the change, or null if the medicine was deleted
+     */
+    void applyMedicineChange(UUID userId, Medicine previous, Medicine current);
+
+    /**
+     * Adjust the counters of a user after a schedule changed
+     * @param previous The schedule state before the change, or null if the schedule was created
+     * @param current The schedule state after the change, or null if the schedule was deleted
+     */
+    void applyScheduleChange(Schedule previous, Schedule current);
+
+    /**
+     * Recompute every counter of one user, e.g. after a bulk delete
+     * @param userId The ID of the user
+     */
+    void recount(UUID userId);
+
+    /**
+     * Move the day-relative counters of every summary that is behind to a new day
+     * @param day The new day, normally today
+     * @return Number of summaries moved
+     */
+    int rollOver(LocalDate day);
+
+    /**
+     * Recompute all summaries from the medicine and schedule tables and repair those that drifted
+     * Also creates the summaries of users that have none yet
+     * @return Number of summaries created or repaired
+     */
+    int reconcile();
+}
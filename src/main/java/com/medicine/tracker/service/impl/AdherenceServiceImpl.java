@@ -0,0 +1,180 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.cache.ProfileDirectory;
+import com.medicine.tracker.model.dto.response.AdherenceReportResponse;
+import com.medicine.tracker.model.entity.AdherenceDaily;
+import com.medicine.tracker.model.entity.DoseEvent;
+import com.medicine.tracker.model.entity.Medicine;
+import com.medicine.tracker.repository.AdherenceDailyRepository;
+import com.medicine.tracker.repository.MedicineRepository;
+import com.medicine.tracker.service.AdherenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of AdherenceService backed by the adherence_daily rollup table
+ * Counters are upserted per (schedule, day) as dose events are written and as missed doses are detected,
+ * so reports read one row per schedule and day instead of aggregating raw dose events
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AdherenceServiceImpl implements AdherenceService {
+
+    // Taken doses clear a previously detected miss, e.g. when an offline dose is synced the next morning
+    // The schedule must belong to the user and medicine of the event, so an event cannot count towards another user
+    private static final String RECORD_DOSE_SQL = "INSERT INTO adherence_daily "
+            + "(id, schedule_id, medicine_id, profile_id, user_id, day, taken, missed, late) "
+            + "SELECT gen_random_uuid(), s.id, s.medicine_id, s.profile_id, s.user_id, CAST(? AS DATE), 1, 0, "
+            + "CASE WHEN ? > COALESCE(?, CAST(? AS DATE) + s.time_of_day) + make_interval(mins => ?) THEN 1 ELSE 0 END "
+            + "FROM schedules s WHERE s.id = ? AND s.user_id = ? AND s.medicine_id = ? "
+            + "ON CONFLICT (schedule_id, day) DO UPDATE SET "
+            + "taken = adherence_daily.taken + 1, "
+            + "late = adherence_daily.late + EXCLUDED.late, "
+            + "missed = 0";
+
+    // One statement marks every active schedule that was due on the day and has no taken dose
+    private static final String DETECT_MISSED_SQL = "INSERT INTO adherence_daily "
+            + "(id, schedule_id, medicine_id, profile_id, user_id, day, taken, missed, late) "
+            + "SELECT gen_random_uuid(), s.id, s.medicine_id, s.profile_id, s.user_id, CAST(:day AS DATE), 0, 1, 0 "
+            + "FROM schedules s "
+            + "WHERE " + ScheduleOccurrences.DUE_ON_DAY_SQL + " "
+            + "ON CONFLICT (schedule_id, day) DO UPDATE SET missed = 1 "
+            + "WHERE adherence_daily.taken = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final AdherenceDailyRepository adherenceDailyRepository;
+    private final MedicineRepository medicineRepository;
+    private final ProfileDirectory profileDirectory;
+
+    @Value("${adherence.late-after-minutes:60}")
+    private int lateAfterMinutes;
+
+    /**
+     * Add recorded doses to the adherence counters of their schedules
+     * Only doses taken against a schedule count towards adherence
+     * @param doseEvents The dose events that were written to the dose event log
+     */
+    @Override
+    public void recordDoses(List<DoseEvent> doseEvents) {
+        List<DoseEvent> scheduledDoses = doseEvents.stream()
+                .filter(event -> event.getScheduleId() != null)
+                .filter(event -> event.getSource() != DoseEvent.Source.ADJUSTMENT)
+                .collect(Collectors.toList());
+        if (scheduledDoses.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(RECORD_DOSE_SQL, scheduledDoses, scheduledDoses.size(), (ps, event) -> {
+            LocalDate day = event.getScheduledFor() != null
+                    ? event.getScheduledFor().toLocalDate()
+                    : event.getTakenAt().toLocalDate();
+            ps.setDate(1, Date.valueOf(day));
+            ps.setTimestamp(2, Timestamp.valueOf(event.getTakenAt()));
+            ps.setTimestamp(3, event.getScheduledFor() != null ? Timestamp.valueOf(event.getScheduledFor()) : null);
+            ps.setDate(4, Date.valueOf(day));
+            ps.setInt(5, lateAfterMinutes);
+            ps.setObject(6, event.getScheduleId());
+            ps.setObject(7, event.getUserId());
+            ps.setObject(8, event.getMedicineId());
+        });
+        log.debug("Recorded {} scheduled doses in adherence rollups", scheduledDoses.size());
+    }
+
+    /**
+     * Mark every scheduled occurrence on a day that has no dose as missed
+     * @param day The day to check, which should be fully elapsed
+     * @return Number of schedules marked as missed
+     */
+    @Override
+    public int detectMissedDoses(LocalDate day) {
+        log.info("Detecting missed doses for {}", day);
+        int missed = namedParameterJdbcTemplate.update(DETECT_MISSED_SQL, new MapSqlParameterSource("day", Date.valueOf(day)));
+        log.info("Marked {} scheduled doses as missed for {}", missed, day);
+        return missed;
+    }
+
+    /**
+     * Get the adherence report of a profile within a date range
+     * @param userId The ID of the user requesting the report
+     * @param profileId The ID of the profile to build the report for
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     * @return Adherence report with counts per medicine and per day
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public AdherenceReportResponse getAdherenceReport(UUID userId, UUID profileId, LocalDate from, LocalDate to) {
+        log.info("Building adherence report for user {} and profile {} from {} to {}", userId, profileId, from, to);
+
+        // Verify that the profile belongs to the user
+        if (!profileDirectory.contains(userId, profileId)) {
+            log.warn("Profile {} does not exist or does not belong to user {}", profileId, userId);
+            throw new RuntimeException("Profile does not exist or does not belong to user");
+        }
+
+        if (to.isBefore(from)) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+
+        List<AdherenceDaily> rollups = adherenceDailyRepository.findByProfileIdAndDayBetweenOrderByDay(profileId, from, to);
+
+        Map<UUID, AdherenceReportResponse.MedicineAdherence> byMedicine = new LinkedHashMap<>();
+        Map<LocalDate, AdherenceReportResponse.DailyAdherence> byDay = new TreeMap<>();
+        int taken = 0;
+        int missed = 0;
+        int late = 0;
+        for (AdherenceDaily rollup : rollups) {
+            AdherenceReportResponse.MedicineAdherence medicine = byMedicine.computeIfAbsent(rollup.getMedicineId(),
+                    id -> AdherenceReportResponse.MedicineAdherence.builder().medicineId(id).build());
+            medicine.setTaken(medicine.getTaken() + rollup.getTaken());
+            medicine.setMissed(medicine.getMissed() + rollup.getMissed());
+            medicine.setLate(medicine.getLate() + rollup.getLate());
+
+            AdherenceReportResponse.DailyAdherence day = byDay.computeIfAbsent(rollup.getDay(),
+                    d -> AdherenceReportResponse.DailyAdherence.builder().day(d).build());
+            day.setTaken(day.getTaken() + rollup.getTaken());
+            day.setMissed(day.getMissed() + rollup.getMissed());
+            day.setLate(day.getLate() + rollup.getLate());
+
+            taken += rollup.getTaken();
+            missed += rollup.getMissed();
+            late += rollup.getLate();
+        }
+
+        // Resolve medicine names with a single lookup
+        Map<UUID, String> medicineNames = medicineRepository.findAllById(byMedicine.keySet()).stream()
+                .collect(Collectors.toMap(Medicine::getId, Medicine::getName));
+        byMedicine.values().forEach(medicine ->
+                medicine.setMedicineName(medicineNames.getOrDefault(medicine.getMedicineId(), "Deleted Medicine")));
+
+        log.info("Built adherence report for profile {} from {} rollups", profileId, rollups.size());
+        return AdherenceReportResponse.builder()
+                .profileId(profileId)
+                .from(from)
+                .to(to)
+                .taken(taken)
+                .missed(missed)
+                .late(late)
+                .medicines(List.copyOf(byMedicine.values()))
+                .days(List.copyOf(byDay.values()))
+                .build();
+    }
+}
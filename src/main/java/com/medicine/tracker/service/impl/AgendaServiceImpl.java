@@ -0,0 +1,243 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.config.PrimaryReads;
+import com.medicine.tracker.model.dto.response.AgendaItemResponse;
+import com.medicine.tracker.model.dto.response.MedicineResponse;
+import com.medicine.tracker.model.entity.DoseEvent;
+import com.medicine.tracker.model.entity.Schedule;
+import com.medicine.tracker.repository.DoseEventRepository;
+import com.medicine.tracker.repository.ScheduleRepository;
+import com.medicine.tracker.service.AgendaService;
+import com.medicine.tracker.service.MedicineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of AgendaService
+ * Days missing from the agenda cache are materialized with one query for the schedules and one for the
+ * dose events of the user; the schedules are expanded lazily and merged in time order, so a range costs
+ * one object per scheduled dose. Whether a dose is missed or overdue depends on the time of the request,
+ * so only whether it was taken is cached and the status is settled on every read. Dose events do not advance
+ * the user's data version, so days are always materialized from the primary rather than a replica.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AgendaServiceImpl implements AgendaService {
+
+    // Doses taken just before or after the day they were scheduled for still count for it
+    private static final int DOSE_MARGIN_DAYS = 1;
+
+    private final ScheduleRepository scheduleRepository;
+    private final DoseEventRepository doseEventRepository;
+    private final MedicineService medicineService;
+    private final AgendaCache agendaCache;
+    private final PrimaryReads primaryReads;
+
+    @Value("${agenda.max-range-days:62}")
+    private int maxRangeDays;
+
+    @Value("${adherence.late-after-minutes:60}")
+    private int lateAfterMinutes;
+
+    /**
+     * Get the scheduled doses of a user within a range of days
+     * @param userId The ID of the user
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     * @return Scheduled doses in time order, each marked taken, missed, overdue or upcoming
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Stream<AgendaItemResponse> getAgenda(UUID userId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Agenda range must not end before it starts");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new RuntimeException("Agenda range must not exceed " + maxRangeDays + " days");
+        }
+
+        long generation = agendaCache.generation(userId);
+        Map<LocalDate, List<AgendaItemResponse>> days = new LinkedHashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            List<AgendaItemResponse> cached = agendaCache.getDay(userId, day);
+            days.put(day, cached);
+            if (cached == null) {
+                firstMissing = firstMissing == null ? day : firstMissing;
+                lastMissing = day;
+            }
+        }
+
+        if (firstMissing != null) {
+            LocalDate first = firstMissing;
+            LocalDate last = lastMissing;
+            Map<LocalDate, List<AgendaItemResponse>> loaded = primaryReads.get(() -> materialize(userId, first, last));
+            agendaCache.putDays(userId, generation, loaded);
+            days.putAll(loaded);
+            log.debug("Materialized agenda of user {} from {} to {}", userId, firstMissing, lastMissing);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return days.values().stream()
+                .flatMap(List::stream)
+                .map(item -> withStatus(item, now));
+    }
+
+    /**
+     * Expand the active schedules of a user into the doses of each day of a range and mark the taken ones
+     * @param userId The ID of the user
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     * @return The doses of every day of the range in time order, without a status unless taken
+     */
+    private Map<LocalDate, List<AgendaItemResponse>> materialize(UUID userId, LocalDate from, LocalDate to) {
+        Map<LocalDate, List<AgendaItemResponse>> days = new LinkedHashMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            days.put(day, new ArrayList<>());
+        }
+
+        // Schedules of deleted medicines are left behind, so only those of active medicines are expanded
+        Set<UUID> activeMedicineIds = medicineService.getAllMedicinesForUser(userId).stream()
+                .map(MedicineResponse::getId)
+                .collect(Collectors.toSet());
+        List<Schedule> schedules = scheduleRepository.findByUserIdAndIsActiveTrue(userId).stream()
+                .filter(schedule -> activeMedicineIds.contains(schedule.getMedicineId()))
+                .collect(Collectors.toList());
+        if (schedules.isEmpty()) {
+            return days;
+        }
+
+        // One dose per schedule and day, keyed like the adherence rollups
+        Map<Occurrence, LocalDateTime> takenAt = new HashMap<>();
+        doseEventRepository.findByUserIdAndScheduleIdIsNotNullAndTakenAtGreaterThanEqualAndTakenAtLessThan(
+                        userId,
+                        from.minusDays(DOSE_MARGIN_DAYS).atStartOfDay(),
+                        to.plusDays(1 + DOSE_MARGIN_DAYS).atStartOfDay())
+                .forEach(event -> takenAt.merge(occurrence(event), event.getTakenAt(),
+                        (first, second) -> first.isBefore(second) ? first : second));
+
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(Comparator
+                .comparing(Cursor::getNext)
+                .thenComparing(cursor -> cursor.getSchedule().getId()));
+        for (Schedule schedule : schedules) {
+            Cursor cursor = new Cursor(schedule, new ScheduleOccurrences(schedule, from, to));
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+
+        // Take the earliest pending occurrence across all schedules at a time, so days fill in time order
+        while (!cursors.isEmpty()) {
+            Cursor cursor = cursors.poll();
+            Schedule schedule = cursor.getSchedule();
+            LocalDateTime scheduledFor = cursor.getNext();
+            LocalDateTime taken = takenAt.get(new Occurrence(schedule.getId(), scheduledFor.toLocalDate()));
+            days.get(scheduledFor.toLocalDate()).add(AgendaItemResponse.builder()
+                    .scheduleId(schedule.getId())
+                    .medicineId(schedule.getMedicineId())
+                    .profileId(schedule.getProfileId())
+                    .scheduledFor(scheduledFor)
+                    .status(taken != null ? AgendaItemResponse.Status.TAKEN : null)
+                    .takenAt(taken)
+                    .build());
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Settle the status of a cached dose at the time of the request
+     * @param item The cached dose
+     * @param now The time of the request
+     * @return The dose itself if taken, otherwise a copy with its status
+     */
+    private AgendaItemResponse withStatus(AgendaItemResponse item, LocalDateTime now) {
+        if (item.getStatus() == AgendaItemResponse.Status.TAKEN) {
+            return item;
+        }
+        AgendaItemResponse.Status status;
+        if (item.getScheduledFor().toLocalDate().isBefore(now.toLocalDate())) {
+            status = AgendaItemResponse.Status.MISSED;
+        } else if (item.getScheduledFor().plusMinutes(lateAfterMinutes).isBefore(now)) {
+            status = AgendaItemResponse.Status.OVERDUE;
+        } else {
+            status = AgendaItemResponse.Status.UPCOMING;
+        }
+        return AgendaItemResponse.builder()
+                .scheduleId(item.getScheduleId())
+                .medicineId(item.getMedicineId())
+                .profileId(item.getProfileId())
+                .scheduledFor(item.getScheduledFor())
+                .status(status)
+                .build();
+    }
+
+    /**
+     * The occurrence a dose event was taken for: the day it was scheduled for, or else the day it was taken
+     * @param event The dose event
+     * @return The schedule and day of the occurrence
+     */
+    private Occurrence occurrence(DoseEvent event) {
+        LocalDate day = event.getScheduledFor() != null
+                ? event.getScheduledFor().toLocalDate()
+                : event.getTakenAt().toLocalDate();
+        return new Occurrence(event.getScheduleId(), day);
+    }
+
+    /**
+     * Occurrence of a schedule on a day; schedules have one time of day, so this identifies a single dose
+     */
+    private record Occurrence(UUID scheduleId, LocalDate day) {
+    }
+
+    /**
+     * Position of one schedule in the merged expansion
+     */
+    private static final class Cursor {
+
+        private final Schedule schedule;
+        private final ScheduleOccurrences occurrences;
+        private LocalDateTime next;
+
+        private Cursor(Schedule schedule, ScheduleOccurrences occurrences) {
+            this.schedule = schedule;
+            this.occurrences = occurrences;
+        }
+
+        private boolean advance() {
+            next = occurrences.hasNext() ? occurrences.next() : null;
+            return next != null;
+        }
+
+        private Schedule getSchedule() {
+            return schedule;
+        }
+
+        private LocalDateTime getNext() {
+            return next;
+        }
+    }
+}
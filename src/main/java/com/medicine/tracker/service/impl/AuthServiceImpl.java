@@ -9,6 +9,7 @@ import com.medicine.tracker.repository.UserRepository;
 import com.medicine.tracker.service.AuthService;
 import com.medicine.tracker.service.JwtService;
 import com.medicine.tracker.service.TokenBlacklistService;
+import com.medicine.tracker.service.UserSummaryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,6 +17,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -34,6 +36,7 @@ public class AuthServiceImpl implements AuthService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final TokenBlacklistService tokenBlacklistService;
+    private final UserSummaryService userSummaryService;
     
     /**
      * Register a new user
@@ -41,6 +44,7 @@ public class AuthServiceImpl implements AuthService {
      * @return Authentication response with JWT token
      */
     @Override
+    @Transactional
     public AuthResponse register(RegisterRequest registerRequest) {
         log.info("Registering new user with email: {}", registerRequest.getEmail());
         
@@ -59,6 +63,7 @@ public class AuthServiceImpl implements AuthService {
         
         // Save user to database
         User savedUser = userRepository.save(user);
+        userSummaryService.initialize(savedUser.getId());
         log.info("User registered successfully with ID: {}", savedUser.getId());
         
         // Generate JWT token
@@ -109,6 +114,7 @@ public class AuthServiceImpl implements AuthService {
      * @return Authentication response with new JWT token
      */
     @Override
+    @Transactional
     public AuthResponse forgotPassword(ForgotPasswordRequest forgotPasswordRequest) {
         log.info("Processing forgot password request for email: {}", forgotPasswordRequest.getEmail());
         
@@ -0,0 +1,226 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.exception.PreconditionFailedException;
+import com.medicine.tracker.exception.ResourceNotFoundException;
+import com.medicine.tracker.exception.UnauthorizedException;
+import com.medicine.tracker.model.dto.request.BatchOperation;
+import com.medicine.tracker.model.dto.request.BatchRequest;
+import com.medicine.tracker.model.dto.response.BatchOperationResult;
+import com.medicine.tracker.model.dto.response.BatchResponse;
+import com.medicine.tracker.model.dto.response.MedicineResponse;
+import com.medicine.tracker.service.BatchService;
+import com.medicine.tracker.service.MedicineService;
+import com.medicine.tracker.service.ScheduleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of BatchService
+ * Runs each operation of a batch in its own transaction, so a failing operation is rolled back on its own
+ * while the operations before and after it are committed
+ * A savepoint per operation inside one outer transaction does not work here: the services join the
+ * transaction, and a participant that fails marks the whole JPA transaction rollback-only
+ * Consecutive doses, the bulk of a replayed offline queue, are the exception: they share one transaction
+ * and one JDBC batch, since a dose that cannot be taken fails without an error and is retried on its own
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchServiceImpl implements BatchService {
+
+    private final MedicineService medicineService;
+    private final ScheduleService scheduleService;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Execute the operations of a batch in order
+     * @param userId The ID of the user the operations belong to
+     * @param batchRequest The operations to execute
+     * @return One result per operation, in submission order
+     */
+    @Override
+    public BatchResponse executeBatch(UUID userId, BatchRequest batchRequest) {
+        List<BatchOperation> operations = batchRequest.getOperations();
+        log.info("Executing batch of {} operations for user {}", operations.size(), userId);
+
+        TransactionTemplate operationTransaction = new TransactionTemplate(transactionManager);
+        operationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+        int start = 0;
+        while (start < operations.size()) {
+            int end = start;
+            while (end < operations.size() && operations.get(end).getType() == BatchOperation.Type.TAKE_DOSE) {
+                end++;
+            }
+            if (end - start > 1) {
+                takeDoses(userId, operations, start, end, operationTransaction, results);
+                start = end;
+            } else {
+                results.add(execute(userId, operations, start, operationTransaction));
+                start++;
+            }
+        }
+
+        int succeeded = (int) results.stream().filter(result -> result.getError() == null).count();
+        log.info("Batch for user {} completed: {} succeeded, {} failed", userId, succeeded, results.size() - succeeded);
+        return BatchResponse.builder()
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Execute one operation in a transaction of its own
+     * @param userId The ID of the user the operation belongs to
+     * @param operations The operations of the batch
+     * @param index The position of the operation to execute
+     * @param operationTransaction Template starting a new transaction
+     * @return Result of the operation, with its position
+     */
+    private BatchOperationResult execute(UUID userId, List<BatchOperation> operations, int index,
+                                         TransactionTemplate operationTransaction) {
+        BatchOperation operation = operations.get(index);
+        try {
+            // Constraint violations surface at commit, inside the try, so they are attributed to this operation
+            BatchOperationResult result = operationTransaction.execute(status -> apply(userId, operation));
+            return withPosition(result, index, operation);
+        } catch (RuntimeException e) {
+            log.warn("Batch operation {} ({}) failed for user {}: {}", index, operation.getType(), userId, e.getMessage());
+            return withPosition(failure(e), index, operation);
+        }
+    }
+
+    /**
+     * Take a run of consecutive doses in one transaction and one JDBC batch
+     * Doses the batch could not take are retried one by one, which reports the error the single request would have
+     * @param userId The ID of the user the doses belong to
+     * @param operations The operations of the batch
+     * @param start The position of the first dose of the run
+     * @param end The position after the last dose of the run
+     * @param operationTransaction Template starting a new transaction
+     * @param results The results to append the run's results to, in order
+     */
+    private void takeDoses(UUID userId, List<BatchOperation> operations, int start, int end,
+                           TransactionTemplate operationTransaction, List<BatchOperationResult> results) {
+        // Doses missing an identifier cannot be batched; running them on their own reports what is missing
+        List<BatchOperation> doses = operations.subList(start, end).stream()
+                .filter(dose -> dose.getMedicineId() != null && dose.getProfileId() != null)
+                .toList();
+        List<MedicineResponse> taken = null;
+        if (!doses.isEmpty()) {
+            try {
+                taken = operationTransaction.execute(status -> medicineService.takeDoses(userId, doses));
+            } catch (RuntimeException e) {
+                log.warn("Batched doses {} to {} failed for user {}, retrying them one by one: {}",
+                        start, end - 1, userId, e.getMessage());
+            }
+        }
+
+        int taking = 0;
+        for (int i = start; i < end; i++) {
+            BatchOperation operation = operations.get(i);
+            MedicineResponse response = null;
+            if (taking < doses.size() && doses.get(taking) == operation) {
+                response = taken != null ? taken.get(taking) : null;
+                taking++;
+            }
+            results.add(response != null
+                    ? withPosition(success(HttpStatus.OK, response), i, operation)
+                    : execute(userId, operations, i, operationTransaction));
+        }
+    }
+
+    /**
+     * Apply a single operation through the service the equivalent single request would use
+     * @param userId The ID of the user the operation belongs to
+     * @param operation The operation to apply
+     * @return Result with the status and body of the equivalent single request
+     */
+    private BatchOperationResult apply(UUID userId, BatchOperation operation) {
+        switch (operation.getType()) {
+            case TAKE_DOSE:
+                return success(HttpStatus.OK, medicineService.takeDose(
+                        require(operation.getMedicineId(), "medicineId"), userId,
+                        require(operation.getProfileId(), "profileId"), operation.getTakeDose()));
+            case CREATE_MEDICINE:
+                return success(HttpStatus.OK, medicineService.createMedicine(
+                        userId, require(operation.getProfileId(), "profileId"),
+                        require(operation.getMedicine(), "medicine")));
+            case UPDATE_MEDICINE:
+                return success(HttpStatus.OK, medicineService.updateMedicine(
+                        require(operation.getMedicineId(), "medicineId"), userId,
+                        require(operation.getProfileId(), "profileId"), require(operation.getMedicine(), "medicine"),
+                        operation.getExpectedVersion()));
+            case DELETE_MEDICINE:
+                medicineService.deleteMedicine(
+                        require(operation.getMedicineId(), "medicineId"), userId,
+                        require(operation.getProfileId(), "profileId"));
+                return success(HttpStatus.NO_CONTENT, null);
+            case CREATE_SCHEDULE:
+                return success(HttpStatus.OK, scheduleService.createSchedule(
+                        userId, require(operation.getMedicineId(), "medicineId"),
+                        require(operation.getSchedule(), "schedule")));
+            case UPDATE_SCHEDULE:
+                return success(HttpStatus.OK, scheduleService.updateSchedule(
+                        require(operation.getScheduleId(), "scheduleId"), userId,
+                        require(operation.getSchedule(), "schedule"), operation.getExpectedVersion()));
+            case DELETE_SCHEDULE:
+                scheduleService.deleteSchedule(require(operation.getScheduleId(), "scheduleId"), userId);
+                return success(HttpStatus.NO_CONTENT, null);
+            default:
+                throw new RuntimeException("Unsupported operation type: " + operation.getType());
+        }
+    }
+
+    private <T> T require(T value, String field) {
+        if (value == null) {
+            throw new RuntimeException(field + " is required for this operation");
+        }
+        return value;
+    }
+
+    private BatchOperationResult success(HttpStatus status, Object body) {
+        return BatchOperationResult.builder()
+                .status(status.value())
+                .body(body)
+                .build();
+    }
+
+    /**
+     * Map a failed operation to the status GlobalExceptionHandler would have returned for it
+     * @param e The exception the operation failed with
+     * @return Result with the error status and message
+     */
+    private BatchOperationResult failure(RuntimeException e) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        if (e instanceof ResourceNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (e instanceof UnauthorizedException) {
+            status = HttpStatus.UNAUTHORIZED;
+        } else if (e instanceof PreconditionFailedException || e instanceof OptimisticLockingFailureException) {
+            status = HttpStatus.PRECONDITION_FAILED;
+        }
+        return BatchOperationResult.builder()
+                .status(status.value())
+                .error(e.getMessage())
+                .build();
+    }
+
+    private BatchOperationResult withPosition(BatchOperationResult result, int index, BatchOperation operation) {
+        result.setIndex(index);
+        result.setClientId(operation.getClientId());
+        return result;
+    }
+}
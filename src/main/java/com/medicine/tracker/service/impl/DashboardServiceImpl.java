@@ -0,0 +1,93 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.model.dto.response.DashboardResponse;
+import com.medicine.tracker.model.dto.response.MedicineResponse;
+import com.medicine.tracker.model.dto.response.ProfileResponse;
+import com.medicine.tracker.model.dto.response.ScheduleResponse;
+import com.medicine.tracker.service.DashboardService;
+import com.medicine.tracker.service.MedicineService;
+import com.medicine.tracker.service.ProfileService;
+import com.medicine.tracker.service.ScheduleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of DashboardService
+ * Reads all profiles, active medicines and active schedules of the user with one query each and
+ * stitches them together by ID, so the cost does not grow with the number of profiles or medicines
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardServiceImpl implements DashboardService {
+
+    // Same window as the expiry notifications
+    private static final int EXPIRY_WINDOW_DAYS = 30;
+
+    private final ProfileService profileService;
+    private final MedicineService medicineService;
+    private final ScheduleService scheduleService;
+
+    @Value("${refill.low-stock-days:5}")
+    private int lowStockDays;
+
+    /**
+     * Get the dashboard of a user
+     * @param userId The ID of the user
+     * @return Profiles with nested medicines and active schedules, plus expiring and low-stock counts
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public DashboardResponse getDashboard(UUID userId) {
+        List<ProfileResponse> profiles = profileService.getAllProfiles(userId);
+        List<MedicineResponse> medicines = medicineService.getAllMedicinesForUser(userId);
+        List<ScheduleResponse> schedules = scheduleService.getSchedulesForUser(userId);
+
+        Map<UUID, List<ScheduleResponse>> schedulesByMedicine = schedules.stream()
+                .sorted(Comparator.comparing(ScheduleResponse::getTimeOfDay))
+                .collect(Collectors.groupingBy(ScheduleResponse::getMedicineId));
+        Map<UUID, List<DashboardResponse.MedicineDashboard>> medicinesByProfile = medicines.stream()
+                .map(medicine -> DashboardResponse.MedicineDashboard.builder()
+                        .medicine(medicine)
+                        .schedules(schedulesByMedicine.getOrDefault(medicine.getId(), List.of()))
+                        .build())
+                .collect(Collectors.groupingBy(medicine -> medicine.getMedicine().getProfileId()));
+
+        List<DashboardResponse.ProfileDashboard> profileDashboards = new ArrayList<>(profiles.size());
+        for (ProfileResponse profile : profiles) {
+            profileDashboards.add(DashboardResponse.ProfileDashboard.builder()
+                    .profile(profile)
+                    .medicines(medicinesByProfile.getOrDefault(profile.getId(), List.of()))
+                    .build());
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate expiryHorizon = today.plusDays(EXPIRY_WINDOW_DAYS);
+        LocalDate lowStockHorizon = today.plusDays(lowStockDays);
+        int expiring = (int) medicines.stream()
+                .filter(medicine -> medicine.getExpiryDate() != null && !medicine.getExpiryDate().isAfter(expiryHorizon))
+                .count();
+        int lowStock = (int) medicines.stream()
+                .filter(medicine -> medicine.getRunsOutOn() != null && !medicine.getRunsOutOn().isAfter(lowStockHorizon))
+                .count();
+
+        log.info("Built dashboard for user {}: {} profiles, {} medicines, {} schedules",
+                userId, profiles.size(), medicines.size(), schedules.size());
+        return DashboardResponse.builder()
+                .profiles(profileDashboards)
+                .expiringCount(expiring)
+                .lowStockCount(lowStock)
+                .build();
+    }
+}
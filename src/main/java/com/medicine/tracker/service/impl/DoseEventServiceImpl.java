@@ -0,0 +1,419 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.cache.ProfileDirectory;
+import com.medicine.tracker.model.dto.response.DoseEventResponse;
+import com.medicine.tracker.model.entity.DoseEvent;
+import com.medicine.tracker.repository.DoseEventRepository;
+import com.medicine.tracker.service.AdherenceService;
+import com.medicine.tracker.service.DoseEventService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of DoseEventService backed by an in-memory batching writer
+ * Events are queued by request threads once their transaction commits and written by a single writer thread
+ * using JDBC batch inserts whenever a batch fills up or the flush interval elapses
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DoseEventServiceImpl implements DoseEventService {
+
+    private static final String INSERT_SQL = "INSERT INTO dose_events "
+            + "(id, medicine_id, schedule_id, scheduled_for, profile_id, user_id, taken_at, quantity_delta, source) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DoseEventRepository doseEventRepository;
+    private final ProfileDirectory profileDirectory;
+    private final AgendaCache agendaCache;
+    private final AdherenceService adherenceService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${dose-events.batch-size:100}")
+    private int batchSize;
+
+    @Value("${dose-events.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${dose-events.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${dose-events.sync-timeout-ms:5000}")
+    private long syncTimeoutMs;
+
+    private BlockingQueue<PendingEvent> queue;
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    /**
+     * Start the background writer thread
+     */
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::runWriter, "dose-event-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Dose event writer started with batch size {} and flush interval {} ms", batchSize, flushIntervalMs);
+    }
+
+    /**
+     * Stop the background writer thread after draining all buffered events
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(syncTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything still queued after the writer exits is written on the shutdown thread
+        List<PendingEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            writeBatch(remaining);
+        }
+        log.info("Dose event writer stopped");
+    }
+
+    /**
+     * Record a dose event; the event is buffered and written with the next batch
+     * Inside a transaction the event is only queued once it commits, so a rolled back dose leaves no event
+     * @param doseEvent The dose event to record
+     */
+    @Override
+    public void record(DoseEvent doseEvent) {
+        PendingEvent pending = new PendingEvent(prepare(doseEvent), null);
+        afterCommit(() -> enqueue(pending));
+    }
+
+    /**
+     * Record a dose event and wait until the batch containing it has been written
+     * Inside a transaction the wait happens once it commits, before the transactional call returns
+     * @param doseEvent The dose event to record
+     */
+    @Override
+    public void recordSynchronously(DoseEvent doseEvent) {
+        PendingEvent pending = new PendingEvent(prepare(doseEvent), new CompletableFuture<>());
+        afterCommit(() -> {
+            enqueue(pending);
+            await(pending.completion());
+        });
+    }
+
+    /**
+     * Write all buffered dose events and wait for them to be persisted
+     */
+    @Override
+    public void flush() {
+        // A marker without an event completes once every event queued before it has been written
+        PendingEvent marker = new PendingEvent(null, new CompletableFuture<>());
+        enqueue(marker);
+        await(marker.completion());
+    }
+
+    /**
+     * Get the dose history of a profile within a date range
+     * @param userId The ID of the user requesting the history
+     * @param profileId The ID of the profile to retrieve the history for
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     * @return List of dose events in the range, most recent first
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<DoseEventResponse> getDoseHistory(UUID userId, UUID profileId, LocalDate from, LocalDate to) {
+        log.info("Retrieving dose history for user {} and profile {} from {} to {}", userId, profileId, from, to);
+
+        // Verify that the profile belongs to the user
+        if (!profileDirectory.contains(userId, profileId)) {
+            log.warn("Profile {} does not exist or does not belong to user {}", profileId, userId);
+            throw new RuntimeException("Profile does not exist or does not belong to user");
+        }
+
+        if (to.isBefore(from)) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+
+        // Both bounds are on taken_at, the partition key, so only the partitions covering the range are scanned
+        List<DoseEvent> doseEvents = doseEventRepository.findByProfileIdAndTakenAtGreaterThanEqualAndTakenAtLessThanOrderByTakenAtDesc(
+                profileId,
+                from.atStartOfDay(),
+                to.plusDays(1).atStartOfDay()
+        );
+
+        log.info("Retrieved {} dose events for profile {}", doseEvents.size(), profileId);
+        return doseEvents.stream()
+                .map(this::mapToDoseEventResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Assign the identifier and timestamp of a dose event if the caller did not
+     * @param doseEvent The dose event to prepare
+     * @return The prepared dose event
+     */
+    private DoseEvent prepare(DoseEvent doseEvent) {
+        if (doseEvent.getId() == null) {
+            doseEvent.setId(UUID.randomUUID());
+        }
+        if (doseEvent.getTakenAt() == null) {
+            doseEvent.setTakenAt(LocalDateTime.now());
+        }
+        return doseEvent;
+    }
+
+    /**
+     * Run an action once the current transaction commits, or right away outside a transaction
+     * The action is dropped if the transaction rolls back
+     * @param action The action to run
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Add a pending event to the queue, writing inline if the queue is full
+     * @param pending The pending event to add
+     */
+    private void enqueue(PendingEvent pending) {
+        if (!running || !queue.offer(pending)) {
+            // Back-pressure: the writer is stopped or cannot keep up, so write on the caller's thread
+            log.warn("Dose event queue unavailable or full, writing event inline");
+            writeBatch(List.of(pending));
+        }
+    }
+
+    /**
+     * Wait for a pending write to complete
+     * @param completion The completion of the pending write
+     */
+    private void await(CompletableFuture<Void> completion) {
+        try {
+            completion.get(syncTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for dose event to be written", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Failed to write dose event", e);
+        }
+    }
+
+    /**
+     * Writer loop: collect up to batchSize events, waiting at most flushIntervalMs after the
+     * first one, then write them in a single JDBC batch
+     */
+    private void runWriter() {
+        while (running || !queue.isEmpty()) {
+            List<PendingEvent> batch = new ArrayList<>(batchSize);
+            boolean interrupted = false;
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                // Events collected before the interrupt are still written below, so their callers are not left waiting
+                interrupted = true;
+            }
+            try {
+                if (!batch.isEmpty()) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    writeBatch(batch);
+                }
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in dose event writer: {}", e.getMessage(), e);
+            }
+            // An interrupt from stop() only cuts the wait short; the loop then drains the queue
+            if (interrupted && running) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Collect up to batchSize events, waiting at most flushIntervalMs after the first one
+     * @param batch The list to add the events to; holds what was collected even if the wait is interrupted
+     * @throws InterruptedException If the writer thread is interrupted while waiting
+     */
+    private void collect(List<PendingEvent> batch) throws InterruptedException {
+        PendingEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+        // Synchronous callers are waiting, so stop collecting as soon as one is in the batch
+        boolean waiting = first.completion() != null;
+        while (batch.size() < batchSize && !waiting) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingEvent next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            waiting = next.completion() != null;
+        }
+    }
+
+    /**
+     * Write a batch of pending events and complete their futures
+     * A failed batch is retried once; if it fails again its events are written one by one, so a single
+     * bad event is dropped on its own instead of taking the rest of the batch with it
+     * @param batch The pending events to write
+     */
+    private void writeBatch(List<PendingEvent> batch) {
+        List<DoseEvent> events = batch.stream()
+                .map(PendingEvent::event)
+                .filter(event -> event != null)
+                .collect(Collectors.toList());
+        RuntimeException failure = null;
+        try {
+            persist(events);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write batch of {} dose events, retrying: {}", events.size(), e.getMessage());
+            try {
+                persist(events);
+            } catch (RuntimeException retryFailure) {
+                failure = events.size() > 1 ? writeOneByOne(batch) : retryFailure;
+            }
+        }
+        if (failure != null && events.size() == 1) {
+            log.error("Dropping dose event {}: {}", events.get(0).getId(), failure.getMessage(), failure);
+        }
+
+        // Events written one by one have completed their own futures; markers fail if any event was dropped
+        for (PendingEvent pending : batch) {
+            if (pending.completion() == null || pending.completion().isDone()) {
+                continue;
+            }
+            if (failure == null) {
+                pending.completion().complete(null);
+            } else {
+                pending.completion().completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Write the events of a batch in transactions of their own, dropping the ones that still fail
+     * @param batch The pending events to write
+     * @return The last failure, or null if every event was written
+     */
+    private RuntimeException writeOneByOne(List<PendingEvent> batch) {
+        RuntimeException failure = null;
+        for (PendingEvent pending : batch) {
+            if (pending.event() == null) {
+                continue;
+            }
+            try {
+                persist(List.of(pending.event()));
+                if (pending.completion() != null) {
+                    pending.completion().complete(null);
+                }
+            } catch (RuntimeException e) {
+                log.error("Dropping dose event {}: {}", pending.event().getId(), e.getMessage(), e);
+                failure = e;
+                if (pending.completion() != null) {
+                    pending.completion().completeExceptionally(e);
+                }
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Insert dose events and feed them to the adherence counters in one transaction
+     * @param events The dose events to write
+     */
+    private void persist(List<DoseEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_SQL, events, batchSize, (ps, event) -> {
+                ps.setObject(1, event.getId());
+                ps.setObject(2, event.getMedicineId());
+                ps.setObject(3, event.getScheduleId());
+                ps.setTimestamp(4, event.getScheduledFor() != null ? Timestamp.valueOf(event.getScheduledFor()) : null);
+                ps.setObject(5, event.getProfileId());
+                ps.setObject(6, event.getUserId());
+                ps.setTimestamp(7, Timestamp.valueOf(event.getTakenAt()));
+                ps.setInt(8, event.getQuantityDelta());
+                ps.setString(9, event.getSource().name());
+            });
+            adherenceService.recordDoses(events);
+        });
+        // Scheduled doses change the taken state of the agenda of their users
+        events.stream()
+                .filter(event -> event.getScheduleId() != null)
+                .map(DoseEvent::getUserId)
+                .distinct()
+                .forEach(agendaCache::invalidate);
+        log.debug("Wrote batch of {} dose events", events.size());
+    }
+
+    /**
+     * Maps a DoseEvent entity to a DoseEventResponse DTO
+     * @param doseEvent The dose event entity to map
+     * @return Mapped dose event response
+     */
+    private DoseEventResponse mapToDoseEventResponse(DoseEvent doseEvent) {
+        return DoseEventResponse.builder()
+                .id(doseEvent.getId())
+                .medicineId(doseEvent.getMedicineId())
+                .scheduleId(doseEvent.getScheduleId())
+                .scheduledFor(doseEvent.getScheduledFor())
+                .profileId(doseEvent.getProfileId())
+                .takenAt(doseEvent.getTakenAt())
+                .quantityDelta(doseEvent.getQuantityDelta())
+                .source(doseEvent.getSource())
+                .build();
+    }
+
+    /**
+     * A queued dose event together with the completion a synchronous caller is waiting on
+     */
+    private record PendingEvent(DoseEvent event, CompletableFuture<Void> completion) {
+    }
+}
@@ -0,0 +1,212 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.service.DoseHistoryMaintenanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of DoseHistoryMaintenanceService for PostgreSQL
+ * Keeps dose_events range-partitioned by month on taken_at, creates partitions ahead of time
+ * and compacts partitions past the retention period into dose_daily_rollups before dropping them
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DoseHistoryMaintenanceServiceImpl implements DoseHistoryMaintenanceService {
+
+    private static final String PARENT_TABLE = "dose_events";
+    private static final String DEFAULT_PARTITION = "dose_events_default";
+    private static final String LEGACY_TABLE = "dose_events_unpartitioned";
+    private static final Pattern PARTITION_NAME = Pattern.compile("dose_events_p(\\d{4})_(\\d{2})");
+
+    private static final String COLUMNS =
+            "id, medicine_id, schedule_id, scheduled_for, profile_id, user_id, taken_at, quantity_delta, source";
+
+    // Same definition as schema.sql; partition bounds written as dates are midnights in the session time zone,
+    // which is also the zone the LocalDateTime values of DoseEvent are written in
+    private static final String CREATE_PARENT_SQL = "CREATE TABLE dose_events ("
+            + "id UUID NOT NULL, "
+            + "medicine_id UUID NOT NULL, "
+            + "schedule_id UUID, "
+            + "scheduled_for TIMESTAMPTZ, "
+            + "profile_id UUID NOT NULL, "
+            + "user_id UUID NOT NULL, "
+            + "taken_at TIMESTAMPTZ NOT NULL, "
+            + "quantity_delta INTEGER NOT NULL, "
+            + "source VARCHAR(20) NOT NULL CHECK (source IN ('MANUAL', 'SCHEDULED', 'OFFLINE_SYNC', 'ADJUSTMENT')), "
+            + "PRIMARY KEY (id, taken_at)"
+            + ") PARTITION BY RANGE (taken_at)";
+
+    private static final String ROLLUP_SELECT_SQL = "INSERT INTO dose_daily_rollups "
+            + "(id, medicine_id, schedule_id, profile_id, user_id, day, event_count, doses_taken, quantity_delta) "
+            + "SELECT gen_random_uuid(), medicine_id, schedule_id, profile_id, user_id, CAST(taken_at AS DATE), "
+            + "COUNT(*), COUNT(*) FILTER (WHERE source <> 'ADJUSTMENT'), SUM(quantity_delta) "
+            + "FROM %s %s "
+            + "GROUP BY medicine_id, schedule_id, profile_id, user_id, CAST(taken_at AS DATE)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${dose-events.partitions-ahead-months:3}")
+    private int partitionsAheadMonths;
+
+    @Value("${dose-events.retention-months:13}")
+    private int retentionMonths;
+
+    /**
+     * Convert the dose event table into a range-partitioned table if it is still a plain table
+     */
+    @Override
+    public void ensurePartitioned() {
+        String relkind = jdbcTemplate.query(
+                "SELECT c.relkind::text FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+                        + "WHERE c.relname = ? AND n.nspname = current_schema()",
+                rs -> rs.next() ? rs.getString(1) : null,
+                PARENT_TABLE);
+
+        if ("p".equals(relkind)) {
+            log.debug("Table {} is already partitioned", PARENT_TABLE);
+            return;
+        }
+
+        log.info("Converting table {} into a monthly range-partitioned table", PARENT_TABLE);
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDate oldest = null;
+            if (relkind != null) {
+                // Keep the existing rows aside while the partitioned parent is created under the same name
+                jdbcTemplate.execute("LOCK TABLE dose_events IN ACCESS EXCLUSIVE MODE");
+                jdbcTemplate.execute("ALTER TABLE dose_events RENAME TO " + LEGACY_TABLE);
+                jdbcTemplate.execute("ALTER TABLE " + LEGACY_TABLE + " DROP CONSTRAINT IF EXISTS dose_events_pkey");
+                jdbcTemplate.execute("DROP INDEX IF EXISTS idx_dose_events_medicine_id_taken_at");
+                jdbcTemplate.execute("DROP INDEX IF EXISTS idx_dose_events_profile_id_taken_at");
+                jdbcTemplate.execute("DROP INDEX IF EXISTS idx_dose_events_user_id_taken_at");
+                oldest = jdbcTemplate.queryForObject(
+                        "SELECT CAST(MIN(taken_at) AS DATE) FROM " + LEGACY_TABLE, LocalDate.class);
+            }
+
+            jdbcTemplate.execute(CREATE_PARENT_SQL);
+            jdbcTemplate.execute("CREATE INDEX idx_dose_events_medicine_id_taken_at ON dose_events (medicine_id, taken_at)");
+            jdbcTemplate.execute("CREATE INDEX idx_dose_events_profile_id_taken_at ON dose_events (profile_id, taken_at)");
+            jdbcTemplate.execute("CREATE INDEX idx_dose_events_user_id_taken_at ON dose_events (user_id, taken_at)");
+            // Catches events outside every monthly partition, e.g. offline doses replayed with old timestamps
+            jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF dose_events DEFAULT");
+
+            YearMonth month = oldest != null ? YearMonth.from(oldest) : YearMonth.now();
+            YearMonth last = YearMonth.now().plusMonths(partitionsAheadMonths);
+            for (; !month.isAfter(last); month = month.plusMonths(1)) {
+                createPartitionIfMissing(month);
+            }
+
+            if (relkind != null) {
+                int moved = jdbcTemplate.update(
+                        "INSERT INTO dose_events (" + COLUMNS + ") SELECT " + COLUMNS + " FROM " + LEGACY_TABLE);
+                jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+                log.info("Moved {} dose events into partitioned table {}", moved, PARENT_TABLE);
+            }
+        });
+    }
+
+    /**
+     * Create the monthly partitions for the current month and the configured number of months ahead
+     */
+    @Override
+    public void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= partitionsAheadMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            transactionTemplate.executeWithoutResult(status -> createPartitionIfMissing(month));
+        }
+    }
+
+    /**
+     * Roll up partitions older than the retention period into per-schedule daily rollups and drop them
+     */
+    @Override
+    public void compactExpiredPartitions() {
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        log.info("Compacting dose history older than {}", cutoff);
+
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = ?",
+                String.class,
+                PARENT_TABLE);
+
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                int rollups = jdbcTemplate.update(String.format(ROLLUP_SELECT_SQL, partition, ""));
+                jdbcTemplate.execute("ALTER TABLE dose_events DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Compacted partition {} into {} daily rollups and dropped it", partition, rollups);
+            });
+        }
+
+        // Stray events in the default partition follow the same retention policy
+        String cutoffDate = cutoff.atDay(1).toString();
+        transactionTemplate.executeWithoutResult(status -> {
+            String where = "WHERE taken_at < '" + cutoffDate + "'";
+            int rollups = jdbcTemplate.update(String.format(ROLLUP_SELECT_SQL, DEFAULT_PARTITION, where));
+            int deleted = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " " + where);
+            if (deleted > 0) {
+                log.info("Compacted {} expired events from {} into {} daily rollups", deleted, DEFAULT_PARTITION, rollups);
+            }
+        });
+    }
+
+    /**
+     * Create the partition for a month unless it already exists, moving any rows for that month
+     * out of the default partition first (Postgres refuses to attach a range the default partition holds rows for)
+     * Must be called inside a transaction
+     * @param month The month to create the partition for
+     */
+    private void createPartitionIfMissing(YearMonth month) {
+        String partition = String.format("dose_events_p%04d_%02d", month.getYear(), month.getMonthValue());
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        String range = "WHERE taken_at >= '" + from + "' AND taken_at < '" + to + "'";
+
+        Integer stray = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + DEFAULT_PARTITION + " " + range, Integer.class);
+        boolean moveStray = stray != null && stray > 0;
+        if (moveStray) {
+            jdbcTemplate.execute("CREATE TEMP TABLE dose_events_moving ON COMMIT DROP AS SELECT * FROM "
+                    + DEFAULT_PARTITION + " " + range);
+            jdbcTemplate.execute("DELETE FROM " + DEFAULT_PARTITION + " " + range);
+        }
+
+        jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF dose_events "
+                + "FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+
+        if (moveStray) {
+            jdbcTemplate.execute("INSERT INTO dose_events (" + COLUMNS + ") SELECT " + COLUMNS + " FROM dose_events_moving");
+            jdbcTemplate.execute("DROP TABLE dose_events_moving");
+        }
+        log.info("Created dose event partition {} for {} ({} events moved from default partition)",
+                partition, month, moveStray ? stray : 0);
+    }
+}
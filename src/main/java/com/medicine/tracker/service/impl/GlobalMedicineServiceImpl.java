@@ -1,14 +1,26 @@
 package com.medicine.tracker.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medicine.tracker.exception.PreconditionFailedException;
 import com.medicine.tracker.model.dto.request.GlobalMedicineRequest;
+import com.medicine.tracker.model.dto.request.GlobalMedicineSearchRequest;
+import com.medicine.tracker.model.dto.response.GlobalMedicinePageResponse;
 import com.medicine.tracker.model.dto.response.GlobalMedicineResponse;
 import com.medicine.tracker.model.entity.GlobalMedicine;
 import com.medicine.tracker.repository.GlobalMedicineRepository;
 import com.medicine.tracker.service.GlobalMedicineService;
+import com.medicine.tracker.service.MergePatchService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -18,9 +30,45 @@ import java.util.stream.Collectors;
  */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class GlobalMedicineServiceImpl implements GlobalMedicineService {
     
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    
+    // Words beyond this are ignored; every word must match, so more rarely narrow the results further
+    private static final int MAX_SEARCH_WORDS = 8;
+    
+    // Shorter words match as a prefix of a large part of the catalog, every row of which would be ranked
+    private static final int MIN_SEARCH_WORD_LENGTH = 2;
+    
+    // Deep pages re-rank and skip everything before them, so paging stops here; more specific words narrow the results
+    private static final int MAX_SEARCH_RESULTS = 500;
+    
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    
+    // Weighted document of a medicine: name (A) > brand and generic name (B) > indications (C) > description (D)
+    // The simple configuration keeps drug names unstemmed; indications live in their element collection table
+    private static final String SEARCH_VECTOR = "setweight(to_tsvector('simple', coalesce(g.name, '')), 'A') "
+            + "|| setweight(to_tsvector('simple', concat_ws(' ', g.brand_name, g.generic_name)), 'B') "
+            + "|| setweight(to_tsvector('simple', coalesce((SELECT string_agg(i.indication, ' ') "
+            + "FROM global_medicine_indications i WHERE i.medicine_id = g.id), '')), 'C') "
+            + "|| setweight(to_tsvector('simple', coalesce(g.description, '')), 'D')";
+    
+    private static final String REFRESH_SEARCH_VECTOR_SQL =
+            "UPDATE global_medicines g SET search_vector = " + SEARCH_VECTOR + " WHERE g.id = ?";
+    
+    private static final String BACKFILL_SEARCH_VECTOR_SQL = "UPDATE global_medicines g SET search_vector = "
+            + SEARCH_VECTOR + " WHERE g.id IN (SELECT id FROM global_medicines WHERE search_vector IS NULL LIMIT ?)";
+    
+    private static final String ADD_SEARCH_VECTOR_SQL =
+            "ALTER TABLE global_medicines ADD COLUMN IF NOT EXISTS search_vector tsvector";
+    
+    private static final String CREATE_SEARCH_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_global_medicines_search_vector ON global_medicines USING GIN (search_vector)";
+    
     private final GlobalMedicineRepository globalMedicineRepository;
+    private final MergePatchService mergePatchService;
+    private final JdbcTemplate jdbcTemplate;
     
     /**
      * Create a new global medicine
@@ -28,6 +76,7 @@ public class GlobalMedicineServiceImpl implements GlobalMedicineService {
      * @return Created global medicine response
      */
     @Override
+    @Transactional
     public GlobalMedicineResponse createGlobalMedicine(GlobalMedicineRequest globalMedicineRequest) {
         GlobalMedicine globalMedicine = GlobalMedicine.builder()
                 .name(globalMedicineRequest.getName())
@@ -49,6 +98,9 @@ public class GlobalMedicineServiceImpl implements GlobalMedicineService {
                 .build();
         
         GlobalMedicine savedGlobalMedicine = globalMedicineRepository.save(globalMedicine);
+        // The search document is built in SQL from the stored row and its indications, so write them first
+        globalMedicineRepository.flush();
+        jdbcTemplate.update(REFRESH_SEARCH_VECTOR_SQL, savedGlobalMedicine.getId());
         
         return mapToGlobalMedicineResponse(savedGlobalMedicine);
     }
@@ -58,6 +110,7 @@ public class GlobalMedicineServiceImpl implements GlobalMedicineService {
      * @return List of all global medicines
      */
     @Override
+    @Transactional(readOnly = true)
     public List<GlobalMedicineResponse> getAllGlobalMedicines() {
         List<GlobalMedicine> globalMedicines = globalMedicineRepository.findAll();
         
@@ -72,6 +125,7 @@ public class GlobalMedicineServiceImpl implements GlobalMedicineService {
      * @return The requested global medicine response
      */
     @Override
+    @Transactional(readOnly = true)
     public GlobalMedicineResponse getGlobalMedicineById(UUID id) {
         GlobalMedicine globalMedicine = globalMedicineRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Global medicine not found with ID: " + id));
@@ -80,17 +134,61 @@ public class GlobalMedicineServiceImpl implements GlobalMedicineService {
     }
     
     /**
-     * Search global medicines by name (partial match)
-     * @param name The name to search for
-     * @return List of global medicines matching the search
+     * Search global medicines by name, brand and generic name, indications and description
+     * Every word must match, the last letters of a word may be missing; results are ranked by where they matched
+     * Words shorter than two characters are ignored, and only the first 500 results can be paged through
+     * @param searchRequest The search terms and the page to return
+     * @return Page of global medicines matching the search, most relevant first
      */
     @Override
-    public List<GlobalMedicineResponse> searchGlobalMedicinesByName(String name) {
-        List<GlobalMedicine> globalMedicines = globalMedicineRepository.findByNameContainingIgnoreCase(name);
+    @Transactional(readOnly = true)
+    public GlobalMedicinePageResponse searchGlobalMedicines(GlobalMedicineSearchRequest searchRequest) {
+        int page = Objects.requireNonNullElse(searchRequest.getPage(), 0);
+        int size = Objects.requireNonNullElse(searchRequest.getSize(), DEFAULT_PAGE_SIZE);
+        long offset = (long) page * size;
+        if (offset + size > MAX_SEARCH_RESULTS) {
+            throw new RuntimeException("Search results are limited to the first " + MAX_SEARCH_RESULTS
+                    + " matches; use more specific search terms");
+        }
+        String query = toPrefixQuery(searchRequest.getName());
+        if (query.isEmpty()) {
+            return GlobalMedicinePageResponse.builder().items(List.of()).page(page).size(size).hasMore(false).build();
+        }
         
-        return globalMedicines.stream()
-                .map(this::mapToGlobalMedicineResponse)
-                .collect(Collectors.toList());
+        // One extra row tells whether another page follows without a second query counting the matches;
+        // the ranking itself still scores every match, which the minimum word length keeps selective
+        List<GlobalMedicine> globalMedicines = globalMedicineRepository.searchByText(query, size + 1, (int) offset);
+        boolean hasMore = globalMedicines.size() > size && offset + 2L * size <= MAX_SEARCH_RESULTS;
+        
+        return GlobalMedicinePageResponse.builder()
+                .items(globalMedicines.stream()
+                        .limit(size)
+                        .map(this::mapToGlobalMedicineResponse)
+                        .collect(Collectors.toList()))
+                .page(page)
+                .size(size)
+                .hasMore(hasMore)
+                .build();
+    }
+    
+    /**
+     * Add the full-text search column and its GIN index, then build the documents of medicines that lack one
+     * Documents are built in batches that commit one by one, so a large catalog is not locked as a whole
+     */
+    @Override
+    public void ensureSearchIndex() {
+        jdbcTemplate.execute(ADD_SEARCH_VECTOR_SQL);
+        jdbcTemplate.execute(CREATE_SEARCH_INDEX_SQL);
+        
+        int backfilled = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update(BACKFILL_SEARCH_VECTOR_SQL, BACKFILL_BATCH_SIZE);
+            backfilled += updated;
+        } while (updated == BACKFILL_BATCH_SIZE);
+        if (backfilled > 0) {
+            log.info("Built full-text search documents for {} global medicines", backfilled);
+        }
     }
     
     /**
@@ -99,6 +197,7 @@ public class GlobalMedicineServiceImpl implements GlobalMedicineService {
      * @return List of global medicines in the category
      */
     @Override
+    @Transactional(readOnly = true)
     public List<GlobalMedicineResponse> getGlobalMedicinesByCategory(String category) {
         List<GlobalMedicine> globalMedicines = globalMedicineRepository.findByCategory(category);
         
@@ -111,13 +210,19 @@ public class GlobalMedicineServiceImpl implements GlobalMedicineService {
      * Update an existing global medicine
      * @param id The ID of the global medicine to update
      * @param globalMedicineRequest The request containing updated global medicine details
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
      * @return Updated global medicine response
      */
     @Override
-    public GlobalMedicineResponse updateGlobalMedicine(UUID id, GlobalMedicineRequest globalMedicineRequest) {
+    @Transactional
+    public GlobalMedicineResponse updateGlobalMedicine(UUID id, GlobalMedicineRequest globalMedicineRequest, Long expectedVersion) {
         GlobalMedicine globalMedicine = globalMedicineRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Global medicine not found with ID: " + id));
         
+        if (expectedVersion != null && !expectedVersion.equals(globalMedicine.getVersion())) {
+            throw new PreconditionFailedException("Global medicine has been modified since version " + expectedVersion);
+        }
+        
         // Update global medicine properties
         globalMedicine.setName(globalMedicineRequest.getName());
         globalMedicine.setBrandName(globalMedicineRequest.getBrandName());
@@ -126,26 +231,75 @@ public class GlobalMedicineServiceImpl implements GlobalMedicineService {
         globalMedicine.setStrength(globalMedicineRequest.getStrength());
         globalMedicine.setManufacturer(globalMedicineRequest.getManufacturer());
         globalMedicine.setDescription(globalMedicineRequest.getDescription());
-        globalMedicine.setIndications(globalMedicineRequest.getIndications());
-        globalMedicine.setContraindications(globalMedicineRequest.getContraindications());
-        globalMedicine.setSideEffects(globalMedicineRequest.getSideEffects());
-        globalMedicine.setWarnings(globalMedicineRequest.getWarnings());
-        globalMedicine.setInteractions(globalMedicineRequest.getInteractions());
+        // Replacing an element collection deletes and reinserts all of its rows, so only replace changed ones
+        if (!sameElements(globalMedicine.getIndications(), globalMedicineRequest.getIndications())) {
+            globalMedicine.setIndications(globalMedicineRequest.getIndications());
+        }
+        if (!sameElements(globalMedicine.getContraindications(), globalMedicineRequest.getContraindications())) {
+            globalMedicine.setContraindications(globalMedicineRequest.getContraindications());
+        }
+        if (!sameElements(globalMedicine.getSideEffects(), globalMedicineRequest.getSideEffects())) {
+            globalMedicine.setSideEffects(globalMedicineRequest.getSideEffects());
+        }
+        if (!sameElements(globalMedicine.getWarnings(), globalMedicineRequest.getWarnings())) {
+            globalMedicine.setWarnings(globalMedicineRequest.getWarnings());
+        }
+        if (!sameElements(globalMedicine.getInteractions(), globalMedicineRequest.getInteractions())) {
+            globalMedicine.setInteractions(globalMedicineRequest.getInteractions());
+        }
         globalMedicine.setStorageInstructions(globalMedicineRequest.getStorageInstructions());
         globalMedicine.setCategory(globalMedicineRequest.getCategory());
         globalMedicine.setAtcCode(globalMedicineRequest.getAtcCode());
         globalMedicine.setFdaApprovalDate(globalMedicineRequest.getFdaApprovalDate());
         
         GlobalMedicine updatedGlobalMedicine = globalMedicineRepository.save(globalMedicine);
+        globalMedicineRepository.flush();
+        jdbcTemplate.update(REFRESH_SEARCH_VECTOR_SQL, id);
         
         return mapToGlobalMedicineResponse(updatedGlobalMedicine);
     }
     
+    /**
+     * Partially update an existing global medicine with a JSON Merge Patch
+     * @param id The ID of the global medicine to update
+     * @param patch The merge patch containing only the fields to change
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
+     * @return Updated global medicine response
+     */
+    @Override
+    @Transactional
+    public GlobalMedicineResponse patchGlobalMedicine(UUID id, JsonNode patch, Long expectedVersion) {
+        GlobalMedicine globalMedicine = globalMedicineRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Global medicine not found with ID: " + id));
+        
+        GlobalMedicineRequest current = GlobalMedicineRequest.builder()
+                .name(globalMedicine.getName())
+                .brandName(globalMedicine.getBrandName())
+                .genericName(globalMedicine.getGenericName())
+                .dosageForm(globalMedicine.getDosageForm())
+                .strength(globalMedicine.getStrength())
+                .manufacturer(globalMedicine.getManufacturer())
+                .description(globalMedicine.getDescription())
+                .indications(globalMedicine.getIndications())
+                .contraindications(globalMedicine.getContraindications())
+                .sideEffects(globalMedicine.getSideEffects())
+                .warnings(globalMedicine.getWarnings())
+                .interactions(globalMedicine.getInteractions())
+                .storageInstructions(globalMedicine.getStorageInstructions())
+                .category(globalMedicine.getCategory())
+                .atcCode(globalMedicine.getAtcCode())
+                .fdaApprovalDate(globalMedicine.getFdaApprovalDate())
+                .build();
+        GlobalMedicineRequest patched = mergePatchService.apply(current, patch, GlobalMedicineRequest.class);
+        return updateGlobalMedicine(id, patched, expectedVersion);
+    }
+    
     /**
      * Delete a global medicine by ID
      * @param id The ID of the global medicine to delete
      */
     @Override
+    @Transactional
     public void deleteGlobalMedicine(UUID id) {
         GlobalMedicine globalMedicine = globalMedicineRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Global medicine not found with ID: " + id));
@@ -153,6 +307,34 @@ public class GlobalMedicineServiceImpl implements GlobalMedicineService {
         globalMedicineRepository.delete(globalMedicine);
     }
     
+    /**
+     * Turn free text into a tsquery that requires every word, each as a prefix
+     * Only letters and digits are kept, so the text cannot inject tsquery operators; words shorter than
+     * MIN_SEARCH_WORD_LENGTH are dropped
+     * @param text The search text
+     * @return The tsquery, or an empty string if the text holds no words
+     */
+    private String toPrefixQuery(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> word.length() >= MIN_SEARCH_WORD_LENGTH)
+                .distinct()
+                .limit(MAX_SEARCH_WORDS)
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+    
+    /**
+     * Compare two element lists by content; Hibernate's bag wrappers only compare by identity
+     * @param current The list currently held by the entity
+     * @param requested The list from the request
+     * @return true if both hold the same elements in the same order
+     */
+    private boolean sameElements(List<String> current, List<String> requested) {
+        List<String> before = current != null ? new ArrayList<>(current) : List.of();
+        List<String> after = requested != null ? requested : List.of();
+        return before.equals(after);
+    }
+    
     /**
      * Maps a GlobalMedicine entity to a GlobalMedicineResponse DTO
      * @param globalMedicine The global medicine entity to map
@@ -177,6 +359,7 @@ public class GlobalMedicineServiceImpl implements GlobalMedicineService {
                 .category(globalMedicine.getCategory())
                 .atcCode(globalMedicine.getAtcCode())
                 .fdaApprovalDate(globalMedicine.getFdaApprovalDate())
+                .version(globalMedicine.getVersion())
                 .createdAt(globalMedicine.getCreatedAt())
                 .updatedAt(globalMedicine.getUpdatedAt())
                 .build();
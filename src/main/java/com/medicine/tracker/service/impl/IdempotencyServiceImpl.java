@@ -0,0 +1,167 @@
+package com.medicine.tracker.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medicine.tracker.model.entity.IdempotencyKey;
+import com.medicine.tracker.repository.IdempotencyKeyRepository;
+import com.medicine.tracker.service.IdempotencyService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Implementation of IdempotencyService backed by the idempotency_keys table
+ * Keys are claimed with a single INSERT ... ON CONFLICT so only one node executes a request,
+ * and completed responses are kept in a node-local cache so most replays skip the database
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    // Inserts a new in-progress key, or takes over one whose retention window or lock timeout has passed
+    private static final String CLAIM_SQL = "INSERT INTO idempotency_keys (id, request_hash, status, expires_at) "
+            + "VALUES (?, ?, 'IN_PROGRESS', ?) "
+            + "ON CONFLICT (id) DO UPDATE SET request_hash = EXCLUDED.request_hash, status = EXCLUDED.status, "
+            + "response_status = NULL, content_type = NULL, response_etag = NULL, response_location = NULL, "
+            + "response_body = NULL, expires_at = EXCLUDED.expires_at "
+            + "WHERE idempotency_keys.expires_at < ?";
+
+    private static final String COMPLETE_SQL = "UPDATE idempotency_keys "
+            + "SET status = 'COMPLETED', response_status = ?, content_type = ?, response_etag = ?, response_location = ?, "
+            + "response_body = ?, expires_at = ? "
+            + "WHERE id = ? AND request_hash = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.lock-timeout-seconds:60}")
+    private long lockTimeoutSeconds;
+
+    @Value("${idempotency.cache-maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    private Cache<String, IdempotencyKey> completedKeys;
+
+    @PostConstruct
+    public void init() {
+        completedKeys = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .build();
+    }
+
+    /**
+     * Claim a key for processing
+     * @param userId The ID of the user sending the request
+     * @param key The value of the Idempotency-Key header
+     * @param requestHash Hash of the method, URI and body of the request
+     * @return null if the caller now owns the key, otherwise the existing in-progress or completed key
+     */
+    @Override
+    public IdempotencyKey begin(UUID userId, String key, String requestHash) {
+        String id = keyId(userId, key);
+        IdempotencyKey cached = completedKeys.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = jdbcTemplate.update(CLAIM_SQL, id, requestHash,
+                Timestamp.valueOf(now.plusSeconds(lockTimeoutSeconds)), Timestamp.valueOf(now));
+        if (claimed == 1) {
+            return null;
+        }
+
+        IdempotencyKey existing = idempotencyKeyRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Idempotency key was removed while being claimed, retry the request"));
+        if (existing.getStatus() == IdempotencyKey.Status.COMPLETED) {
+            completedKeys.put(id, existing);
+        }
+        return existing;
+    }
+
+    /**
+     * Store the response of a claimed key so retries can replay it
+     * @param userId The ID of the user sending the request
+     * @param key The value of the Idempotency-Key header
+     * @param requestHash Hash of the method, URI and body of the request
+     * @param status The HTTP status of the response
+     * @param contentType The content type of the response
+     * @param etag The ETag header of the response, or null
+     * @param location The Location header of the response, or null
+     * @param body The body of the response
+     */
+    @Override
+    public void complete(UUID userId, String key, String requestHash, int status, String contentType,
+                         String etag, String location, byte[] body) {
+        String id = keyId(userId, key);
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(ttlHours);
+        int updated = jdbcTemplate.update(COMPLETE_SQL, status, contentType, etag, location, body,
+                Timestamp.valueOf(expiresAt), id, requestHash);
+        if (updated == 0) {
+            // The lock timed out and another request took the key over; its response wins
+            log.warn("Idempotency key {} was taken over before its response could be stored", id);
+            return;
+        }
+        completedKeys.put(id, IdempotencyKey.builder()
+                .id(id)
+                .requestHash(requestHash)
+                .status(IdempotencyKey.Status.COMPLETED)
+                .responseStatus(status)
+                .contentType(contentType)
+                .responseEtag(etag)
+                .responseLocation(location)
+                .responseBody(body)
+                .expiresAt(expiresAt)
+                .build());
+    }
+
+    /**
+     * Release a claimed key without storing a response, so the request can be retried
+     * @param userId The ID of the user sending the request
+     * @param key The value of the Idempotency-Key header
+     */
+    @Override
+    public void release(UUID userId, String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ? AND status = 'IN_PROGRESS'", keyId(userId, key));
+    }
+
+    /**
+     * Delete keys past their retention window
+     * @return Number of keys removed
+     */
+    @Override
+    @Transactional
+    public int purgeExpiredKeys() {
+        int purged = idempotencyKeyRepository.deleteByExpiresAtBefore(LocalDateTime.now());
+        log.info("Purged {} expired idempotency keys", purged);
+        return purged;
+    }
+
+    private String keyId(UUID userId, String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((userId + ":" + key).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
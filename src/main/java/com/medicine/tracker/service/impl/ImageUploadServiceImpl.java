@@ -3,12 +3,22 @@ package com.medicine.tracker.service.impl;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import com.medicine.tracker.service.ImageUploadService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of ImageUploadService for handling image uploads to Cloudinary
@@ -16,10 +26,45 @@ import java.util.Map;
  */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ImageUploadServiceImpl implements ImageUploadService {
     
     private final Cloudinary cloudinary;
     
+    @Value("${image-cleanup.queue-capacity:1000}")
+    private int cleanupQueueCapacity;
+    
+    private ExecutorService cleanupExecutor;
+    
+    /**
+     * Start the background thread that deletes orphaned images
+     */
+    @PostConstruct
+    public void start() {
+        cleanupExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(cleanupQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-cleanup");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    /**
+     * Stop the cleanup thread, giving queued deletions a short time to finish
+     */
+    @PreDestroy
+    public void stop() {
+        cleanupExecutor.shutdown();
+        try {
+            if (!cleanupExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Image cleanup did not finish before shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
     /**
      * Upload an image file to Cloudinary
      * @param imageFile The image file to upload
@@ -76,6 +121,31 @@ public class ImageUploadServiceImpl implements ImageUploadService {
         }
     }
     
+    /**
+     * Delete images from Cloudinary in the background
+     * @param imageUrls The URLs of the images to delete
+     */
+    @Override
+    public void deleteImagesAsync(List<String> imageUrls) {
+        List<String> pending = List.copyOf(imageUrls);
+        try {
+            cleanupExecutor.execute(() -> {
+                int deleted = 0;
+                for (String imageUrl : pending) {
+                    if (deleteImage(imageUrl)) {
+                        deleted++;
+                    } else {
+                        log.warn("Failed to delete orphaned image {}", imageUrl);
+                    }
+                }
+                log.info("Deleted {} of {} orphaned images", deleted, pending.size());
+            });
+        } catch (RejectedExecutionException e) {
+            // Leaving an image behind is harmless, so a full queue drops the batch instead of blocking the caller
+            log.warn("Image cleanup queue is full, {} orphaned images were not deleted", pending.size());
+        }
+    }
+    
     /**
      * Extract the public ID from a Cloudinary image URL
      * @param imageUrl The Cloudinary image URL
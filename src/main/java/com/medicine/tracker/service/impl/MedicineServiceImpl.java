@@ -1,18 +1,54 @@
 package com.medicine.tracker.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.cache.MedicineListCache;
+import com.medicine.tracker.cache.ProfileDirectory;
+import com.medicine.tracker.cache.ScheduleTimesCache;
+import com.medicine.tracker.exception.PreconditionFailedException;
+import com.medicine.tracker.model.dto.request.BatchOperation;
+import com.medicine.tracker.model.dto.request.MedicinePageRequest;
 import com.medicine.tracker.model.dto.request.MedicineRequest;
+import com.medicine.tracker.model.dto.request.TakeDoseRequest;
+import com.medicine.tracker.model.dto.response.MedicinePageResponse;
 import com.medicine.tracker.model.dto.response.MedicineResponse;
 import com.medicine.tracker.model.dto.response.MedicineWithProfileResponse;
+import com.medicine.tracker.model.entity.DoseEvent;
 import com.medicine.tracker.model.entity.Medicine;
-import com.medicine.tracker.model.entity.Profile;
+import com.medicine.tracker.model.entity.SyncTombstone;
 import com.medicine.tracker.repository.MedicineRepository;
-import com.medicine.tracker.repository.ProfileRepository;
+import com.medicine.tracker.repository.ScheduleRepository;
+import com.medicine.tracker.repository.SyncTombstoneRepository;
+import com.medicine.tracker.service.DoseEventService;
 import com.medicine.tracker.service.MedicineService;
+import com.medicine.tracker.service.MergePatchService;
+import com.medicine.tracker.service.RefillForecastService;
+import com.medicine.tracker.service.UserDataVersionService;
+import com.medicine.tracker.service.UserSummaryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -25,8 +61,67 @@ import java.util.stream.Collectors;
 @Slf4j
 public class MedicineServiceImpl implements MedicineService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    
+    // The name indexes follow the database collation, under which LIKE cannot use them for a prefix
+    private static final List<String> CREATE_NAME_PREFIX_INDEXES_SQL = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_user_medicines_user_status_name_prefix "
+                    + "ON user_medicines (user_id, status, name text_pattern_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_user_medicines_profile_status_name_prefix "
+                    + "ON user_medicines (profile_id, status, name text_pattern_ops)");
+    
+    // One statement per dose: the data version bump, the ownership, schedule and quantity checks and the
+    // decrement, with the locked previous row supplying the old projection for the user's low-stock counter
+    // The previous row waits on the bump, so the users row is locked before the medicine row, as in every other write
+    private static final String TAKE_DOSE_SQL = "WITH bumped AS ("
+            + "UPDATE users SET data_version = data_version + 1 WHERE id = ? RETURNING data_version) "
+            + "UPDATE user_medicines m SET "
+            + "quantity = m.quantity - 1, "
+            + "runs_out_on = " + RefillForecastServiceImpl.runsOutOn("(m.quantity - 1)", "m.daily_consumption") + ", "
+            + "sync_version = bumped.data_version, "
+            + "version = m.version + 1, "
+            + "updated_at = now() "
+            + "FROM bumped, (SELECT id, runs_out_on FROM user_medicines "
+            + "WHERE id = ? AND user_id = ? AND profile_id = ? AND EXISTS (SELECT 1 FROM bumped) FOR UPDATE) previous "
+            + "WHERE m.id = previous.id AND m.status = 'ACTIVE' AND m.quantity > 0 "
+            + "AND (CAST(? AS uuid) IS NULL OR EXISTS (SELECT 1 FROM schedules s "
+            + "WHERE s.id = ? AND s.user_id = m.user_id AND s.medicine_id = m.id)) "
+            + "RETURNING m.expiry_date, previous.runs_out_on AS previous_runs_out_on";
+    
+    // The decrement of one dose in a batch, which bumps the data version once for all of its doses
+    private static final String BATCH_TAKE_DOSE_SQL = "UPDATE user_medicines m SET "
+            + "quantity = m.quantity - 1, "
+            + "runs_out_on = " + RefillForecastServiceImpl.runsOutOn("(m.quantity - 1)", "m.daily_consumption") + ", "
+            + "sync_version = ?, "
+            + "version = m.version + 1, "
+            + "updated_at = now() "
+            + "WHERE m.id = ? AND m.user_id = ? AND m.profile_id = ? AND m.status = 'ACTIVE' AND m.quantity > 0 "
+            + "AND (CAST(? AS uuid) IS NULL OR EXISTS (SELECT 1 FROM schedules s "
+            + "WHERE s.id = ? AND s.user_id = m.user_id AND s.medicine_id = m.id))";
+    
+    // Locks the medicines of a batch in ID order, so concurrent batches cannot deadlock on them
+    private static final String LOCK_SUMMARY_STATE_SQL = "SELECT id, status, expiry_date, runs_out_on FROM user_medicines "
+            + "WHERE id IN (:ids) AND user_id = :userId ORDER BY id FOR UPDATE";
+    
+    // Deleted explicitly rather than through the foreign key cascade, so every schedule leaves a tombstone
+    private static final String DELETE_SCHEDULES_SQL = "WITH deleted AS ("
+            + "DELETE FROM schedules WHERE medicine_id = ? AND user_id = ? RETURNING id) "
+            + "INSERT INTO sync_tombstones (id, user_id, entity_type, entity_id, sync_version, deleted_at) "
+            + "SELECT gen_random_uuid(), ?, 'SCHEDULE', id, ?, ? FROM deleted";
+    
     private final MedicineRepository medicineRepository;
-    private final ProfileRepository profileRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final ProfileDirectory profileDirectory;
+    private final DoseEventService doseEventService;
+    private final RefillForecastService refillForecastService;
+    private final MedicineListCache medicineListCache;
+    private final AgendaCache agendaCache;
+    private final ScheduleTimesCache scheduleTimesCache;
+    private final UserDataVersionService userDataVersionService;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final MergePatchService mergePatchService;
+    private final UserSummaryService userSummaryService;
+    private final JdbcTemplate jdbcTemplate;
     
     /**
      * Create a new medicine for a profile
@@ -36,14 +131,11 @@ public class MedicineServiceImpl implements MedicineService {
      * @return Created medicine response
      */
     @Override
+    @Transactional
     public MedicineResponse createMedicine(UUID userId, UUID profileId, MedicineRequest medicineRequest) {
         log.info("Creating medicine for user {} and profile {}", userId, profileId);
         
-        // Verify that the profile belongs to the user
-        if (!profileRepository.existsByUserIdAndId(userId, profileId)) {
-            log.warn("Profile {} does not exist or does not belong to user {}", profileId, userId);
-            throw new RuntimeException("Profile does not exist or does not belong to user");
-        }
+        requireProfile(userId, profileId);
         
         Medicine medicine = Medicine.builder()
                 .userId(userId)
@@ -60,7 +152,10 @@ public class MedicineServiceImpl implements MedicineService {
                 .status(Medicine.MedicineStatus.ACTIVE)
                 .build();
         
+        medicine.setSyncVersion(userDataVersionService.bump(userId));
         Medicine savedMedicine = medicineRepository.save(medicine);
+        userSummaryService.applyMedicineChange(userId, null, savedMedicine);
+        medicineListCache.invalidate(userId, profileId);
         log.info("Medicine created successfully with ID: {}", savedMedicine.getId());
         
         return mapToMedicineResponse(savedMedicine);
@@ -76,21 +171,23 @@ public class MedicineServiceImpl implements MedicineService {
     public List<MedicineResponse> getAllMedicinesForProfile(UUID userId, UUID profileId) {
         log.info("Retrieving all medicines for user {} and profile {}", userId, profileId);
         
-        // Verify that the profile belongs to the user
-        if (!profileRepository.existsByUserIdAndId(userId, profileId)) {
-            log.warn("Profile {} does not exist or does not belong to user {}", profileId, userId);
-            throw new RuntimeException("Profile does not exist or does not belong to user");
-        }
-        
-        List<Medicine> medicines = medicineRepository.findByProfileIdAndStatus(
-                profileId, 
-                Medicine.MedicineStatus.ACTIVE
-        );
-        
-        log.info("Retrieved {} medicines for profile {}", medicines.size(), profileId);
-        return medicines.stream()
-                .map(this::mapToMedicineResponse)
-                .collect(Collectors.toList());
+        return medicineListCache.getForProfile(userId, profileId, () -> {
+            // The user ID in the WHERE clause keeps foreign profiles out; only an empty result
+            // needs the profile check to tell an empty profile from one that is not the user's
+            List<Medicine> medicines = medicineRepository.findByUserIdAndProfileIdAndStatus(
+                    userId,
+                    profileId, 
+                    Medicine.MedicineStatus.ACTIVE
+            );
+            if (medicines.isEmpty()) {
+                requireProfile(userId, profileId);
+            }
+            
+            log.info("Retrieved {} medicines for profile {}", medicines.size(), profileId);
+            return medicines.stream()
+                    .map(this::mapToMedicineResponse)
+                    .collect(Collectors.toList());
+        });
     }
     
     /**
@@ -102,15 +199,17 @@ public class MedicineServiceImpl implements MedicineService {
     public List<MedicineResponse> getAllMedicinesForUser(UUID userId) {
         log.info("Retrieving all medicines for user {}", userId);
         
-        List<Medicine> medicines = medicineRepository.findByUserIdAndStatus(
-                userId, 
-                Medicine.MedicineStatus.ACTIVE
-        );
-        
-        log.info("Retrieved {} medicines for user {}", medicines.size(), userId);
-        return medicines.stream()
-                .map(this::mapToMedicineResponse)
-                .collect(Collectors.toList());
+        return medicineListCache.getForUser(userId, () -> {
+            List<Medicine> medicines = medicineRepository.findByUserIdAndStatus(
+                    userId, 
+                    Medicine.MedicineStatus.ACTIVE
+            );
+            
+            log.info("Retrieved {} medicines for user {}", medicines.size(), userId);
+            return medicines.stream()
+                    .map(this::mapToMedicineResponse)
+                    .collect(Collectors.toList());
+        });
     }
     
     /**
@@ -120,11 +219,11 @@ public class MedicineServiceImpl implements MedicineService {
      * @return The requested medicine response
      */
     @Override
+    @Transactional(readOnly = true)
     public MedicineResponse getMedicineById(UUID medicineId, UUID userId) {
         log.info("Retrieving medicine {} for user {}", medicineId, userId);
         
-        Medicine medicine = medicineRepository.findById(medicineId)
-                .filter(m -> m.getUserId().equals(userId) && m.getStatus() == Medicine.MedicineStatus.ACTIVE)
+        Medicine medicine = medicineRepository.findByIdAndUserIdAndStatus(medicineId, userId, Medicine.MedicineStatus.ACTIVE)
                 .orElseThrow(() -> {
                     log.warn("Medicine {} not found or does not belong to user {}", medicineId, userId);
                     return new RuntimeException("Medicine not found or does not belong to user");
@@ -140,40 +239,40 @@ public class MedicineServiceImpl implements MedicineService {
      * @param userId The ID of the user updating the medicine
      * @param profileId The ID of the profile the medicine belongs to
      * @param medicineRequest The request containing updated medicine details
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
      * @return Updated medicine response
      */
     @Override
-    public MedicineResponse updateMedicine(UUID medicineId, UUID userId, UUID profileId, MedicineRequest medicineRequest) {
+    @Transactional
+    public MedicineResponse updateMedicine(UUID medicineId, UUID userId, UUID profileId, MedicineRequest medicineRequest, Long expectedVersion) {
         log.info("Updating medicine {} for user {} and profile {}", medicineId, userId, profileId);
         
-        // Verify that the profile belongs to the user
-        if (!profileRepository.existsByUserIdAndId(userId, profileId)) {
-            log.warn("Profile {} does not exist or does not belong to user {}", profileId, userId);
-            throw new RuntimeException("Profile does not exist or does not belong to user");
-        }
-        
-        Medicine medicine = medicineRepository.findById(medicineId)
-                .filter(m -> m.getUserId().equals(userId) && m.getProfileId().equals(profileId))
-                .orElseThrow(() -> {
-                    log.warn("Medicine {} not found or does not belong to user {} or profile {}", medicineId, userId, profileId);
-                    return new RuntimeException("Medicine not found or does not belong to user or profile");
-                });
-        
-        // Update medicine properties
-        medicine.setName(medicineRequest.getName());
-        medicine.setImageUrl(medicineRequest.getImageUrl());
-        medicine.setDosage(medicineRequest.getDosage());
-        medicine.setQuantity(medicineRequest.getQuantity());
-        medicine.setExpiryDate(medicineRequest.getExpiryDate());
-        medicine.setCategory(medicineRequest.getCategory());
-        medicine.setNotes(medicineRequest.getNotes());
-        medicine.setComposition(medicineRequest.getComposition());
-        medicine.setForm(medicineRequest.getForm());
-        
-        Medicine updatedMedicine = medicineRepository.save(medicine);
-        log.info("Medicine {} updated successfully", medicineId);
+        Medicine medicine = findForUpdate(medicineId, userId, profileId, expectedVersion);
+        return applyUpdate(medicine, userId, profileId, medicineRequest);
+    }
+    
+    /**
+     * Partially update an existing medicine with a JSON Merge Patch
+     * @param medicineId The ID of the medicine to update
+     * @param userId The ID of the user updating the medicine
+     * @param profileId The ID of the profile the medicine belongs to
+     * @param patch The merge patch containing only the fields to change
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
+     * @return Updated medicine response
+     */
+    @Override
+    @Transactional
+    public MedicineResponse patchMedicine(UUID medicineId, UUID userId, UUID profileId, JsonNode patch, Long expectedVersion) {
+        log.info("Patching medicine {} for user {} and profile {}", medicineId, userId, profileId);
         
-        return mapToMedicineResponse(updatedMedicine);
+        Medicine medicine = findForUpdate(medicineId, userId, profileId, expectedVersion);
+        MedicineRequest current = toMedicineRequest(medicine);
+        MedicineRequest patched = mergePatchService.apply(current, patch, MedicineRequest.class);
+        if (patched.equals(current)) {
+            log.info("Patch for medicine {} changes nothing", medicineId);
+            return mapToMedicineResponse(medicine);
+        }
+        return applyUpdate(medicine, userId, profileId, patched);
     }
     
     /**
@@ -183,24 +282,36 @@ public class MedicineServiceImpl implements MedicineService {
      * @param profileId The ID of the profile the medicine belongs to
      */
     @Override
+    @Transactional
     public void deleteMedicine(UUID medicineId, UUID userId, UUID profileId) {
         log.info("Hard deleting medicine {} for user {} and profile {}", medicineId, userId, profileId);
         
-        // Verify that the profile belongs to the user
-        if (!profileRepository.existsByUserIdAndId(userId, profileId)) {
-            log.warn("Profile {} does not exist or does not belong to user {}", profileId, userId);
-            throw new RuntimeException("Profile does not exist or does not belong to user");
-        }
-        
-        Medicine medicine = medicineRepository.findById(medicineId)
-                .filter(m -> m.getUserId().equals(userId) && m.getProfileId().equals(profileId))
+        // A medicine row of the user and profile proves the profile is the user's
+        Medicine medicine = medicineRepository.findByIdAndUserIdAndProfileId(medicineId, userId, profileId)
                 .orElseThrow(() -> {
                     log.warn("Medicine {} not found or does not belong to user {} or profile {}", medicineId, userId, profileId);
                     return new RuntimeException("Medicine not found or does not belong to user or profile");
                 });
         
-        // Hard delete the medicine
+        // The summary takes the medicine's schedules due today along, so it is adjusted before they are deleted
+        userSummaryService.applyMedicineChange(userId, medicine, null);
+        
+        // Hard delete the medicine and its schedules under one data version
+        // Deletions leave a tombstone so offline clients can apply them through delta sync
+        long syncVersion = userDataVersionService.bump(userId);
+        int schedules = jdbcTemplate.update(DELETE_SCHEDULES_SQL, medicineId, userId, userId, syncVersion,
+                Timestamp.valueOf(LocalDateTime.now()));
+        syncTombstoneRepository.save(SyncTombstone.builder()
+                .userId(userId)
+                .entityType(SyncTombstone.EntityType.MEDICINE)
+                .entityId(medicine.getId())
+                .syncVersion(syncVersion)
+                .build());
         medicineRepository.delete(medicine);
+        medicineListCache.invalidate(userId, profileId);
+        log.info("Deleted {} schedules of medicine {}", schedules, medicineId);
+        agendaCache.invalidate(userId);
+        scheduleTimesCache.invalidate(userId);
         log.info("Medicine {} hard deleted successfully", medicineId);
     }
     
@@ -209,39 +320,114 @@ public class MedicineServiceImpl implements MedicineService {
      * @param medicineId The ID of the medicine to take a dose from
      * @param userId The ID of the user taking the dose
      * @param profileId The ID of the profile the medicine belongs to
+     * @param takeDoseRequest Optional details about the schedule occurrence the dose belongs to
      * @return Updated medicine response after taking the dose
      */
     @Override
-    public MedicineResponse takeDose(UUID medicineId, UUID userId, UUID profileId) {
+    @Transactional
+    public MedicineResponse takeDose(UUID medicineId, UUID userId, UUID profileId, TakeDoseRequest takeDoseRequest) {
         log.info("Taking dose from medicine {} for user {} and profile {}", medicineId, userId, profileId);
         
-        // Verify that the profile belongs to the user
-        if (!profileRepository.existsByUserIdAndId(userId, profileId)) {
-            log.warn("Profile {} does not exist or does not belong to user {}", profileId, userId);
-            throw new RuntimeException("Profile does not exist or does not belong to user");
-        }
-        
-        Medicine medicine = medicineRepository.findById(medicineId)
-                .filter(m -> m.getUserId().equals(userId) && m.getProfileId().equals(profileId) && m.getStatus() == Medicine.MedicineStatus.ACTIVE)
-                .orElseThrow(() -> {
-                    log.warn("Medicine {} not found or does not belong to user {} or profile {}", medicineId, userId, profileId);
-                    return new RuntimeException("Medicine not found or does not belong to user or profile");
-                });
+        // The schedule ID is stored on the dose event and drives the adherence rollups, so it must be this medicine's
+        UUID scheduleId = takeDoseRequest != null ? takeDoseRequest.getScheduleId() : null;
         
-        if (medicine.getQuantity() <= 0) {
-            log.warn("Cannot take dose: Medicine {} quantity is already 0", medicineId);
-            throw new RuntimeException("Medicine quantity is already 0");
+        // Decrement quantity by 1 in place, so concurrent doses queue on the row lock instead of
+        // failing the optimistic version check of a read-modify-write
+        List<Medicine> previous = jdbcTemplate.query(TAKE_DOSE_SQL, (rs, rowNum) -> Medicine.builder()
+                        .status(Medicine.MedicineStatus.ACTIVE)
+                        .expiryDate(rs.getObject("expiry_date", LocalDate.class))
+                        .runsOutOn(rs.getObject("previous_runs_out_on", LocalDate.class))
+                        .build(),
+                userId, medicineId, userId, profileId, scheduleId, scheduleId);
+        if (previous.isEmpty()) {
+            throw takeDoseFailure(medicineId, userId, profileId, scheduleId);
         }
         
-        // Decrement quantity by 1
-        medicine.setQuantity(medicine.getQuantity() - 1);
-        
-        Medicine updatedMedicine = medicineRepository.save(medicine);
+        Medicine updatedMedicine = medicineRepository.findById(medicineId)
+                .orElseThrow(() -> new RuntimeException("Medicine not found or does not belong to user or profile"));
+        userSummaryService.applyMedicineChange(userId, previous.get(0), updatedMedicine);
+        medicineListCache.invalidate(userId, profileId);
         log.info("Dose taken from medicine {}, new quantity: {}", medicineId, updatedMedicine.getQuantity());
         
+        recordDoseEvent(updatedMedicine, takeDoseRequest != null ? takeDoseRequest : new TakeDoseRequest());
+        
         return mapToMedicineResponse(updatedMedicine);
     }
     
+    /**
+     * Take one dose per operation in one transaction, sending the decrements as one JDBC batch
+     * A dose whose decrement matches no row is not an error inside the batch, so it leaves the others in place;
+     * callers retry it on its own to learn why it failed
+     * @param userId The ID of the user taking the doses
+     * @param doses TAKE_DOSE operations carrying the medicine ID, the profile ID and the dose details
+     * @return The medicine after the batch for each dose taken, in order, or null where the dose could not be taken
+     */
+    @Override
+    @Transactional
+    public List<MedicineResponse> takeDoses(UUID userId, List<BatchOperation> doses) {
+        log.info("Taking {} doses in one batch for user {}", doses.size(), userId);
+        
+        long syncVersion = userDataVersionService.bump(userId);
+        Set<UUID> medicineIds = doses.stream().map(BatchOperation::getMedicineId).collect(Collectors.toSet());
+        Map<UUID, Medicine> previous = new HashMap<>();
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(LOCK_SUMMARY_STATE_SQL,
+                new MapSqlParameterSource("ids", medicineIds).addValue("userId", userId),
+                rs -> {
+                    String status = rs.getString("status");
+                    previous.put(rs.getObject("id", UUID.class), Medicine.builder()
+                            .status(status != null ? Medicine.MedicineStatus.valueOf(status) : null)
+                            .expiryDate(rs.getObject("expiry_date", LocalDate.class))
+                            .runsOutOn(rs.getObject("runs_out_on", LocalDate.class))
+                            .build());
+                });
+        
+        int[] counts = jdbcTemplate.batchUpdate(BATCH_TAKE_DOSE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                BatchOperation dose = doses.get(i);
+                UUID scheduleId = dose.getTakeDose() != null ? dose.getTakeDose().getScheduleId() : null;
+                ps.setLong(1, syncVersion);
+                ps.setObject(2, dose.getMedicineId());
+                ps.setObject(3, userId);
+                ps.setObject(4, dose.getProfileId());
+                ps.setObject(5, scheduleId);
+                ps.setObject(6, scheduleId);
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return doses.size();
+            }
+        });
+        
+        Set<UUID> dosedIds = new HashSet<>();
+        for (int i = 0; i < doses.size(); i++) {
+            if (counts[i] != 0) {
+                dosedIds.add(doses.get(i).getMedicineId());
+            }
+        }
+        Map<UUID, Medicine> updated = medicineRepository.findAllById(dosedIds).stream()
+                .collect(Collectors.toMap(Medicine::getId, medicine -> medicine));
+        for (Medicine medicine : updated.values()) {
+            userSummaryService.applyMedicineChange(userId, previous.get(medicine.getId()), medicine);
+            medicineListCache.invalidate(userId, medicine.getProfileId());
+        }
+        
+        List<MedicineResponse> responses = new ArrayList<>(doses.size());
+        for (int i = 0; i < doses.size(); i++) {
+            Medicine medicine = counts[i] != 0 ? updated.get(doses.get(i).getMedicineId()) : null;
+            if (medicine == null) {
+                responses.add(null);
+                continue;
+            }
+            TakeDoseRequest takeDoseRequest = doses.get(i).getTakeDose();
+            recordDoseEvent(medicine, takeDoseRequest != null ? takeDoseRequest : new TakeDoseRequest());
+            responses.add(mapToMedicineResponse(medicine));
+        }
+        log.info("Took {} of {} doses for user {}", responses.stream().filter(Objects::nonNull).count(), doses.size(), userId);
+        return responses;
+    }
+    
     /**
      * Check if a medicine exists for a user
      * @param medicineId The ID of the medicine to check
@@ -249,12 +435,203 @@ public class MedicineServiceImpl implements MedicineService {
      * @return true if medicine exists and belongs to user, false otherwise
      */
     @Override
+    @Transactional(readOnly = true)
     public boolean medicineExistsForUser(UUID medicineId, UUID userId) {
         boolean exists = medicineRepository.existsByUserIdAndId(userId, medicineId);
         log.debug("Medicine {} exists for user {}: {}", medicineId, userId, exists);
         return exists;
     }
     
+    /**
+     * Explain why a dose matched no medicine row
+     * Only failed doses pay for these reads
+     * @param medicineId The ID of the medicine the dose was taken from
+     * @param userId The ID of the user taking the dose
+     * @param profileId The ID of the profile the medicine belongs to
+     * @param scheduleId The ID of the schedule the dose belongs to, or null
+     * @return The exception to throw
+     */
+    private RuntimeException takeDoseFailure(UUID medicineId, UUID userId, UUID profileId, UUID scheduleId) {
+        if (scheduleId != null && scheduleRepository.findByIdAndUserId(scheduleId, userId)
+                .filter(schedule -> medicineId.equals(schedule.getMedicineId()))
+                .isEmpty()) {
+            log.warn("Schedule {} not found or does not belong to medicine {} of user {}", scheduleId, medicineId, userId);
+            return new RuntimeException("Schedule not found or does not belong to this medicine");
+        }
+        if (medicineRepository.findByIdAndUserIdAndProfileIdAndStatus(
+                medicineId, userId, profileId, Medicine.MedicineStatus.ACTIVE).isEmpty()) {
+            log.warn("Medicine {} not found or does not belong to user {} or profile {}", medicineId, userId, profileId);
+            return new RuntimeException("Medicine not found or does not belong to user or profile");
+        }
+        log.warn("Cannot take dose: Medicine {} quantity is already 0", medicineId);
+        return new RuntimeException("Medicine quantity is already 0");
+    }
+    
+    /**
+     * Verify that a profile belongs to a user
+     * @param userId The ID of the user
+     * @param profileId The ID of the profile
+     */
+    private void requireProfile(UUID userId, UUID profileId) {
+        if (!profileDirectory.contains(userId, profileId)) {
+            log.warn("Profile {} does not exist or does not belong to user {}", profileId, userId);
+            throw new RuntimeException("Profile does not exist or does not belong to user");
+        }
+    }
+    
+    /**
+     * Load a medicine for an update, checking ownership and the client's expected version
+     * @param medicineId The ID of the medicine to update
+     * @param userId The ID of the user updating the medicine
+     * @param profileId The ID of the profile the medicine belongs to
+     * @param expectedVersion The version the client last saw, or null to skip the check
+     * @return The managed medicine entity
+     */
+    private Medicine findForUpdate(UUID medicineId, UUID userId, UUID profileId, Long expectedVersion) {
+        // A medicine row of the user and profile proves the profile is the user's
+        Medicine medicine = medicineRepository.findByIdAndUserIdAndProfileId(medicineId, userId, profileId)
+                .orElseThrow(() -> {
+                    log.warn("Medicine {} not found or does not belong to user {} or profile {}", medicineId, userId, profileId);
+                    return new RuntimeException("Medicine not found or does not belong to user or profile");
+                });
+        
+        // Reject edits based on a stale copy; a concurrent update that commits after this check
+        // is caught by the version condition of the UPDATE itself
+        if (expectedVersion != null && !expectedVersion.equals(medicine.getVersion())) {
+            log.warn("Medicine {} is at version {}, client expected {}", medicineId, medicine.getVersion(), expectedVersion);
+            throw new PreconditionFailedException("Medicine has been modified since version " + expectedVersion);
+        }
+        return medicine;
+    }
+    
+    /**
+     * Copy the fields of a request onto a medicine and save it
+     * Unchanged fields are not dirty, so with dynamic updates they are left out of the UPDATE statement
+     * @param medicine The managed medicine entity
+     * @param userId The ID of the user updating the medicine
+     * @param profileId The ID of the profile the medicine belongs to
+     * @param medicineRequest The complete new state of the medicine
+     * @return Updated medicine response
+     */
+    private MedicineResponse applyUpdate(Medicine medicine, UUID userId, UUID profileId, MedicineRequest medicineRequest) {
+        Integer previousQuantity = medicine.getQuantity();
+        Medicine previous = summaryState(medicine);
+        
+        // Update medicine properties
+        medicine.setName(medicineRequest.getName());
+        medicine.setImageUrl(medicineRequest.getImageUrl());
+        medicine.setDosage(medicineRequest.getDosage());
+        medicine.setQuantity(medicineRequest.getQuantity());
+        medicine.setExpiryDate(medicineRequest.getExpiryDate());
+        medicine.setCategory(medicineRequest.getCategory());
+        medicine.setNotes(medicineRequest.getNotes());
+        medicine.setComposition(medicineRequest.getComposition());
+        medicine.setForm(medicineRequest.getForm());
+        if (!medicine.getQuantity().equals(previousQuantity)) {
+            refillForecastService.applyQuantityChange(medicine);
+        }
+        
+        medicine.setSyncVersion(userDataVersionService.bump(userId));
+        Medicine updatedMedicine = medicineRepository.save(medicine);
+        // Flush so the version in the response is the one the UPDATE just wrote
+        medicineRepository.flush();
+        userSummaryService.applyMedicineChange(userId, previous, updatedMedicine);
+        medicineListCache.invalidate(userId, profileId);
+        log.info("Medicine {} updated successfully", medicine.getId());
+        
+        // Record manual quantity changes in the dose event log so they can be audited
+        int quantityDelta = updatedMedicine.getQuantity() - previousQuantity;
+        if (quantityDelta != 0) {
+            doseEventService.record(DoseEvent.builder()
+                    .medicineId(medicine.getId())
+                    .profileId(profileId)
+                    .userId(userId)
+                    .quantityDelta(quantityDelta)
+                    .source(DoseEvent.Source.ADJUSTMENT)
+                    .build());
+        }
+        
+        return mapToMedicineResponse(updatedMedicine);
+    }
+    
+    /**
+     * Copy the fields of a medicine that count towards the user's summary counters
+     * @param medicine The managed medicine entity, before it is changed
+     * @return Detached copy of the status, expiry date and projected run-out date
+     */
+    private Medicine summaryState(Medicine medicine) {
+        return Medicine.builder()
+                .status(medicine.getStatus())
+                .expiryDate(medicine.getExpiryDate())
+                .runsOutOn(medicine.getRunsOutOn())
+                .build();
+    }
+    
+    /**
+     * Maps a Medicine entity to the MedicineRequest describing its editable state
+     * @param medicine The medicine entity to map
+     * @return Request DTO with the current values
+     */
+    private MedicineRequest toMedicineRequest(Medicine medicine) {
+        return MedicineRequest.builder()
+                .name(medicine.getName())
+                .imageUrl(medicine.getImageUrl())
+                .dosage(medicine.getDosage())
+                .quantity(medicine.getQuantity())
+                .expiryDate(medicine.getExpiryDate())
+                .category(medicine.getCategory())
+                .notes(medicine.getNotes())
+                .composition(medicine.getComposition())
+                .form(medicine.getForm())
+                .build();
+    }
+    
+    /**
+     * Append a dose event for a dose taken from a medicine
+     * The event is buffered by the dose event writer unless the caller asked for synchronous durability
+     * @param medicine The medicine the dose was taken from
+     * @param takeDoseRequest The details of the dose
+     */
+    private void recordDoseEvent(Medicine medicine, TakeDoseRequest takeDoseRequest) {
+        DoseEvent.Source source = takeDoseRequest.getSource();
+        if (source == null) {
+            source = takeDoseRequest.getScheduleId() != null ? DoseEvent.Source.SCHEDULED : DoseEvent.Source.MANUAL;
+        }
+        
+        DoseEvent doseEvent = DoseEvent.builder()
+                .medicineId(medicine.getId())
+                .scheduleId(takeDoseRequest.getScheduleId())
+                .scheduledFor(takeDoseRequest.getScheduledFor())
+                .profileId(medicine.getProfileId())
+                .userId(medicine.getUserId())
+                .takenAt(takeDoseRequest.getTakenAt())
+                .quantityDelta(-1)
+                .source(source)
+                .build();
+        
+        if (takeDoseRequest.isSynchronous()) {
+            doseEventService.recordSynchronously(doseEvent);
+        } else {
+            doseEventService.record(doseEvent);
+        }
+    }
+    
+    /**
+     * Get the medicines of a user written after a data version, regardless of status
+     * @param userId The ID of the user to retrieve medicines for
+     * @param sinceVersion The data version the client has already applied
+     * @return List of medicines changed since the version
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<MedicineResponse> getMedicinesChangedSince(UUID userId, long sinceVersion) {
+        List<Medicine> medicines = medicineRepository.findByUserIdAndSyncVersionGreaterThan(userId, sinceVersion);
+        
+        return medicines.stream()
+                .map(this::mapToMedicineResponse)
+                .collect(Collectors.toList());
+    }
+    
     /**
      * Maps a Medicine entity to a MedicineResponse DTO
      * @param medicine The medicine entity to map
@@ -275,6 +652,35 @@ public class MedicineServiceImpl implements MedicineService {
                 .composition(medicine.getComposition())
                 .form(medicine.getForm())
                 .status(medicine.getStatus())
+                .runsOutOn(medicine.getRunsOutOn())
+                .version(medicine.getVersion())
+                .createdAt(medicine.getCreatedAt())
+                .updatedAt(medicine.getUpdatedAt())
+                .build();
+    }
+    
+    /**
+     * Decorates a MedicineResponse with the name of the profile it belongs to
+     * @param medicine The medicine response to decorate
+     * @param profileName The name of the profile the medicine belongs to
+     * @return Medicine response with profile information
+     */
+    private MedicineWithProfileResponse mapToMedicineWithProfileResponse(MedicineResponse medicine, String profileName) {
+        return MedicineWithProfileResponse.builder()
+                .id(medicine.getId())
+                .userId(medicine.getUserId())
+                .profileId(medicine.getProfileId())
+                .profileName(profileName)
+                .name(medicine.getName())
+                .imageUrl(medicine.getImageUrl())
+                .dosage(medicine.getDosage())
+                .quantity(medicine.getQuantity())
+                .expiryDate(medicine.getExpiryDate())
+                .category(medicine.getCategory())
+                .notes(medicine.getNotes())
+                .composition(medicine.getComposition())
+                .form(medicine.getForm())
+                .status(medicine.getStatus())
                 .createdAt(medicine.getCreatedAt())
                 .updatedAt(medicine.getUpdatedAt())
                 .build();
@@ -289,39 +695,124 @@ public class MedicineServiceImpl implements MedicineService {
     public List<MedicineWithProfileResponse> getAllMedicinesWithProfileInfo(UUID userId) {
         log.info("Retrieving all medicines with profile info for user {}", userId);
         
-        List<Medicine> medicines = medicineRepository.findByUserIdAndStatus(
-                userId,
-                Medicine.MedicineStatus.ACTIVE
-        );
-        
-        List<MedicineWithProfileResponse> medicinesWithProfile = medicines.stream()
-                .map(medicine -> {
-                    // Get profile information for the medicine
-                    Profile profile = profileRepository.findById(medicine.getProfileId()).orElse(null);
-                    String profileName = profile != null ? profile.getName() : "Unknown Profile";
-                    
-                    return MedicineWithProfileResponse.builder()
-                            .id(medicine.getId())
-                            .userId(medicine.getUserId())
-                            .profileId(medicine.getProfileId())
-                            .profileName(profileName)
-                            .name(medicine.getName())
-                            .imageUrl(medicine.getImageUrl())
-                            .dosage(medicine.getDosage())
-                            .quantity(medicine.getQuantity())
-                            .expiryDate(medicine.getExpiryDate())
-                            .category(medicine.getCategory())
-                            .notes(medicine.getNotes())
-                            .composition(medicine.getComposition())
-                            .form(medicine.getForm())
-                            .status(medicine.getStatus())
-                            .createdAt(medicine.getCreatedAt())
-                            .updatedAt(medicine.getUpdatedAt())
-                            .build();
-                })
+        // Medicines come from the cached list and profile names from the profile directory,
+        // so a warm request does not touch the database at all
+        List<MedicineWithProfileResponse> medicinesWithProfile = getAllMedicinesForUser(userId).stream()
+                .map(medicine -> mapToMedicineWithProfileResponse(medicine, profileDirectory.getName(userId, medicine.getProfileId())))
                 .collect(Collectors.toList());
         
         log.info("Retrieved {} medicines with profile info for user {}", medicinesWithProfile.size(), userId);
         return medicinesWithProfile;
     }
+    
+    /**
+     * Get one page of the active medicines of a user across all profiles
+     * @param userId The ID of the user to retrieve medicines for
+     * @param pageRequest The page size, cursor, sort order and filters
+     * @return Page of medicines with the cursor of the next page
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MedicinePageResponse getMedicinesPageForUser(UUID userId, MedicinePageRequest pageRequest) {
+        log.info("Retrieving medicine page for user {}", userId);
+        return getMedicinesPage(userId, null, pageRequest);
+    }
+    
+    /**
+     * Get one page of the active medicines of a profile
+     * @param userId The ID of the user requesting medicines
+     * @param profileId The ID of the profile to retrieve medicines for
+     * @param pageRequest The page size, cursor, sort order and filters
+     * @return Page of medicines with the cursor of the next page
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MedicinePageResponse getMedicinesPageForProfile(UUID userId, UUID profileId, MedicinePageRequest pageRequest) {
+        log.info("Retrieving medicine page for user {} and profile {}", userId, profileId);
+        
+        // The page query filters on the user ID, so the profile check is only needed to explain an empty first page
+        MedicinePageResponse page = getMedicinesPage(userId, profileId, pageRequest);
+        if (page.getItems().isEmpty() && pageRequest.getCursor() == null) {
+            requireProfile(userId, profileId);
+        }
+        return page;
+    }
+    
+    /**
+     * Read one keyset page, fetching one extra row to find out whether another page follows
+     * @param userId The ID of the user the medicines belong to
+     * @param profileId The ID of the profile the medicines belong to, or null for all profiles
+     * @param pageRequest The page size, cursor, sort order and filters
+     * @return Page of medicines with the cursor of the next page
+     */
+    private MedicinePageResponse getMedicinesPage(UUID userId, UUID profileId, MedicinePageRequest pageRequest) {
+        // The caller's request is left untouched; the default sort goes into a copy
+        MedicinePageRequest.SortField sort = pageRequest.getSort() != null
+                ? pageRequest.getSort() : MedicinePageRequest.SortField.EXPIRY;
+        int limit = pageRequest.getLimit() != null ? pageRequest.getLimit() : DEFAULT_PAGE_SIZE;
+        Medicine after = pageRequest.getCursor() != null ? decodeCursor(pageRequest.getCursor(), sort) : null;
+        
+        List<Medicine> medicines = medicineRepository.findPage(userId, profileId,
+                pageRequest.toBuilder().sort(sort).build(), after, limit + 1);
+        boolean hasMore = medicines.size() > limit;
+        if (hasMore) {
+            medicines = medicines.subList(0, limit);
+        }
+        
+        return MedicinePageResponse.builder()
+                .items(medicines.stream()
+                        .map(this::mapToMedicineResponse)
+                        .collect(Collectors.toList()))
+                .nextCursor(hasMore ? encodeCursor(medicines.get(medicines.size() - 1), sort) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+    
+    /**
+     * Create the indexes that serve name prefix filters of medicine pages, which Hibernate cannot declare
+     */
+    @Override
+    public void ensureNamePrefixIndexes() {
+        CREATE_NAME_PREFIX_INDEXES_SQL.forEach(jdbcTemplate::execute);
+        log.info("Ensured name prefix indexes on user medicines");
+    }
+    
+    /**
+     * Encode the sort key of the last medicine of a page as an opaque cursor
+     * @param medicine The last medicine of the page
+     * @param sort The sort order of the page
+     * @return URL-safe cursor
+     */
+    private String encodeCursor(Medicine medicine, MedicinePageRequest.SortField sort) {
+        String key = sort == MedicinePageRequest.SortField.NAME ? medicine.getName() : medicine.getExpiryDate().toString();
+        // The key goes last because names may contain the separator
+        String raw = sort.name() + "|" + medicine.getId() + "|" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a cursor into a medicine carrying the sort key of the last medicine of the previous page
+     * @param cursor The cursor to decode
+     * @param sort The sort order of the requested page
+     * @return Medicine holding the ID and sort key of the cursor
+     */
+    private Medicine decodeCursor(String cursor, MedicinePageRequest.SortField sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new IllegalArgumentException("Cursor does not match sort order");
+            }
+            Medicine after = new Medicine();
+            after.setId(UUID.fromString(parts[1]));
+            if (sort == MedicinePageRequest.SortField.NAME) {
+                after.setName(parts[2]);
+            } else {
+                after.setExpiryDate(LocalDate.parse(parts[2]));
+            }
+            return after;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            log.warn("Invalid medicine page cursor: {}", e.getMessage());
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.medicine.tracker.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medicine.tracker.service.MergePatchService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import jakarta.validation.metadata.BeanDescriptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation of MergePatchService using Jackson trees
+ * The current state is serialized, merged with the patch as RFC 7396 describes and read back into the DTO
+ */
+@Service
+@RequiredArgsConstructor
+public class MergePatchServiceImpl implements MergePatchService {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * Apply a merge patch to a request DTO and validate the fields the patch touched
+     * @param current The request DTO describing the current state of the resource
+     * @param patch The merge patch document
+     * @param type The type of the request DTO
+     * @param <T> The type of the request DTO
+     * @return A new request DTO with the patch applied
+     */
+    @Override
+    public <T> T apply(T current, JsonNode patch, Class<T> type) {
+        if (patch == null || !patch.isObject()) {
+            throw new RuntimeException("Merge patch must be a JSON object");
+        }
+
+        T merged;
+        try {
+            ObjectNode document = objectMapper.valueToTree(current);
+            merge(document, (ObjectNode) patch);
+            merged = objectMapper.treeToValue(document, type);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new RuntimeException("Invalid merge patch: " + e.getMessage());
+        }
+
+        // Only fields present in the patch are validated, so untouched fields that no longer pass
+        // creation-time rules (e.g. an expiry date now in the past) do not block unrelated edits
+        BeanDescriptor constraints = validator.getConstraintsForClass(type);
+        Set<ConstraintViolation<T>> violations = new HashSet<>();
+        Iterator<String> fields = patch.fieldNames();
+        while (fields.hasNext()) {
+            String field = fields.next();
+            // Unknown members are ignored, as they are for PUT
+            if (constraints.getConstraintsForProperty(field) != null) {
+                violations.addAll(validator.validateProperty(merged, field));
+            }
+        }
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return merged;
+    }
+
+    /**
+     * Merge a patch into a document: null removes a member, objects are merged recursively
+     * and any other value (including arrays) replaces the member
+     * @param target The document to modify
+     * @param patch The patch to apply
+     */
+    private void merge(ObjectNode target, ObjectNode patch) {
+        Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            JsonNode value = member.getValue();
+            if (value.isNull()) {
+                target.remove(member.getKey());
+            } else if (value.isObject() && target.get(member.getKey()) instanceof ObjectNode existing) {
+                merge(existing, (ObjectNode) value);
+            } else {
+                target.set(member.getKey(), value.deepCopy());
+            }
+        }
+    }
+}
@@ -7,9 +7,12 @@ import com.medicine.tracker.repository.MedicineRepository;
 import com.medicine.tracker.repository.ScheduleRepository;
 import com.medicine.tracker.repository.UserRepository;
 import com.medicine.tracker.service.NotificationService;
+import com.medicine.tracker.service.RefillForecastService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -27,6 +30,10 @@ public class NotificationServiceImpl implements NotificationService {
     private final ScheduleRepository scheduleRepository;
     private final MedicineRepository medicineRepository;
     private final UserRepository userRepository;
+    private final RefillForecastService refillForecastService;
+    
+    @Value("${refill.low-stock-days:5}")
+    private int lowStockDays;
     
     /**
      * Send dosage reminder notifications for schedules that are due
@@ -88,6 +95,36 @@ public class NotificationServiceImpl implements NotificationService {
         log.info("Completed expiry notifications");
     }
     
+    /**
+     * Send notifications for medicines that are projected to run out soon
+     */
+    @Override
+    public void sendLowStockNotifications() {
+        log.info("Starting low stock notifications");
+        // Find medicines projected to run out within the configured number of days
+        List<Medicine> runningOut = refillForecastService.findRunningOutWithin(lowStockDays);
+        log.info("Found {} medicines running out soon", runningOut.size());
+        
+        for (Medicine medicine : runningOut) {
+            User user = userRepository.findById(medicine.getUserId()).orElse(null);
+            if (user != null && user.getFcmToken() != null) {
+                String title = "Medicine Refill Reminder";
+                String body = "Your medicine '" + medicine.getName() + "' will run out around " + 
+                             medicine.getRunsOutOn().toString() + " (" + medicine.getQuantity() + " left)";
+                sendNotification(user.getId().toString(), title, body);
+                log.info("Sent low stock notification for user {} and medicine {}", 
+                        user.getId(), medicine.getId());
+            } else {
+                if (user == null) {
+                    log.warn("User not found for medicine ID: {}", medicine.getId());
+                } else {
+                    log.warn("No FCM token found for user ID: {}", user.getId());
+                }
+            }
+        }
+        log.info("Completed low stock notifications");
+    }
+    
     /**
      * Send a notification to a user via FCM
      * @param userId The ID of the user to send the notification to
@@ -106,6 +143,7 @@ public class NotificationServiceImpl implements NotificationService {
      * @return List of schedules that are due
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Schedule> getDueSchedules() {
         // Get current time
         LocalTime currentTime = LocalTime.now();
@@ -1,18 +1,32 @@
 package com.medicine.tracker.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.cache.MedicineListCache;
+import com.medicine.tracker.cache.ProfileDirectory;
+import com.medicine.tracker.cache.ScheduleTimesCache;
+import com.medicine.tracker.exception.PreconditionFailedException;
 import com.medicine.tracker.model.dto.request.ProfileRequest;
-import com.medicine.tracker.model.dto.response.MedicineResponse;
 import com.medicine.tracker.model.dto.response.ProfileResponse;
-import com.medicine.tracker.model.dto.response.ScheduleResponse;
 import com.medicine.tracker.model.entity.Profile;
+import com.medicine.tracker.model.entity.SyncTombstone;
 import com.medicine.tracker.repository.ProfileRepository;
-import com.medicine.tracker.service.MedicineService;
+import com.medicine.tracker.repository.SyncTombstoneRepository;
+import com.medicine.tracker.service.ImageUploadService;
+import com.medicine.tracker.service.MergePatchService;
 import com.medicine.tracker.service.ProfileService;
-import com.medicine.tracker.service.ScheduleService;
+import com.medicine.tracker.service.UserDataVersionService;
+import com.medicine.tracker.service.UserSummaryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -26,9 +40,29 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ProfileServiceImpl implements ProfileService {
     
+    private static final String DELETE_SCHEDULES_SQL = "WITH deleted AS ("
+            + "DELETE FROM schedules WHERE user_id = ? AND profile_id = ? RETURNING id) "
+            + "INSERT INTO sync_tombstones (id, user_id, entity_type, entity_id, sync_version, deleted_at) "
+            + "SELECT gen_random_uuid(), ?, 'SCHEDULE', id, ?, ? FROM deleted";
+    
+    private static final String DELETE_MEDICINES_SQL = "WITH deleted AS ("
+            + "DELETE FROM user_medicines WHERE user_id = ? AND profile_id = ? RETURNING id, image_url), "
+            + "tombstones AS ("
+            + "INSERT INTO sync_tombstones (id, user_id, entity_type, entity_id, sync_version, deleted_at) "
+            + "SELECT gen_random_uuid(), ?, 'MEDICINE', id, ?, ? FROM deleted) "
+            + "SELECT image_url FROM deleted";
+    
     private final ProfileRepository profileRepository;
-    private final MedicineService medicineService;
-    private final ScheduleService scheduleService;
+    private final UserDataVersionService userDataVersionService;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final MergePatchService mergePatchService;
+    private final ProfileDirectory profileDirectory;
+    private final MedicineListCache medicineListCache;
+    private final AgendaCache agendaCache;
+    private final ScheduleTimesCache scheduleTimesCache;
+    private final ImageUploadService imageUploadService;
+    private final UserSummaryService userSummaryService;
+    private final JdbcTemplate jdbcTemplate;
     
     /**
      * Create a new profile for a user
@@ -37,6 +71,7 @@ public class ProfileServiceImpl implements ProfileService {
      * @return Created profile response
      */
     @Override
+    @Transactional
     public ProfileResponse createProfile(UUID userId, ProfileRequest profileRequest) {
         log.info("Creating profile for user {}", userId);
         
@@ -51,7 +86,9 @@ public class ProfileServiceImpl implements ProfileService {
                 .name(profileRequest.getName())
                 .build();
         
+        profile.setSyncVersion(userDataVersionService.bump(userId));
         Profile savedProfile = profileRepository.save(profile);
+        profileDirectory.invalidate(userId);
         log.info("Profile created successfully with ID: {}", savedProfile.getId());
         
         return mapToProfileResponse(savedProfile);
@@ -63,6 +100,7 @@ public class ProfileServiceImpl implements ProfileService {
      * @return List of profiles belonging to the user
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ProfileResponse> getAllProfiles(UUID userId) {
         log.info("Retrieving all profiles for user {}", userId);
         
@@ -79,6 +117,7 @@ public class ProfileServiceImpl implements ProfileService {
      * @return The requested profile response
      */
     @Override
+    @Transactional(readOnly = true)
     public ProfileResponse getProfileById(UUID profileId, UUID userId) {
         log.info("Retrieving profile {} for user {}", profileId, userId);
         
@@ -97,10 +136,12 @@ public class ProfileServiceImpl implements ProfileService {
      * @param profileId The ID of the profile to update
      * @param userId The ID of the user updating the profile
      * @param profileRequest The request containing updated profile details
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
      * @return Updated profile response
      */
     @Override
-    public ProfileResponse updateProfile(UUID profileId, UUID userId, ProfileRequest profileRequest) {
+    @Transactional
+    public ProfileResponse updateProfile(UUID profileId, UUID userId, ProfileRequest profileRequest, Long expectedVersion) {
         log.info("Updating profile {} for user {}", profileId, userId);
         
         Profile profile = profileRepository.findById(profileId)
@@ -110,6 +151,11 @@ public class ProfileServiceImpl implements ProfileService {
                     return new RuntimeException("Profile not found or does not belong to user");
                 });
         
+        if (expectedVersion != null && !expectedVersion.equals(profile.getVersion())) {
+            log.warn("Profile {} is at version {}, client expected {}", profileId, profile.getVersion(), expectedVersion);
+            throw new PreconditionFailedException("Profile has been modified since version " + expectedVersion);
+        }
+        
         // Check if a profile with the same name already exists for this user (excluding the current profile)
         if (profileRepository.existsByUserIdAndNameAndIdNot(userId, profileRequest.getName(), profileId)) {
             log.warn("Profile with name {} already exists for user {}", profileRequest.getName(), userId);
@@ -118,18 +164,47 @@ public class ProfileServiceImpl implements ProfileService {
         
         profile.setName(profileRequest.getName());
         
+        profile.setSyncVersion(userDataVersionService.bump(userId));
         Profile updatedProfile = profileRepository.save(profile);
+        profileRepository.flush();
+        profileDirectory.invalidate(userId);
         log.info("Profile updated successfully with ID: {}", updatedProfile.getId());
         
         return mapToProfileResponse(updatedProfile);
     }
     
+    /**
+     * Partially update an existing profile with a JSON Merge Patch
+     * @param profileId The ID of the profile to update
+     * @param userId The ID of the user updating the profile
+     * @param patch The merge patch containing only the fields to change
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
+     * @return Updated profile response
+     */
+    @Override
+    @Transactional
+    public ProfileResponse patchProfile(UUID profileId, UUID userId, JsonNode patch, Long expectedVersion) {
+        Profile profile = profileRepository.findById(profileId)
+                .filter(p -> p.getUserId().equals(userId))
+                .orElseThrow(() -> new RuntimeException("Profile not found or does not belong to user"));
+        
+        ProfileRequest current = ProfileRequest.builder().name(profile.getName()).build();
+        ProfileRequest patched = mergePatchService.apply(current, patch, ProfileRequest.class);
+        if (patched.equals(current) && (expectedVersion == null || expectedVersion.equals(profile.getVersion()))) {
+            log.info("Patch for profile {} changes nothing", profileId);
+            return mapToProfileResponse(profile);
+        }
+        // The profile is already in the persistence context, so the update does not load it again
+        return updateProfile(profileId, userId, patched, expectedVersion);
+    }
+    
     /**
      * Delete a profile by ID
      * @param profileId The ID of the profile to delete
      * @param userId The ID of the user deleting the profile
      */
     @Override
+    @Transactional
     public void deleteProfile(UUID profileId, UUID userId) {
         log.info("Deleting profile {} for user {}", profileId, userId);
         
@@ -140,38 +215,45 @@ public class ProfileServiceImpl implements ProfileService {
                     return new RuntimeException("Profile not found or does not belong to user");
                 });
         
-        // Delete all schedules associated with this profile
-        // Note: We need to get all schedules for the profile first and then delete them
-        // Since there's no direct method in ScheduleService to delete by profileId,
-        // we'll need to get the schedules and delete them one by one
-        try {
-            List<ScheduleResponse> schedules = scheduleService.getSchedulesForProfile(userId, profileId);
-            for (ScheduleResponse schedule : schedules) {
-                scheduleService.deleteSchedule(schedule.getId(), userId);
-            }
-            log.info("Deleted {} schedules associated with profile {}", schedules.size(), profileId);
-        } catch (Exception e) {
-            log.error("Error deleting schedules for profile {}: {}", profileId, e.getMessage());
-            throw e;
-        }
+        // One data version covers the profile and everything deleted with it
+        long syncVersion = userDataVersionService.bump(userId);
+        Timestamp deletedAt = Timestamp.valueOf(LocalDateTime.now());
         
-        // Delete all medicines associated with this profile
-        // Since there's no direct method in MedicineService to delete by profileId,
-        // we'll need to get the medicines and delete them one by one
-        try {
-            List<MedicineResponse> medicines = medicineService.getAllMedicinesForProfile(userId, profileId);
-            for (MedicineResponse medicine : medicines) {
-                // Use the medicineId and profileId to delete the medicine
-                // The deleteMedicine method requires profileId and userId
-                medicineService.deleteMedicine(medicine.getId(), userId, profileId);
-            }
-            log.info("Deleted {} medicines associated with profile {}", medicines.size(), profileId);
-        } catch (Exception e) {
-            log.error("Error deleting medicines for profile {}: {}", profileId, e.getMessage());
-            throw e;
-        }
+        // Schedules and medicines are deleted with one statement each, leaving a tombstone per row
+        // for delta sync, so the cost does not grow with the number of medicines of the profile
+        int schedules = jdbcTemplate.update(DELETE_SCHEDULES_SQL, userId, profileId, userId, syncVersion, deletedAt);
+        List<String> imageUrls = jdbcTemplate.queryForList(
+                DELETE_MEDICINES_SQL, String.class, userId, profileId, userId, syncVersion, deletedAt);
+        log.info("Deleted {} schedules and {} medicines associated with profile {}", schedules, imageUrls.size(), profileId);
         
+        syncTombstoneRepository.save(SyncTombstone.builder()
+                .userId(userId)
+                .entityType(SyncTombstone.EntityType.PROFILE)
+                .entityId(profile.getId())
+                .syncVersion(syncVersion)
+                .build());
         profileRepository.delete(profile);
+        profileDirectory.invalidate(userId);
+        medicineListCache.invalidate(userId, profileId);
+        agendaCache.invalidate(userId);
+        scheduleTimesCache.invalidate(userId);
+        // The bulk deletes bypass the per-row counter deltas, so the user's summary is recounted once
+        userSummaryService.recount(userId);
+        
+        // Images are only removed from storage once the deletion has committed
+        List<String> orphanedImages = imageUrls.stream()
+                .filter(imageUrl -> imageUrl != null && !imageUrl.isEmpty())
+                .collect(Collectors.toList());
+        if (!orphanedImages.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    imageUploadService.deleteImagesAsync(orphanedImages);
+                }
+            });
+        } else if (!orphanedImages.isEmpty()) {
+            imageUploadService.deleteImagesAsync(orphanedImages);
+        }
         log.info("Profile deleted successfully with ID: {}", profileId);
     }
     
@@ -183,7 +265,23 @@ public class ProfileServiceImpl implements ProfileService {
      */
     @Override
     public boolean profileExistsForUser(UUID profileId, UUID userId) {
-        return profileRepository.existsByUserIdAndId(userId, profileId);
+        return profileDirectory.contains(userId, profileId);
+    }
+    
+    /**
+     * Get the profiles of a user written after a data version, regardless of status
+     * @param userId The ID of the user to retrieve profiles for
+     * @param sinceVersion The data version the client has already applied
+     * @return List of profiles changed since the version
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProfileResponse> getProfilesChangedSince(UUID userId, long sinceVersion) {
+        List<Profile> profiles = profileRepository.findByUserIdAndSyncVersionGreaterThan(userId, sinceVersion);
+        
+        return profiles.stream()
+                .map(this::mapToProfileResponse)
+                .collect(Collectors.toList());
     }
     
     /**
@@ -196,6 +294,7 @@ public class ProfileServiceImpl implements ProfileService {
                 .id(profile.getId())
                 .userId(profile.getUserId())
                 .name(profile.getName())
+                .version(profile.getVersion())
                 .createdAt(profile.getCreatedAt())
                 .build();
     }
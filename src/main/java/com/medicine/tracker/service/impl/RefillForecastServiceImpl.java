@@ -0,0 +1,173 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.cache.MedicineListCache;
+import com.medicine.tracker.model.entity.Medicine;
+import com.medicine.tracker.model.entity.Schedule;
+import com.medicine.tracker.repository.MedicineRepository;
+import com.medicine.tracker.service.RefillForecastService;
+import com.medicine.tracker.service.UserSummaryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Implementation of RefillForecastService for PostgreSQL
+ * Keeps daily_consumption as a running sum of the doses per day of active schedules and
+ * projects runs_out_on from it, so no change requires re-reading all schedules of a medicine
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefillForecastServiceImpl implements RefillForecastService {
+
+    // Consumption is rounded so adding and removing fractional frequencies cannot leave a residue
+    private static final String NEW_CONSUMPTION =
+            "ROUND(CAST(GREATEST(COALESCE(daily_consumption, 0) + ?, 0) AS NUMERIC), 6)";
+
+    // Both expressions read the old row values, so the adjustment is a single atomic statement;
+    // the locked previous row supplies the old projection for the user's low-stock counter
+    private static final String ADJUST_CONSUMPTION_SQL = "UPDATE user_medicines m SET "
+            + "daily_consumption = " + NEW_CONSUMPTION + ", "
+            + "runs_out_on = " + runsOutOn("quantity", NEW_CONSUMPTION) + ", "
+            // The projection is part of the synced medicine, so it takes the version of the schedule write
+            + "sync_version = (SELECT u.data_version FROM users u WHERE u.id = m.user_id) "
+            + "FROM (SELECT id, runs_out_on FROM user_medicines WHERE id = ? FOR UPDATE) previous "
+            + "WHERE m.id = previous.id "
+            + "RETURNING m.user_id, m.status, previous.runs_out_on AS previous_runs_out_on, m.runs_out_on";
+
+    private static final String INITIALIZE_CONSUMPTION_SQL = "UPDATE user_medicines m SET daily_consumption = COALESCE(("
+            + "SELECT ROUND(CAST(SUM(CASE s.frequency "
+            + "WHEN 'WEEKLY' THEN 1.0 / 7 "
+            + "WHEN 'BIWEEKLY' THEN 1.0 / 14 "
+            + "WHEN 'MONTHLY' THEN 1.0 / 30 "
+            + "WHEN 'CUSTOM' THEN 0 "
+            + "ELSE 1 END) AS NUMERIC), 6) "
+            + "FROM schedules s WHERE s.medicine_id = m.id AND s.is_active = true), 0) "
+            + "WHERE m.daily_consumption IS NULL";
+
+    private static final String INITIALIZE_PROJECTION_SQL = "UPDATE user_medicines SET runs_out_on = "
+            + "CURRENT_DATE + CAST(FLOOR(quantity / daily_consumption) AS INTEGER) "
+            + "WHERE daily_consumption > 0 AND runs_out_on IS NULL";
+
+    private final MedicineRepository medicineRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MedicineListCache medicineListCache;
+    private final UserSummaryService userSummaryService;
+
+    /**
+     * Recompute the projected run-out date of a medicine after its quantity changed
+     * Sets the projection on the entity so it is saved together with the new quantity
+     * @param medicine The medicine whose quantity changed
+     */
+    @Override
+    public void applyQuantityChange(Medicine medicine) {
+        medicine.setRunsOutOn(project(medicine.getQuantity(), medicine.getDailyConsumption(), LocalDate.now()));
+    }
+
+    /**
+     * Adjust the daily consumption and projected run-out date of a medicine after a schedule changed
+     * @param previous The schedule state before the change, or null if the schedule was created
+     * @param current The schedule state after the change, or null if the schedule was deleted
+     */
+    @Override
+    public void applyScheduleChange(Schedule previous, Schedule current) {
+        double delta = dosesPerDay(current) - dosesPerDay(previous);
+        if (delta == 0) {
+            return;
+        }
+
+        Schedule schedule = current != null ? current : previous;
+        UUID medicineId = schedule.getMedicineId();
+        jdbcTemplate.query(ADJUST_CONSUMPTION_SQL, rs -> {
+            String statusName = rs.getString("status");
+            Medicine.MedicineStatus status = statusName != null ? Medicine.MedicineStatus.valueOf(statusName) : null;
+            userSummaryService.applyMedicineChange(rs.getObject("user_id", UUID.class),
+                    Medicine.builder().status(status).runsOutOn(toLocalDate(rs.getDate("previous_runs_out_on"))).build(),
+                    Medicine.builder().status(status).runsOutOn(toLocalDate(rs.getDate("runs_out_on"))).build());
+        }, delta, delta, delta, medicineId);
+        // Cached medicine lists carry the projected run-out date
+        medicineListCache.invalidate(schedule.getUserId(), schedule.getProfileId());
+        log.debug("Adjusted daily consumption of medicine {} by {}", medicineId, delta);
+    }
+
+    /**
+     * Compute the daily consumption and projection of medicines that have never been forecast
+     * @return Number of medicines initialized
+     */
+    @Override
+    @Transactional
+    public int initializeMissingForecasts() {
+        int initialized = jdbcTemplate.update(INITIALIZE_CONSUMPTION_SQL);
+        if (initialized > 0) {
+            jdbcTemplate.update(INITIALIZE_PROJECTION_SQL);
+            log.info("Initialized refill forecasts for {} medicines", initialized);
+        }
+        return initialized;
+    }
+
+    /**
+     * Find active medicines projected to run out within the given number of days
+     * @param days Number of days from today to look ahead
+     * @return List of medicines running out soon, soonest first
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Medicine> findRunningOutWithin(int days) {
+        LocalDate today = LocalDate.now();
+        return medicineRepository.findByStatusAndRunsOutOnBetweenOrderByRunsOutOn(
+                Medicine.MedicineStatus.ACTIVE,
+                today,
+                today.plusDays(days)
+        );
+    }
+
+    /**
+     * Project the day a quantity runs out at a daily consumption rate
+     * @param quantity The remaining quantity
+     * @param dailyConsumption The average doses per day
+     * @param today The day the projection starts from
+     * @return The projected run-out day, or null if nothing is consumed on a fixed cadence
+     */
+    static LocalDate project(Integer quantity, Double dailyConsumption, LocalDate today) {
+        if (quantity == null || dailyConsumption == null || dailyConsumption <= 0) {
+            return null;
+        }
+        return today.plusDays((long) Math.floor(quantity / dailyConsumption));
+    }
+
+    /**
+     * Build the SQL form of project, for statements that change the quantity or consumption of a row in place
+     * @param quantity SQL expression of the remaining quantity
+     * @param dailyConsumption SQL expression of the average doses per day
+     * @return SQL expression of the projected run-out day, NULL if nothing is consumed on a fixed cadence
+     */
+    static String runsOutOn(String quantity, String dailyConsumption) {
+        return "CASE WHEN " + dailyConsumption + " > 0 "
+                + "THEN CURRENT_DATE + CAST(FLOOR(" + quantity + " / " + dailyConsumption + ") AS INTEGER) "
+                + "ELSE NULL END";
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+    
+    /**
+     * Get the doses per day a schedule contributes to its medicine's consumption
+     * @param schedule The schedule, or null
+     * @return Doses per day, 0 for missing or inactive schedules
+     */
+    private double dosesPerDay(Schedule schedule) {
+        if (schedule == null || !Boolean.TRUE.equals(schedule.getIsActive())) {
+            return 0;
+        }
+        return Objects.requireNonNullElse(schedule.getFrequency(), Schedule.Frequency.DAILY).getDosesPerDay();
+    }
+}
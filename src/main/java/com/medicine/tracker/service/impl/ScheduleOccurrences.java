@@ -0,0 +1,74 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.model.entity.Schedule;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Lazy iterator over the occurrences of a schedule within a range of days
+ * Jumps from one due day straight to the next by the cadence of the schedule, so expanding a range
+ * costs one step per occurrence rather than one per day
+ */
+final class ScheduleOccurrences implements Iterator<LocalDateTime> {
+
+    /**
+     * SQL form of nextDueDay(schedule, day).equals(day) for a schedule aliased s and a day bound to :day,
+     * shared by every statement that counts or marks the schedules due on a day
+     */
+    static final String DUE_ON_DAY_SQL = "s.is_active = true "
+            + "AND CAST(s.created_at AS DATE) <= CAST(:day AS DATE) "
+            + "AND (COALESCE(s.frequency, 'DAILY') = 'DAILY' "
+            + "OR (s.frequency = 'WEEKLY' AND EXTRACT(ISODOW FROM s.created_at) = EXTRACT(ISODOW FROM CAST(:day AS DATE))) "
+            // Days between the dates through their epochs, as date subtraction yields an integer only in PostgreSQL
+            + "OR (s.frequency = 'BIWEEKLY' AND MOD(CAST(EXTRACT(EPOCH FROM CAST(:day AS DATE)) "
+            + "- EXTRACT(EPOCH FROM CAST(s.created_at AS DATE)) AS BIGINT) / 86400, 14) = 0) "
+            + "OR (s.frequency = 'MONTHLY' AND EXTRACT(DAY FROM s.created_at) = EXTRACT(DAY FROM CAST(:day AS DATE))))";
+
+    private final Schedule schedule;
+    private final LocalDate last;
+    private LocalDate next;
+
+    /**
+     * @param schedule The schedule to expand
+     * @param from The first day of the range (inclusive)
+     * @param to The last day of the range (inclusive)
+     */
+    ScheduleOccurrences(Schedule schedule, LocalDate from, LocalDate to) {
+        this.schedule = schedule;
+        this.last = to;
+        this.next = nextDueDay(schedule, from);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null && !next.isAfter(last);
+    }
+
+    @Override
+    public LocalDateTime next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        LocalDateTime occurrence = next.atTime(schedule.getTimeOfDay());
+        next = nextDueDay(schedule, next.plusDays(1));
+        return occurrence;
+    }
+
+    /**
+     * Find the first day on or after a day on which a schedule is due
+     * @param schedule The schedule
+     * @param day The day to start from
+     * @return The first due day, or null if the schedule is inactive or has no fixed cadence
+     */
+    static LocalDate nextDueDay(Schedule schedule, LocalDate day) {
+        if (schedule == null || !Boolean.TRUE.equals(schedule.getIsActive())) {
+            return null;
+        }
+        LocalDate firstDay = schedule.getCreatedAt() != null ? schedule.getCreatedAt().toLocalDate() : day;
+        return Objects.requireNonNullElse(schedule.getFrequency(), Schedule.Frequency.DAILY).nextDueDay(firstDay, day);
+    }
+}
@@ -1,16 +1,41 @@
 package com.medicine.tracker.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.cache.ScheduleTimes;
+import com.medicine.tracker.cache.ScheduleTimesCache;
+import com.medicine.tracker.exception.PreconditionFailedException;
+import com.medicine.tracker.model.dto.request.BulkScheduleRequest;
 import com.medicine.tracker.model.dto.request.ScheduleRequest;
+import com.medicine.tracker.model.dto.response.ScheduleOverviewResponse;
 import com.medicine.tracker.model.dto.response.ScheduleResponse;
 import com.medicine.tracker.model.entity.Medicine;
 import com.medicine.tracker.model.entity.Schedule;
+import com.medicine.tracker.model.entity.SyncTombstone;
 import com.medicine.tracker.repository.MedicineRepository;
 import com.medicine.tracker.repository.ScheduleRepository;
+import com.medicine.tracker.repository.SyncTombstoneRepository;
+import com.medicine.tracker.service.MergePatchService;
+import com.medicine.tracker.service.RefillForecastService;
 import com.medicine.tracker.service.ScheduleService;
+import com.medicine.tracker.service.UserDataVersionService;
+import com.medicine.tracker.service.UserSummaryService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -20,10 +45,45 @@ import java.util.stream.Collectors;
  */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ScheduleServiceImpl implements ScheduleService {
     
+    private static final String DUPLICATE_SCHEDULE_MESSAGE =
+            "A schedule already exists for this medicine with the same time and frequency";
+    
+    private static final String UNIQUE_ACTIVE_INDEX = "uk_schedules_medicine_time_frequency_active";
+    
+    // Rows that collide with an active schedule of the same medicine, time and frequency are skipped by the index
+    private static final String INSERT_SQL = "INSERT INTO schedules "
+            + "(id, medicine_id, profile_id, user_id, time_of_day, frequency, is_active, sync_version, version, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?) "
+            + "ON CONFLICT (medicine_id, time_of_day, frequency) WHERE is_active DO NOTHING";
+    
+    private static final String UNIQUE_ACTIVE_INDEX_EXISTS_SQL = "SELECT EXISTS (SELECT 1 FROM pg_indexes "
+            + "WHERE tablename = 'schedules' AND indexname = ?)";
+    
+    // Keeps the oldest of each group of active duplicates left from before the index existed
+    private static final String DEACTIVATE_DUPLICATES_SQL = "UPDATE schedules s SET is_active = false, version = s.version + 1 "
+            + "WHERE s.is_active AND EXISTS (SELECT 1 FROM schedules o "
+            + "WHERE o.is_active AND o.medicine_id = s.medicine_id AND o.time_of_day = s.time_of_day "
+            + "AND o.frequency = s.frequency AND (o.created_at, o.id) < (s.created_at, s.id)) "
+            + "RETURNING s.id, s.medicine_id, s.profile_id, s.user_id, s.frequency, s.created_at";
+    
+    private static final String STAMP_SYNC_VERSION_SQL = "UPDATE schedules SET sync_version = ? WHERE id = ?";
+    
+    private static final String CREATE_UNIQUE_ACTIVE_INDEX_SQL = "CREATE UNIQUE INDEX IF NOT EXISTS "
+            + UNIQUE_ACTIVE_INDEX + " ON schedules (medicine_id, time_of_day, frequency) WHERE is_active";
+    
     private final ScheduleRepository scheduleRepository;
     private final MedicineRepository medicineRepository;
+    private final RefillForecastService refillForecastService;
+    private final UserDataVersionService userDataVersionService;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final MergePatchService mergePatchService;
+    private final UserSummaryService userSummaryService;
+    private final AgendaCache agendaCache;
+    private final ScheduleTimesCache scheduleTimesCache;
+    private final JdbcTemplate jdbcTemplate;
     
     /**
      * Create a new schedule for a medicine
@@ -33,30 +93,98 @@ public class ScheduleServiceImpl implements ScheduleService {
      * @return Created schedule response
      */
     @Override
+    @Transactional
     public ScheduleResponse createSchedule(UUID userId, UUID medicineId, ScheduleRequest scheduleRequest) {
         // Verify that the medicine belongs to the user
-        Medicine medicine = medicineRepository.findById(medicineId)
-                .filter(m -> m.getUserId().equals(userId))
+        Medicine medicine = medicineRepository.findByIdAndUserId(medicineId, userId)
                 .orElseThrow(() -> new RuntimeException("Medicine not found or does not belong to user"));
         
-        // Check if a schedule with the same medicine, time of day, and frequency already exists
-        Schedule.Frequency frequency = scheduleRequest.getFrequency() != null ? scheduleRequest.getFrequency() : Schedule.Frequency.DAILY;
-        if (scheduleRepository.existsByMedicineIdAndTimeOfDayAndFrequencyAndIsActiveTrue(medicineId, scheduleRequest.getTimeOfDay(), frequency)) {
-            throw new RuntimeException("A schedule already exists for this medicine with the same time and frequency");
+        // A duplicate of an active schedule is skipped by the unique index instead of being checked for first
+        List<Schedule> created = insertSchedules(userId, medicine, List.of(scheduleRequest.getTimeOfDay()),
+                scheduleRequest.getFrequency(), scheduleRequest.getIsActive());
+        if (created.isEmpty()) {
+            throw new RuntimeException(DUPLICATE_SCHEDULE_MESSAGE);
         }
         
-        Schedule schedule = Schedule.builder()
-                .medicineId(medicineId)
-                .profileId(medicine.getProfileId())
-                .userId(userId)
-                .timeOfDay(scheduleRequest.getTimeOfDay())
-                .frequency(scheduleRequest.getFrequency())
-                .isActive(scheduleRequest.getIsActive())
-                .build();
+        return mapToScheduleResponse(created.get(0));
+    }
+    
+    /**
+     * Create one schedule per time of day for a medicine in a single batch
+     * @param userId The ID of the user creating the schedules
+     * @param medicineId The ID of the medicine to schedule
+     * @param bulkScheduleRequest The request containing the times of day and their shared frequency
+     * @return The created schedules; times that already have an active schedule are skipped
+     */
+    @Override
+    @Transactional
+    public List<ScheduleResponse> createSchedules(UUID userId, UUID medicineId, BulkScheduleRequest bulkScheduleRequest) {
+        // Verify that the medicine belongs to the user
+        Medicine medicine = medicineRepository.findByIdAndUserId(medicineId, userId)
+                .orElseThrow(() -> new RuntimeException("Medicine not found or does not belong to user"));
         
-        Schedule savedSchedule = scheduleRepository.save(schedule);
+        List<Schedule> created = insertSchedules(userId, medicine, bulkScheduleRequest.getTimesOfDay(),
+                bulkScheduleRequest.getFrequency(), bulkScheduleRequest.getIsActive());
+        
+        return created.stream()
+                .map(this::mapToScheduleResponse)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Create the partial unique index that rejects duplicate active schedules, if it does not exist yet
+     * Active duplicates left from before the index are deactivated first, keeping the oldest of each group;
+     * each deactivation is stamped with a new data version for delta sync and taken out of the refill
+     * forecast and the user summary like any other schedule update
+     */
+    @Override
+    @Transactional
+    public void ensureUniqueActiveSchedules() {
+        // The deduplication scans the whole table and the index build blocks writes, so both run only once
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(UNIQUE_ACTIVE_INDEX_EXISTS_SQL, Boolean.class, UNIQUE_ACTIVE_INDEX))) {
+            log.debug("Unique index {} on active schedules already exists", UNIQUE_ACTIVE_INDEX);
+            return;
+        }
+        
+        List<Schedule> duplicates = jdbcTemplate.query(DEACTIVATE_DUPLICATES_SQL, (rs, rowNum) -> {
+            String frequency = rs.getString("frequency");
+            return Schedule.builder()
+                    .id(rs.getObject("id", UUID.class))
+                    .medicineId(rs.getObject("medicine_id", UUID.class))
+                    .profileId(rs.getObject("profile_id", UUID.class))
+                    .userId(rs.getObject("user_id", UUID.class))
+                    .frequency(frequency != null ? Schedule.Frequency.valueOf(frequency) : null)
+                    .isActive(true)
+                    .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                    .build();
+        });
+        
+        Map<UUID, Long> syncVersions = new HashMap<>();
+        for (Schedule duplicate : duplicates) {
+            long syncVersion = syncVersions.computeIfAbsent(duplicate.getUserId(), userDataVersionService::bump);
+            jdbcTemplate.update(STAMP_SYNC_VERSION_SQL, syncVersion, duplicate.getId());
+            Schedule deactivated = Schedule.builder()
+                    .id(duplicate.getId())
+                    .medicineId(duplicate.getMedicineId())
+                    .profileId(duplicate.getProfileId())
+                    .userId(duplicate.getUserId())
+                    .frequency(duplicate.getFrequency())
+                    .isActive(false)
+                    .createdAt(duplicate.getCreatedAt())
+                    .build();
+            refillForecastService.applyScheduleChange(duplicate, deactivated);
+            userSummaryService.applyScheduleChange(duplicate, deactivated);
+        }
+        for (UUID userId : syncVersions.keySet()) {
+            agendaCache.invalidate(userId);
+            scheduleTimesCache.invalidate(userId);
+        }
+        if (!duplicates.isEmpty()) {
+            log.warn("Deactivated {} duplicate active schedules of {} users", duplicates.size(), syncVersions.size());
+        }
         
-        return mapToScheduleResponse(savedSchedule);
+        jdbcTemplate.execute(CREATE_UNIQUE_ACTIVE_INDEX_SQL);
+        log.info("Created unique index {} on active schedules", UNIQUE_ACTIVE_INDEX);
     }
     
     /**
@@ -66,14 +194,15 @@ public class ScheduleServiceImpl implements ScheduleService {
      * @return List of schedules for the medicine
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ScheduleResponse> getSchedulesForMedicine(UUID userId, UUID medicineId) {
-        // Verify that the medicine belongs to the user
-        if (!medicineRepository.existsByUserIdAndId(userId, medicineId)) {
+        List<Schedule> schedules = scheduleRepository.findByUserIdAndMedicineIdAndIsActiveTrue(userId, medicineId);
+        
+        // Schedules are filtered on the user ID, so only an empty result needs the medicine check
+        if (schedules.isEmpty() && !medicineRepository.existsByUserIdAndId(userId, medicineId)) {
             throw new RuntimeException("Medicine not found or does not belong to user");
         }
         
-        List<Schedule> schedules = scheduleRepository.findByMedicineIdAndIsActiveTrue(medicineId);
-        
         return schedules.stream()
                 .map(this::mapToScheduleResponse)
                 .collect(Collectors.toList());
@@ -86,6 +215,7 @@ public class ScheduleServiceImpl implements ScheduleService {
      * @return List of schedules for the profile
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ScheduleResponse> getSchedulesForProfile(UUID userId, UUID profileId) {
         List<Schedule> schedules = scheduleRepository.findByUserIdAndProfileIdAndIsActiveTrue(userId, profileId);
         
@@ -100,6 +230,7 @@ public class ScheduleServiceImpl implements ScheduleService {
      * @return List of all schedules for the user
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ScheduleResponse> getSchedulesForUser(UUID userId) {
         List<Schedule> schedules = scheduleRepository.findByUserIdAndIsActiveTrue(userId);
         
@@ -115,9 +246,9 @@ public class ScheduleServiceImpl implements ScheduleService {
      * @return The requested schedule response
      */
     @Override
+    @Transactional(readOnly = true)
     public ScheduleResponse getScheduleById(UUID scheduleId, UUID userId) {
-        Schedule schedule = scheduleRepository.findById(scheduleId)
-                .filter(s -> s.getUserId().equals(userId) && s.getIsActive())
+        Schedule schedule = scheduleRepository.findByIdAndUserIdAndIsActiveTrue(scheduleId, userId)
                 .orElseThrow(() -> new RuntimeException("Schedule not found or does not belong to user"));
         
         return mapToScheduleResponse(schedule);
@@ -128,33 +259,38 @@ public class ScheduleServiceImpl implements ScheduleService {
      * @param scheduleId The ID of the schedule to update
      * @param userId The ID of the user updating the schedule
      * @param scheduleRequest The request containing updated schedule details
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
      * @return Updated schedule response
      */
     @Override
-    public ScheduleResponse updateSchedule(UUID scheduleId, UUID userId, ScheduleRequest scheduleRequest) {
-        Schedule schedule = scheduleRepository.findById(scheduleId)
-                .filter(s -> s.getUserId().equals(userId))
-                .orElseThrow(() -> new RuntimeException("Schedule not found or does not belong to user"));
-        
-        // Check if a schedule with the same medicine, time of day, and frequency already exists (excluding the current schedule being updated)
-        Schedule.Frequency frequency = scheduleRequest.getFrequency() != null ? scheduleRequest.getFrequency() : Schedule.Frequency.DAILY;
-        if (scheduleRepository.existsByMedicineIdAndTimeOfDayAndFrequencyAndIsActiveTrue(schedule.getMedicineId(), scheduleRequest.getTimeOfDay(), frequency)) {
-            // Find the existing schedule that matches the new values
-            List<Schedule> existingSchedules = scheduleRepository.findByMedicineIdAndTimeOfDayAndFrequencyAndIsActiveTrue(schedule.getMedicineId(), scheduleRequest.getTimeOfDay(), frequency);
-            // Only throw exception if the matching schedule is not the one we're updating
-            if (existingSchedules.stream().anyMatch(s -> !s.getId().equals(scheduleId))) {
-                throw new RuntimeException("A schedule already exists for this medicine with the same time and frequency");
-            }
+    @Transactional
+    public ScheduleResponse updateSchedule(UUID scheduleId, UUID userId, ScheduleRequest scheduleRequest, Long expectedVersion) {
+        Schedule schedule = findForUpdate(scheduleId, userId, expectedVersion);
+        return applyUpdate(schedule, userId, scheduleRequest);
+    }
+    
+    /**
+     * Partially update an existing schedule with a JSON Merge Patch
+     * @param scheduleId The ID of the schedule to update
+     * @param userId The ID of the user updating the schedule
+     * @param patch The merge patch containing only the fields to change
+     * @param expectedVersion The version the client last saw (from If-Match), or null to skip the check
+     * @return Updated schedule response
+     */
+    @Override
+    @Transactional
+    public ScheduleResponse patchSchedule(UUID scheduleId, UUID userId, JsonNode patch, Long expectedVersion) {
+        Schedule schedule = findForUpdate(scheduleId, userId, expectedVersion);
+        ScheduleRequest current = ScheduleRequest.builder()
+                .timeOfDay(schedule.getTimeOfDay())
+                .frequency(schedule.getFrequency())
+                .isActive(schedule.getIsActive())
+                .build();
+        ScheduleRequest patched = mergePatchService.apply(current, patch, ScheduleRequest.class);
+        if (patched.equals(current)) {
+            return mapToScheduleResponse(schedule);
         }
-        
-        // Update schedule properties
-        schedule.setTimeOfDay(scheduleRequest.getTimeOfDay());
-        schedule.setFrequency(scheduleRequest.getFrequency());
-        schedule.setIsActive(scheduleRequest.getIsActive());
-        
-        Schedule updatedSchedule = scheduleRepository.save(schedule);
-        
-        return mapToScheduleResponse(updatedSchedule);
+        return applyUpdate(schedule, userId, patched);
     }
     
     /**
@@ -163,14 +299,24 @@ public class ScheduleServiceImpl implements ScheduleService {
      * @param userId The ID of the user deleting the schedule
      */
     @Override
+    @Transactional
     public void deleteSchedule(UUID scheduleId, UUID userId) {
-        Schedule schedule = scheduleRepository.findById(scheduleId)
-                .filter(s -> s.getUserId().equals(userId))
+        Schedule schedule = scheduleRepository.findByIdAndUserId(scheduleId, userId)
                 .orElseThrow(() -> new RuntimeException("Schedule not found or does not belong to user"));
         
         // Instead of hard delete, we can set isActive to false if needed
         // For now, we'll hard delete as schedules are not as critical as medicines
+        syncTombstoneRepository.save(SyncTombstone.builder()
+                .userId(userId)
+                .entityType(SyncTombstone.EntityType.SCHEDULE)
+                .entityId(schedule.getId())
+                .syncVersion(userDataVersionService.bump(userId))
+                .build());
         scheduleRepository.delete(schedule);
+        refillForecastService.applyScheduleChange(schedule, null);
+        userSummaryService.applyScheduleChange(schedule, null);
+        agendaCache.invalidate(userId);
+        scheduleTimesCache.invalidate(userId);
     }
     
     /**
@@ -180,10 +326,185 @@ public class ScheduleServiceImpl implements ScheduleService {
      * @return true if schedule exists and belongs to user, false otherwise
      */
     @Override
+    @Transactional(readOnly = true)
     public boolean scheduleExistsForUser(UUID scheduleId, UUID userId) {
         return scheduleRepository.existsByUserIdAndId(userId, scheduleId);
     }
     
+    /**
+     * Get the schedules of a user written after a data version, regardless of status
+     * @param userId The ID of the user to retrieve schedules for
+     * @param sinceVersion The data version the client has already applied
+     * @return List of schedules changed since the version
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ScheduleResponse> getSchedulesChangedSince(UUID userId, long sinceVersion) {
+        List<Schedule> schedules = scheduleRepository.findByUserIdAndSyncVersionGreaterThan(userId, sinceVersion);
+        
+        return schedules.stream()
+                .map(this::mapToScheduleResponse)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Get today's dose count and the next dose of every medicine of a user with active schedules
+     * Served from the in-memory schedule times without loading schedules
+     * @param userId The ID of the user
+     * @return One overview per medicine
+     */
+    @Override
+    public List<ScheduleOverviewResponse> getScheduleOverview(UUID userId) {
+        ScheduleTimes times = scheduleTimesCache.get(userId);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        
+        return times.getMedicineIds().stream()
+                .map(medicineId -> ScheduleOverviewResponse.builder()
+                        .medicineId(medicineId)
+                        .dosesToday(times.dosesOn(medicineId, today))
+                        .nextDoseAt(times.nextOccurrence(medicineId, now))
+                        .build())
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Load a schedule for an update, checking ownership and the client's expected version
+     * @param scheduleId The ID of the schedule to update
+     * @param userId The ID of the user updating the schedule
+     * @param expectedVersion The version the client last saw, or null to skip the check
+     * @return The managed schedule entity
+     */
+    private Schedule findForUpdate(UUID scheduleId, UUID userId, Long expectedVersion) {
+        Schedule schedule = scheduleRepository.findByIdAndUserId(scheduleId, userId)
+                .orElseThrow(() -> new RuntimeException("Schedule not found or does not belong to user"));
+        
+        if (expectedVersion != null && !expectedVersion.equals(schedule.getVersion())) {
+            throw new PreconditionFailedException("Schedule has been modified since version " + expectedVersion);
+        }
+        return schedule;
+    }
+    
+    /**
+     * Copy the fields of a request onto a schedule, save it and update the medicine's refill forecast
+     * @param schedule The managed schedule entity
+     * @param userId The ID of the user updating the schedule
+     * @param scheduleRequest The complete new state of the schedule
+     * @return Updated schedule response
+     */
+    private ScheduleResponse applyUpdate(Schedule schedule, UUID userId, ScheduleRequest scheduleRequest) {
+        Schedule.Frequency frequency = scheduleRequest.getFrequency() != null ? scheduleRequest.getFrequency() : Schedule.Frequency.DAILY;
+        
+        // Keep the state that contributed to the medicine's consumption and the user's summary before the update
+        Schedule previous = Schedule.builder()
+                .medicineId(schedule.getMedicineId())
+                .userId(schedule.getUserId())
+                .createdAt(schedule.getCreatedAt())
+                .frequency(schedule.getFrequency())
+                .isActive(schedule.getIsActive())
+                .build();
+        
+        // Update schedule properties
+        schedule.setTimeOfDay(scheduleRequest.getTimeOfDay());
+        schedule.setFrequency(frequency);
+        schedule.setIsActive(scheduleRequest.getIsActive());
+        
+        schedule.setSyncVersion(userDataVersionService.bump(userId));
+        Schedule updatedSchedule;
+        try {
+            // Flushing here lets the unique index reject a duplicate of another active schedule
+            updatedSchedule = scheduleRepository.save(schedule);
+            scheduleRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateActiveSchedule(e)) {
+                throw e;
+            }
+            throw new RuntimeException(DUPLICATE_SCHEDULE_MESSAGE);
+        }
+        refillForecastService.applyScheduleChange(previous, updatedSchedule);
+        userSummaryService.applyScheduleChange(previous, updatedSchedule);
+        agendaCache.invalidate(userId);
+        scheduleTimesCache.invalidate(userId);
+        
+        return mapToScheduleResponse(updatedSchedule);
+    }
+    
+    /**
+     * Check whether a failed write was rejected by the unique index on active schedules
+     * rather than by another constraint, such as the foreign key to the medicine
+     * @param e The exception thrown by the flush
+     * @return true if the write duplicated an active schedule
+     */
+    private static boolean isDuplicateActiveSchedule(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && UNIQUE_ACTIVE_INDEX.equalsIgnoreCase(violation.getConstraintName());
+    }
+    
+    /**
+     * Insert schedules for a medicine in one batch, skipping those that duplicate an active schedule
+     * @param userId The ID of the user creating the schedules
+     * @param medicine The medicine to schedule
+     * @param timesOfDay The times of day to schedule
+     * @param frequency The frequency of every schedule, DAILY if null
+     * @param isActive Whether the schedules are active, true if null
+     * @return The inserted schedules
+     */
+    private List<Schedule> insertSchedules(UUID userId, Medicine medicine, List<LocalTime> timesOfDay,
+                                           Schedule.Frequency frequency, Boolean isActive) {
+        // Same defaults as Schedule.onCreate, which does not run for these plain inserts
+        long syncVersion = userDataVersionService.bump(userId);
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<Schedule> schedules = timesOfDay.stream()
+                .distinct()
+                .map(timeOfDay -> Schedule.builder()
+                        .id(UUID.randomUUID())
+                        .medicineId(medicine.getId())
+                        .profileId(medicine.getProfileId())
+                        .userId(userId)
+                        .timeOfDay(timeOfDay)
+                        .frequency(frequency != null ? frequency : Schedule.Frequency.DAILY)
+                        .isActive(isActive == null || isActive)
+                        .syncVersion(syncVersion)
+                        .version(0L)
+                        .createdAt(createdAt)
+                        .build())
+                .collect(Collectors.toList());
+        
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, schedules, schedules.size(), (ps, schedule) -> {
+            ps.setObject(1, schedule.getId());
+            ps.setObject(2, schedule.getMedicineId());
+            ps.setObject(3, schedule.getProfileId());
+            ps.setObject(4, schedule.getUserId());
+            ps.setObject(5, schedule.getTimeOfDay());
+            ps.setString(6, schedule.getFrequency().name());
+            ps.setBoolean(7, schedule.getIsActive());
+            ps.setLong(8, schedule.getSyncVersion());
+            ps.setTimestamp(9, Timestamp.valueOf(schedule.getCreatedAt()));
+        });
+        
+        List<Schedule> created = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    created.add(schedules.get(index));
+                }
+                index++;
+            }
+        }
+        
+        for (Schedule schedule : created) {
+            refillForecastService.applyScheduleChange(null, schedule);
+            userSummaryService.applyScheduleChange(null, schedule);
+        }
+        if (!created.isEmpty()) {
+            agendaCache.invalidate(userId);
+            scheduleTimesCache.invalidate(userId);
+        }
+        log.debug("Created {} of {} schedules for medicine {}", created.size(), schedules.size(), medicine.getId());
+        return created;
+    }
+    
     /**
      * Maps a Schedule entity to a ScheduleResponse DTO
      * @param schedule The schedule entity to map
@@ -198,6 +519,7 @@ public class ScheduleServiceImpl implements ScheduleService {
                 .timeOfDay(schedule.getTimeOfDay())
                 .frequency(schedule.getFrequency())
                 .isActive(schedule.getIsActive())
+                .version(schedule.getVersion())
                 .createdAt(schedule.getCreatedAt())
                 .build();
     }
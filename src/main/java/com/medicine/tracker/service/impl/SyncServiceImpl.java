@@ -0,0 +1,140 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.model.dto.response.SyncResponse;
+import com.medicine.tracker.model.entity.SyncTombstone;
+import com.medicine.tracker.repository.SyncTombstoneRepository;
+import com.medicine.tracker.service.MedicineService;
+import com.medicine.tracker.service.ProfileService;
+import com.medicine.tracker.service.ScheduleService;
+import com.medicine.tracker.service.SyncService;
+import com.medicine.tracker.service.UserDataVersionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of SyncService based on per-user data versions
+ * Every write stamps the touched row (or its tombstone) with the user's new data version, so a
+ * delta is a range read on (user_id, sync_version) and costs only as much as what changed
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncServiceImpl implements SyncService {
+
+    private final MedicineService medicineService;
+    private final ScheduleService scheduleService;
+    private final ProfileService profileService;
+    private final UserDataVersionService userDataVersionService;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+
+    @Value("${sync.tombstone-retention-days:30}")
+    private int tombstoneRetentionDays;
+
+    /**
+     * Get the changes of a user since a sync token
+     * @param userId The ID of the user to sync
+     * @param sinceToken The token returned by the previous sync, or null for a full sync
+     * @return Changed and deleted entities with the token for the next sync
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SyncResponse getChangesSince(UUID userId, String sinceToken) {
+        // Read the version first: everything up to it is committed, later writes are picked up next time
+        long currentVersion = userDataVersionService.current(userId);
+        String nextToken = encodeToken(currentVersion, Instant.now());
+
+        SyncToken since = sinceToken != null && !sinceToken.isBlank() ? decodeToken(sinceToken) : null;
+        // Tombstones older than the retention window are gone, so such a client cannot be sent a delta
+        Instant tombstoneHorizon = Instant.now().minus(Duration.ofDays(tombstoneRetentionDays));
+        if (since == null || since.issuedAt().isBefore(tombstoneHorizon) || since.version() > currentVersion) {
+            log.info("Full sync for user {} at version {}", userId, currentVersion);
+            return SyncResponse.builder()
+                    .token(nextToken)
+                    .fullResync(true)
+                    .profiles(profileService.getAllProfiles(userId))
+                    .medicines(medicineService.getAllMedicinesForUser(userId))
+                    .schedules(scheduleService.getSchedulesForUser(userId))
+                    .deletedProfileIds(List.of())
+                    .deletedMedicineIds(List.of())
+                    .deletedScheduleIds(List.of())
+                    .build();
+        }
+
+        List<UUID> deletedProfileIds = new ArrayList<>();
+        List<UUID> deletedMedicineIds = new ArrayList<>();
+        List<UUID> deletedScheduleIds = new ArrayList<>();
+        for (SyncTombstone tombstone : syncTombstoneRepository.findByUserIdAndSyncVersionGreaterThan(userId, since.version())) {
+            switch (tombstone.getEntityType()) {
+                case PROFILE -> deletedProfileIds.add(tombstone.getEntityId());
+                case MEDICINE -> deletedMedicineIds.add(tombstone.getEntityId());
+                case SCHEDULE -> deletedScheduleIds.add(tombstone.getEntityId());
+            }
+        }
+
+        SyncResponse response = SyncResponse.builder()
+                .token(nextToken)
+                .fullResync(false)
+                .profiles(profileService.getProfilesChangedSince(userId, since.version()))
+                .medicines(medicineService.getMedicinesChangedSince(userId, since.version()))
+                .schedules(scheduleService.getSchedulesChangedSince(userId, since.version()))
+                .deletedProfileIds(deletedProfileIds)
+                .deletedMedicineIds(deletedMedicineIds)
+                .deletedScheduleIds(deletedScheduleIds)
+                .build();
+        log.info("Delta sync for user {} from version {} to {}: {} profiles, {} medicines, {} schedules, {} deletions",
+                userId, since.version(), currentVersion, response.getProfiles().size(), response.getMedicines().size(),
+                response.getSchedules().size(), deletedProfileIds.size() + deletedMedicineIds.size() + deletedScheduleIds.size());
+        return response;
+    }
+
+    /**
+     * Delete tombstones older than the retention window
+     * @return Number of tombstones removed
+     */
+    @Override
+    @Transactional
+    public int purgeExpiredTombstones() {
+        int purged = syncTombstoneRepository.deleteByDeletedAtBefore(LocalDateTime.now().minusDays(tombstoneRetentionDays));
+        log.info("Purged {} sync tombstones older than {} days", purged, tombstoneRetentionDays);
+        return purged;
+    }
+
+    /**
+     * Encode a data version and the time it was handed out as an opaque token
+     */
+    private String encodeToken(long version, Instant issuedAt) {
+        String raw = version + "." + issuedAt.toEpochMilli();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by encodeToken
+     */
+    private SyncToken decodeToken(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\.", 2);
+            return new SyncToken(Long.parseLong(parts[0]), Instant.ofEpochMilli(Long.parseLong(parts[1])));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            log.warn("Invalid sync token: {}", e.getMessage());
+            throw new RuntimeException("Invalid sync token");
+        }
+    }
+
+    /**
+     * Decoded sync token: the data version the client has applied and when it was issued
+     */
+    private record SyncToken(long version, Instant issuedAt) {
+    }
+}
@@ -5,6 +5,7 @@ import com.medicine.tracker.repository.TokenBlacklistRepository;
 import com.medicine.tracker.service.TokenBlacklistService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -26,6 +27,7 @@ public class TokenBlacklistServiceImpl implements TokenBlacklistService {
      * @param expirationDate The expiration date of the token
      */
     @Override
+    @Transactional
     public void blacklistToken(String token, UUID userId, LocalDateTime expirationDate) {
         // Check if token is already blacklisted
         if (tokenBlacklistRepository.existsByToken(token)) {
@@ -47,6 +49,7 @@ public class TokenBlacklistServiceImpl implements TokenBlacklistService {
      * @return true if token is blacklisted, false otherwise
      */
     @Override
+    @Transactional(readOnly = true)
     public boolean isTokenBlacklisted(String token) {
         return tokenBlacklistRepository.existsByToken(token);
     }
@@ -68,6 +71,7 @@ public class TokenBlacklistServiceImpl implements TokenBlacklistService {
      * Remove expired tokens from the blacklist
      */
     @Override
+    @Transactional
     public void removeExpiredTokens() {
         LocalDateTime now = LocalDateTime.now();
         tokenBlacklistRepository.findByExpiresAtBefore(now)
@@ -0,0 +1,54 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.service.UserDataVersionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Implementation of UserDataVersionService backed by the data_version column of users
+ * The counter is advanced with a single atomic UPDATE so concurrent writes never reuse a version
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserDataVersionServiceImpl implements UserDataVersionService {
+
+    private static final String BUMP_SQL =
+            "UPDATE users SET data_version = data_version + 1 WHERE id = ? RETURNING data_version";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Advance the data version of a user after a write
+     * @param userId The ID of the user whose data changed
+     * @return The new data version
+     */
+    @Override
+    public long bump(UUID userId) {
+        Long version = jdbcTemplate.query(BUMP_SQL, rs -> rs.next() ? rs.getLong(1) : null, userId);
+        if (version == null) {
+            throw new RuntimeException("User not found");
+        }
+        log.debug("Data version of user {} is now {}", userId, version);
+        return version;
+    }
+
+    /**
+     * Get the current data version of a user
+     * @param userId The ID of the user
+     * @return The committed data version
+     */
+    @Override
+    public long current(UUID userId) {
+        Long version = jdbcTemplate.query("SELECT data_version FROM users WHERE id = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, userId);
+        if (version == null) {
+            throw new RuntimeException("User not found");
+        }
+        return version;
+    }
+}
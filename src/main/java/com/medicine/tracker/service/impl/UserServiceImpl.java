@@ -7,6 +7,7 @@ import com.medicine.tracker.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.UUID;
 
@@ -27,6 +28,7 @@ public class UserServiceImpl implements UserService {
      * @param fcmTokenRequest The request containing the FCM token
      */
     @Override
+    @Transactional
     public void updateFcmToken(UUID userId, FcmTokenRequest fcmTokenRequest) {
         log.info("Updating FCM token for user {}", userId);
         
@@ -48,6 +50,7 @@ public class UserServiceImpl implements UserService {
      * @return The requested user
      */
     @Override
+    @Transactional(readOnly = true)
     public User getUserById(UUID userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> {
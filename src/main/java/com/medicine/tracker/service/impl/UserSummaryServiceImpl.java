@@ -0,0 +1,294 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.model.dto.response.UserSummaryResponse;
+import com.medicine.tracker.model.entity.Medicine;
+import com.medicine.tracker.model.entity.Schedule;
+import com.medicine.tracker.model.entity.UserSummary;
+import com.medicine.tracker.repository.UserSummaryRepository;
+import com.medicine.tracker.service.UserSummaryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Implementation of UserSummaryService backed by the user_summary table
+ * Writes add the difference between the old and new contribution of the changed row, so a counter
+ * update is a single-row UPDATE; the rollover and the reconciler recompute counters in bulk
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserSummaryServiceImpl implements UserSummaryService {
+
+    private static final String ALL_COUNTS_SQL = counts("");
+
+    private static final String USER_COUNTS_SQL = counts(" AND user_id = :userId");
+
+    private static final String UPSERT_TEMPLATE = "INSERT INTO user_summary "
+            + "(user_id, summary_day, active_medicines, expiring_medicines, low_stock_medicines, schedules_today, updated_at) "
+            + "SELECT c.user_id, CAST(:day AS DATE), c.active_medicines, c.expiring_medicines, c.low_stock_medicines, "
+            + "c.schedules_today, now() FROM (%s) c "
+            + "ON CONFLICT (user_id) DO UPDATE SET "
+            + "summary_day = EXCLUDED.summary_day, "
+            + "active_medicines = EXCLUDED.active_medicines, "
+            + "expiring_medicines = EXCLUDED.expiring_medicines, "
+            + "low_stock_medicines = EXCLUDED.low_stock_medicines, "
+            + "schedules_today = EXCLUDED.schedules_today, "
+            + "updated_at = EXCLUDED.updated_at "
+            // Only rows that actually drifted are written
+            + "WHERE (user_summary.summary_day, user_summary.active_medicines, user_summary.expiring_medicines, "
+            + "user_summary.low_stock_medicines, user_summary.schedules_today) IS DISTINCT FROM "
+            + "(EXCLUDED.summary_day, EXCLUDED.active_medicines, EXCLUDED.expiring_medicines, "
+            + "EXCLUDED.low_stock_medicines, EXCLUDED.schedules_today)";
+
+    private static final String RECOUNT_SQL = String.format(UPSERT_TEMPLATE, USER_COUNTS_SQL);
+
+    private static final String RECONCILE_SQL = String.format(UPSERT_TEMPLATE, ALL_COUNTS_SQL);
+
+    // The active count does not depend on the day, so the rollover leaves it alone
+    private static final String ROLL_OVER_SQL = "UPDATE user_summary us SET "
+            + "summary_day = CAST(:day AS DATE), "
+            + "expiring_medicines = c.expiring_medicines, "
+            + "low_stock_medicines = c.low_stock_medicines, "
+            + "schedules_today = c.schedules_today, "
+            + "updated_at = now() "
+            + "FROM (" + ALL_COUNTS_SQL + ") c "
+            + "WHERE us.user_id = c.user_id AND us.summary_day < CAST(:day AS DATE)";
+
+    private static final String INITIALIZE_SQL = "INSERT INTO user_summary "
+            + "(user_id, summary_day, active_medicines, expiring_medicines, low_stock_medicines, schedules_today, updated_at) "
+            + "VALUES (?, ?, 0, 0, 0, 0, now()) ON CONFLICT (user_id) DO NOTHING";
+
+    // Day-relative deltas were computed for today; a summary still on an older day is left to the rollover
+    private static final String MEDICINE_DELTA_SQL = "UPDATE user_summary SET "
+            + "active_medicines = active_medicines + ?, "
+            + "expiring_medicines = expiring_medicines + CASE WHEN summary_day = ? THEN ? ELSE 0 END, "
+            + "low_stock_medicines = low_stock_medicines + CASE WHEN summary_day = ? THEN ? ELSE 0 END, "
+            + "updated_at = now() "
+            + "WHERE user_id = ?";
+
+    // Schedules of a deleted or inactive medicine are not counted
+    private static final String SCHEDULE_DELTA_SQL = "UPDATE user_summary SET "
+            + "schedules_today = schedules_today + ?, "
+            + "updated_at = now() "
+            + "WHERE user_id = ? AND summary_day = ? "
+            + "AND EXISTS (SELECT 1 FROM user_medicines m WHERE m.id = ? AND m.status = 'ACTIVE')";
+
+    // A medicine entering or leaving the active set brings or takes its schedules due today along
+    private static final String MEDICINE_SCHEDULES_DELTA_SQL = "UPDATE user_summary SET "
+            + "schedules_today = schedules_today + :sign * "
+            + "(SELECT COUNT(*) FROM schedules s WHERE s.medicine_id = :medicineId AND s.user_id = :userId AND "
+            + ScheduleOccurrences.DUE_ON_DAY_SQL + "), "
+            + "updated_at = now() "
+            + "WHERE user_id = :userId AND summary_day = CAST(:day AS DATE)";
+
+    private final UserSummaryRepository userSummaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${refill.low-stock-days:5}")
+    private int lowStockDays;
+
+    /**
+     * Get the badge counters of a user
+     * A summary that is missing or not yet rolled over to today is computed on the fly instead
+     * @param userId The ID of the user
+     * @return The counters for today
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UserSummaryResponse getSummary(UUID userId) {
+        LocalDate today = LocalDate.now();
+        UserSummary summary = userSummaryRepository.findById(userId)
+                .filter(s -> today.equals(s.getSummaryDay()))
+                .orElse(null);
+        if (summary != null) {
+            return mapToUserSummaryResponse(summary);
+        }
+
+        log.debug("Summary of user {} is not current, computing it from the medicine and schedule tables", userId);
+        MapSqlParameterSource params = windowParams(today).addValue("userId", userId);
+        return namedParameterJdbcTemplate.query(USER_COUNTS_SQL, params, rs -> rs.next()
+                ? UserSummaryResponse.builder()
+                        .day(today)
+                        .activeMedicines(rs.getInt("active_medicines"))
+                        .expiringThisMonth(rs.getInt("expiring_medicines"))
+                        .lowStock(rs.getInt("low_stock_medicines"))
+                        .schedulesToday(rs.getInt("schedules_today"))
+                        .build()
+                : UserSummaryResponse.builder().day(today).build());
+    }
+
+    /**
+     * Create the empty summary of a newly registered user
+     * @param userId The ID of the user
+     */
+    @Override
+    public void initialize(UUID userId) {
+        jdbcTemplate.update(INITIALIZE_SQL, userId, Date.valueOf(LocalDate.now()));
+    }
+
+    /**
+     * Adjust the counters of a user after a medicine changed
+     * @param userId The ID of the user owning the medicine
+     * @param previous The medicine state before the change, or null if the medicine was created
+     * @param current The medicine state after the change, or null if the medicine was deleted
+     */
+    @Override
+    public void applyMedicineChange(UUID userId, Medicine previous, Medicine current) {
+        LocalDate today = LocalDate.now();
+        int active = isActive(current) - isActive(previous);
+        int expiring = isExpiring(current, today) - isExpiring(previous, today);
+        int lowStock = isLowStock(current, today) - isLowStock(previous, today);
+        if (active == 0 && expiring == 0 && lowStock == 0) {
+            return;
+        }
+
+        Date day = Date.valueOf(today);
+        jdbcTemplate.update(MEDICINE_DELTA_SQL, active, day, expiring, day, lowStock, userId);
+        UUID medicineId = current != null ? current.getId() : previous.getId();
+        if (active != 0 && medicineId != null) {
+            namedParameterJdbcTemplate.update(MEDICINE_SCHEDULES_DELTA_SQL, new MapSqlParameterSource()
+                    .addValue("sign", active)
+                    .addValue("medicineId", medicineId)
+                    .addValue("userId", userId)
+                    .addValue("day", day));
+        }
+        log.debug("Adjusted summary of user {} by {} active, {} expiring, {} low stock", userId, active, expiring, lowStock);
+    }
+
+    /**
+     * Adjust the counters of a user after a schedule changed
+     * @param previous The schedule state before the change, or null if the schedule was created
+     * @param current The schedule state after the change, or null if the schedule was deleted
+     */
+    @Override
+    public void applyScheduleChange(Schedule previous, Schedule current) {
+        LocalDate today = LocalDate.now();
+        int due = (isDueOn(current, today) ? 1 : 0) - (isDueOn(previous, today) ? 1 : 0);
+        if (due == 0) {
+            return;
+        }
+
+        Schedule schedule = current != null ? current : previous;
+        UUID userId = schedule.getUserId();
+        jdbcTemplate.update(SCHEDULE_DELTA_SQL, due, userId, Date.valueOf(today), schedule.getMedicineId());
+        log.debug("Adjusted schedules due today of user {} by {}", userId, due);
+    }
+
+    /**
+     * Recompute every counter of one user, e.g. after a bulk delete
+     * @param userId The ID of the user
+     */
+    @Override
+    public void recount(UUID userId) {
+        namedParameterJdbcTemplate.update(RECOUNT_SQL, windowParams(LocalDate.now()).addValue("userId", userId));
+    }
+
+    /**
+     * Move the day-relative counters of every summary that is behind to a new day
+     * @param day The new day, normally today
+     * @return Number of summaries moved
+     */
+    @Override
+    @Transactional
+    public int rollOver(LocalDate day) {
+        int rolled = namedParameterJdbcTemplate.update(ROLL_OVER_SQL, windowParams(day));
+        log.info("Rolled {} user summaries over to {}", rolled, day);
+        return rolled;
+    }
+
+    /**
+     * Recompute all summaries from the medicine and schedule tables and repair those that drifted
+     * Also creates the summaries of users that have none yet
+     * @return Number of summaries created or repaired
+     */
+    @Override
+    @Transactional
+    public int reconcile() {
+        int repaired = namedParameterJdbcTemplate.update(RECONCILE_SQL, windowParams(LocalDate.now()));
+        if (repaired > 0) {
+            log.warn("Reconciled {} user summaries that were missing or had drifted", repaired);
+        } else {
+            log.info("All user summaries are consistent");
+        }
+        return repaired;
+    }
+
+    /**
+     * Build the per-user counters of every user, or of one user when filtered
+     * @param userFilter Extra condition on user_id for the medicine and schedule scans
+     * @return SQL selecting user_id and the four counters
+     */
+    private static String counts(String userFilter) {
+        return "SELECT u.id AS user_id, "
+                + "COALESCE(mc.active, 0) AS active_medicines, "
+                + "COALESCE(mc.expiring, 0) AS expiring_medicines, "
+                + "COALESCE(mc.low_stock, 0) AS low_stock_medicines, "
+                + "COALESCE(sc.due, 0) AS schedules_today "
+                + "FROM users u "
+                + "LEFT JOIN (SELECT user_id, COUNT(*) AS active, "
+                + "COUNT(*) FILTER (WHERE expiry_date <= CAST(:monthEnd AS DATE)) AS expiring, "
+                + "COUNT(*) FILTER (WHERE runs_out_on <= CAST(:lowStockDay AS DATE)) AS low_stock "
+                + "FROM user_medicines WHERE status = 'ACTIVE'" + userFilter + " GROUP BY user_id) mc ON mc.user_id = u.id "
+                + "LEFT JOIN (SELECT s.user_id, COUNT(*) AS due FROM schedules s "
+                + "JOIN user_medicines m ON m.id = s.medicine_id AND m.status = 'ACTIVE' WHERE " + ScheduleOccurrences.DUE_ON_DAY_SQL
+                + userFilter.replace("user_id", "s.user_id") + " GROUP BY s.user_id) sc ON sc.user_id = u.id"
+                + (userFilter.isEmpty() ? "" : " WHERE u.id = :userId");
+    }
+
+    private MapSqlParameterSource windowParams(LocalDate day) {
+        return new MapSqlParameterSource()
+                .addValue("day", Date.valueOf(day))
+                .addValue("monthEnd", Date.valueOf(day.withDayOfMonth(day.lengthOfMonth())))
+                .addValue("lowStockDay", Date.valueOf(day.plusDays(lowStockDays)));
+    }
+
+    private int isActive(Medicine medicine) {
+        return medicine != null && medicine.getStatus() == Medicine.MedicineStatus.ACTIVE ? 1 : 0;
+    }
+
+    private int isExpiring(Medicine medicine, LocalDate today) {
+        return isActive(medicine) == 1 && medicine.getExpiryDate() != null
+                && !medicine.getExpiryDate().isAfter(today.withDayOfMonth(today.lengthOfMonth())) ? 1 : 0;
+    }
+
+    private int isLowStock(Medicine medicine, LocalDate today) {
+        return isActive(medicine) == 1 && medicine.getRunsOutOn() != null
+                && !medicine.getRunsOutOn().isAfter(today.plusDays(lowStockDays)) ? 1 : 0;
+    }
+
+    /**
+     * Check whether a schedule has an occurrence on a day, using the same rule as ScheduleOccurrences.DUE_ON_DAY_SQL
+     * @param schedule The schedule, or null
+     * @param day The day to check
+     * @return true if the schedule is active and due on the day
+     */
+    static boolean isDueOn(Schedule schedule, LocalDate day) {
+        return day.equals(ScheduleOccurrences.nextDueDay(schedule, day));
+    }
+
+    /**
+     * Maps a UserSummary entity to a UserSummaryResponse DTO
+     * @param summary The summary entity to map
+     * @return Mapped summary response
+     */
+    private UserSummaryResponse mapToUserSummaryResponse(UserSummary summary) {
+        return UserSummaryResponse.builder()
+                .day(summary.getSummaryDay())
+                .activeMedicines(summary.getActiveMedicines())
+                .expiringThisMonth(summary.getExpiringMedicines())
+                .lowStock(summary.getLowStockMedicines())
+                .schedulesToday(summary.getSchedulesToday())
+                .build();
+    }
+}
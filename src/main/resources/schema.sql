@@ -8,7 +8,8 @@ CREATE TABLE users (
     password VARCHAR(255) NOT NULL,
     password_last_changed TIMESTAMPTZ DEFAULT NOW(),
     created_at TIMESTAMPTZ DEFAULT NOW(),
-    fcm_token TEXT
+    fcm_token TEXT,
+    data_version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Create profiles table
@@ -16,6 +17,8 @@ CREATE TABLE profiles (
     id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
     user_id UUID NOT NULL,
     name VARCHAR(255) NOT NULL,
+    sync_version BIGINT,
+    version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMPTZ DEFAULT NOW(),
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
@@ -39,6 +42,8 @@ CREATE TABLE global_medicines (
     category VARCHAR(100),
     atc_code VARCHAR(10),
     fda_approval_date DATE,
+    search_vector TSVECTOR,
+    version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMPTZ DEFAULT NOW(),
     updated_at TIMESTAMPTZ DEFAULT NOW()
 );
@@ -58,6 +63,10 @@ CREATE TABLE user_medicines (
     composition JSONB DEFAULT '[]',
     form VARCHAR(20),
     status VARCHAR(20) DEFAULT 'active' CHECK (status IN ('active', 'inactive')),
+    daily_consumption DOUBLE PRECISION DEFAULT 0,
+    runs_out_on DATE,
+    sync_version BIGINT,
+    version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMPTZ DEFAULT NOW(),
     updated_at TIMESTAMPTZ DEFAULT NOW(),
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
@@ -73,6 +82,8 @@ CREATE TABLE schedules (
     time_of_day TIME NOT NULL,
     frequency VARCHAR(50) NOT NULL DEFAULT 'daily',
     is_active BOOLEAN DEFAULT true,
+    sync_version BIGINT,
+    version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMPTZ DEFAULT NOW(),
     FOREIGN KEY (medicine_id) REFERENCES user_medicines(id) ON DELETE CASCADE,
     FOREIGN KEY (profile_id) REFERENCES profiles(id) ON DELETE CASCADE,
@@ -89,12 +100,115 @@ CREATE TABLE token_blacklist (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Create dose_events table (append-only log of doses taken and quantity adjustments)
+-- No foreign keys so the history outlives deleted medicines, schedules and profiles
+-- Range-partitioned by month on taken_at; monthly partitions are created ahead of time by the
+-- dose history maintenance job, e.g. dose_events_p2026_01 FOR VALUES FROM ('2026-01-01') TO ('2026-02-01')
+CREATE TABLE dose_events (
+    id UUID NOT NULL,
+    medicine_id UUID NOT NULL,
+    schedule_id UUID,
+    scheduled_for TIMESTAMPTZ,
+    profile_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    taken_at TIMESTAMPTZ NOT NULL,
+    quantity_delta INTEGER NOT NULL,
+    source VARCHAR(20) NOT NULL CHECK (source IN ('MANUAL', 'SCHEDULED', 'OFFLINE_SYNC', 'ADJUSTMENT')),
+    PRIMARY KEY (id, taken_at)
+) PARTITION BY RANGE (taken_at);
+
+CREATE TABLE dose_events_default PARTITION OF dose_events DEFAULT;
+
+-- Create dose_daily_rollups table (compacted dose history past the retention period)
+CREATE TABLE dose_daily_rollups (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    medicine_id UUID NOT NULL,
+    schedule_id UUID,
+    profile_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    day DATE NOT NULL,
+    event_count INTEGER NOT NULL,
+    doses_taken INTEGER NOT NULL,
+    quantity_delta INTEGER NOT NULL
+);
+
+-- Create adherence_daily table (taken/missed/late counters per schedule and day)
+CREATE TABLE adherence_daily (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    schedule_id UUID NOT NULL,
+    medicine_id UUID NOT NULL,
+    profile_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    day DATE NOT NULL,
+    taken INTEGER NOT NULL DEFAULT 0,
+    missed INTEGER NOT NULL DEFAULT 0,
+    late INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT uk_adherence_daily_schedule_id_day UNIQUE (schedule_id, day)
+);
+
+-- Create sync_tombstones table (hard deletions kept for delta sync)
+CREATE TABLE sync_tombstones (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id UUID NOT NULL,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id UUID NOT NULL,
+    sync_version BIGINT NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Create idempotency_keys table (stored responses of requests sent with an Idempotency-Key header)
+CREATE TABLE idempotency_keys (
+    id VARCHAR(64) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    response_status INTEGER,
+    content_type VARCHAR(100),
+    response_etag VARCHAR(255),
+    response_location VARCHAR(2048),
+    response_body BYTEA,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Create user_summary table (badge counters per user, maintained incrementally)
+CREATE TABLE user_summary (
+    user_id UUID PRIMARY KEY,
+    summary_day DATE NOT NULL,
+    active_medicines INTEGER NOT NULL DEFAULT 0,
+    expiring_medicines INTEGER NOT NULL DEFAULT 0,
+    low_stock_medicines INTEGER NOT NULL DEFAULT 0,
+    schedules_today INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP
+);
+
 -- Create indexes for better performance
 CREATE INDEX idx_users_email ON users(email);
 CREATE INDEX idx_profiles_user_id ON profiles(user_id);
 CREATE INDEX idx_user_medicines_user_id ON user_medicines(user_id);
 CREATE INDEX idx_user_medicines_profile_id ON user_medicines(profile_id);
 CREATE INDEX idx_user_medicines_status ON user_medicines(status);
+CREATE INDEX idx_user_medicines_runs_out_on ON user_medicines(runs_out_on);
+CREATE INDEX idx_user_medicines_user_status_expiry ON user_medicines(user_id, status, expiry_date, id);
+CREATE INDEX idx_user_medicines_user_status_name ON user_medicines(user_id, status, name, id);
+CREATE INDEX idx_user_medicines_profile_status_expiry ON user_medicines(profile_id, status, expiry_date, id);
+CREATE INDEX idx_user_medicines_profile_status_name ON user_medicines(profile_id, status, name, id);
+-- The name indexes above follow the database collation, so LIKE prefix filters need pattern operator indexes
+CREATE INDEX idx_user_medicines_user_status_name_prefix ON user_medicines(user_id, status, name text_pattern_ops);
+CREATE INDEX idx_user_medicines_profile_status_name_prefix ON user_medicines(profile_id, status, name text_pattern_ops);
 CREATE INDEX idx_schedules_medicine_id ON schedules(medicine_id);
 CREATE INDEX idx_schedules_profile_id ON schedules(profile_id);
-CREATE INDEX idx_schedules_user_id ON schedules(user_id);
\ No newline at end of file
+CREATE INDEX idx_schedules_user_id ON schedules(user_id);
+-- Duplicate active schedules are rejected by the database; inserts use ON CONFLICT DO NOTHING against it
+CREATE UNIQUE INDEX uk_schedules_medicine_time_frequency_active ON schedules(medicine_id, time_of_day, frequency) WHERE is_active;
+CREATE INDEX idx_global_medicines_search_vector ON global_medicines USING GIN (search_vector);
+CREATE INDEX idx_dose_events_medicine_id_taken_at ON dose_events(medicine_id, taken_at);
+CREATE INDEX idx_dose_events_profile_id_taken_at ON dose_events(profile_id, taken_at);
+CREATE INDEX idx_dose_events_user_id_taken_at ON dose_events(user_id, taken_at);
+CREATE INDEX idx_dose_daily_rollups_profile_id_day ON dose_daily_rollups(profile_id, day);
+CREATE INDEX idx_dose_daily_rollups_medicine_id_day ON dose_daily_rollups(medicine_id, day);
+CREATE INDEX idx_adherence_daily_profile_id_day ON adherence_daily(profile_id, day);
+CREATE INDEX idx_user_medicines_user_sync_version ON user_medicines(user_id, sync_version);
+CREATE INDEX idx_schedules_user_sync_version ON schedules(user_id, sync_version);
+CREATE INDEX idx_profiles_user_sync_version ON profiles(user_id, sync_version);
+CREATE INDEX idx_sync_tombstones_user_sync_version ON sync_tombstones(user_id, sync_version);
+CREATE INDEX idx_sync_tombstones_deleted_at ON sync_tombstones(deleted_at);
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
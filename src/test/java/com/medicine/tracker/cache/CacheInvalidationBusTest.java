@@ -0,0 +1,41 @@
+package com.medicine.tracker.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationBusTest {
+
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @BeforeEach
+    void setUp() {
+        cacheInvalidationBus = new CacheInvalidationBus(mock(JdbcTemplate.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cacheInvalidationBus, "enabled", true);
+    }
+
+    @Test
+    void start_shouldRequireListenUrlWhenEnabled() {
+        // Arrange
+        ReflectionTestUtils.setField(cacheInvalidationBus, "listenUrl", "");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> cacheInvalidationBus.start());
+    }
+
+    @Test
+    void start_shouldRejectPoolerListenUrl() {
+        // Arrange
+        ReflectionTestUtils.setField(cacheInvalidationBus, "listenUrl",
+                "jdbc:postgresql://ep-example-pooler.us-east-1.aws.neon.tech:5432/medicine_tracker");
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> cacheInvalidationBus.start());
+        assertTrue(exception.getMessage().contains("pooler"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.medicine.tracker.cache;
+
+import com.medicine.tracker.config.PrimaryReads;
+import com.medicine.tracker.model.dto.response.MedicineResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MedicineListCacheTest {
+
+    private MedicineListCache medicineListCache;
+
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private UUID userId;
+    private UUID profileId;
+
+    @BeforeEach
+    void setUp() {
+        cacheInvalidationBus = mock(CacheInvalidationBus.class);
+        medicineListCache = new MedicineListCache(new SimpleMeterRegistry(),
+                new PrimaryReads(mock(PlatformTransactionManager.class)), cacheInvalidationBus);
+        ReflectionTestUtils.setField(medicineListCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(medicineListCache, "ttlMinutes", 10L);
+        medicineListCache.init();
+        userId = UUID.randomUUID();
+        profileId = UUID.randomUUID();
+    }
+
+    @Test
+    void getForProfile_shouldLoadOnlyOnceUntilInvalidated() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        medicineListCache.getForProfile(userId, profileId, () -> list(loads.incrementAndGet()));
+        medicineListCache.getForProfile(userId, profileId, () -> list(loads.incrementAndGet()));
+        medicineListCache.invalidate(userId, profileId);
+        medicineListCache.getForProfile(userId, profileId, () -> list(loads.incrementAndGet()));
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getForUser_shouldNotStoreListLoadedBeforeConcurrentWrite() {
+        // Arrange: the write commits while the load is still reading
+        List<MedicineResponse> stale = medicineListCache.getForUser(userId, () -> {
+            medicineListCache.invalidate(userId, profileId);
+            return list(1);
+        });
+
+        // Act
+        List<MedicineResponse> next = medicineListCache.getForUser(userId, () -> list(2));
+
+        // Assert
+        assertEquals(1, stale.size());
+        assertEquals(2, next.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void invalidate_shouldPublishKeyThatEvictsListsOnOtherNodes() {
+        // Arrange
+        ArgumentCaptor<Consumer<String>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(cacheInvalidationBus).register(eq("medicine-list"), handler.capture(), any(Runnable.class));
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        AtomicInteger loads = new AtomicInteger();
+        medicineListCache.getForProfile(userId, profileId, () -> list(loads.incrementAndGet()));
+
+        // Act: the published key arrives from another node
+        medicineListCache.invalidate(userId, profileId);
+        verify(cacheInvalidationBus).publish(eq("medicine-list"), key.capture());
+        medicineListCache.getForProfile(userId, profileId, () -> list(loads.incrementAndGet()));
+        handler.getValue().accept(key.getValue());
+        medicineListCache.getForProfile(userId, profileId, () -> list(loads.incrementAndGet()));
+
+        // Assert
+        assertEquals(3, loads.get());
+    }
+
+    private List<MedicineResponse> list(int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> MedicineResponse.builder().id(UUID.randomUUID()).build())
+                .toList();
+    }
+}
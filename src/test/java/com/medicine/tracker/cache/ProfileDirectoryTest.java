@@ -0,0 +1,93 @@
+package com.medicine.tracker.cache;
+
+import com.medicine.tracker.config.PrimaryReads;
+import com.medicine.tracker.model.entity.Profile;
+import com.medicine.tracker.repository.ProfileRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProfileDirectoryTest {
+
+    private ProfileDirectory profileDirectory;
+
+    private ProfileRepository profileRepository;
+
+    private UUID userId;
+    private UUID profileId;
+
+    @BeforeEach
+    void setUp() {
+        profileRepository = mock(ProfileRepository.class);
+        profileDirectory = new ProfileDirectory(profileRepository, new PrimaryReads(mock(PlatformTransactionManager.class)),
+                new SimpleMeterRegistry(), mock(CacheInvalidationBus.class));
+        ReflectionTestUtils.setField(profileDirectory, "maximumSize", 100L);
+        ReflectionTestUtils.setField(profileDirectory, "ttlMinutes", 10L);
+        profileDirectory.init();
+        userId = UUID.randomUUID();
+        profileId = UUID.randomUUID();
+    }
+
+    @Test
+    void contains_shouldServeOwnershipChecksFromMemory() {
+        // Arrange
+        when(profileRepository.findByUserId(userId)).thenReturn(List.of(profile(profileId, "Mom")));
+
+        // Act
+        boolean first = profileDirectory.contains(userId, profileId);
+        boolean second = profileDirectory.contains(userId, profileId);
+        String name = profileDirectory.getName(userId, profileId);
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertEquals("Mom", name);
+        verify(profileRepository, times(1)).findByUserId(userId);
+    }
+
+    @Test
+    void contains_shouldReloadOnceForProfileMissingFromDirectory() {
+        // Arrange: the profile was created after the directory was loaded
+        UUID newProfileId = UUID.randomUUID();
+        when(profileRepository.findByUserId(userId))
+                .thenReturn(List.of(profile(profileId, "Mom")))
+                .thenReturn(List.of(profile(profileId, "Mom"), profile(newProfileId, "Dad")));
+        profileDirectory.getProfiles(userId);
+
+        // Act
+        boolean found = profileDirectory.contains(userId, newProfileId);
+
+        // Assert
+        assertTrue(found);
+        assertEquals("Dad", profileDirectory.getName(userId, newProfileId));
+        verify(profileRepository, times(2)).findByUserId(userId);
+    }
+
+    @Test
+    void invalidate_shouldReloadRenamedProfile() {
+        // Arrange
+        when(profileRepository.findByUserId(userId))
+                .thenReturn(List.of(profile(profileId, "Mom")))
+                .thenReturn(List.of(profile(profileId, "Mother")));
+        profileDirectory.getProfiles(userId);
+
+        // Act
+        profileDirectory.invalidate(userId);
+
+        // Assert
+        assertEquals("Mother", profileDirectory.getName(userId, profileId));
+        assertEquals("Unknown Profile", profileDirectory.getName(userId, UUID.randomUUID()));
+    }
+
+    private Profile profile(UUID id, String name) {
+        return Profile.builder().id(id).userId(userId).name(name).build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.medicine.tracker.cache;
+
+import com.medicine.tracker.model.entity.Schedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleTimesTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+
+    private UUID medicineId;
+
+    @BeforeEach
+    void setUp() {
+        medicineId = UUID.randomUUID();
+    }
+
+    @Test
+    void minuteOfDaySet_shouldFindNextMinuteAcrossWords() {
+        // Arrange: minutes 0, 63, 64 and 1439 sit at the edges of the 64-bit words
+        MinuteOfDaySet minutes = MinuteOfDaySet.of(List.of(
+                LocalTime.MIDNIGHT, LocalTime.of(1, 3), LocalTime.of(1, 4), LocalTime.of(23, 59)));
+
+        // Act & Assert
+        assertEquals(4, minutes.size());
+        assertTrue(minutes.contains(LocalTime.of(1, 3, 30)));
+        assertFalse(minutes.contains(LocalTime.of(1, 5)));
+        assertEquals(LocalTime.MIDNIGHT, minutes.first());
+        assertEquals(LocalTime.of(1, 4), minutes.nextOnOrAfter(LocalTime.of(1, 4)));
+        assertEquals(LocalTime.of(23, 59), minutes.nextOnOrAfter(LocalTime.of(1, 5)));
+        assertNull(MinuteOfDaySet.of(List.of(LocalTime.NOON)).nextOnOrAfter(LocalTime.of(12, 1)));
+    }
+
+    @Test
+    void dosesOn_shouldCountOnlyClassesDueOnTheDay() {
+        // Arrange: three daily doses and one weekly Monday dose
+        ScheduleTimes times = ScheduleTimes.of(List.of(
+                schedule(LocalTime.of(8, 0), Schedule.Frequency.DAILY, MONDAY.minusDays(10)),
+                schedule(LocalTime.of(14, 0), Schedule.Frequency.DAILY, MONDAY.minusDays(3)),
+                schedule(LocalTime.of(20, 0), Schedule.Frequency.DAILY, MONDAY.minusDays(1)),
+                schedule(LocalTime.of(9, 0), Schedule.Frequency.WEEKLY, MONDAY.minusWeeks(2))));
+
+        // Act & Assert
+        assertEquals(4, times.dosesOn(medicineId, MONDAY));
+        assertEquals(3, times.dosesOn(medicineId, MONDAY.plusDays(1)));
+        assertEquals(0, times.dosesOn(UUID.randomUUID(), MONDAY));
+    }
+
+    @Test
+    void nextOccurrence_shouldRollOverToTheNextDueDay() {
+        // Arrange: a weekly Monday dose at 9:00 and an inactive daily dose
+        ScheduleTimes times = ScheduleTimes.of(List.of(
+                schedule(LocalTime.of(9, 0), Schedule.Frequency.WEEKLY, MONDAY.minusWeeks(1)),
+                Schedule.builder()
+                        .medicineId(medicineId)
+                        .timeOfDay(LocalTime.of(7, 0))
+                        .frequency(Schedule.Frequency.DAILY)
+                        .isActive(false)
+                        .createdAt(MONDAY.minusDays(1).atStartOfDay())
+                        .build()));
+
+        // Act & Assert
+        assertEquals(MONDAY.atTime(9, 0), times.nextOccurrence(medicineId, MONDAY.atTime(8, 0)));
+        assertEquals(MONDAY.plusWeeks(1).atTime(9, 0), times.nextOccurrence(medicineId, MONDAY.atTime(9, 1)));
+        assertNull(times.nextOccurrence(UUID.randomUUID(), MONDAY.atTime(8, 0)));
+    }
+
+    private Schedule schedule(LocalTime timeOfDay, Schedule.Frequency frequency, LocalDate createdOn) {
+        return Schedule.builder()
+                .id(UUID.randomUUID())
+                .medicineId(medicineId)
+                .timeOfDay(timeOfDay)
+                .frequency(frequency)
+                .isActive(true)
+                .createdAt(createdOn.atTime(10, 0))
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.medicine.tracker.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UserScopedCacheTest {
+
+    private UserScopedCache<UUID, String> cache;
+
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        cacheInvalidationBus = mock(CacheInvalidationBus.class);
+        cache = new UserScopedCache<>("test", "test-namespace", 100, 10, new SimpleMeterRegistry(), cacheInvalidationBus,
+                key -> key, key -> List.of(UUID.fromString(key)));
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void load_shouldNotStoreValueLoadedBeforeConcurrentInvalidation() {
+        // Act: the write commits while the load is still reading
+        String loaded = cache.load(userId, () -> {
+            cache.invalidate(userId.toString());
+            return "stale";
+        });
+
+        // Assert
+        assertEquals("stale", loaded);
+        assertNull(cache.getIfPresent(userId));
+        verify(cacheInvalidationBus).publish("test-namespace", userId.toString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldAlsoKeepLoadsInFlightOutOfTheCache() {
+        // Arrange
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(cacheInvalidationBus).register(eq("test-namespace"), any(Consumer.class), flush.capture());
+
+        // Act: invalidations from other nodes may have been missed while the load was reading
+        cache.load(userId, () -> {
+            flush.getValue().run();
+            return "stale";
+        });
+
+        // Assert
+        assertNull(cache.getIfPresent(userId));
+    }
+
+    @Test
+    void put_shouldUpdateTheCachedValueWhileTheGenerationIsCurrent() {
+        // Arrange
+        long generation = cache.generation(userId);
+
+        // Act
+        cache.put(userId, generation, existing -> "first");
+        cache.put(userId, generation, existing -> existing + ",second");
+
+        // Assert
+        assertEquals("first,second", cache.getIfPresent(userId));
+    }
+}
@@ -0,0 +1,180 @@
+package com.medicine.tracker.config;
+
+import com.medicine.tracker.model.entity.User;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the routing DataSource on two in-memory databases standing in for the primary and a replica, behind the
+ * LazyConnectionDataSourceProxy of DataSourceConfig and a JpaTransactionManager, as the application does
+ * Each database tells which one served a read through the origin column of the user's row
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    // Replication lag the replica reports through the stand-ins for the PostgreSQL recovery functions
+    private static volatile long replicaLagSeconds;
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private ReplicaRoutingDataSource routingDataSource;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate writeTransaction;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder().id(UUID.randomUUID()).email("user@example.com").dataVersion(7L).build();
+        replicaLagSeconds = 0;
+        primary = database("primary", 7);
+        replica = database("replica", 7);
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica), 30, new SimpleMeterRegistry());
+        routingDataSource.afterPropertiesSet();
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(new DataSourceConfig().dataSource(routingDataSource, primary));
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setManagedTypes(PersistenceManagedTypes.of(UserRow.class.getName()));
+        entityManagerFactory.afterPropertiesSet();
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory.getObject());
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject());
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        entityManagerFactory.destroy();
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readOnlyTransaction_shouldReadFromReplica() {
+        // Act & Assert
+        assertEquals("replica", readOrigin());
+    }
+
+    @Test
+    void writeTransaction_shouldWriteToPrimary() {
+        // Act
+        writeTransaction.executeWithoutResult(status -> entityManager.find(UserRow.class, user.getId()).dataVersion = 8L);
+
+        // Assert
+        assertEquals(8L, dataVersion(primary));
+        assertEquals(7L, dataVersion(replica));
+    }
+
+    @Test
+    void readOnlyTransaction_shouldReadFromPrimaryWhileReplicaIsBehindTheUsersDataVersion() {
+        // Arrange: the user's last write (version 8) has not been replayed yet
+        new JdbcTemplate(primary).update("UPDATE users SET data_version = 8 WHERE id = ?", user.getId());
+        user.setDataVersion(8L);
+
+        // Act & Assert
+        assertEquals("primary", readOrigin());
+    }
+
+    @Test
+    void readOnlyTransaction_shouldReadFromPrimaryWithoutSignedInUser() {
+        // Arrange
+        SecurityContextHolder.clearContext();
+
+        // Act & Assert
+        assertEquals("primary", readOrigin());
+    }
+
+    @Test
+    void readOnlyTransaction_shouldSkipReplicaBehindMaximumLag() {
+        // Arrange
+        replicaLagSeconds = 120;
+        routingDataSource.refreshReplicaLag();
+
+        // Act & Assert
+        assertEquals("primary", readOrigin());
+    }
+
+    public static boolean inRecovery() {
+        return true;
+    }
+
+    public static String lastWalReceiveLsn() {
+        return "0/2";
+    }
+
+    public static String lastWalReplayLsn() {
+        return "0/1";
+    }
+
+    public static Timestamp lastXactReplayTimestamp() {
+        return Timestamp.valueOf(LocalDateTime.now().minusSeconds(replicaLagSeconds));
+    }
+
+    private String readOrigin() {
+        return readOnlyTransaction.execute(status -> entityManager.find(UserRow.class, user.getId()).origin);
+    }
+
+    private long dataVersion(HikariDataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT data_version FROM users WHERE id = ?", Long.class, user.getId());
+    }
+
+    private HikariDataSource database(String origin, long dataVersion) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + origin + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(origin);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id UUID PRIMARY KEY, data_version BIGINT NOT NULL, origin VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO users (id, data_version, origin) VALUES (?, ?, ?)", user.getId(), dataVersion, origin);
+        String functions = ReplicaRoutingDataSourceTest.class.getName();
+        jdbcTemplate.execute("CREATE ALIAS pg_is_in_recovery FOR \"" + functions + ".inRecovery\"");
+        jdbcTemplate.execute("CREATE ALIAS pg_last_wal_receive_lsn FOR \"" + functions + ".lastWalReceiveLsn\"");
+        jdbcTemplate.execute("CREATE ALIAS pg_last_wal_replay_lsn FOR \"" + functions + ".lastWalReplayLsn\"");
+        jdbcTemplate.execute("CREATE ALIAS pg_last_xact_replay_timestamp FOR \"" + functions + ".lastXactReplayTimestamp\"");
+        return dataSource;
+    }
+
+    @Entity(name = "RoutingUser")
+    @Table(name = "users")
+    static class UserRow {
+
+        @Id
+        private UUID id;
+
+        @Column(name = "data_version")
+        private Long dataVersion;
+
+        private String origin;
+    }
+}
@@ -0,0 +1,65 @@
+package com.medicine.tracker.controller;
+
+import com.medicine.tracker.model.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder().id(UUID.randomUUID()).dataVersion(42L).build();
+    }
+
+    @Test
+    void notModified_shouldAnswer304WhenClientHoldsCurrentVersion() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/profiles");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"" + user.getId() + ".42\"");
+
+        // Act
+        ResponseEntity<List<String>> response =
+                ETags.notModified(user, new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("W/\"" + user.getId() + ".42\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void notModified_shouldLetRequestThroughWhenClientVersionIsStale() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/profiles");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"" + user.getId() + ".41\"");
+
+        // Act & Assert
+        assertNull(ETags.notModified(user, new ServletWebRequest(request, new MockHttpServletResponse())));
+    }
+
+    @Test
+    void ok_shouldRequireRevalidationWithTheUserDataETag() {
+        // Act
+        ResponseEntity<List<String>> response = ETags.ok(user, List.of("Aspirin"));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("W/\"" + user.getId() + ".42\"", response.getHeaders().getETag());
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+        assertEquals(List.of("Aspirin"), response.getBody());
+    }
+}
@@ -0,0 +1,196 @@
+package com.medicine.tracker.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicine.tracker.model.entity.IdempotencyKey;
+import com.medicine.tracker.model.entity.User;
+import com.medicine.tracker.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFilterTest {
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private IdempotencyFilter idempotencyFilter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyFilter = new IdempotencyFilter(idempotencyService, new ObjectMapper().findAndRegisterModules());
+        user = User.builder().id(UUID.randomUUID()).email("user@example.com").password("secret").build();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_shouldStoreStatusBodyAndHeadersOfFirstRequest() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            HttpServletResponse response = invocation.getArgument(1);
+            response.setStatus(201);
+            response.setContentType("application/json");
+            response.setHeader(HttpHeaders.ETAG, "\"1\"");
+            response.setHeader(HttpHeaders.LOCATION, "/api/medicines/42");
+            response.getOutputStream().write("{\"id\":42}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        idempotencyFilter.doFilter(request("{\"name\":\"Aspirin\"}"), response, filterChain);
+
+        // Assert
+        verify(idempotencyService).complete(eq(user.getId()), eq("key-1"), anyString(), eq(201), eq("application/json"),
+                eq("\"1\""), eq("/api/medicines/42"), eq("{\"id\":42}".getBytes(StandardCharsets.UTF_8)));
+        verify(idempotencyService, never()).release(any(), anyString());
+        assertEquals(201, response.getStatus());
+        assertEquals("{\"id\":42}", response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_shouldReplayStoredResponseWithItsHeaders() throws Exception {
+        // Arrange: a first pass records the hash the retry is compared against
+        MockHttpServletRequest first = request("{\"name\":\"Aspirin\"}");
+        String hash = hashOf(first);
+        when(idempotencyService.begin(user.getId(), "key-1", hash)).thenReturn(IdempotencyKey.builder()
+                .requestHash(hash)
+                .status(IdempotencyKey.Status.COMPLETED)
+                .responseStatus(201)
+                .contentType("application/json")
+                .responseEtag("\"1\"")
+                .responseLocation("/api/medicines/42")
+                .responseBody("{\"id\":42}".getBytes(StandardCharsets.UTF_8))
+                .build());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        idempotencyFilter.doFilter(request("{\"name\":\"Aspirin\"}"), response, filterChain);
+
+        // Assert
+        assertEquals(201, response.getStatus());
+        assertEquals("{\"id\":42}", response.getContentAsString());
+        assertEquals("\"1\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("/api/medicines/42", response.getHeader(HttpHeaders.LOCATION));
+        assertEquals("true", response.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void doFilter_shouldRejectRetryWhileFirstRequestIsInProgress() throws Exception {
+        // Arrange
+        String hash = hashOf(request("{}"));
+        when(idempotencyService.begin(user.getId(), "key-1", hash)).thenReturn(IdempotencyKey.builder()
+                .requestHash(hash)
+                .status(IdempotencyKey.Status.IN_PROGRESS)
+                .build());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        idempotencyFilter.doFilter(request("{}"), response, filterChain);
+
+        // Assert
+        assertEquals(409, response.getStatus());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void doFilter_shouldRejectKeyReusedForDifferentBody() throws Exception {
+        // Arrange
+        when(idempotencyService.begin(eq(user.getId()), eq("key-1"), anyString())).thenReturn(IdempotencyKey.builder()
+                .requestHash("hash of another body")
+                .status(IdempotencyKey.Status.COMPLETED)
+                .responseStatus(201)
+                .build());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        idempotencyFilter.doFilter(request("{\"name\":\"Ibuprofen\"}"), response, filterChain);
+
+        // Assert
+        assertEquals(422, response.getStatus());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void doFilter_shouldReleaseKeyWhenRequestFailsWithServerError() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            invocation.<HttpServletResponse>getArgument(1).setStatus(503);
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+
+        // Act
+        idempotencyFilter.doFilter(request("{}"), new MockHttpServletResponse(), filterChain);
+
+        // Assert
+        verify(idempotencyService).release(user.getId(), "key-1");
+        verify(idempotencyService, never()).complete(any(), anyString(), anyString(), anyInt(), any(), any(), any(), any());
+    }
+
+    @Test
+    void doFilter_shouldReleaseKeyWhenRequestLosesAVersionConflict() throws Exception {
+        // Arrange: a concurrent write won; the same request can succeed when retried
+        doAnswer(invocation -> {
+            invocation.<HttpServletResponse>getArgument(1).setStatus(412);
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        idempotencyFilter.doFilter(request("{}"), response, filterChain);
+
+        // Assert
+        assertEquals(412, response.getStatus());
+        verify(idempotencyService).release(user.getId(), "key-1");
+        verify(idempotencyService, never()).complete(any(), anyString(), anyString(), anyInt(), any(), any(), any(), any());
+    }
+
+    private MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/medicines/profile/1");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "key-1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    // Runs the request through the filter as a new key to capture the hash the filter computes for it
+    private String hashOf(MockHttpServletRequest request) throws Exception {
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        idempotencyFilter.doFilter(request, new MockHttpServletResponse(), mock(FilterChain.class));
+        verify(idempotencyService, atLeastOnce()).begin(eq(user.getId()), eq("key-1"), captor.capture());
+        clearInvocations(idempotencyService);
+        return captor.getValue();
+    }
+}
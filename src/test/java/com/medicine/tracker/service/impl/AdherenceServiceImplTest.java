@@ -0,0 +1,59 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.model.entity.DoseEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdherenceServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private AdherenceServiceImpl adherenceService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordDoses_shouldOnlyCountTowardsScheduleOfTheEventOwnerAndMedicine() throws Exception {
+        // Arrange
+        DoseEvent event = DoseEvent.builder()
+                .scheduleId(UUID.randomUUID())
+                .medicineId(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .takenAt(LocalDateTime.of(2024, 3, 4, 8, 5))
+                .source(DoseEvent.Source.SCHEDULED)
+                .build();
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<DoseEvent>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+
+        // Act
+        adherenceService.recordDoses(List.of(event));
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(sql.capture(), anyList(), eq(1), setter.capture());
+        assertTrue(sql.getValue().contains("WHERE s.id = ? AND s.user_id = ? AND s.medicine_id = ?"));
+        PreparedStatement statement = mock(PreparedStatement.class);
+        setter.getValue().setValues(statement, event);
+        verify(statement).setObject(6, event.getScheduleId());
+        verify(statement).setObject(7, event.getUserId());
+        verify(statement).setObject(8, event.getMedicineId());
+    }
+}
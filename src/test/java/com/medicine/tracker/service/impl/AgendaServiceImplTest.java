@@ -0,0 +1,175 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.config.PrimaryReads;
+import com.medicine.tracker.model.dto.response.AgendaItemResponse;
+import com.medicine.tracker.model.dto.response.MedicineResponse;
+import com.medicine.tracker.model.entity.DoseEvent;
+import com.medicine.tracker.model.entity.Schedule;
+import com.medicine.tracker.repository.DoseEventRepository;
+import com.medicine.tracker.repository.ScheduleRepository;
+import com.medicine.tracker.service.MedicineService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AgendaServiceImplTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    @Mock
+    private DoseEventRepository doseEventRepository;
+
+    @Mock
+    private MedicineService medicineService;
+
+    @Mock
+    private AgendaCache agendaCache;
+
+    // Runs the loads inline; a real transaction manager is not needed to pick the primary here
+    @Spy
+    private PrimaryReads primaryReads = new PrimaryReads(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private AgendaServiceImpl agendaService;
+
+    private UUID userId;
+    private UUID medicineId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        medicineId = UUID.randomUUID();
+        ReflectionTestUtils.setField(agendaService, "maxRangeDays", 62);
+        ReflectionTestUtils.setField(agendaService, "lateAfterMinutes", 60);
+    }
+
+    @Test
+    void getAgenda_shouldMergeSchedulesInTimeOrder() {
+        // Arrange: a daily evening dose and a weekly Monday morning dose
+        Schedule daily = schedule(LocalTime.of(20, 0), Schedule.Frequency.DAILY, MONDAY.minusDays(30));
+        Schedule weekly = schedule(LocalTime.of(8, 0), Schedule.Frequency.WEEKLY, MONDAY.minusWeeks(1));
+        arrange(List.of(daily, weekly), List.of());
+
+        // Act
+        List<LocalDateTime> times = agendaService.getAgenda(userId, MONDAY, MONDAY.plusDays(7))
+                .map(AgendaItemResponse::getScheduledFor)
+                .collect(Collectors.toList());
+
+        // Assert: 8 evening doses and the morning doses of both Mondays
+        assertEquals(10, times.size());
+        assertEquals(MONDAY.atTime(8, 0), times.get(0));
+        assertEquals(MONDAY.atTime(20, 0), times.get(1));
+        assertEquals(MONDAY.plusDays(7).atTime(8, 0), times.get(8));
+        assertEquals(times.stream().sorted().collect(Collectors.toList()), times);
+    }
+
+    @Test
+    void getAgenda_shouldMarkTakenAndMissedDoses() {
+        // Arrange: the first dose was taken, the second was not
+        Schedule daily = schedule(LocalTime.of(9, 0), Schedule.Frequency.DAILY, MONDAY.minusDays(30));
+        DoseEvent dose = DoseEvent.builder()
+                .scheduleId(daily.getId())
+                .userId(userId)
+                .scheduledFor(MONDAY.atTime(9, 0))
+                .takenAt(MONDAY.atTime(9, 20))
+                .build();
+        arrange(List.of(daily), List.of(dose));
+
+        // Act
+        List<AgendaItemResponse> items = agendaService.getAgenda(userId, MONDAY, MONDAY.plusDays(1))
+                .collect(Collectors.toList());
+
+        // Assert
+        assertEquals(AgendaItemResponse.Status.TAKEN, items.get(0).getStatus());
+        assertEquals(MONDAY.atTime(9, 20), items.get(0).getTakenAt());
+        assertEquals(AgendaItemResponse.Status.MISSED, items.get(1).getStatus());
+        verify(agendaCache).putDays(eq(userId), anyLong(), any());
+    }
+
+    @Test
+    void getAgenda_shouldSkipMonthsWithoutTheDayOfAMonthlySchedule() {
+        // Arrange: created on the 31st
+        Schedule monthly = schedule(LocalTime.of(9, 0), Schedule.Frequency.MONTHLY, LocalDate.of(2024, 1, 31));
+        arrange(List.of(monthly), List.of());
+
+        // Act
+        List<LocalDate> days = agendaService.getAgenda(userId, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 31))
+                .map(item -> item.getScheduledFor().toLocalDate())
+                .collect(Collectors.toList());
+
+        // Assert
+        assertEquals(List.of(LocalDate.of(2024, 3, 31)), days);
+    }
+
+    @Test
+    void getAgenda_shouldServeCachedDaysWithoutQueries() {
+        // Arrange
+        AgendaItemResponse cached = AgendaItemResponse.builder()
+                .scheduleId(UUID.randomUUID())
+                .scheduledFor(MONDAY.atTime(9, 0))
+                .build();
+        when(agendaCache.getDay(userId, MONDAY)).thenReturn(List.of(cached));
+
+        // Act
+        List<AgendaItemResponse> items = agendaService.getAgenda(userId, MONDAY, MONDAY).collect(Collectors.toList());
+
+        // Assert
+        assertEquals(1, items.size());
+        assertEquals(AgendaItemResponse.Status.MISSED, items.get(0).getStatus());
+        verifyNoInteractions(scheduleRepository, doseEventRepository, medicineService);
+    }
+
+    @Test
+    void getAgenda_shouldRejectRangeLongerThanMaximum() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> agendaService.getAgenda(userId, MONDAY, MONDAY.plusDays(62)));
+        assertEquals("Agenda range must not exceed 62 days", exception.getMessage());
+        verifyNoInteractions(scheduleRepository, doseEventRepository);
+    }
+
+    private void arrange(List<Schedule> schedules, List<DoseEvent> doses) {
+        when(agendaCache.getDay(eq(userId), any(LocalDate.class))).thenReturn(null);
+        when(medicineService.getAllMedicinesForUser(userId))
+                .thenReturn(List.of(MedicineResponse.builder().id(medicineId).build()));
+        when(scheduleRepository.findByUserIdAndIsActiveTrue(userId)).thenReturn(schedules);
+        when(doseEventRepository.findByUserIdAndScheduleIdIsNotNullAndTakenAtGreaterThanEqualAndTakenAtLessThan(
+                eq(userId), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(doses);
+    }
+
+    private Schedule schedule(LocalTime timeOfDay, Schedule.Frequency frequency, LocalDate createdOn) {
+        return Schedule.builder()
+                .id(UUID.randomUUID())
+                .medicineId(medicineId)
+                .userId(userId)
+                .timeOfDay(timeOfDay)
+                .frequency(frequency)
+                .isActive(true)
+                .createdAt(createdOn.atStartOfDay())
+                .build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.exception.ResourceNotFoundException;
+import com.medicine.tracker.model.dto.request.BatchOperation;
+import com.medicine.tracker.model.dto.request.BatchRequest;
+import com.medicine.tracker.model.dto.request.ScheduleRequest;
+import com.medicine.tracker.model.dto.response.BatchResponse;
+import com.medicine.tracker.model.dto.response.MedicineResponse;
+import com.medicine.tracker.model.dto.response.ScheduleResponse;
+import com.medicine.tracker.service.MedicineService;
+import com.medicine.tracker.service.ScheduleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchServiceImplTest {
+
+    @Mock
+    private MedicineService medicineService;
+
+    @Mock
+    private ScheduleService scheduleService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private BatchServiceImpl batchService;
+
+    private UUID userId;
+    private UUID profileId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        profileId = UUID.randomUUID();
+    }
+
+    @Test
+    void executeBatch_shouldRollBackOnlyTheFailingOperation() {
+        // Arrange
+        UUID firstMedicineId = UUID.randomUUID();
+        UUID missingMedicineId = UUID.randomUUID();
+        UUID scheduleId = UUID.randomUUID();
+        ScheduleRequest scheduleRequest = ScheduleRequest.builder().isActive(false).build();
+        // The batched dose that cannot be taken is retried on its own, which reports why
+        when(medicineService.takeDoses(eq(userId), any()))
+                .thenReturn(Arrays.asList(MedicineResponse.builder().id(firstMedicineId).quantity(9).build(), null));
+        when(medicineService.takeDose(eq(missingMedicineId), eq(userId), eq(profileId), any()))
+                .thenThrow(new ResourceNotFoundException("Medicine not found"));
+        when(scheduleService.updateSchedule(scheduleId, userId, scheduleRequest, null))
+                .thenReturn(ScheduleResponse.builder().id(scheduleId).isActive(false).build());
+
+        BatchRequest request = BatchRequest.builder().operations(List.of(
+                takeDose("a", firstMedicineId),
+                takeDose("b", missingMedicineId),
+                BatchOperation.builder().clientId("c").type(BatchOperation.Type.UPDATE_SCHEDULE)
+                        .scheduleId(scheduleId).schedule(scheduleRequest).build()
+        )).build();
+
+        // Act
+        BatchResponse response = batchService.executeBatch(userId, request);
+
+        // Assert
+        assertEquals(2, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals(List.of(200, 404, 200), response.getResults().stream().map(result -> result.getStatus()).toList());
+        assertEquals("b", response.getResults().get(1).getClientId());
+        assertEquals("Medicine not found", response.getResults().get(1).getError());
+        // One transaction for the two doses, one for the retried dose and one for the schedule update
+        verify(medicineService, never()).takeDose(eq(firstMedicineId), any(), any(), any());
+        verify(transactionManager, times(3)).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(transactionManager, times(2)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void executeBatch_shouldFailOperationWithMissingIdentifier() {
+        // Arrange
+        BatchRequest request = BatchRequest.builder().operations(List.of(
+                BatchOperation.builder().clientId("a").type(BatchOperation.Type.DELETE_SCHEDULE).build()
+        )).build();
+
+        // Act
+        BatchResponse response = batchService.executeBatch(userId, request);
+
+        // Assert
+        assertEquals(0, response.getSucceeded());
+        assertEquals(400, response.getResults().get(0).getStatus());
+        assertEquals("scheduleId is required for this operation", response.getResults().get(0).getError());
+        verifyNoInteractions(scheduleService);
+    }
+
+    @Test
+    void executeBatch_shouldTakeConsecutiveDosesInOneTransaction() {
+        // Arrange: a run of three doses between two schedule deletions
+        UUID scheduleId = UUID.randomUUID();
+        List<BatchOperation> doses = List.of(
+                takeDose("b", UUID.randomUUID()),
+                takeDose("c", UUID.randomUUID()),
+                takeDose("d", UUID.randomUUID()));
+        when(medicineService.takeDoses(userId, doses)).thenReturn(doses.stream()
+                .map(dose -> MedicineResponse.builder().id(dose.getMedicineId()).build())
+                .toList());
+        List<BatchOperation> operations = new ArrayList<>();
+        operations.add(deleteSchedule("a", scheduleId));
+        operations.addAll(doses);
+        operations.add(deleteSchedule("e", scheduleId));
+
+        // Act
+        BatchResponse response = batchService.executeBatch(userId, BatchRequest.builder().operations(operations).build());
+
+        // Assert
+        assertEquals(5, response.getSucceeded());
+        assertEquals(List.of("a", "b", "c", "d", "e"), response.getResults().stream().map(result -> result.getClientId()).toList());
+        assertEquals(List.of(0, 1, 2, 3, 4), response.getResults().stream().map(result -> result.getIndex()).toList());
+        assertEquals(doses.get(1).getMedicineId(), ((MedicineResponse) response.getResults().get(2).getBody()).getId());
+        verify(medicineService).takeDoses(userId, doses);
+        verify(medicineService, never()).takeDose(any(), any(), any(), any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void executeBatch_shouldRetryDosesOneByOneWhenTheirBatchFails() {
+        // Arrange
+        BatchOperation first = takeDose("a", UUID.randomUUID());
+        BatchOperation second = takeDose("b", UUID.randomUUID());
+        when(medicineService.takeDoses(userId, List.of(first, second))).thenThrow(new RuntimeException("Connection reset"));
+        when(medicineService.takeDose(eq(first.getMedicineId()), eq(userId), eq(profileId), any()))
+                .thenReturn(MedicineResponse.builder().id(first.getMedicineId()).build());
+        when(medicineService.takeDose(eq(second.getMedicineId()), eq(userId), eq(profileId), any()))
+                .thenThrow(new RuntimeException("Medicine quantity is already 0"));
+
+        // Act
+        BatchResponse response = batchService.executeBatch(userId, BatchRequest.builder()
+                .operations(List.of(first, second)).build());
+
+        // Assert
+        assertEquals(List.of(200, 400), response.getResults().stream().map(result -> result.getStatus()).toList());
+        assertEquals("Medicine quantity is already 0", response.getResults().get(1).getError());
+    }
+
+    private BatchOperation deleteSchedule(String clientId, UUID scheduleId) {
+        return BatchOperation.builder()
+                .clientId(clientId)
+                .type(BatchOperation.Type.DELETE_SCHEDULE)
+                .scheduleId(scheduleId)
+                .build();
+    }
+
+    private BatchOperation takeDose(String clientId, UUID medicineId) {
+        return BatchOperation.builder()
+                .clientId(clientId)
+                .type(BatchOperation.Type.TAKE_DOSE)
+                .profileId(profileId)
+                .medicineId(medicineId)
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.exception.ResourceNotFoundException;
+import com.medicine.tracker.model.dto.request.BatchOperation;
+import com.medicine.tracker.model.dto.request.BatchRequest;
+import com.medicine.tracker.model.dto.response.BatchResponse;
+import com.medicine.tracker.model.dto.response.MedicineResponse;
+import com.medicine.tracker.service.MedicineService;
+import com.medicine.tracker.service.ScheduleService;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs batches against a real JPA transaction manager on an in-memory database, where a failing service
+ * that joined an outer transaction would mark it rollback-only; the mock-based BatchServiceImplTest cannot see that
+ */
+class BatchServiceTransactionTest {
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private JpaTransactionManager transactionManager;
+    private EntityManager entityManager;
+    private MedicineService medicineService;
+    private BatchServiceImpl batchService;
+
+    private UUID userId;
+    private UUID profileId;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:batch-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setManagedTypes(PersistenceManagedTypes.of(DoseRow.class.getName()));
+        entityManagerFactory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+        entityManagerFactory.afterPropertiesSet();
+
+        transactionManager = new JpaTransactionManager(entityManagerFactory.getObject());
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject());
+        medicineService = mock(MedicineService.class);
+        batchService = new BatchServiceImpl(medicineService, mock(ScheduleService.class), transactionManager);
+
+        userId = UUID.randomUUID();
+        profileId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.destroy();
+    }
+
+    @Test
+    void executeBatch_shouldCommitOperationsAroundAFailingOne() {
+        // Arrange: each take writes a row in a transaction it joins, as @Transactional services do; the batched
+        // takes write the doses they could take, and the one they could not is retried on its own and fails
+        UUID first = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(medicineService.takeDoses(eq(userId), any())).thenAnswer(invocation -> {
+            List<BatchOperation> doses = invocation.getArgument(1);
+            return new TransactionTemplate(transactionManager).execute(status -> doses.stream()
+                    .map(dose -> {
+                        if (dose.getMedicineId().equals(missing)) {
+                            return null;
+                        }
+                        entityManager.persist(new DoseRow(dose.getMedicineId()));
+                        return MedicineResponse.builder().id(dose.getMedicineId()).build();
+                    })
+                    .toList());
+        });
+        when(medicineService.takeDose(any(UUID.class), eq(userId), eq(profileId), any())).thenAnswer(invocation -> {
+            UUID medicineId = invocation.getArgument(0);
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                entityManager.persist(new DoseRow(medicineId));
+                entityManager.flush();
+                if (medicineId.equals(missing)) {
+                    throw new ResourceNotFoundException("Medicine not found");
+                }
+                return null;
+            });
+        });
+        BatchRequest request = BatchRequest.builder().operations(List.of(
+                takeDose("a", first),
+                takeDose("b", missing),
+                takeDose("c", third)
+        )).build();
+
+        // Act
+        BatchResponse response = batchService.executeBatch(userId, request);
+
+        // Assert
+        assertEquals(List.of(200, 404, 200), response.getResults().stream().map(result -> result.getStatus()).toList());
+        List<UUID> committed = new TransactionTemplate(transactionManager).execute(status -> entityManager
+                .createQuery("SELECT r.medicineId FROM BatchDoseRow r", UUID.class)
+                .getResultList());
+        assertEquals(2, committed.size());
+        assertTrue(committed.containsAll(List.of(first, third)));
+    }
+
+    private BatchOperation takeDose(String clientId, UUID medicineId) {
+        return BatchOperation.builder()
+                .clientId(clientId)
+                .type(BatchOperation.Type.TAKE_DOSE)
+                .profileId(profileId)
+                .medicineId(medicineId)
+                .build();
+    }
+
+    @Entity(name = "BatchDoseRow")
+    @Table(name = "batch_dose_rows")
+    static class DoseRow {
+
+        @Id
+        private UUID medicineId;
+
+        protected DoseRow() {
+        }
+
+        DoseRow(UUID medicineId) {
+            this.medicineId = medicineId;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.model.dto.response.DashboardResponse;
+import com.medicine.tracker.model.dto.response.MedicineResponse;
+import com.medicine.tracker.model.dto.response.ProfileResponse;
+import com.medicine.tracker.model.dto.response.ScheduleResponse;
+import com.medicine.tracker.service.MedicineService;
+import com.medicine.tracker.service.ProfileService;
+import com.medicine.tracker.service.ScheduleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceImplTest {
+
+    @Mock
+    private ProfileService profileService;
+
+    @Mock
+    private MedicineService medicineService;
+
+    @Mock
+    private ScheduleService scheduleService;
+
+    @InjectMocks
+    private DashboardServiceImpl dashboardService;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        ReflectionTestUtils.setField(dashboardService, "lowStockDays", 5);
+    }
+
+    @Test
+    void getDashboard_shouldNestMedicinesAndSchedulesUnderTheirProfiles() {
+        // Arrange
+        UUID momId = UUID.randomUUID();
+        UUID dadId = UUID.randomUUID();
+        UUID aspirinId = UUID.randomUUID();
+        UUID insulinId = UUID.randomUUID();
+        when(profileService.getAllProfiles(userId)).thenReturn(List.of(
+                ProfileResponse.builder().id(momId).name("Mom").build(),
+                ProfileResponse.builder().id(dadId).name("Dad").build()));
+        when(medicineService.getAllMedicinesForUser(userId)).thenReturn(List.of(
+                medicine(aspirinId, momId, LocalDate.now().plusYears(1), null),
+                medicine(insulinId, momId, LocalDate.now().plusDays(10), LocalDate.now().plusDays(2))));
+        when(scheduleService.getSchedulesForUser(userId)).thenReturn(List.of(
+                schedule(insulinId, LocalTime.of(20, 0)),
+                schedule(insulinId, LocalTime.of(8, 0))));
+
+        // Act
+        DashboardResponse dashboard = dashboardService.getDashboard(userId);
+
+        // Assert
+        assertEquals(2, dashboard.getProfiles().size());
+        DashboardResponse.ProfileDashboard mom = dashboard.getProfiles().get(0);
+        assertEquals("Mom", mom.getProfile().getName());
+        assertEquals(2, mom.getMedicines().size());
+        DashboardResponse.MedicineDashboard insulin = mom.getMedicines().get(1);
+        assertEquals(insulinId, insulin.getMedicine().getId());
+        assertEquals(List.of(LocalTime.of(8, 0), LocalTime.of(20, 0)),
+                insulin.getSchedules().stream().map(ScheduleResponse::getTimeOfDay).toList());
+        assertTrue(mom.getMedicines().get(0).getSchedules().isEmpty());
+        assertTrue(dashboard.getProfiles().get(1).getMedicines().isEmpty());
+        assertEquals(1, dashboard.getExpiringCount());
+        assertEquals(1, dashboard.getLowStockCount());
+        verify(profileService, times(1)).getAllProfiles(userId);
+        verify(medicineService, times(1)).getAllMedicinesForUser(userId);
+        verify(scheduleService, times(1)).getSchedulesForUser(userId);
+        verifyNoMoreInteractions(profileService, medicineService, scheduleService);
+    }
+
+    private MedicineResponse medicine(UUID id, UUID profileId, LocalDate expiryDate, LocalDate runsOutOn) {
+        return MedicineResponse.builder()
+                .id(id)
+                .userId(userId)
+                .profileId(profileId)
+                .expiryDate(expiryDate)
+                .runsOutOn(runsOutOn)
+                .build();
+    }
+
+    private ScheduleResponse schedule(UUID medicineId, LocalTime timeOfDay) {
+        return ScheduleResponse.builder()
+                .id(UUID.randomUUID())
+                .medicineId(medicineId)
+                .userId(userId)
+                .timeOfDay(timeOfDay)
+                .build();
+    }
+}
@@ -0,0 +1,197 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.cache.ProfileDirectory;
+import com.medicine.tracker.model.entity.DoseEvent;
+import com.medicine.tracker.repository.DoseEventRepository;
+import com.medicine.tracker.service.AdherenceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DoseEventServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DoseEventRepository doseEventRepository;
+
+    @Mock
+    private ProfileDirectory profileDirectory;
+
+    @Mock
+    private AdherenceService adherenceService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private AgendaCache agendaCache;
+
+    @InjectMocks
+    private DoseEventServiceImpl doseEventService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+        ReflectionTestUtils.setField(doseEventService, "batchSize", 10);
+        ReflectionTestUtils.setField(doseEventService, "flushIntervalMs", 50L);
+        ReflectionTestUtils.setField(doseEventService, "queueCapacity", 100);
+        ReflectionTestUtils.setField(doseEventService, "syncTimeoutMs", 2000L);
+        doseEventService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        doseEventService.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_shouldWriteBufferedEventsInOneBatch() {
+        // Act
+        for (int i = 0; i < 5; i++) {
+            doseEventService.record(doseEvent());
+        }
+        doseEventService.flush();
+
+        // Assert
+        ArgumentCaptor<Collection<DoseEvent>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), captor.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        int written = captor.getAllValues().stream().mapToInt(Collection::size).sum();
+        assertEquals(5, written);
+        assertTrue(captor.getAllValues().size() < 5);
+        verify(adherenceService, atLeastOnce()).recordDoses(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordSynchronously_shouldReturnAfterEventIsWritten() {
+        // Arrange
+        DoseEvent event = doseEvent();
+
+        // Act
+        doseEventService.recordSynchronously(event);
+
+        // Assert
+        ArgumentCaptor<Collection<DoseEvent>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertTrue(captor.getValue().contains(event));
+        assertNotNull(event.getId());
+        assertNotNull(event.getTakenAt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordSynchronously_shouldFailWhenBatchCannotBeWritten() {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new RuntimeException("connection refused"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> doseEventService.recordSynchronously(doseEvent()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_shouldOnlyQueueEventOnceTransactionCommits() {
+        // Arrange: one event in a transaction that rolls back, one in a transaction that commits
+        DoseEvent rolledBack = doseEvent();
+        DoseEvent committed = doseEvent();
+
+        // Act
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            doseEventService.record(rolledBack);
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            doseEventService.record(committed);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        doseEventService.flush();
+
+        // Assert
+        ArgumentCaptor<Collection<DoseEvent>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(committed), List.copyOf(captor.getValue()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_shouldDropOnlyTheEventThatCannotBeWritten() {
+        // Arrange: three events fill one batch, and any insert containing the bad one fails
+        ReflectionTestUtils.setField(doseEventService, "batchSize", 3);
+        ReflectionTestUtils.setField(doseEventService, "flushIntervalMs", 1000L);
+        DoseEvent bad = doseEvent();
+        List<DoseEvent> written = new CopyOnWriteArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    Collection<DoseEvent> events = invocation.getArgument(1);
+                    if (events.contains(bad)) {
+                        throw new RuntimeException("value too long");
+                    }
+                    written.addAll(events);
+                    return new int[0][];
+                });
+        DoseEvent first = doseEvent();
+        DoseEvent third = doseEvent();
+
+        // Act
+        doseEventService.record(first);
+        doseEventService.record(bad);
+        doseEventService.record(third);
+        doseEventService.flush();
+
+        // Assert: tried as a batch twice, then one by one
+        assertEquals(List.of(first, third), written);
+        verify(jdbcTemplate, times(5)).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    private DoseEvent doseEvent() {
+        return DoseEvent.builder()
+                .medicineId(UUID.randomUUID())
+                .profileId(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .quantityDelta(-1)
+                .source(DoseEvent.Source.MANUAL)
+                .build();
+    }
+}
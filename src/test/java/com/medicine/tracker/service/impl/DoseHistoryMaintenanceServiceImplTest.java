@@ -0,0 +1,152 @@
+package com.medicine.tracker.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DoseHistoryMaintenanceServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private DoseHistoryMaintenanceServiceImpl doseHistoryMaintenanceService;
+
+    @BeforeEach
+    void setUp() {
+        doseHistoryMaintenanceService = new DoseHistoryMaintenanceServiceImpl(
+                jdbcTemplate, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(doseHistoryMaintenanceService, "partitionsAheadMonths", 1);
+        ReflectionTestUtils.setField(doseHistoryMaintenanceService, "retentionMonths", 13);
+    }
+
+    @Test
+    void createUpcomingPartitions_shouldCoverWholeMonthsFromTheFirstDay() {
+        // Arrange
+        YearMonth current = YearMonth.now();
+        when(jdbcTemplate.queryForObject(startsWith("SELECT to_regclass"), eq(Boolean.class), anyString())).thenReturn(false);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*) FROM dose_events_default"), eq(Integer.class))).thenReturn(0);
+
+        // Act
+        doseHistoryMaintenanceService.createUpcomingPartitions();
+
+        // Assert
+        verify(jdbcTemplate).execute(partitionSql(current));
+        verify(jdbcTemplate).execute(partitionSql(current.plusMonths(1)));
+        verify(jdbcTemplate, times(2)).execute(startsWith("CREATE TABLE"));
+    }
+
+    @Test
+    void createUpcomingPartitions_shouldMoveStrayEventsOutOfTheDefaultPartitionFirst() {
+        // Arrange: only next month is missing, and the default partition holds events for it
+        YearMonth next = YearMonth.now().plusMonths(1);
+        String range = "WHERE taken_at >= '" + next.atDay(1) + "' AND taken_at < '" + next.plusMonths(1).atDay(1) + "'";
+        when(jdbcTemplate.queryForObject(startsWith("SELECT to_regclass"), eq(Boolean.class), anyString()))
+                .thenAnswer(invocation -> !invocation.getArgument(2, String.class).equals(partitionName(next)));
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM dose_events_default " + range, Integer.class)).thenReturn(4);
+
+        // Act
+        doseHistoryMaintenanceService.createUpcomingPartitions();
+
+        // Assert
+        assertEquals(List.of(
+                "CREATE TEMP TABLE dose_events_moving ON COMMIT DROP AS SELECT * FROM dose_events_default " + range,
+                "DELETE FROM dose_events_default " + range,
+                partitionSql(next),
+                "INSERT INTO dose_events (id, medicine_id, schedule_id, scheduled_for, profile_id, user_id, taken_at, "
+                        + "quantity_delta, source) SELECT id, medicine_id, schedule_id, scheduled_for, profile_id, user_id, "
+                        + "taken_at, quantity_delta, source FROM dose_events_moving",
+                "DROP TABLE dose_events_moving"
+        ), executedStatements());
+    }
+
+    @Test
+    void ensurePartitioned_shouldConvertPlainTableKeepingItsRows() {
+        // Arrange: the oldest event is from last month
+        YearMonth current = YearMonth.now();
+        when(jdbcTemplate.query(contains("relkind"), ArgumentMatchers.<ResultSetExtractor<String>>any(), eq("dose_events")))
+                .thenReturn("r");
+        when(jdbcTemplate.queryForObject(contains("MIN(taken_at)"), eq(LocalDate.class)))
+                .thenReturn(current.minusMonths(1).atDay(15));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT to_regclass"), eq(Boolean.class), anyString())).thenReturn(false);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*) FROM dose_events_default"), eq(Integer.class))).thenReturn(0);
+        when(jdbcTemplate.update(startsWith("INSERT INTO dose_events"))).thenReturn(12);
+
+        // Act
+        doseHistoryMaintenanceService.ensurePartitioned();
+
+        // Assert
+        List<String> statements = executedStatements();
+        assertEquals(List.of(
+                "LOCK TABLE dose_events IN ACCESS EXCLUSIVE MODE",
+                "ALTER TABLE dose_events RENAME TO dose_events_unpartitioned",
+                "ALTER TABLE dose_events_unpartitioned DROP CONSTRAINT IF EXISTS dose_events_pkey",
+                "DROP INDEX IF EXISTS idx_dose_events_medicine_id_taken_at",
+                "DROP INDEX IF EXISTS idx_dose_events_profile_id_taken_at",
+                "DROP INDEX IF EXISTS idx_dose_events_user_id_taken_at"
+        ), statements.subList(0, 6));
+        String parent = statements.get(6);
+        assertTrue(parent.startsWith("CREATE TABLE dose_events ("));
+        assertTrue(parent.contains("scheduled_for TIMESTAMPTZ, "));
+        assertTrue(parent.contains("taken_at TIMESTAMPTZ NOT NULL, "));
+        assertTrue(parent.endsWith(") PARTITION BY RANGE (taken_at)"));
+        assertEquals("CREATE TABLE dose_events_default PARTITION OF dose_events DEFAULT", statements.get(10));
+        assertEquals(List.of(
+                partitionSql(current.minusMonths(1)),
+                partitionSql(current),
+                partitionSql(current.plusMonths(1)),
+                "DROP TABLE dose_events_unpartitioned"
+        ), statements.subList(11, statements.size()));
+        verify(jdbcTemplate).update("INSERT INTO dose_events (id, medicine_id, schedule_id, scheduled_for, profile_id, "
+                + "user_id, taken_at, quantity_delta, source) SELECT id, medicine_id, schedule_id, scheduled_for, profile_id, "
+                + "user_id, taken_at, quantity_delta, source FROM dose_events_unpartitioned");
+    }
+
+    @Test
+    void ensurePartitioned_shouldLeavePartitionedTableAlone() {
+        // Arrange
+        when(jdbcTemplate.query(contains("relkind"), ArgumentMatchers.<ResultSetExtractor<String>>any(), eq("dose_events")))
+                .thenReturn("p");
+
+        // Act
+        doseHistoryMaintenanceService.ensurePartitioned();
+
+        // Assert
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    private List<String> executedStatements() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sql.capture());
+        return sql.getAllValues();
+    }
+
+    private String partitionName(YearMonth month) {
+        return String.format("dose_events_p%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private String partitionSql(YearMonth month) {
+        return "CREATE TABLE " + partitionName(month) + " PARTITION OF dose_events FOR VALUES FROM ('"
+                + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+}
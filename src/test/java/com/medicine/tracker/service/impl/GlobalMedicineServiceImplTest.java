@@ -0,0 +1,137 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.model.dto.request.GlobalMedicineRequest;
+import com.medicine.tracker.model.dto.request.GlobalMedicineSearchRequest;
+import com.medicine.tracker.model.dto.response.GlobalMedicinePageResponse;
+import com.medicine.tracker.model.dto.response.GlobalMedicineResponse;
+import com.medicine.tracker.model.entity.GlobalMedicine;
+import com.medicine.tracker.repository.GlobalMedicineRepository;
+import com.medicine.tracker.service.MergePatchService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GlobalMedicineServiceImplTest {
+
+    @Mock
+    private GlobalMedicineRepository globalMedicineRepository;
+
+    @Mock
+    private MergePatchService mergePatchService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private GlobalMedicineServiceImpl globalMedicineService;
+
+    @Test
+    void searchGlobalMedicines_shouldMatchEveryWordAsPrefixAndReportNextPage() {
+        // Arrange: one row more than the page size comes back
+        when(globalMedicineRepository.searchByText("ibu:* & 200:*", 3, 4))
+                .thenReturn(List.of(medicine("Ibuprofen 200"), medicine("Ibuprofen 200 Forte"), medicine("Ibuprom 200")));
+        GlobalMedicineSearchRequest request = GlobalMedicineSearchRequest.builder()
+                .name("  IBU & 200 | ibu!")
+                .page(2)
+                .size(2)
+                .build();
+
+        // Act
+        GlobalMedicinePageResponse page = globalMedicineService.searchGlobalMedicines(request);
+
+        // Assert: operators in the text are dropped rather than passed to to_tsquery
+        assertEquals(List.of("Ibuprofen 200", "Ibuprofen 200 Forte"),
+                page.getItems().stream().map(GlobalMedicineResponse::getName).toList());
+        assertTrue(page.isHasMore());
+        assertEquals(2, page.getPage());
+        assertEquals(2, page.getSize());
+    }
+
+    @Test
+    void searchGlobalMedicines_shouldNotQueryWhenTextHoldsNoWords() {
+        // Arrange
+        GlobalMedicineSearchRequest request = GlobalMedicineSearchRequest.builder().name(" :* & ").build();
+
+        // Act
+        GlobalMedicinePageResponse page = globalMedicineService.searchGlobalMedicines(request);
+
+        // Assert
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.isHasMore());
+        assertEquals(20, page.getSize());
+        verifyNoInteractions(globalMedicineRepository);
+    }
+
+    @Test
+    void searchGlobalMedicines_shouldIgnoreSingleCharacterWords() {
+        // Arrange
+        when(globalMedicineRepository.searchByText("vitamin:*", 21, 0)).thenReturn(List.of(medicine("Vitamin B")));
+        GlobalMedicineSearchRequest request = GlobalMedicineSearchRequest.builder().name("Vitamin b").build();
+
+        // Act
+        GlobalMedicinePageResponse page = globalMedicineService.searchGlobalMedicines(request);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertTrue(globalMedicineService.searchGlobalMedicines(
+                GlobalMedicineSearchRequest.builder().name("a b c").build()).getItems().isEmpty());
+        verify(globalMedicineRepository, times(1)).searchByText(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void searchGlobalMedicines_shouldStopPagingAtResultLimit() {
+        // Arrange: page 4 of 100 ends at the 500th result
+        when(globalMedicineRepository.searchByText("ibu:*", 101, 400))
+                .thenReturn(Collections.nCopies(101, medicine("Ibuprofen")));
+        GlobalMedicineSearchRequest lastPage = GlobalMedicineSearchRequest.builder().name("ibu").page(4).size(100).build();
+        GlobalMedicineSearchRequest beyond = GlobalMedicineSearchRequest.builder().name("ibu").page(5).size(100).build();
+
+        // Act
+        GlobalMedicinePageResponse page = globalMedicineService.searchGlobalMedicines(lastPage);
+
+        // Assert
+        assertEquals(100, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertThrows(RuntimeException.class, () -> globalMedicineService.searchGlobalMedicines(beyond));
+        verify(globalMedicineRepository, times(1)).searchByText(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void createGlobalMedicine_shouldBuildSearchDocumentAfterFlush() {
+        // Arrange
+        GlobalMedicine saved = medicine("Paracetamol");
+        when(globalMedicineRepository.save(any(GlobalMedicine.class))).thenReturn(saved);
+
+        // Act
+        globalMedicineService.createGlobalMedicine(GlobalMedicineRequest.builder().name("Paracetamol").build());
+
+        // Assert
+        var order = inOrder(globalMedicineRepository, jdbcTemplate);
+        order.verify(globalMedicineRepository).flush();
+        order.verify(jdbcTemplate).update(contains("SET search_vector"), eq(saved.getId()));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    private GlobalMedicine medicine(String name) {
+        return GlobalMedicine.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.model.entity.IdempotencyKey;
+import com.medicine.tracker.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @InjectMocks
+    private IdempotencyServiceImpl idempotencyService;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "lockTimeoutSeconds", 60L);
+        ReflectionTestUtils.setField(idempotencyService, "cacheMaximumSize", 100L);
+        idempotencyService.init();
+    }
+
+    @Test
+    void begin_shouldClaimUnusedKey() {
+        // Arrange
+        when(jdbcTemplate.update(startsWith("INSERT INTO idempotency_keys"), any(), any(), any(), any())).thenReturn(1);
+
+        // Act
+        IdempotencyKey existing = idempotencyService.begin(userId, "key-1", "hash");
+
+        // Assert
+        assertNull(existing);
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @Test
+    void begin_shouldReturnKeyHeldByAnotherRequest() {
+        // Arrange
+        IdempotencyKey inProgress = IdempotencyKey.builder()
+                .requestHash("hash")
+                .status(IdempotencyKey.Status.IN_PROGRESS)
+                .expiresAt(LocalDateTime.now().plusMinutes(1))
+                .build();
+        when(jdbcTemplate.update(startsWith("INSERT INTO idempotency_keys"), any(), any(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById(anyString())).thenReturn(Optional.of(inProgress));
+
+        // Act
+        IdempotencyKey existing = idempotencyService.begin(userId, "key-1", "hash");
+
+        // Assert
+        assertSame(inProgress, existing);
+    }
+
+    @Test
+    void begin_shouldReplayCompletedKeyFromCacheWithoutDatabase() {
+        // Arrange
+        byte[] body = "{\"quantity\":9}".getBytes(StandardCharsets.UTF_8);
+        when(jdbcTemplate.update(startsWith("UPDATE idempotency_keys"), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(1);
+        idempotencyService.complete(userId, "key-1", "hash", 200, "application/json", "\"3\"", "/api/medicines/1", body);
+
+        // Act
+        IdempotencyKey existing = idempotencyService.begin(userId, "key-1", "hash");
+
+        // Assert
+        assertEquals(IdempotencyKey.Status.COMPLETED, existing.getStatus());
+        assertEquals(200, existing.getResponseStatus());
+        assertArrayEquals(body, existing.getResponseBody());
+        assertEquals("\"3\"", existing.getResponseEtag());
+        assertEquals("/api/medicines/1", existing.getResponseLocation());
+        verify(jdbcTemplate, never()).update(startsWith("INSERT INTO idempotency_keys"), any(), any(), any(), any());
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+}
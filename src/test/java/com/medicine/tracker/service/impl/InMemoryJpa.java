@@ -0,0 +1,144 @@
+package com.medicine.tracker.service.impl;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JPA on an in-memory H2 database that counts what actually reaches the database
+ * Every connection checkout and every statement prepared on a connection is counted, whether it comes from
+ * Hibernate, including lazy loads, or from JdbcTemplate; mock-based tests cannot see either
+ */
+final class InMemoryJpa implements AutoCloseable {
+
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "prepareCall", "createStatement");
+
+    private final AtomicInteger checkouts = new AtomicInteger();
+    private final AtomicInteger statements = new AtomicInteger();
+    private final LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private final JpaTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Create the database with the tables of the given entities
+     * @param entities The entity classes to map
+     */
+    InMemoryJpa(Class<?>... entities) {
+        // JSONB columns are declared through columnDefinition, which H2 only knows as JSON
+        DriverManagerDataSource database = new DriverManagerDataSource("jdbc:h2:mem:jpa-" + UUID.randomUUID()
+                + ";DB_CLOSE_DELAY=-1;INIT=CREATE DOMAIN IF NOT EXISTS JSONB AS JSON", "sa", "");
+        DelegatingDataSource dataSource = new DelegatingDataSource(database) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                checkouts.incrementAndGet();
+                return countingStatements(super.getConnection());
+            }
+        };
+
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setManagedTypes(PersistenceManagedTypes.of(
+                Arrays.stream(entities).map(Class::getName).toList(), List.of()));
+        entityManagerFactory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+        entityManagerFactory.afterPropertiesSet();
+
+        transactionManager = new JpaTransactionManager(entityManagerFactory.getObject());
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        reset();
+    }
+
+    /**
+     * Create a Spring Data repository on the database
+     * @param repositoryInterface The repository interface
+     * @param fragments Implementations of the custom fragments of the repository
+     * @return The repository
+     */
+    <T> T repository(Class<T> repositoryInterface, Object... fragments) {
+        return new JpaRepositoryFactory(entityManager)
+                .getRepository(repositoryInterface, RepositoryComposition.RepositoryFragments.just(fragments));
+    }
+
+    /**
+     * Wrap a service so its @Transactional methods run in transactions, as the Spring proxy would
+     * @param service The service implementation
+     * @param serviceInterface The interface callers use
+     * @return The transactional service
+     */
+    <T> T transactional(Object service, Class<T> serviceInterface) {
+        ProxyFactory proxyFactory = new ProxyFactory(service);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        return serviceInterface.cast(proxyFactory.getProxy());
+    }
+
+    /**
+     * Start counting from zero, e.g. after the test data was written
+     */
+    void reset() {
+        checkouts.set(0);
+        statements.set(0);
+    }
+
+    int checkouts() {
+        return checkouts.get();
+    }
+
+    int statements() {
+        return statements.get();
+    }
+
+    JpaTransactionManager transactionManager() {
+        return transactionManager;
+    }
+
+    EntityManager entityManager() {
+        return entityManager;
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    @Override
+    public void close() {
+        entityManagerFactory.destroy();
+    }
+
+    private Connection countingStatements(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (STATEMENT_METHODS.contains(method.getName())) {
+                        statements.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,321 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.cache.ScheduleTimesCache;
+import com.medicine.tracker.cache.MedicineListCache;
+import com.medicine.tracker.cache.ProfileDirectory;
+import com.medicine.tracker.model.dto.request.MedicinePageRequest;
+import com.medicine.tracker.model.dto.request.TakeDoseRequest;
+import com.medicine.tracker.model.dto.response.MedicinePageResponse;
+import com.medicine.tracker.model.entity.Medicine;
+import com.medicine.tracker.model.entity.Schedule;
+import com.medicine.tracker.model.entity.SyncTombstone;
+import com.medicine.tracker.repository.MedicineRepository;
+import com.medicine.tracker.repository.ScheduleRepository;
+import com.medicine.tracker.repository.SyncTombstoneRepository;
+import com.medicine.tracker.service.DoseEventService;
+import com.medicine.tracker.service.RefillForecastService;
+import com.medicine.tracker.service.UserDataVersionService;
+import com.medicine.tracker.service.UserSummaryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MedicineServiceImplTest {
+
+    @Mock
+    private MedicineRepository medicineRepository;
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    @Mock
+    private ProfileDirectory profileDirectory;
+
+    @Mock
+    private DoseEventService doseEventService;
+
+    @Mock
+    private RefillForecastService refillForecastService;
+
+    @Mock
+    private MedicineListCache medicineListCache;
+
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    @Mock
+    private UserSummaryService userSummaryService;
+
+    @Mock
+    private AgendaCache agendaCache;
+
+    @Mock
+    private ScheduleTimesCache scheduleTimesCache;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    @InjectMocks
+    private MedicineServiceImpl medicineService;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void getMedicinesPageForUser_shouldReturnCursorThatResumesAfterLastMedicine() {
+        // Arrange
+        List<Medicine> firstPage = IntStream.range(0, 3)
+                .mapToObj(i -> Medicine.builder()
+                        .id(UUID.randomUUID())
+                        .userId(userId)
+                        .name("Medicine " + i)
+                        .quantity(10)
+                        .expiryDate(LocalDate.of(2030, 1, 1 + i))
+                        .build())
+                .collect(Collectors.toList());
+        when(medicineRepository.findPage(eq(userId), isNull(), any(MedicinePageRequest.class), isNull(), eq(3)))
+                .thenReturn(firstPage);
+        MedicinePageRequest pageRequest = MedicinePageRequest.builder().limit(2).build();
+
+        // Act
+        MedicinePageResponse page = medicineService.getMedicinesPageForUser(userId, pageRequest);
+        pageRequest.setCursor(page.getNextCursor());
+        medicineService.getMedicinesPageForUser(userId, pageRequest);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        verify(medicineRepository).findPage(eq(userId), isNull(), any(MedicinePageRequest.class),
+                argThat(after -> after != null
+                        && after.getId().equals(firstPage.get(1).getId())
+                        && after.getExpiryDate().equals(firstPage.get(1).getExpiryDate())),
+                eq(3));
+    }
+
+    @Test
+    void getMedicinesPageForUser_shouldDefaultSortWithoutChangingTheRequest() {
+        // Arrange
+        when(medicineRepository.findPage(eq(userId), isNull(), any(MedicinePageRequest.class), isNull(), eq(3)))
+                .thenReturn(List.of());
+        MedicinePageRequest pageRequest = MedicinePageRequest.builder().limit(2).namePrefix("Asp").build();
+
+        // Act
+        medicineService.getMedicinesPageForUser(userId, pageRequest);
+
+        // Assert
+        assertNull(pageRequest.getSort());
+        verify(medicineRepository).findPage(eq(userId), isNull(),
+                argThat(request -> request != pageRequest
+                        && request.getSort() == MedicinePageRequest.SortField.EXPIRY
+                        && "Asp".equals(request.getNamePrefix())),
+                isNull(), eq(3));
+    }
+
+    @Test
+    void getMedicinesPageForUser_shouldRejectCursorOfDifferentSortOrder() {
+        // Arrange
+        Medicine last = Medicine.builder().id(UUID.randomUUID()).name("Aspirin").quantity(1).expiryDate(LocalDate.now()).build();
+        when(medicineRepository.findPage(eq(userId), isNull(), any(MedicinePageRequest.class), isNull(), eq(2)))
+                .thenReturn(List.of(last, last));
+        MedicinePageRequest byName = MedicinePageRequest.builder()
+                .limit(1)
+                .sort(MedicinePageRequest.SortField.NAME)
+                .build();
+        String cursor = medicineService.getMedicinesPageForUser(userId, byName).getNextCursor();
+        MedicinePageRequest byExpiry = MedicinePageRequest.builder()
+                .limit(1)
+                .sort(MedicinePageRequest.SortField.EXPIRY)
+                .cursor(cursor)
+                .build();
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> medicineService.getMedicinesPageForUser(userId, byExpiry));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void takeDose_shouldCheckOwnershipAndQuantityInTheDecrement() {
+        // Arrange
+        UUID profileId = UUID.randomUUID();
+        Medicine medicine = Medicine.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .profileId(profileId)
+                .name("Aspirin")
+                .quantity(4)
+                .status(Medicine.MedicineStatus.ACTIVE)
+                .build();
+        Medicine previous = Medicine.builder().status(Medicine.MedicineStatus.ACTIVE).build();
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(userId), eq(medicine.getId()), eq(userId), eq(profileId), isNull(), isNull()))
+                .thenReturn(List.of(previous));
+        when(medicineRepository.findById(medicine.getId())).thenReturn(Optional.of(medicine));
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        // Act
+        var result = medicineService.takeDose(medicine.getId(), userId, profileId, null);
+
+        // Assert: no read-modify-write, so a concurrent dose cannot fail the optimistic version check
+        assertEquals(4, result.getQuantity());
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), eq(userId), eq(medicine.getId()), eq(userId), eq(profileId), isNull(), isNull());
+        assertTrue(sql.getValue().contains("quantity = m.quantity - 1"));
+        assertTrue(sql.getValue().contains("m.quantity > 0"));
+        verify(medicineRepository, never()).save(any(Medicine.class));
+        verify(userSummaryService).applyMedicineChange(userId, previous, medicine);
+        verifyNoInteractions(profileDirectory);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void takeDose_shouldSendTheDecrementAndTheReadBackOnly() {
+        // Arrange: a scheduled dose, whose schedule check is part of the decrement
+        UUID profileId = UUID.randomUUID();
+        Medicine medicine = Medicine.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .profileId(profileId)
+                .quantity(4)
+                .status(Medicine.MedicineStatus.ACTIVE)
+                .build();
+        UUID scheduleId = UUID.randomUUID();
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(userId), eq(medicine.getId()), eq(userId), eq(profileId), eq(scheduleId), eq(scheduleId)))
+                .thenReturn(List.of(Medicine.builder().status(Medicine.MedicineStatus.ACTIVE).build()));
+        when(medicineRepository.findById(medicine.getId())).thenReturn(Optional.of(medicine));
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        // Act
+        medicineService.takeDose(medicine.getId(), userId, profileId, TakeDoseRequest.builder().scheduleId(scheduleId).build());
+
+        // Assert: two statements per dose, the data version bump being part of the decrement
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), eq(userId), eq(medicine.getId()), eq(userId), eq(profileId), eq(scheduleId), eq(scheduleId));
+        assertTrue(sql.getValue().startsWith("WITH bumped AS (UPDATE users SET data_version = data_version + 1"));
+        assertTrue(sql.getValue().contains("sync_version = bumped.data_version"));
+        verify(medicineRepository).findById(medicine.getId());
+        verifyNoMoreInteractions(jdbcTemplate, medicineRepository);
+        verifyNoInteractions(userDataVersionService, scheduleRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void takeDose_shouldRejectEmptyMedicine() {
+        // Arrange: the decrement matches no row although the medicine is the user's
+        UUID profileId = UUID.randomUUID();
+        Medicine medicine = Medicine.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .profileId(profileId)
+                .quantity(0)
+                .status(Medicine.MedicineStatus.ACTIVE)
+                .build();
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(userId), eq(medicine.getId()), eq(userId), eq(profileId), isNull(), isNull()))
+                .thenReturn(List.of());
+        when(medicineRepository.findByIdAndUserIdAndProfileIdAndStatus(medicine.getId(), userId, profileId, Medicine.MedicineStatus.ACTIVE))
+                .thenReturn(Optional.of(medicine));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> medicineService.takeDose(medicine.getId(), userId, profileId, null));
+        assertEquals("Medicine quantity is already 0", exception.getMessage());
+        verifyNoInteractions(doseEventService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void takeDose_shouldRejectScheduleOfAnotherMedicine() {
+        // Arrange: the schedule belongs to the user but to a different medicine, so the decrement matches no row
+        UUID profileId = UUID.randomUUID();
+        UUID medicineId = UUID.randomUUID();
+        Schedule schedule = Schedule.builder().id(UUID.randomUUID()).userId(userId).medicineId(UUID.randomUUID()).build();
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(userId), eq(medicineId), eq(userId), eq(profileId), eq(schedule.getId()), eq(schedule.getId())))
+                .thenReturn(List.of());
+        when(scheduleRepository.findByIdAndUserId(schedule.getId(), userId)).thenReturn(Optional.of(schedule));
+        TakeDoseRequest request = TakeDoseRequest.builder().scheduleId(schedule.getId()).build();
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> medicineService.takeDose(medicineId, userId, profileId, request));
+        assertEquals("Schedule not found or does not belong to this medicine", exception.getMessage());
+        verify(medicineRepository, never()).findById(any());
+        verifyNoInteractions(doseEventService);
+    }
+
+    @Test
+    void deleteMedicine_shouldTombstoneItsSchedulesUnderTheMedicineVersion() {
+        // Arrange
+        UUID profileId = UUID.randomUUID();
+        Medicine medicine = Medicine.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .profileId(profileId)
+                .status(Medicine.MedicineStatus.ACTIVE)
+                .build();
+        when(medicineRepository.findByIdAndUserIdAndProfileId(medicine.getId(), userId, profileId)).thenReturn(Optional.of(medicine));
+        when(userDataVersionService.bump(userId)).thenReturn(7L);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<SyncTombstone> tombstone = ArgumentCaptor.forClass(SyncTombstone.class);
+
+        // Act
+        medicineService.deleteMedicine(medicine.getId(), userId, profileId);
+
+        // Assert: the schedules leave SCHEDULE tombstones, which delta sync returns as deletedScheduleIds
+        InOrder inOrder = inOrder(userSummaryService, jdbcTemplate, medicineRepository);
+        inOrder.verify(userSummaryService).applyMedicineChange(userId, medicine, null);
+        inOrder.verify(jdbcTemplate).update(sql.capture(), eq(medicine.getId()), eq(userId), eq(userId), eq(7L), any(Timestamp.class));
+        inOrder.verify(medicineRepository).delete(medicine);
+        assertTrue(sql.getValue().contains("DELETE FROM schedules WHERE medicine_id = ? AND user_id = ? RETURNING id"));
+        assertTrue(sql.getValue().contains("'SCHEDULE'"));
+        verify(syncTombstoneRepository).save(tombstone.capture());
+        assertEquals(SyncTombstone.EntityType.MEDICINE, tombstone.getValue().getEntityType());
+        assertEquals(7L, tombstone.getValue().getSyncVersion());
+        verify(scheduleTimesCache).invalidate(userId);
+        verify(agendaCache).invalidate(userId);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAllMedicinesForProfile_shouldOnlyCheckProfileWhenNoMedicinesAreFound() {
+        // Arrange
+        UUID profileId = UUID.randomUUID();
+        when(medicineListCache.getForProfile(eq(userId), eq(profileId), any(Supplier.class)))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        when(medicineRepository.findByUserIdAndProfileIdAndStatus(userId, profileId, Medicine.MedicineStatus.ACTIVE))
+                .thenReturn(List.of());
+        when(profileDirectory.contains(userId, profileId)).thenReturn(false);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> medicineService.getAllMedicinesForProfile(userId, profileId));
+        assertEquals("Profile does not exist or does not belong to user", exception.getMessage());
+    }
+}
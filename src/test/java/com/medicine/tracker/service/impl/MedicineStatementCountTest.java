@@ -0,0 +1,181 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.cache.CacheInvalidationBus;
+import com.medicine.tracker.cache.MedicineListCache;
+import com.medicine.tracker.cache.ProfileDirectory;
+import com.medicine.tracker.cache.ScheduleTimesCache;
+import com.medicine.tracker.config.PrimaryReads;
+import com.medicine.tracker.model.dto.request.BatchOperation;
+import com.medicine.tracker.model.dto.request.MedicineRequest;
+import com.medicine.tracker.model.dto.response.MedicineResponse;
+import com.medicine.tracker.model.dto.response.MedicineWithProfileResponse;
+import com.medicine.tracker.model.entity.Medicine;
+import com.medicine.tracker.model.entity.Profile;
+import com.medicine.tracker.model.entity.Schedule;
+import com.medicine.tracker.repository.MedicineRepository;
+import com.medicine.tracker.repository.MedicineRepositoryImpl;
+import com.medicine.tracker.repository.ProfileRepository;
+import com.medicine.tracker.repository.ScheduleRepository;
+import com.medicine.tracker.repository.SyncTombstoneRepository;
+import com.medicine.tracker.service.DoseEventService;
+import com.medicine.tracker.service.MedicineService;
+import com.medicine.tracker.service.MergePatchService;
+import com.medicine.tracker.service.RefillForecastService;
+import com.medicine.tracker.service.UserDataVersionService;
+import com.medicine.tracker.service.UserSummaryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Counts the statements medicine reads and writes send to an in-memory database, so N+1 loading shows up as a
+ * statement count that grows with the number of medicines, and an extra round trip on a write as a count above its budget
+ */
+class MedicineStatementCountTest {
+
+    private InMemoryJpa database;
+    private MedicineService medicineService;
+
+    @BeforeEach
+    void setUp() {
+        database = new InMemoryJpa(Medicine.class, Profile.class, Schedule.class);
+        MedicineRepositoryImpl pages = new MedicineRepositoryImpl();
+        ReflectionTestUtils.setField(pages, "entityManager", database.entityManager());
+        PrimaryReads primaryReads = new PrimaryReads(database.transactionManager());
+
+        MedicineListCache medicineListCache = new MedicineListCache(new SimpleMeterRegistry(), primaryReads,
+                mock(CacheInvalidationBus.class));
+        ReflectionTestUtils.setField(medicineListCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(medicineListCache, "ttlMinutes", 10L);
+        medicineListCache.init();
+        ProfileDirectory profileDirectory = new ProfileDirectory(database.repository(ProfileRepository.class), primaryReads,
+                new SimpleMeterRegistry(), mock(CacheInvalidationBus.class));
+        ReflectionTestUtils.setField(profileDirectory, "maximumSize", 100L);
+        ReflectionTestUtils.setField(profileDirectory, "ttlMinutes", 10L);
+        profileDirectory.init();
+
+        // Stands in for the data version UPDATE, which is PostgreSQL-specific, as the one statement it is
+        UserDataVersionService userDataVersionService = mock(UserDataVersionService.class);
+        when(userDataVersionService.bump(any())).thenAnswer(invocation ->
+                database.jdbcTemplate().queryForObject("SELECT CAST(1 AS BIGINT)", Long.class));
+
+        medicineService = database.transactional(new MedicineServiceImpl(database.repository(MedicineRepository.class, pages),
+                mock(ScheduleRepository.class), profileDirectory, mock(DoseEventService.class),
+                mock(RefillForecastService.class), medicineListCache, mock(AgendaCache.class), mock(ScheduleTimesCache.class),
+                userDataVersionService, mock(SyncTombstoneRepository.class), mock(MergePatchService.class),
+                mock(UserSummaryService.class), database.jdbcTemplate()), MedicineService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void getAllMedicinesWithProfileInfo_shouldSendTheSameStatementsForOneAndForManyMedicines() {
+        // Arrange: one user with a single medicine, another with 200 spread over 4 profiles
+        UUID fewUserId = insertUser(1, 1);
+        UUID manyUserId = insertUser(200, 4);
+
+        // Act
+        database.reset();
+        List<MedicineWithProfileResponse> few = medicineService.getAllMedicinesWithProfileInfo(fewUserId);
+        int fewStatements = database.statements();
+        database.reset();
+        List<MedicineWithProfileResponse> many = medicineService.getAllMedicinesWithProfileInfo(manyUserId);
+        int manyStatements = database.statements();
+
+        // Assert: one query for the medicines and one for the profile names, however many medicines there are
+        assertEquals(1, few.size());
+        assertEquals(200, many.size());
+        assertTrue(many.stream().allMatch(medicine -> medicine.getProfileName().startsWith("Profile ")));
+        assertEquals(2, fewStatements);
+        assertEquals(fewStatements, manyStatements);
+    }
+
+    @Test
+    void updateMedicine_shouldSendTheReadTheVersionBumpAndTheUpdate() {
+        // Arrange
+        UUID userId = insertUser(1, 1);
+        Medicine medicine = database.entityManager().createQuery("SELECT m FROM Medicine m WHERE m.userId = :userId", Medicine.class)
+                .setParameter("userId", userId)
+                .getSingleResult();
+        MedicineRequest request = MedicineRequest.builder()
+                .name("Renamed")
+                .quantity(medicine.getQuantity())
+                .expiryDate(medicine.getExpiryDate())
+                .build();
+
+        // Act
+        database.reset();
+        medicineService.updateMedicine(medicine.getId(), userId, medicine.getProfileId(), request, medicine.getVersion());
+
+        // Assert: the medicine SELECT, the data version UPDATE and the medicine UPDATE; the summary
+        // and the dose event log are only written when the counters or the quantity change
+        assertEquals(3, database.statements());
+    }
+
+    @Test
+    void takeDoses_shouldSendOneBatchForAllDoses() {
+        // Arrange: two doses of one medicine and one of a medicine that has run out
+        UUID userId = insertUser(2, 1);
+        List<Medicine> medicines = database.entityManager()
+                .createQuery("SELECT m FROM Medicine m WHERE m.userId = :userId ORDER BY m.name", Medicine.class)
+                .setParameter("userId", userId)
+                .getResultList();
+        database.jdbcTemplate().update("UPDATE user_medicines SET quantity = 0 WHERE id = ?", medicines.get(1).getId());
+        List<BatchOperation> doses = List.of(takeDose(medicines.get(0)), takeDose(medicines.get(0)), takeDose(medicines.get(1)));
+
+        // Act
+        database.reset();
+        List<MedicineResponse> taken = medicineService.takeDoses(userId, doses);
+
+        // Assert: the data version UPDATE, the locking SELECT, the batch and the read-back, however many doses there are
+        assertEquals(4, database.statements());
+        assertEquals(1, database.checkouts());
+        assertEquals(8, taken.get(0).getQuantity());
+        assertEquals(8, taken.get(1).getQuantity());
+        assertNull(taken.get(2));
+        assertEquals(0, database.jdbcTemplate().queryForObject("SELECT quantity FROM user_medicines WHERE id = ?",
+                Integer.class, medicines.get(1).getId()));
+    }
+
+    private BatchOperation takeDose(Medicine medicine) {
+        return BatchOperation.builder()
+                .type(BatchOperation.Type.TAKE_DOSE)
+                .medicineId(medicine.getId())
+                .profileId(medicine.getProfileId())
+                .build();
+    }
+
+    private UUID insertUser(int medicines, int profiles) {
+        UUID userId = UUID.randomUUID();
+        new TransactionTemplate(database.transactionManager()).executeWithoutResult(status -> {
+            List<Profile> created = IntStream.range(0, profiles)
+                    .mapToObj(i -> Profile.builder().userId(userId).name("Profile " + i).build())
+                    .peek(profile -> database.entityManager().persist(profile))
+                    .toList();
+            IntStream.range(0, medicines).forEach(i -> database.entityManager().persist(Medicine.builder()
+                    .userId(userId)
+                    .profileId(created.get(i % profiles).getId())
+                    .name("Medicine " + i)
+                    .quantity(10)
+                    .expiryDate(LocalDate.now().plusYears(1))
+                    .build()));
+        });
+        return userId;
+    }
+}
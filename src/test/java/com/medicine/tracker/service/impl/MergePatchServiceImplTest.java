@@ -0,0 +1,82 @@
+package com.medicine.tracker.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.medicine.tracker.model.dto.request.ScheduleRequest;
+import com.medicine.tracker.model.entity.Schedule;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MergePatchServiceImplTest {
+
+    private ObjectMapper objectMapper;
+    private MergePatchServiceImpl mergePatchService;
+    private ScheduleRequest current;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        mergePatchService = new MergePatchServiceImpl(objectMapper, Validation.buildDefaultValidatorFactory().getValidator());
+        current = ScheduleRequest.builder()
+                .timeOfDay(LocalTime.of(8, 0))
+                .frequency(Schedule.Frequency.DAILY)
+                .isActive(true)
+                .build();
+    }
+
+    @Test
+    void apply_shouldOnlyChangePatchedFields() throws Exception {
+        // Arrange
+        JsonNode patch = objectMapper.readTree("{\"isActive\": false}");
+
+        // Act
+        ScheduleRequest result = mergePatchService.apply(current, patch, ScheduleRequest.class);
+
+        // Assert
+        assertEquals(LocalTime.of(8, 0), result.getTimeOfDay());
+        assertEquals(Schedule.Frequency.DAILY, result.getFrequency());
+        assertFalse(result.getIsActive());
+        assertTrue(current.getIsActive());
+    }
+
+    @Test
+    void apply_shouldRemoveFieldsSetToNull() throws Exception {
+        // Arrange
+        JsonNode patch = objectMapper.readTree("{\"frequency\": null}");
+
+        // Act
+        ScheduleRequest result = mergePatchService.apply(current, patch, ScheduleRequest.class);
+
+        // Assert
+        assertNull(result.getFrequency());
+        assertEquals(LocalTime.of(8, 0), result.getTimeOfDay());
+    }
+
+    @Test
+    void apply_shouldRejectPatchThatViolatesConstraints() throws Exception {
+        // Arrange
+        JsonNode patch = objectMapper.readTree("{\"timeOfDay\": null}");
+
+        // Act & Assert
+        assertThrows(ConstraintViolationException.class,
+            () -> mergePatchService.apply(current, patch, ScheduleRequest.class));
+    }
+
+    @Test
+    void apply_shouldRejectNonObjectPatch() throws Exception {
+        // Arrange
+        JsonNode patch = objectMapper.readTree("[1, 2]");
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> mergePatchService.apply(current, patch, ScheduleRequest.class));
+        assertEquals("Merge patch must be a JSON object", exception.getMessage());
+    }
+}
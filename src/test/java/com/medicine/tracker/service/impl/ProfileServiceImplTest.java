@@ -1,14 +1,25 @@
 package com.medicine.tracker.service.impl;
 
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.cache.ScheduleTimesCache;
+import com.medicine.tracker.cache.MedicineListCache;
+import com.medicine.tracker.cache.ProfileDirectory;
+import com.medicine.tracker.exception.PreconditionFailedException;
 import com.medicine.tracker.model.dto.request.ProfileRequest;
 import com.medicine.tracker.model.entity.Profile;
+import com.medicine.tracker.model.entity.SyncTombstone;
 import com.medicine.tracker.repository.ProfileRepository;
+import com.medicine.tracker.repository.SyncTombstoneRepository;
+import com.medicine.tracker.service.ImageUploadService;
+import com.medicine.tracker.service.UserDataVersionService;
+import com.medicine.tracker.service.UserSummaryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.Arrays;
 import java.util.List;
@@ -17,6 +28,8 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +38,33 @@ class ProfileServiceImplTest {
     @Mock
     private ProfileRepository profileRepository;
 
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    @Mock
+    private ProfileDirectory profileDirectory;
+
+    @Mock
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    @Mock
+    private MedicineListCache medicineListCache;
+
+    @Mock
+    private ImageUploadService imageUploadService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private UserSummaryService userSummaryService;
+
+    @Mock
+    private AgendaCache agendaCache;
+
+    @Mock
+    private ScheduleTimesCache scheduleTimesCache;
+
     @InjectMocks
     private ProfileServiceImpl profileService;
 
@@ -54,6 +94,8 @@ class ProfileServiceImplTest {
         assertEquals(profileRequest.getName(), result.getName());
         verify(profileRepository).existsByUserIdAndName(userId, profileRequest.getName());
         verify(profileRepository).save(any(Profile.class));
+        verify(userDataVersionService).bump(userId);
+        verify(profileDirectory).invalidate(userId);
     }
 
     @Test
@@ -82,7 +124,7 @@ class ProfileServiceImplTest {
         when(profileRepository.save(any(Profile.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
-        var result = profileService.updateProfile(profileId, userId, profileRequest);
+        var result = profileService.updateProfile(profileId, userId, profileRequest, null);
 
         // Assert
         assertNotNull(result);
@@ -104,9 +146,55 @@ class ProfileServiceImplTest {
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
-            () -> profileService.updateProfile(profileId, userId, profileRequest));
+            () -> profileService.updateProfile(profileId, userId, profileRequest, null));
         assertEquals("A profile with this name already exists for this user", exception.getMessage());
         verify(profileRepository).existsByUserIdAndNameAndIdNot(userId, profileRequest.getName(), profileId);
         verify(profileRepository, never()).save(any(Profile.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateProfile_shouldFailWhenVersionIsStale() {
+        // Arrange
+        Profile existingProfile = new Profile();
+        existingProfile.setId(profileId);
+        existingProfile.setUserId(userId);
+        existingProfile.setName("Old Name");
+        existingProfile.setVersion(4L);
+        
+        when(profileRepository.findById(profileId)).thenReturn(Optional.of(existingProfile));
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class,
+            () -> profileService.updateProfile(profileId, userId, profileRequest, 3L));
+        verify(profileRepository, never()).save(any(Profile.class));
+        verifyNoInteractions(userDataVersionService);
+    }
+
+    @Test
+    void deleteProfile_shouldDeleteChildrenWithConstantNumberOfStatements() {
+        // Arrange
+        Profile existingProfile = new Profile();
+        existingProfile.setId(profileId);
+        existingProfile.setUserId(userId);
+        existingProfile.setName("Old Name");
+        
+        when(profileRepository.findById(profileId)).thenReturn(Optional.of(existingProfile));
+        when(userDataVersionService.bump(userId)).thenReturn(7L);
+        when(jdbcTemplate.update(anyString(), any(), any(), any(), any(), any())).thenReturn(40);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(), any(), any(), any(), any()))
+                .thenReturn(Arrays.asList("https://img/1.jpg", null, "https://img/2.jpg"));
+
+        // Act
+        profileService.deleteProfile(profileId, userId);
+
+        // Assert
+        verify(jdbcTemplate, times(1)).update(anyString(), any(), any(), any(), any(), any());
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(String.class), any(), any(), any(), any(), any());
+        verify(userDataVersionService, times(1)).bump(userId);
+        verify(syncTombstoneRepository).save(argThat((SyncTombstone t) -> t.getSyncVersion() == 7L));
+        verify(profileRepository).delete(existingProfile);
+        verify(imageUploadService).deleteImagesAsync(List.of("https://img/1.jpg", "https://img/2.jpg"));
+        verify(profileDirectory).invalidate(userId);
+        verify(medicineListCache).invalidate(userId, profileId);
+    }
+}
@@ -0,0 +1,100 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.cache.MedicineListCache;
+import com.medicine.tracker.model.entity.Medicine;
+import com.medicine.tracker.model.entity.Schedule;
+import com.medicine.tracker.repository.MedicineRepository;
+import com.medicine.tracker.service.UserSummaryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefillForecastServiceImplTest {
+
+    @Mock
+    private MedicineRepository medicineRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private MedicineListCache medicineListCache;
+
+    @Mock
+    private UserSummaryService userSummaryService;
+
+    @InjectMocks
+    private RefillForecastServiceImpl refillForecastService;
+
+    @Test
+    void applyQuantityChange_shouldProjectRunOutDateFromConsumption() {
+        // Arrange
+        Medicine medicine = Medicine.builder()
+                .quantity(10)
+                .dailyConsumption(2.0)
+                .build();
+
+        // Act
+        refillForecastService.applyQuantityChange(medicine);
+
+        // Assert
+        assertEquals(LocalDate.now().plusDays(5), medicine.getRunsOutOn());
+    }
+
+    @Test
+    void applyQuantityChange_shouldClearProjectionWithoutConsumption() {
+        // Arrange
+        Medicine medicine = Medicine.builder()
+                .quantity(10)
+                .dailyConsumption(0.0)
+                .runsOutOn(LocalDate.now())
+                .build();
+
+        // Act
+        refillForecastService.applyQuantityChange(medicine);
+
+        // Assert
+        assertNull(medicine.getRunsOutOn());
+    }
+
+    @Test
+    void applyScheduleChange_shouldAdjustByFrequencyDifference() {
+        // Arrange
+        UUID medicineId = UUID.randomUUID();
+        Schedule previous = Schedule.builder().medicineId(medicineId).frequency(Schedule.Frequency.DAILY).isActive(true).build();
+        Schedule current = Schedule.builder().medicineId(medicineId).frequency(Schedule.Frequency.WEEKLY).isActive(true).build();
+        double delta = 1.0 / 7 - 1.0;
+
+        // Act
+        refillForecastService.applyScheduleChange(previous, current);
+
+        // Assert
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(delta), eq(delta), eq(delta), eq(medicineId));
+    }
+
+    @Test
+    void applyScheduleChange_shouldSkipUpdateWhenConsumptionIsUnchanged() {
+        // Arrange
+        Schedule previous = Schedule.builder().medicineId(UUID.randomUUID()).frequency(Schedule.Frequency.DAILY).isActive(true).build();
+        Schedule current = Schedule.builder().medicineId(previous.getMedicineId()).frequency(Schedule.Frequency.DAILY).isActive(true).build();
+
+        // Act
+        refillForecastService.applyScheduleChange(previous, current);
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
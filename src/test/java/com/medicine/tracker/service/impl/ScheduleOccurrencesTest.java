@@ -0,0 +1,70 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.model.entity.Schedule;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleOccurrencesTest {
+
+    @Test
+    void dueOnDaySql_shouldAgreeWithFrequencyNextDueDay() {
+        // Arrange: every frequency, created late in the day on month ends, a leap day and a Monday
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:due-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE schedules (id UUID PRIMARY KEY, is_active BOOLEAN, created_at TIMESTAMP, frequency VARCHAR(20))");
+        List<Schedule> schedules = new ArrayList<>();
+        for (LocalDate firstDay : List.of(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 4))) {
+            List<Schedule.Frequency> frequencies = new ArrayList<>(List.of(Schedule.Frequency.values()));
+            frequencies.add(null);
+            for (Schedule.Frequency frequency : frequencies) {
+                schedules.add(schedule(firstDay, frequency, true));
+            }
+            schedules.add(schedule(firstDay, Schedule.Frequency.DAILY, false));
+        }
+        for (Schedule schedule : schedules) {
+            jdbcTemplate.update("INSERT INTO schedules (id, is_active, created_at, frequency) VALUES (?, ?, ?, ?)",
+                    schedule.getId(), schedule.getIsActive(), Timestamp.valueOf(schedule.getCreatedAt()),
+                    schedule.getFrequency() != null ? schedule.getFrequency().name() : null);
+        }
+        NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+
+        // Act & Assert: both rules pick the same schedules on every day of the matrix
+        for (LocalDate day = LocalDate.of(2024, 1, 20); !day.isAfter(LocalDate.of(2024, 7, 31)); day = day.plusDays(1)) {
+            Set<UUID> dueInSql = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                    "SELECT s.id FROM schedules s WHERE " + ScheduleOccurrences.DUE_ON_DAY_SQL,
+                    new MapSqlParameterSource("day", Date.valueOf(day)), UUID.class));
+            LocalDate today = day;
+            Set<UUID> dueInJava = schedules.stream()
+                    .filter(schedule -> today.equals(ScheduleOccurrences.nextDueDay(schedule, today)))
+                    .map(Schedule::getId)
+                    .collect(Collectors.toSet());
+            assertEquals(dueInJava, dueInSql, "Schedules due on " + day);
+        }
+    }
+
+    private Schedule schedule(LocalDate firstDay, Schedule.Frequency frequency, boolean active) {
+        return Schedule.builder()
+                .id(UUID.randomUUID())
+                .isActive(active)
+                .frequency(frequency)
+                .createdAt(firstDay.atTime(22, 30))
+                .build();
+    }
+}
@@ -0,0 +1,239 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.cache.ScheduleTimesCache;
+import com.medicine.tracker.model.dto.request.BulkScheduleRequest;
+import com.medicine.tracker.model.dto.request.ScheduleRequest;
+import com.medicine.tracker.model.dto.response.ScheduleResponse;
+import com.medicine.tracker.model.entity.Medicine;
+import com.medicine.tracker.model.entity.Schedule;
+import com.medicine.tracker.repository.MedicineRepository;
+import com.medicine.tracker.repository.ScheduleRepository;
+import com.medicine.tracker.repository.SyncTombstoneRepository;
+import com.medicine.tracker.service.MergePatchService;
+import com.medicine.tracker.service.RefillForecastService;
+import com.medicine.tracker.service.UserDataVersionService;
+import com.medicine.tracker.service.UserSummaryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleServiceImplTest {
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    @Mock
+    private MedicineRepository medicineRepository;
+
+    @Mock
+    private RefillForecastService refillForecastService;
+
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    @Mock
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    @Mock
+    private MergePatchService mergePatchService;
+
+    @Mock
+    private UserSummaryService userSummaryService;
+
+    @Mock
+    private AgendaCache agendaCache;
+
+    @Mock
+    private ScheduleTimesCache scheduleTimesCache;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ScheduleServiceImpl scheduleService;
+
+    private UUID userId;
+    private Medicine medicine;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        medicine = Medicine.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .profileId(UUID.randomUUID())
+                .build();
+    }
+
+    @Test
+    void createSchedules_shouldInsertAllTimesInOneBatchAndSkipConflicts() {
+        // Arrange: the index already holds an active 14:00 schedule
+        when(medicineRepository.findByIdAndUserId(medicine.getId(), userId)).thenReturn(Optional.of(medicine));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), eq(3), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1, 0, 1}});
+        BulkScheduleRequest request = BulkScheduleRequest.builder()
+                .timesOfDay(List.of(LocalTime.of(8, 0), LocalTime.of(14, 0), LocalTime.of(20, 0), LocalTime.of(8, 0)))
+                .build();
+
+        // Act
+        List<ScheduleResponse> created = scheduleService.createSchedules(userId, medicine.getId(), request);
+
+        // Assert
+        assertEquals(List.of(LocalTime.of(8, 0), LocalTime.of(20, 0)),
+                created.stream().map(ScheduleResponse::getTimeOfDay).toList());
+        assertTrue(created.stream().allMatch(schedule -> schedule.getFrequency() == Schedule.Frequency.DAILY));
+        assertTrue(created.stream().allMatch(ScheduleResponse::getIsActive));
+        verify(userDataVersionService, times(1)).bump(userId);
+        verify(refillForecastService, times(2)).applyScheduleChange(isNull(), any(Schedule.class));
+        verify(userSummaryService, times(2)).applyScheduleChange(isNull(), any(Schedule.class));
+        verify(agendaCache).invalidate(userId);
+        verify(scheduleTimesCache).invalidate(userId);
+    }
+
+    @Test
+    void createSchedule_shouldRejectDuplicateSkippedByIndex() {
+        // Arrange
+        when(medicineRepository.findByIdAndUserId(medicine.getId(), userId)).thenReturn(Optional.of(medicine));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{0}});
+        ScheduleRequest request = ScheduleRequest.builder().timeOfDay(LocalTime.of(8, 0)).build();
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> scheduleService.createSchedule(userId, medicine.getId(), request));
+        assertEquals("A schedule already exists for this medicine with the same time and frequency", exception.getMessage());
+        verifyNoInteractions(refillForecastService, userSummaryService, agendaCache);
+    }
+
+    @Test
+    void updateSchedule_shouldTranslateUniqueIndexViolation() {
+        // Arrange
+        Schedule schedule = Schedule.builder()
+                .id(UUID.randomUUID())
+                .medicineId(medicine.getId())
+                .userId(userId)
+                .timeOfDay(LocalTime.of(8, 0))
+                .frequency(Schedule.Frequency.DAILY)
+                .isActive(true)
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(scheduleRepository.findByIdAndUserId(schedule.getId(), userId)).thenReturn(Optional.of(schedule));
+        when(scheduleRepository.save(schedule)).thenReturn(schedule);
+        doThrow(violation("uk_schedules_medicine_time_frequency_active")).when(scheduleRepository).flush();
+        ScheduleRequest request = ScheduleRequest.builder().timeOfDay(LocalTime.of(20, 0)).isActive(true).build();
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> scheduleService.updateSchedule(schedule.getId(), userId, request, null));
+        assertEquals("A schedule already exists for this medicine with the same time and frequency", exception.getMessage());
+        verifyNoInteractions(refillForecastService, userSummaryService);
+    }
+
+    @Test
+    void updateSchedule_shouldRethrowViolationOfAnotherConstraint() {
+        // Arrange
+        Schedule schedule = Schedule.builder()
+                .id(UUID.randomUUID())
+                .medicineId(medicine.getId())
+                .userId(userId)
+                .timeOfDay(LocalTime.of(8, 0))
+                .frequency(Schedule.Frequency.DAILY)
+                .isActive(true)
+                .createdAt(LocalDateTime.now())
+                .build();
+        DataIntegrityViolationException violation = violation("fk_schedules_medicine");
+        when(scheduleRepository.findByIdAndUserId(schedule.getId(), userId)).thenReturn(Optional.of(schedule));
+        when(scheduleRepository.save(schedule)).thenReturn(schedule);
+        doThrow(violation).when(scheduleRepository).flush();
+        ScheduleRequest request = ScheduleRequest.builder().timeOfDay(LocalTime.of(20, 0)).isActive(true).build();
+
+        // Act & Assert
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> scheduleService.updateSchedule(schedule.getId(), userId, request, null));
+        assertSame(violation, exception);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ensureUniqueActiveSchedules_shouldSkipWhenIndexExists() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("uk_schedules_medicine_time_frequency_active")))
+                .thenReturn(true);
+
+        // Act
+        scheduleService.ensureUniqueActiveSchedules();
+
+        // Assert
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ensureUniqueActiveSchedules_shouldVersionAndForecastDeactivatedDuplicates() {
+        // Arrange: two duplicates of one user are deactivated
+        Schedule first = duplicate();
+        Schedule second = duplicate();
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(false);
+        when(jdbcTemplate.query(contains("RETURNING"), any(RowMapper.class))).thenReturn(List.of(first, second));
+        when(userDataVersionService.bump(userId)).thenReturn(42L);
+
+        // Act
+        scheduleService.ensureUniqueActiveSchedules();
+
+        // Assert
+        verify(userDataVersionService, times(1)).bump(userId);
+        verify(jdbcTemplate).update("UPDATE schedules SET sync_version = ? WHERE id = ?", 42L, first.getId());
+        verify(jdbcTemplate).update("UPDATE schedules SET sync_version = ? WHERE id = ?", 42L, second.getId());
+        verify(refillForecastService).applyScheduleChange(eq(first),
+                argThat(schedule -> first.getId().equals(schedule.getId()) && !schedule.getIsActive()));
+        verify(userSummaryService).applyScheduleChange(eq(second),
+                argThat(schedule -> second.getId().equals(schedule.getId()) && !schedule.getIsActive()));
+        verify(agendaCache).invalidate(userId);
+        verify(scheduleTimesCache).invalidate(userId);
+        verify(jdbcTemplate).execute(contains("CREATE UNIQUE INDEX"));
+    }
+
+    private Schedule duplicate() {
+        return Schedule.builder()
+                .id(UUID.randomUUID())
+                .medicineId(medicine.getId())
+                .userId(userId)
+                .frequency(Schedule.Frequency.DAILY)
+                .isActive(true)
+                .createdAt(LocalDateTime.now().minusDays(1))
+                .build();
+    }
+
+    private DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key"), constraintName));
+    }
+}
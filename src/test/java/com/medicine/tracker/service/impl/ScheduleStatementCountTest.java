@@ -0,0 +1,84 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.cache.ScheduleTimesCache;
+import com.medicine.tracker.model.dto.request.ScheduleRequest;
+import com.medicine.tracker.model.entity.Medicine;
+import com.medicine.tracker.model.entity.Schedule;
+import com.medicine.tracker.repository.MedicineRepository;
+import com.medicine.tracker.repository.ScheduleRepository;
+import com.medicine.tracker.repository.SyncTombstoneRepository;
+import com.medicine.tracker.service.MergePatchService;
+import com.medicine.tracker.service.RefillForecastService;
+import com.medicine.tracker.service.ScheduleService;
+import com.medicine.tracker.service.UserDataVersionService;
+import com.medicine.tracker.service.UserSummaryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Counts the statements schedule writes send to an in-memory database, so an extra round trip on a write
+ * shows up as a count above its budget
+ */
+class ScheduleStatementCountTest {
+
+    private InMemoryJpa database;
+    private ScheduleService scheduleService;
+
+    @BeforeEach
+    void setUp() {
+        database = new InMemoryJpa(Schedule.class, Medicine.class);
+
+        // Stands in for the data version UPDATE, which is PostgreSQL-specific, as the one statement it is
+        UserDataVersionService userDataVersionService = mock(UserDataVersionService.class);
+        when(userDataVersionService.bump(any())).thenAnswer(invocation ->
+                database.jdbcTemplate().queryForObject("SELECT CAST(1 AS BIGINT)", Long.class));
+
+        scheduleService = database.transactional(new ScheduleServiceImpl(database.repository(ScheduleRepository.class),
+                mock(MedicineRepository.class), mock(RefillForecastService.class), userDataVersionService,
+                mock(SyncTombstoneRepository.class), mock(MergePatchService.class), mock(UserSummaryService.class),
+                mock(AgendaCache.class), mock(ScheduleTimesCache.class), database.jdbcTemplate()), ScheduleService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void updateSchedule_shouldSendTheReadTheVersionBumpAndTheUpdate() {
+        // Arrange
+        Schedule schedule = Schedule.builder()
+                .medicineId(UUID.randomUUID())
+                .profileId(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .timeOfDay(LocalTime.of(8, 0))
+                .frequency(Schedule.Frequency.DAILY)
+                .isActive(true)
+                .build();
+        new TransactionTemplate(database.transactionManager())
+                .executeWithoutResult(status -> database.entityManager().persist(schedule));
+        ScheduleRequest request = ScheduleRequest.builder()
+                .timeOfDay(LocalTime.of(9, 0))
+                .frequency(Schedule.Frequency.DAILY)
+                .isActive(true)
+                .build();
+
+        // Act
+        database.reset();
+        scheduleService.updateSchedule(schedule.getId(), schedule.getUserId(), request, schedule.getVersion());
+
+        // Assert: the schedule SELECT, the data version UPDATE and the schedule UPDATE; the medicine's
+        // consumption and the summary are only written when the schedule's doses per day change
+        assertEquals(3, database.statements());
+    }
+}
@@ -0,0 +1,129 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.model.dto.response.SyncResponse;
+import com.medicine.tracker.model.entity.SyncTombstone;
+import com.medicine.tracker.repository.SyncTombstoneRepository;
+import com.medicine.tracker.service.MedicineService;
+import com.medicine.tracker.service.ProfileService;
+import com.medicine.tracker.service.ScheduleService;
+import com.medicine.tracker.service.UserDataVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SyncServiceImplTest {
+
+    @Mock
+    private MedicineService medicineService;
+
+    @Mock
+    private ScheduleService scheduleService;
+
+    @Mock
+    private ProfileService profileService;
+
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    @Mock
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    @InjectMocks
+    private SyncServiceImpl syncService;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        ReflectionTestUtils.setField(syncService, "tombstoneRetentionDays", 30);
+    }
+
+    @Test
+    void getChangesSince_shouldReturnFullStateWithoutToken() {
+        // Arrange
+        when(userDataVersionService.current(userId)).thenReturn(7L);
+
+        // Act
+        SyncResponse response = syncService.getChangesSince(userId, null);
+
+        // Assert
+        assertTrue(response.isFullResync());
+        assertNotNull(response.getToken());
+        verify(medicineService).getAllMedicinesForUser(userId);
+        verify(medicineService, never()).getMedicinesChangedSince(eq(userId), anyLong());
+    }
+
+    @Test
+    void getChangesSince_shouldReturnOnlyChangesAndDeletionsAfterTokenVersion() {
+        // Arrange
+        UUID deletedMedicineId = UUID.randomUUID();
+        when(userDataVersionService.current(userId)).thenReturn(9L);
+        when(syncTombstoneRepository.findByUserIdAndSyncVersionGreaterThan(userId, 5L)).thenReturn(List.of(
+                SyncTombstone.builder().entityType(SyncTombstone.EntityType.MEDICINE).entityId(deletedMedicineId).syncVersion(8L).build()));
+
+        // Act
+        SyncResponse response = syncService.getChangesSince(userId, token(5, Instant.now()));
+
+        // Assert
+        assertFalse(response.isFullResync());
+        assertEquals(List.of(deletedMedicineId), response.getDeletedMedicineIds());
+        verify(medicineService).getMedicinesChangedSince(userId, 5L);
+        verify(scheduleService).getSchedulesChangedSince(userId, 5L);
+        verify(profileService).getProfilesChangedSince(userId, 5L);
+        verify(medicineService, never()).getAllMedicinesForUser(userId);
+    }
+
+    @Test
+    void getChangesSince_shouldReturnSchedulesDeletedWithTheirMedicine() {
+        // Arrange: deleting a medicine tombstones it and its schedules under one version
+        UUID deletedMedicineId = UUID.randomUUID();
+        UUID deletedScheduleId = UUID.randomUUID();
+        when(userDataVersionService.current(userId)).thenReturn(9L);
+        when(syncTombstoneRepository.findByUserIdAndSyncVersionGreaterThan(userId, 5L)).thenReturn(List.of(
+                SyncTombstone.builder().entityType(SyncTombstone.EntityType.SCHEDULE).entityId(deletedScheduleId).syncVersion(8L).build(),
+                SyncTombstone.builder().entityType(SyncTombstone.EntityType.MEDICINE).entityId(deletedMedicineId).syncVersion(8L).build()));
+
+        // Act
+        SyncResponse response = syncService.getChangesSince(userId, token(5, Instant.now()));
+
+        // Assert
+        assertEquals(List.of(deletedMedicineId), response.getDeletedMedicineIds());
+        assertEquals(List.of(deletedScheduleId), response.getDeletedScheduleIds());
+    }
+
+    @Test
+    void getChangesSince_shouldFallBackToFullSyncWhenTombstonesMayBePurged() {
+        // Arrange
+        when(userDataVersionService.current(userId)).thenReturn(9L);
+
+        // Act
+        SyncResponse response = syncService.getChangesSince(userId, token(5, Instant.now().minus(31, ChronoUnit.DAYS)));
+
+        // Assert
+        assertTrue(response.isFullResync());
+        verifyNoInteractions(syncTombstoneRepository);
+    }
+
+    private String token(long version, Instant issuedAt) {
+        String raw = version + "." + issuedAt.toEpochMilli();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
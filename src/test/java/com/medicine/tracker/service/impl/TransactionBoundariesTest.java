@@ -0,0 +1,207 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.cache.AgendaCache;
+import com.medicine.tracker.cache.CacheInvalidationBus;
+import com.medicine.tracker.cache.MedicineListCache;
+import com.medicine.tracker.cache.ProfileDirectory;
+import com.medicine.tracker.cache.ScheduleTimesCache;
+import com.medicine.tracker.config.PrimaryReads;
+import com.medicine.tracker.model.dto.request.MedicineRequest;
+import com.medicine.tracker.model.entity.Medicine;
+import com.medicine.tracker.repository.MedicineRepository;
+import com.medicine.tracker.repository.MedicineRepositoryImpl;
+import com.medicine.tracker.repository.ScheduleRepository;
+import com.medicine.tracker.repository.SyncTombstoneRepository;
+import com.medicine.tracker.service.DoseEventService;
+import com.medicine.tracker.service.MedicineService;
+import com.medicine.tracker.service.MergePatchService;
+import com.medicine.tracker.service.RefillForecastService;
+import com.medicine.tracker.service.UserDataVersionService;
+import com.medicine.tracker.service.UserSummaryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionBoundariesTest {
+
+    // Served from in-memory caches; a transaction would check out a connection even on a hit
+    private static final Set<String> CACHE_SERVED = Set.of(
+            "MedicineServiceImpl.getAllMedicinesForProfile",
+            "MedicineServiceImpl.getAllMedicinesForUser",
+            "MedicineServiceImpl.getAllMedicinesWithProfileInfo",
+            "ProfileServiceImpl.profileExistsForUser",
+            "ScheduleServiceImpl.getScheduleOverview"
+    );
+
+    private static final List<Class<?>> SERVICES = List.of(
+            AdherenceServiceImpl.class,
+            AgendaServiceImpl.class,
+            DashboardServiceImpl.class,
+            DoseEventServiceImpl.class,
+            GlobalMedicineServiceImpl.class,
+            MedicineServiceImpl.class,
+            NotificationServiceImpl.class,
+            ProfileServiceImpl.class,
+            RefillForecastServiceImpl.class,
+            ScheduleServiceImpl.class,
+            SyncServiceImpl.class,
+            TokenBlacklistServiceImpl.class,
+            UserSummaryServiceImpl.class,
+            UserServiceImpl.class
+    );
+
+    private InMemoryJpa database;
+    private MedicineService medicineService;
+
+    private UUID userId;
+    private UUID profileId;
+
+    @BeforeEach
+    void setUp() {
+        database = new InMemoryJpa(Medicine.class);
+        MedicineRepositoryImpl pages = new MedicineRepositoryImpl();
+        ReflectionTestUtils.setField(pages, "entityManager", database.entityManager());
+        MedicineRepository medicineRepository = database.repository(MedicineRepository.class, pages);
+
+        MedicineListCache medicineListCache = new MedicineListCache(new SimpleMeterRegistry(),
+                new PrimaryReads(database.transactionManager()), mock(CacheInvalidationBus.class));
+        ReflectionTestUtils.setField(medicineListCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(medicineListCache, "ttlMinutes", 10L);
+        medicineListCache.init();
+
+        userId = UUID.randomUUID();
+        profileId = UUID.randomUUID();
+        ProfileDirectory profileDirectory = mock(ProfileDirectory.class);
+        when(profileDirectory.contains(userId, profileId)).thenReturn(true);
+        // Stands in for the data version UPDATE, which is PostgreSQL-specific, as a JDBC statement in the same transaction
+        UserDataVersionService userDataVersionService = mock(UserDataVersionService.class);
+        when(userDataVersionService.bump(userId)).thenAnswer(invocation ->
+                database.jdbcTemplate().queryForObject("SELECT CAST(1 AS BIGINT)", Long.class));
+
+        medicineService = database.transactional(new MedicineServiceImpl(medicineRepository, mock(ScheduleRepository.class),
+                profileDirectory, mock(DoseEventService.class), mock(RefillForecastService.class), medicineListCache,
+                mock(AgendaCache.class), mock(ScheduleTimesCache.class), userDataVersionService,
+                mock(SyncTombstoneRepository.class), mock(MergePatchService.class), mock(UserSummaryService.class),
+                database.jdbcTemplate()), MedicineService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void readMethod_shouldCheckOutOneConnection() {
+        // Arrange
+        Medicine medicine = insertMedicine();
+        database.reset();
+
+        // Act
+        medicineService.getMedicineById(medicine.getId(), userId);
+
+        // Assert
+        assertEquals(1, database.checkouts());
+    }
+
+    @Test
+    void writeMethod_shouldCheckOutOneConnectionForJpaAndJdbcStatements() {
+        // Arrange
+        MedicineRequest request = MedicineRequest.builder()
+                .name("Aspirin")
+                .quantity(10)
+                .expiryDate(LocalDate.now().plusYears(1))
+                .build();
+
+        // Act
+        medicineService.createMedicine(userId, profileId, request);
+
+        // Assert: the INSERT and the data version statement share the transaction's connection
+        assertEquals(2, database.statements());
+        assertEquals(1, database.checkouts());
+    }
+
+    @Test
+    void cacheHit_shouldNotCheckOutAConnection() {
+        // Arrange: the first read loads the list into the cache
+        insertMedicine();
+        medicineService.getAllMedicinesForUser(userId);
+        database.reset();
+
+        // Act
+        List<?> medicines = medicineService.getAllMedicinesForUser(userId);
+
+        // Assert
+        assertEquals(1, medicines.size());
+        assertEquals(0, database.checkouts());
+    }
+
+    @Test
+    void readMethods_shouldRunInOneReadOnlyTransaction() {
+        // Arrange
+        List<String> missing = new ArrayList<>();
+
+        // Act
+        for (Class<?> service : SERVICES) {
+            for (Method method : service.getDeclaredMethods()) {
+                String name = service.getSimpleName() + "." + method.getName();
+                if (!Modifier.isPublic(method.getModifiers()) || !isRead(method.getName()) || CACHE_SERVED.contains(name)) {
+                    continue;
+                }
+                Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+                if (transactional == null || !transactional.readOnly()) {
+                    missing.add(name);
+                }
+            }
+        }
+
+        // Assert
+        assertTrue(missing.isEmpty(), "Read methods without @Transactional(readOnly = true): " + missing);
+    }
+
+    @Test
+    void openInView_shouldBeDisabled() throws Exception {
+        // Arrange
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/application.properties")) {
+            properties.load(in);
+        }
+
+        // Act & Assert: with open-in-view a request holds its connection through serialization
+        assertEquals("false", properties.getProperty("spring.jpa.open-in-view"));
+    }
+
+    private Medicine insertMedicine() {
+        Medicine medicine = Medicine.builder()
+                .userId(userId)
+                .profileId(profileId)
+                .name("Aspirin")
+                .quantity(10)
+                .expiryDate(LocalDate.now().plusYears(1))
+                .build();
+        new TransactionTemplate(database.transactionManager()).executeWithoutResult(status -> database.entityManager().persist(medicine));
+        return medicine;
+    }
+
+    private boolean isRead(String methodName) {
+        return methodName.startsWith("get") || methodName.startsWith("find") || methodName.startsWith("search")
+                || methodName.startsWith("is") || methodName.endsWith("ExistsForUser");
+    }
+}
@@ -0,0 +1,243 @@
+package com.medicine.tracker.service.impl;
+
+import com.medicine.tracker.model.entity.Medicine;
+import com.medicine.tracker.model.entity.Schedule;
+import com.medicine.tracker.repository.UserSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSummaryServiceImplTest {
+
+    @Mock
+    private UserSummaryRepository userSummaryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @InjectMocks
+    private UserSummaryServiceImpl userSummaryService;
+
+    private UUID userId;
+    private UUID medicineId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        medicineId = UUID.randomUUID();
+        ReflectionTestUtils.setField(userSummaryService, "lowStockDays", 5);
+    }
+
+    @Test
+    void applyMedicineChange_shouldAddOnlyTheChangedContributions() {
+        // Arrange: a dose brings the projected run-out date into the low-stock window
+        Medicine previous = medicine(LocalDate.now().plusYears(1), LocalDate.now().plusDays(30));
+        Medicine current = medicine(LocalDate.now().plusYears(1), LocalDate.now().plusDays(3));
+        Date today = Date.valueOf(LocalDate.now());
+
+        // Act
+        userSummaryService.applyMedicineChange(userId, previous, current);
+
+        // Assert
+        verify(jdbcTemplate).update(anyString(), eq(0), eq(today), eq(0), eq(today), eq(1), eq(userId));
+    }
+
+    @Test
+    void applyMedicineChange_shouldRemoveAllContributionsOfDeletedMedicine() {
+        // Arrange
+        Medicine previous = medicine(LocalDate.now(), LocalDate.now().plusDays(1));
+        Date today = Date.valueOf(LocalDate.now());
+
+        // Act
+        userSummaryService.applyMedicineChange(userId, previous, null);
+
+        // Assert
+        verify(jdbcTemplate).update(anyString(), eq(-1), eq(today), eq(-1), eq(today), eq(-1), eq(userId));
+    }
+
+    @Test
+    void applyMedicineChange_shouldSkipUpdateWhenNoCounterChanges() {
+        // Arrange
+        Medicine previous = medicine(LocalDate.now().plusYears(1), LocalDate.now().plusDays(60));
+        Medicine current = medicine(LocalDate.now().plusYears(1), LocalDate.now().plusDays(59));
+
+        // Act
+        userSummaryService.applyMedicineChange(userId, previous, current);
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void applyScheduleChange_shouldDecrementWhenScheduleDueTodayIsDeactivated() {
+        // Arrange: a weekly schedule created on this weekday a week ago is due today
+        Schedule previous = schedule(Schedule.Frequency.WEEKLY, 7, true);
+        Schedule current = schedule(Schedule.Frequency.WEEKLY, 7, false);
+
+        // Act
+        userSummaryService.applyScheduleChange(previous, current);
+
+        // Assert
+        verify(jdbcTemplate).update(anyString(), eq(-1), eq(userId), eq(Date.valueOf(LocalDate.now())), eq(medicineId));
+    }
+
+    @Test
+    void applyScheduleChange_shouldOnlyCountSchedulesOfActiveMedicines() {
+        // Arrange
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        // Act
+        userSummaryService.applyScheduleChange(null, schedule(Schedule.Frequency.DAILY, 1, true));
+
+        // Assert
+        verify(jdbcTemplate).update(sql.capture(), eq(1), eq(userId), eq(Date.valueOf(LocalDate.now())), eq(medicineId));
+        assertTrue(sql.getValue().contains("AND summary_day = ?"));
+        assertTrue(sql.getValue().contains("EXISTS (SELECT 1 FROM user_medicines m WHERE m.id = ? AND m.status = 'ACTIVE')"));
+    }
+
+    @Test
+    void applyMedicineChange_shouldOnlyMoveDayRelativeCountersOfASummaryOnToday() {
+        // Arrange
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        Medicine current = medicine(LocalDate.now(), LocalDate.now().plusDays(1));
+
+        // Act
+        userSummaryService.applyMedicineChange(userId, null, current);
+
+        // Assert
+        Date today = Date.valueOf(LocalDate.now());
+        verify(jdbcTemplate).update(sql.capture(), eq(1), eq(today), eq(1), eq(today), eq(1), eq(userId));
+        assertTrue(sql.getValue().contains("expiring_medicines = expiring_medicines + CASE WHEN summary_day = ? THEN ? ELSE 0 END"));
+        assertTrue(sql.getValue().contains("low_stock_medicines = low_stock_medicines + CASE WHEN summary_day = ? THEN ? ELSE 0 END"));
+    }
+
+    @Test
+    void applyMedicineChange_shouldTakeSchedulesDueTodayOfDeletedMedicineAlong() {
+        // Arrange
+        Medicine previous = medicine(LocalDate.now().plusYears(1), LocalDate.now().plusDays(60));
+        previous.setId(medicineId);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+
+        // Act
+        userSummaryService.applyMedicineChange(userId, previous, null);
+
+        // Assert
+        verify(namedParameterJdbcTemplate).update(sql.capture(), params.capture());
+        assertTrue(sql.getValue().contains("schedules_today = schedules_today + :sign * (SELECT COUNT(*) FROM schedules s"));
+        assertTrue(sql.getValue().contains("WHERE user_id = :userId AND summary_day = CAST(:day AS DATE)"));
+        assertEquals(-1, params.getValue().getValue("sign"));
+        assertEquals(medicineId, params.getValue().getValue("medicineId"));
+        assertEquals(Date.valueOf(LocalDate.now()), params.getValue().getValue("day"));
+    }
+
+    @Test
+    void applyMedicineChange_shouldLeaveSchedulesAloneWhenMedicineStaysActive() {
+        // Arrange
+        Medicine previous = medicine(LocalDate.now().plusYears(1), LocalDate.now().plusDays(30));
+        previous.setId(medicineId);
+        Medicine current = medicine(LocalDate.now().plusYears(1), LocalDate.now().plusDays(3));
+        current.setId(medicineId);
+
+        // Act
+        userSummaryService.applyMedicineChange(userId, previous, current);
+
+        // Assert
+        verifyNoInteractions(namedParameterJdbcTemplate);
+    }
+
+    @Test
+    void reconcile_shouldCountOnlySchedulesOfActiveMedicines() {
+        // Arrange
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        // Act
+        userSummaryService.reconcile();
+
+        // Assert
+        verify(namedParameterJdbcTemplate).update(sql.capture(), any(MapSqlParameterSource.class));
+        assertTrue(sql.getValue().contains(
+                "FROM schedules s JOIN user_medicines m ON m.id = s.medicine_id AND m.status = 'ACTIVE' WHERE s.is_active = true"));
+    }
+
+    @Test
+    void isDueOn_shouldFollowFrequencyCadence() {
+        // Assert
+        assertTrue(UserSummaryServiceImpl.isDueOn(schedule(Schedule.Frequency.DAILY, 3, true), LocalDate.now()));
+        assertTrue(UserSummaryServiceImpl.isDueOn(schedule(Schedule.Frequency.BIWEEKLY, 14, true), LocalDate.now()));
+        assertFalse(UserSummaryServiceImpl.isDueOn(schedule(Schedule.Frequency.BIWEEKLY, 7, true), LocalDate.now()));
+        assertFalse(UserSummaryServiceImpl.isDueOn(schedule(Schedule.Frequency.CUSTOM, 0, true), LocalDate.now()));
+    }
+
+    @Test
+    void isDueOn_shouldMatchWeekdayAndDayOfMonth() {
+        // Arrange: March 2024 has 31 days, so a schedule created on the 31st skips April
+        LocalDate monday = LocalDate.of(2024, 3, 4);
+        Schedule weekly = scheduleCreatedOn(Schedule.Frequency.WEEKLY, monday.minusWeeks(3), true);
+        Schedule monthly = scheduleCreatedOn(Schedule.Frequency.MONTHLY, LocalDate.of(2024, 1, 31), true);
+
+        // Act & Assert
+        assertTrue(UserSummaryServiceImpl.isDueOn(weekly, monday));
+        assertFalse(UserSummaryServiceImpl.isDueOn(weekly, monday.plusDays(1)));
+        assertTrue(UserSummaryServiceImpl.isDueOn(monthly, LocalDate.of(2024, 3, 31)));
+        assertFalse(UserSummaryServiceImpl.isDueOn(monthly, LocalDate.of(2024, 4, 30)));
+    }
+
+    @Test
+    void isDueOn_shouldRejectInactiveMissingAndFutureSchedules() {
+        // Arrange
+        LocalDate day = LocalDate.of(2024, 3, 4);
+
+        // Act & Assert
+        assertFalse(UserSummaryServiceImpl.isDueOn(null, day));
+        assertFalse(UserSummaryServiceImpl.isDueOn(scheduleCreatedOn(Schedule.Frequency.DAILY, day.minusDays(2), false), day));
+        assertFalse(UserSummaryServiceImpl.isDueOn(scheduleCreatedOn(Schedule.Frequency.DAILY, day.plusDays(1), true), day));
+        assertTrue(UserSummaryServiceImpl.isDueOn(scheduleCreatedOn(Schedule.Frequency.DAILY, day, true), day));
+    }
+
+    private Medicine medicine(LocalDate expiryDate, LocalDate runsOutOn) {
+        return Medicine.builder()
+                .status(Medicine.MedicineStatus.ACTIVE)
+                .expiryDate(expiryDate)
+                .runsOutOn(runsOutOn)
+                .build();
+    }
+
+    private Schedule schedule(Schedule.Frequency frequency, int createdDaysAgo, boolean active) {
+        return scheduleCreatedOn(frequency, LocalDate.now().minusDays(createdDaysAgo), active);
+    }
+
+    private Schedule scheduleCreatedOn(Schedule.Frequency frequency, LocalDate createdOn, boolean active) {
+        return Schedule.builder()
+                .userId(userId)
+                .medicineId(medicineId)
+                .timeOfDay(LocalTime.of(8, 0))
+                .frequency(frequency)
+                .isActive(active)
+                .createdAt(createdOn.atTime(9, 0))
+                .build();
+    }
+}